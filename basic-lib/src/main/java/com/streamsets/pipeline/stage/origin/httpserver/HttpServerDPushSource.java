@@ -33,7 +33,7 @@ import com.streamsets.pipeline.stage.origin.lib.DataParserFormatConfig;
 import static com.streamsets.pipeline.config.OriginAvroSchemaSource.SOURCE;
 
 @StageDef(
-    version = 15,
+    version = 16,
     label = "HTTP Server",
     description = "Listens for requests on an HTTP endpoint",
     icon="httpserver_multithreaded.png",
@@ -77,6 +77,51 @@ public class HttpServerDPushSource extends DPushSource {
   )
   public int maxRequestSizeMB;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Coalesce Requests",
+      description = "Merges the records of concurrent requests into a single batch. Each request is answered once " +
+          "the combined batch has been processed",
+      defaultValue = "false",
+      displayPosition = 40,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "HTTP"
+  )
+  public boolean coalesceRequests;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Coalesced Records",
+      description = "Maximum number of records merged into one batch. The batch is processed as soon as it is reached",
+      defaultValue = "1000",
+      displayPosition = 50,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "HTTP",
+      dependsOn = "coalesceRequests",
+      triggeredByValue = "true",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int coalesceMaxRecords;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Max Linger Time (ms)",
+      description = "Maximum time the first request of a batch waits for other requests to join it",
+      defaultValue = "5",
+      displayPosition = 60,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "HTTP",
+      dependsOn = "coalesceRequests",
+      triggeredByValue = "true",
+      min = 0,
+      max = Integer.MAX_VALUE
+  )
+  public int coalesceLingerMillis;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -97,7 +142,15 @@ public class HttpServerDPushSource extends DPushSource {
     if (dataFormat == DataFormat.AVRO) {
       dataFormatConfig.avroSchemaSource = SOURCE;
     }
-    return new HttpServerPushSource(httpConfigs, maxRequestSizeMB, dataFormat, dataFormatConfig);
+    return new HttpServerPushSource(
+        httpConfigs,
+        maxRequestSizeMB,
+        dataFormat,
+        dataFormatConfig,
+        coalesceRequests,
+        coalesceMaxRecords,
+        coalesceLingerMillis
+    );
   }
 
 }
@@ -39,7 +39,29 @@ public class HttpServerPushSource extends AbstractHttpServerPushSource<HttpRecei
       DataFormat dataFormat,
       DataParserFormatConfig dataFormatConfig
   ) {
-    super(httpConfigs, new PushHttpReceiver(httpConfigs, maxRequestSizeMB, dataFormatConfig));
+    this(httpConfigs, maxRequestSizeMB, dataFormat, dataFormatConfig, false, 0, 0);
+  }
+
+  public HttpServerPushSource(
+      HttpConfigs httpConfigs,
+      int maxRequestSizeMB,
+      DataFormat dataFormat,
+      DataParserFormatConfig dataFormatConfig,
+      boolean coalesceRequests,
+      int coalesceMaxRecords,
+      int coalesceLingerMillis
+  ) {
+    super(
+        httpConfigs,
+        new PushHttpReceiver(
+            httpConfigs,
+            maxRequestSizeMB,
+            dataFormatConfig,
+            coalesceRequests,
+            coalesceMaxRecords,
+            coalesceLingerMillis
+        )
+    );
     this.httpConfigs = httpConfigs;
     this.dataFormat = dataFormat;
     this.dataFormatConfig = dataFormatConfig;
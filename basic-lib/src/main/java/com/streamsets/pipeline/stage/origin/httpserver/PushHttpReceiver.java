@@ -56,18 +56,36 @@ public class PushHttpReceiver implements HttpReceiver {
   private final int maxRequestSizeMB;
   private int maxRequestSize;
   private final DataParserFormatConfig dataParserFormatConfig;
+  private final boolean coalesceRequests;
+  private final int coalesceMaxRecords;
+  private final int coalesceLingerMillis;
   private PushSource.Context context;
   private DataParserFactory parserFactory;
+  private RequestCoalescer coalescer;
   private AtomicLong counter = new AtomicLong();
 
   public PushHttpReceiver(
       HttpConfigs httpConfigs,
       int maxRequestSizeMB,
       DataParserFormatConfig dataParserFormatConfig
+  ) {
+    this(httpConfigs, maxRequestSizeMB, dataParserFormatConfig, false, 0, 0);
+  }
+
+  public PushHttpReceiver(
+      HttpConfigs httpConfigs,
+      int maxRequestSizeMB,
+      DataParserFormatConfig dataParserFormatConfig,
+      boolean coalesceRequests,
+      int coalesceMaxRecords,
+      int coalesceLingerMillis
   ) {
     this.httpConfigs = httpConfigs;
     this.maxRequestSizeMB = maxRequestSizeMB;
     this.dataParserFormatConfig = dataParserFormatConfig;
+    this.coalesceRequests = coalesceRequests;
+    this.coalesceMaxRecords = coalesceMaxRecords;
+    this.coalesceLingerMillis = coalesceLingerMillis;
   }
 
   public PushSource.Context getContext() {
@@ -85,6 +103,9 @@ public class PushHttpReceiver implements HttpReceiver {
     } else {
       maxRequestSize = maxRequestSizeMB * 1000 * 1000;
     }
+    if (coalesceRequests) {
+      coalescer = new RequestCoalescer(getContext(), coalesceMaxRecords, coalesceLingerMillis);
+    }
     return issues;
   }
 
@@ -136,6 +157,11 @@ public class PushHttpReceiver implements HttpReceiver {
     // Capping the size of the request based on configuration to avoid OOME
     is = createBoundInputStream(is);
 
+    if (coalescer != null) {
+      // Records of concurrent requests are merged into one batch, we return once that batch has been processed
+      return coalescer.submit(parseRequestPayload(req, is));
+    }
+
     // Create new batch (we create it up front for metrics gathering purposes
     BatchContext batchContext = getContext().startBatch();
 
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.httpserver;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges the records of concurrent HTTP requests into a single pipeline batch (group commit).
+ * <p/>
+ * The first request to arrive becomes the leader of a new group and waits up to the linger time, or until the group
+ * holds the maximum number of records, for other requests to join. The leader then runs the combined batch through
+ * the pipeline and every request in the group is answered with the outcome of that batch. Requests arriving while the
+ * leader is committing start a new group, so at most one group is open at any time.
+ */
+class RequestCoalescer {
+
+  private final PushSource.Context context;
+  private final int maxRecords;
+  private final long lingerNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition sealed = lock.newCondition();
+  private Group open;
+
+  private static class Group {
+    private final List<Record> records = new ArrayList<>();
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    private boolean sealed;
+  }
+
+  RequestCoalescer(PushSource.Context context, int maxRecords, long lingerMillis) {
+    this.context = context;
+    this.maxRecords = maxRecords;
+    this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+  }
+
+  /**
+   * Adds the records of one request to the open group and blocks until the batch containing them has been processed.
+   *
+   * @return the result of {@link PushSource.Context#processBatch(BatchContext)} for the combined batch.
+   */
+  boolean submit(List<Record> records) throws IOException {
+    Group group;
+    boolean leader = false;
+    lock.lock();
+    try {
+      if (open == null || open.sealed) {
+        open = new Group();
+        leader = true;
+      }
+      group = open;
+      group.records.addAll(records);
+      if (group.records.size() >= maxRecords) {
+        seal(group);
+      }
+      if (leader) {
+        long remaining = lingerNanos;
+        try {
+          while (!group.sealed && remaining > 0) {
+            remaining = sealed.awaitNanos(remaining);
+          }
+        } catch (InterruptedException ex) {
+          // the followers are waiting on this group, commit it anyway
+          Thread.currentThread().interrupt();
+        }
+        seal(group);
+      }
+    } finally {
+      lock.unlock();
+    }
+    return leader ? commit(group) : await(group);
+  }
+
+  private void seal(Group group) {
+    group.sealed = true;
+    if (open == group) {
+      open = null;
+    }
+    sealed.signalAll();
+  }
+
+  private boolean commit(Group group) {
+    try {
+      BatchContext batchContext = context.startBatch();
+      BatchMaker batchMaker = batchContext.getBatchMaker();
+      for (Record record : group.records) {
+        batchMaker.addRecord(record);
+      }
+      boolean result = context.processBatch(batchContext);
+      group.result.complete(result);
+      return result;
+    } catch (Throwable ex) {
+      // Errors too, otherwise the followers would wait on the group forever
+      group.result.completeExceptionally(ex);
+      throw ex;
+    }
+  }
+
+  private boolean await(Group group) throws IOException {
+    try {
+      return group.result.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException(ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      if (ex.getCause() instanceof Error) {
+        throw (Error) ex.getCause();
+      }
+      throw new IOException(ex.getCause());
+    }
+  }
+
+}
@@ -112,6 +112,19 @@ public class FileTailConfigBean {
   )
   public boolean allowLateDirectories = false;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Pooled Read Buffers",
+      description = "Reads all files through a shared pool of direct buffers and decodes lines in place. " +
+          "Reduces memory usage and garbage when tailing many files.",
+      displayPosition = 80,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "FILES",
+      defaultValue = "false"
+  )
+  public boolean pooledBuffers = false;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -29,6 +29,7 @@ import com.streamsets.pipeline.config.FileRollMode;
 import com.streamsets.pipeline.config.PostProcessingOptions;
 import com.streamsets.pipeline.lib.io.FileEvent;
 import com.streamsets.pipeline.lib.io.FileLine;
+import com.streamsets.pipeline.lib.io.LineDecoder;
 import com.streamsets.pipeline.lib.io.LiveFile;
 import com.streamsets.pipeline.lib.io.LiveFileChunk;
 import com.streamsets.pipeline.lib.io.MultiFileInfo;
@@ -87,6 +88,7 @@ public class FileTailSource extends BaseSource {
 
   private ErrorRecordHandler errorRecordHandler;
   private DataParserFactory parserFactory;
+  private LineDecoder lineDecoder;
   private String outputLane;
   private String metadataLane;
   private Map<String, Counter> offsetLagMetric;
@@ -290,17 +292,20 @@ public class FileTailSource extends BaseSource {
             maxLineLength = conf.dataFormatConfig.logMaxObjectLen;
           }
           int scanIntervalSecs = (getContext().isPreview()) ? 0 : this.scanIntervalSecs;
+          Charset charset = Charset.forName(conf.dataFormatConfig.charset);
           multiDirReader = new MultiFileReader(
               dirInfos,
-              Charset.forName(conf.dataFormatConfig.charset),
+              charset,
               maxLineLength,
               conf.postProcessing,
               conf.archiveDir,
               true,
               scanIntervalSecs,
               conf.allowLateDirectories,
-              getContext().isPreview()
+              getContext().isPreview(),
+              conf.pooledBuffers
           );
+          lineDecoder = (conf.pooledBuffers) ? new LineDecoder(charset) : null;
         } catch (IOException ex) {
           issues.add(
               getContext().createConfigIssue(
@@ -377,6 +382,14 @@ public class FileTailSource extends BaseSource {
     return (remaining > 0) ? remaining : 0;
   }
 
+  // with pooled buffers the line is decoded in place, the parser is closed before the next line is decoded
+  private DataParser getParser(String sourceId, FileLine line) throws DataParserException {
+    if (lineDecoder != null) {
+      return parserFactory.getParser(sourceId, lineDecoder.getReader(line));
+    }
+    return parserFactory.getParser(sourceId, line.getText());
+  }
+
   /*
     When we start with a file (empty or not) the file offset is zero.
     If the file is a rolled file, the file will be EOF immediately triggering a close of the reader and setting the
@@ -432,7 +445,7 @@ public class FileTailSource extends BaseSource {
         for (int i = 0; i < lines.size(); i++) {
           FileLine line = lines.get(i);
           String sourceId = liveFileStr + "::" + line.getFileOffset();
-          try (DataParser parser = parserFactory.getParser(sourceId, line.getText())) {
+          try (DataParser parser = getParser(sourceId, line)) {
             if(i == truncatedLine) {
               //set truncated
               parser.setTruncated();
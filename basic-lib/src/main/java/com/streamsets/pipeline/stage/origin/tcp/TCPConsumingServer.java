@@ -60,8 +60,9 @@ public class TCPConsumingServer extends BaseNettyServer {
   protected AbstractBootstrap bootstrap(boolean enableEpoll) {
     if (enableEpoll) {
       enableDirectBuffers();
-      // boss group simply opens channels and hands processing off to the child
-      EpollEventLoopGroup bossGroup = new EpollEventLoopGroup(NUM_BOSS_THREADS);
+      // boss group simply opens channels and hands processing off to the child; with epoll one listening socket is
+      // bound per thread with SO_REUSEPORT, give each of them its own accept loop so the kernel spreads connections
+      EpollEventLoopGroup bossGroup = new EpollEventLoopGroup(numThreads);
       EventLoopGroup workerGroup = new EpollEventLoopGroup(numThreads);
       groups.add(bossGroup);
       groups.add(workerGroup);
@@ -31,6 +31,7 @@ public enum Errors implements ErrorCode {
   UDP_07("Insufficient permissions to listen on privileged port {}"),
   UDP_08("Multithreaded UDP server is not available on your platform."),
   UDP_09("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
+  UDP_10("Per socket queues require native transports (epoll) to be enabled"),
   ;
 
   private final String msg;
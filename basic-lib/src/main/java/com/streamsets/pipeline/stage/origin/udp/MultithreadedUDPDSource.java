@@ -26,7 +26,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
 import com.streamsets.pipeline.api.impl.Utils;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "UDP Multithreaded Source",
     description = "Listens for UDP messages on one or more port(s) and queues incoming packets on an intermediate" +
         " queue, from which multiple worker threads can process them",
@@ -70,6 +70,20 @@ public class MultithreadedUDPDSource extends DPushSource {
   )
   public int numWorkerThreads;
 
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Per Socket Queues",
+      description = "Gives each receiver socket its own queue and worker thread instead of sharing a single queue. " +
+          "Requires native transports (epoll), the number of worker threads is then the number of receiver threads " +
+          "times the number of ports. Packet Queue Size applies to each socket.",
+      defaultValue = "false",
+      group = "UDP",
+      displayPosition = 220,
+      displayMode = ConfigDef.DisplayMode.ADVANCED
+  )
+  public boolean perSocketQueues;
+
   @Override
   protected PushSource createPushSource() {
     Utils.checkNotNull(configs.dataFormat, "Data format cannot be null");
@@ -78,7 +92,8 @@ public class MultithreadedUDPDSource extends DPushSource {
     return new MultithreadedUDPSource(
         configs,
         packetQueueSize,
-        numWorkerThreads
+        numWorkerThreads,
+        perSocketQueues
     );
   }
 }
@@ -24,6 +24,7 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
 import com.streamsets.pipeline.lib.parser.udp.AbstractParser;
 import com.streamsets.pipeline.lib.udp.PacketQueueUDPHandler;
+import com.streamsets.pipeline.lib.udp.RingBufferUDPHandler;
 import com.streamsets.pipeline.lib.udp.UDPConsumingServer;
 import com.streamsets.pipeline.lib.util.ThreadUtil;
 import io.netty.channel.socket.DatagramPacket;
@@ -40,7 +41,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.IntStream;
 
 
 public class MultithreadedUDPSource extends BasePushSource {
@@ -55,19 +55,41 @@ public class MultithreadedUDPSource extends BasePushSource {
   private AbstractParser parser;
 
   private PacketQueueUDPHandler handler;
+  private final List<RingBufferUDPHandler> socketHandlers = new ArrayList<>();
 
   private final UDPSourceConfigBean configs;
   private final int packetQueueSize;
   private final int numWorkerThreads;
+  private final boolean perSocketQueues;
+
+  /**
+   * Source of packets for a single worker thread.
+   */
+  private interface PacketQueue {
+    DatagramPacket poll(long timeoutMs) throws InterruptedException;
+
+    int size();
+  }
 
   public MultithreadedUDPSource(
       UDPSourceConfigBean configs,
       int packetQueueSize,
       int numWorkerThreads
+  ) {
+    this(configs, packetQueueSize, numWorkerThreads, false);
+  }
+
+  public MultithreadedUDPSource(
+      UDPSourceConfigBean configs,
+      int packetQueueSize,
+      int numWorkerThreads,
+      boolean perSocketQueues
   ) {
     this.configs = configs;
     this.packetQueueSize = packetQueueSize;
-    this.numWorkerThreads = numWorkerThreads;
+    this.perSocketQueues = perSocketQueues;
+    // with per socket queues there is one worker for each socket, i.e. for each receiver thread of each port
+    this.numWorkerThreads = perSocketQueues ? configs.ports.size() * configs.numThreads : numWorkerThreads;
 
     executorService = new SafeScheduledExecutorService(this.numWorkerThreads, "UDP_Source_Worker_");
 
@@ -79,13 +101,27 @@ public class MultithreadedUDPSource extends BasePushSource {
 
     boolean valid = configs.init(getContext(), issues);
     this.recordCount = 0;
+    if (perSocketQueues && !configs.enableEpoll) {
+      issues.add(getContext().createConfigIssue(Groups.UDP.name(), "perSocketQueues", Errors.UDP_10));
+      valid = false;
+    }
     if (valid && issues.isEmpty()) {
       parser = configs.getParser();
       final List<InetSocketAddress> addresses = configs.getAddresses();
       if (!addresses.isEmpty()) {
-        final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
-        handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
-        udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
+        if (perSocketQueues) {
+          for (int i = 0; i < addresses.size() * configs.numThreads; i++) {
+            final Map<String, Object> gaugeMap = getContext()
+                .createGauge(PACKET_QUEUE_GAUGE_NAME + " " + i)
+                .getValue();
+            socketHandlers.add(new RingBufferUDPHandler(gaugeMap, packetQueueSize));
+          }
+          udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, socketHandlers);
+        } else {
+          final Map<String, Object> gaugeMap = getContext().createGauge(PACKET_QUEUE_GAUGE_NAME).getValue();
+          handler = new PacketQueueUDPHandler(gaugeMap, packetQueueSize);
+          udpServer = new UDPConsumingServer(configs.enableEpoll, configs.numThreads, addresses, handler);
+        }
         try {
           udpServer.listen();
           udpServer.start();
@@ -119,6 +155,13 @@ public class MultithreadedUDPSource extends BasePushSource {
       udpServer.destroy();
       udpServer = null;
     }
+    for (RingBufferUDPHandler socketHandler : socketHandlers) {
+      DatagramPacket packet;
+      while ((packet = socketHandler.getPacketQueue().poll()) != null) {
+        packet.release();
+      }
+    }
+    socketHandlers.clear();
     super.destroy();
   }
 
@@ -131,6 +174,42 @@ public class MultithreadedUDPSource extends BasePushSource {
     return numWorkerThreads;
   }
 
+  private List<PacketQueue> getWorkerQueues() {
+    List<PacketQueue> queues = new ArrayList<>(numWorkerThreads);
+    if (perSocketQueues) {
+      // each worker drains the queue of a single socket, so the producer and consumer of each queue are fixed
+      for (RingBufferUDPHandler socketHandler : socketHandlers) {
+        queues.add(new PacketQueue() {
+          @Override
+          public DatagramPacket poll(long timeoutMs) throws InterruptedException {
+            return socketHandler.getPacketQueue().poll(timeoutMs, TimeUnit.MILLISECONDS);
+          }
+
+          @Override
+          public int size() {
+            return socketHandler.getPacketQueue().size();
+          }
+        });
+      }
+    } else {
+      PacketQueue sharedQueue = new PacketQueue() {
+        @Override
+        public DatagramPacket poll(long timeoutMs) throws InterruptedException {
+          return handler.getPacketQueue().poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int size() {
+          return handler.getPacketQueue().size();
+        }
+      };
+      for (int i = 0; i < numWorkerThreads; i++) {
+        queues.add(sharedQueue);
+      }
+    }
+    return queues;
+  }
+
   @Override
   public void produce(Map<String, String> offsets, int maxBatchSize) throws StageException {
     Utils.checkNotNull(udpServer, "UDP server is null");
@@ -141,76 +220,9 @@ public class MultithreadedUDPSource extends BasePushSource {
       ExecutorCompletionService<Future> completionService = new ExecutorCompletionService<>(executorService);
 
       List<Future> allFutures = new LinkedList<>();
-      IntStream.range(0, numWorkerThreads).forEach(threadNumber -> {
-        Runnable runnable = new Runnable() {
-          @Override
-          public void run() {
-            BatchContext batchContext = null;
-            long remainingTime = configs.maxWaitTime;
-            while (!getContext().isStopped()) {
-              if (batchContext == null) {
-                batchContext = getContext().startBatch();
-              }
-
-              final long startingRecordCount = recordCount;
-              try {
-                long start = System.currentTimeMillis();
-                //ParseResult result = incomingQueue.poll(remainingTime, TimeUnit.MILLISECONDS);
-
-                final DatagramPacket packet = handler.getPacketQueue().poll(remainingTime, TimeUnit.MILLISECONDS);
-                List<Record> records = null;
-                if (packet != null) {
-                  if (LOG.isTraceEnabled()) {
-                    LOG.trace("Took packet; new size: {}", handler.getPacketQueue().size());
-                  }
-
-                  try {
-                    records = parser.parse(packet.content(), packet.recipient(), packet.sender());
-                  } catch (OnRecordErrorException ex) {
-                    getContext().reportError(ex.getErrorCode(), ex.getParams());
-                  } catch (Exception e) {
-                    getContext().reportError(e);
-                    continue;
-                  } finally {
-                    packet.release();
-                  }
-                }
-                long elapsedTime = System.currentTimeMillis() - start;
-                if (elapsedTime > 0) {
-                  remainingTime -= elapsedTime;
-                }
-
-                if (records != null) {
-                  if (IS_TRACE_ENABLED) {
-                    LOG.trace("Found {} records", records.size());
-                  }
-                  for (Record record : records) {
-                    if (IS_TRACE_ENABLED) {
-                      LOG.trace("Processed {} records", (recordCount - startingRecordCount));
-                    }
-
-                    batchContext.getBatchMaker().addRecord(record);
-
-                    if (++recordCount % finalMaxBatchSize == 0) {
-                      getContext().processBatch(batchContext);
-                      batchContext = getContext().startBatch();
-                    }
-                  }
-                }
-
-                if (remainingTime <= 0) {
-                  remainingTime = configs.maxWaitTime;
-                  getContext().processBatch(batchContext);
-                  batchContext = getContext().startBatch();
-                }
-              } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-              }
-            }
-          }
-        };
-        allFutures.add(completionService.submit(runnable, null));
-      });
+      for (PacketQueue queue : getWorkerQueues()) {
+        allFutures.add(completionService.submit(() -> consume(queue, finalMaxBatchSize), null));
+      }
 
       while (!getContext().isStopped()) {
         ThreadUtil.sleep(101);
@@ -243,4 +255,68 @@ public class MultithreadedUDPSource extends BasePushSource {
     }
 
   }
+
+  private void consume(PacketQueue queue, int finalMaxBatchSize) {
+    BatchContext batchContext = null;
+    long remainingTime = configs.maxWaitTime;
+    while (!getContext().isStopped()) {
+      if (batchContext == null) {
+        batchContext = getContext().startBatch();
+      }
+
+      final long startingRecordCount = recordCount;
+      try {
+        long start = System.currentTimeMillis();
+
+        final DatagramPacket packet = queue.poll(remainingTime);
+        List<Record> records = null;
+        if (packet != null) {
+          if (LOG.isTraceEnabled()) {
+            LOG.trace("Took packet; new size: {}", queue.size());
+          }
+
+          try {
+            records = parser.parse(packet.content(), packet.recipient(), packet.sender());
+          } catch (OnRecordErrorException ex) {
+            getContext().reportError(ex.getErrorCode(), ex.getParams());
+          } catch (Exception e) {
+            getContext().reportError(e);
+            continue;
+          } finally {
+            packet.release();
+          }
+        }
+        long elapsedTime = System.currentTimeMillis() - start;
+        if (elapsedTime > 0) {
+          remainingTime -= elapsedTime;
+        }
+
+        if (records != null) {
+          if (IS_TRACE_ENABLED) {
+            LOG.trace("Found {} records", records.size());
+          }
+          for (Record record : records) {
+            if (IS_TRACE_ENABLED) {
+              LOG.trace("Processed {} records", (recordCount - startingRecordCount));
+            }
+
+            batchContext.getBatchMaker().addRecord(record);
+
+            if (++recordCount % finalMaxBatchSize == 0) {
+              getContext().processBatch(batchContext);
+              batchContext = getContext().startBatch();
+            }
+          }
+        }
+
+        if (remainingTime <= 0) {
+          remainingTime = configs.maxWaitTime;
+          getContext().processBatch(batchContext);
+          batchContext = getContext().startBatch();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
 }
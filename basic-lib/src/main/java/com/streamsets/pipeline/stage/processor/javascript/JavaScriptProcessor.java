@@ -20,6 +20,7 @@ import com.streamsets.pipeline.stage.processor.scripting.AbstractScriptingProces
 import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.util.scripting.ScriptObjectFactory;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,8 +35,15 @@ public class JavaScriptProcessor extends AbstractScriptingProcessor {
 
   public JavaScriptProcessor(ProcessingMode processingMode, String script, String initScript, String destroyScript,
                              ScriptRecordType scriptRecordType, Map<String, String> userParams) {
+    this(processingMode, script, initScript, destroyScript, scriptRecordType, userParams, 1,
+        ScriptStateScope.SHARED);
+  }
+
+  public JavaScriptProcessor(ProcessingMode processingMode, String script, String initScript, String destroyScript,
+                             ScriptRecordType scriptRecordType, Map<String, String> userParams, int numThreads,
+                             ScriptStateScope stateScope) {
     super(LOG, JAVASCRIPT_ENGINE, Groups.JAVASCRIPT.name(), processingMode, script, initScript, destroyScript,
-        userParams);
+        userParams, numThreads, stateScope);
     this.scriptRecordType = scriptRecordType;
   }
 
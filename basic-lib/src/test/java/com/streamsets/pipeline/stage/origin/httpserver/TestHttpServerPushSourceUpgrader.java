@@ -138,4 +138,16 @@ public class TestHttpServerPushSourceUpgrader {
     UpgraderTestUtils.assertExists(configs, configPrefix + "certificateChain", new ArrayList<>());
     UpgraderTestUtils.assertExists(configs, configPrefix + "trustedCertificates", new ArrayList<>());
   }
+
+  @Test
+  public void testV15ToV16() {
+    Mockito.doReturn(15).when(context).getFromVersion();
+    Mockito.doReturn(16).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "coalesceRequests", false);
+    UpgraderTestUtils.assertExists(configs, "coalesceMaxRecords", 1000);
+    UpgraderTestUtils.assertExists(configs, "coalesceLingerMillis", 5);
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.httpserver;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class TestRequestCoalescer {
+
+  private PushSource.Context context;
+  private BatchMaker batchMaker;
+
+  @Before
+  public void setUp() {
+    context = Mockito.mock(PushSource.Context.class);
+    BatchContext batchContext = Mockito.mock(BatchContext.class);
+    batchMaker = Mockito.mock(BatchMaker.class);
+    Mockito.when(batchContext.getBatchMaker()).thenReturn(batchMaker);
+    Mockito.when(context.startBatch()).thenReturn(batchContext);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(true);
+  }
+
+  @Test
+  public void testLingerExpires() throws Exception {
+    RequestCoalescer coalescer = new RequestCoalescer(context, 100, 10);
+    Record record = Mockito.mock(Record.class);
+
+    Assert.assertTrue(coalescer.submit(ImmutableList.of(record)));
+
+    Mockito.verify(context, Mockito.times(1)).startBatch();
+    Mockito.verify(batchMaker, Mockito.times(1)).addRecord(Mockito.eq(record));
+    Mockito.verify(context, Mockito.times(1)).processBatch(Mockito.any(BatchContext.class));
+  }
+
+  @Test
+  public void testConcurrentRequestsShareBatch() throws Exception {
+    // linger far longer than the test, the batch can only be committed by reaching the record limit
+    RequestCoalescer coalescer = new RequestCoalescer(context, 3, 60 * 1000);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        Record record = Mockito.mock(Record.class);
+        results.add(executor.submit(() -> coalescer.submit(ImmutableList.of(record))));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Mockito.verify(context, Mockito.times(1)).startBatch();
+    Mockito.verify(batchMaker, Mockito.times(3)).addRecord(Mockito.any(Record.class));
+    Mockito.verify(context, Mockito.times(1)).processBatch(Mockito.any(BatchContext.class));
+  }
+
+  @Test
+  public void testFailedBatchReportedToAllRequests() throws Exception {
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(false);
+    RequestCoalescer coalescer = new RequestCoalescer(context, 2, 60 * 1000);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Boolean> first = executor.submit(() -> coalescer.submit(ImmutableList.of(Mockito.mock(Record.class))));
+      Future<Boolean> second = executor.submit(() -> coalescer.submit(ImmutableList.of(Mockito.mock(Record.class))));
+      Assert.assertFalse(first.get());
+      Assert.assertFalse(second.get());
+    } finally {
+      executor.shutdownNow();
+    }
+    Mockito.verify(context, Mockito.times(1)).processBatch(Mockito.any(BatchContext.class));
+  }
+
+  @Test
+  public void testErrorReportedToAllRequests() throws Exception {
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenThrow(new OutOfMemoryError("test"));
+    RequestCoalescer coalescer = new RequestCoalescer(context, 2, 60 * 1000);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Boolean> first = executor.submit(() -> coalescer.submit(ImmutableList.of(Mockito.mock(Record.class))));
+      Future<Boolean> second = executor.submit(() -> coalescer.submit(ImmutableList.of(Mockito.mock(Record.class))));
+      for (Future<Boolean> future : ImmutableList.of(first, second)) {
+        try {
+          future.get(10, TimeUnit.SECONDS);
+          Assert.fail();
+        } catch (ExecutionException ex) {
+          Assert.assertTrue(ex.getCause() instanceof OutOfMemoryError);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.queue;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * FIFO queue of byte arrays with a bounded in-memory tier that spills to disk once the memory tier is full.
+ *
+ * Spilled entries are appended to memory mapped segment files and read back sequentially; a segment file is deleted
+ * as soon as all its entries have been polled. Entries are optionally deflated before being written to disk. Once
+ * anything has been spilled, new entries go to disk as well until the disk tier is drained, so FIFO order is kept.
+ *
+ * Instances are thread safe.
+ */
+public class SpillQueue implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SpillQueue.class);
+
+  // stored length (int), codec (byte), original length (int)
+  @VisibleForTesting
+  static final int ENTRY_HEADER_SIZE = 9;
+
+  private static final byte CODEC_NONE = 0;
+  private static final byte CODEC_DEFLATE = 1;
+
+  private final File directory;
+  private final String prefix;
+  private final long maxMemoryBytes;
+  private final int segmentSizeBytes;
+  private final long maxDiskBytes;
+  private final boolean compress;
+  private final Counter spilledBytes;
+  private final Timer readLatency;
+
+  private final Deque<byte[]> memory;
+  private final Deque<Segment> segments;
+  private final Deflater deflater;
+  private final Inflater inflater;
+  private long memoryBytes;
+  private long diskBytes;
+  private int size;
+  private boolean closed;
+
+  private SpillQueue(Builder builder) {
+    this.directory = builder.directory;
+    this.prefix = builder.prefix;
+    this.maxMemoryBytes = builder.maxMemoryBytes;
+    this.segmentSizeBytes = builder.segmentSizeBytes;
+    this.maxDiskBytes = builder.maxDiskBytes;
+    this.compress = builder.compress;
+    this.spilledBytes = (builder.spilledBytes != null) ? builder.spilledBytes : new Counter();
+    this.readLatency = (builder.readLatency != null) ? builder.readLatency : new Timer();
+    memory = new ArrayDeque<>();
+    segments = new ArrayDeque<>();
+    deflater = (compress) ? new Deflater(Deflater.BEST_SPEED) : null;
+    inflater = new Inflater();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Adds an entry at the end of the queue.
+   *
+   * @return {@code false} if the entry could not be added because the disk tier is full.
+   */
+  public synchronized boolean offer(byte[] data) throws IOException {
+    Preconditions.checkState(!closed, "Queue is closed");
+    Preconditions.checkNotNull(data, "data");
+    if (segments.isEmpty() && memoryBytes + data.length <= maxMemoryBytes) {
+      memory.add(data);
+      memoryBytes += data.length;
+      size++;
+      return true;
+    }
+
+    byte codec = CODEC_NONE;
+    byte[] payload = data;
+    int payloadLength = data.length;
+    if (compress && data.length > 0) {
+      byte[] deflated = deflate(data);
+      if (deflated != null) {
+        codec = CODEC_DEFLATE;
+        payload = deflated;
+        payloadLength = deflated.length;
+      }
+    }
+    int entryLength = ENTRY_HEADER_SIZE + payloadLength;
+
+    Segment tail = segments.peekLast();
+    if (tail == null || tail.remaining() < entryLength) {
+      int capacity = Math.max(segmentSizeBytes, entryLength);
+      if (diskBytes + capacity > maxDiskBytes) {
+        return false;
+      }
+      tail = new Segment(File.createTempFile(prefix, ".segment", directory), capacity);
+      segments.add(tail);
+      diskBytes += capacity;
+    }
+    tail.append(codec, data.length, payload, payloadLength);
+    spilledBytes.inc(entryLength);
+    size++;
+    return true;
+  }
+
+  /**
+   * Removes and returns the entry at the head of the queue, or {@code null} if the queue is empty.
+   */
+  public synchronized byte[] poll() throws IOException {
+    Preconditions.checkState(!closed, "Queue is closed");
+    byte[] data = memory.poll();
+    if (data != null) {
+      memoryBytes -= data.length;
+      size--;
+      return data;
+    }
+
+    Segment head = segments.peekFirst();
+    if (head == null) {
+      return null;
+    }
+    Timer.Context timerContext = readLatency.time();
+    try {
+      data = head.read(inflater);
+    } finally {
+      timerContext.stop();
+    }
+    size--;
+    if (head.isDrained()) {
+      segments.removeFirst();
+      diskBytes -= head.capacity;
+      head.delete();
+    }
+    return data;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return size == 0;
+  }
+
+  public synchronized long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  /**
+   * Returns the bytes currently reserved by segment files on disk.
+   */
+  public synchronized long getDiskBytes() {
+    return diskBytes;
+  }
+
+  @VisibleForTesting
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  public Counter getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  public Timer getReadLatency() {
+    return readLatency;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      memory.clear();
+      memoryBytes = 0;
+      for (Segment segment : segments) {
+        segment.delete();
+      }
+      segments.clear();
+      diskBytes = 0;
+      size = 0;
+      if (deflater != null) {
+        deflater.end();
+      }
+      inflater.end();
+    }
+  }
+
+  // returns null if the data does not compress
+  private byte[] deflate(byte[] data) {
+    deflater.reset();
+    deflater.setInput(data);
+    deflater.finish();
+    byte[] buffer = new byte[data.length];
+    int length = 0;
+    while (!deflater.finished() && length < buffer.length) {
+      length += deflater.deflate(buffer, length, buffer.length - length);
+    }
+    return (deflater.finished() && length < data.length) ? Arrays.copyOf(buffer, length) : null;
+  }
+
+  private class Segment {
+    private final File file;
+    private final int capacity;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int readPosition;
+
+    Segment(File file, int capacity) throws IOException {
+      this.file = file;
+      this.capacity = capacity;
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+      }
+      LOG.debug("Created spill segment '{}' of '{}' bytes", file, capacity);
+    }
+
+    int remaining() {
+      return capacity - writePosition;
+    }
+
+    boolean isDrained() {
+      return readPosition == writePosition;
+    }
+
+    void append(byte codec, int originalLength, byte[] payload, int payloadLength) {
+      ByteBuffer view = buffer.duplicate();
+      view.position(writePosition);
+      view.putInt(payloadLength);
+      view.put(codec);
+      view.putInt(originalLength);
+      view.put(payload, 0, payloadLength);
+      writePosition = view.position();
+    }
+
+    byte[] read(Inflater inflater) throws IOException {
+      ByteBuffer view = buffer.duplicate();
+      view.position(readPosition);
+      int payloadLength = view.getInt();
+      byte codec = view.get();
+      int originalLength = view.getInt();
+      byte[] payload = new byte[payloadLength];
+      view.get(payload);
+      readPosition = view.position();
+      if (codec == CODEC_NONE) {
+        return payload;
+      }
+      byte[] data = new byte[originalLength];
+      inflater.reset();
+      inflater.setInput(payload);
+      try {
+        int length = 0;
+        while (length < originalLength && !inflater.finished()) {
+          length += inflater.inflate(data, length, originalLength - length);
+        }
+        if (length != originalLength) {
+          throw new IOException("Corrupted spill entry in segment '" + file + "'");
+        }
+      } catch (DataFormatException ex) {
+        throw new IOException("Corrupted spill entry in segment '" + file + "': " + ex, ex);
+      }
+      return data;
+    }
+
+    void delete() {
+      // the mapping itself is released once the buffer is garbage collected
+      buffer = null;
+      if (!file.delete()) {
+        LOG.warn("Could not delete spill segment '{}'", file);
+      }
+    }
+  }
+
+  /**
+   * Builder for {@link SpillQueue}, by default nothing is kept in memory, segments are 8MB and the disk tier is
+   * unbounded.
+   */
+  public static class Builder {
+    private File directory;
+    private String prefix = "sdc-spill";
+    private long maxMemoryBytes = 0;
+    private int segmentSizeBytes = 8 * 1024 * 1024;
+    private long maxDiskBytes = Long.MAX_VALUE;
+    private boolean compress = true;
+    private Counter spilledBytes;
+    private Timer readLatency;
+
+    private Builder() {
+    }
+
+    /**
+     * Directory for the segment files, the default temporary-file directory if not set.
+     */
+    public Builder directory(File directory) {
+      this.directory = directory;
+      return this;
+    }
+
+    public Builder prefix(String prefix) {
+      this.prefix = prefix;
+      return this;
+    }
+
+    public Builder maxMemoryBytes(long maxMemoryBytes) {
+      Preconditions.checkArgument(maxMemoryBytes >= 0, "maxMemoryBytes must be >= 0");
+      this.maxMemoryBytes = maxMemoryBytes;
+      return this;
+    }
+
+    public Builder segmentSizeBytes(int segmentSizeBytes) {
+      Preconditions.checkArgument(segmentSizeBytes > ENTRY_HEADER_SIZE, "segmentSizeBytes too small");
+      this.segmentSizeBytes = segmentSizeBytes;
+      return this;
+    }
+
+    public Builder maxDiskBytes(long maxDiskBytes) {
+      Preconditions.checkArgument(maxDiskBytes >= 0, "maxDiskBytes must be >= 0");
+      this.maxDiskBytes = maxDiskBytes;
+      return this;
+    }
+
+    public Builder compress(boolean compress) {
+      this.compress = compress;
+      return this;
+    }
+
+    /**
+     * Counter incremented with the bytes written to disk, entry headers included.
+     */
+    public Builder spilledBytes(Counter spilledBytes) {
+      this.spilledBytes = spilledBytes;
+      return this;
+    }
+
+    /**
+     * Timer updated with the time taken to read back, and inflate, each spilled entry.
+     */
+    public Builder readLatency(Timer readLatency) {
+      this.readLatency = readLatency;
+      return this;
+    }
+
+    public SpillQueue build() {
+      return new SpillQueue(this);
+    }
+  }
+}
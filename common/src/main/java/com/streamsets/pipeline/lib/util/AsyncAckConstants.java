@@ -0,0 +1,28 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.util;
+
+/**
+ * Contract between the pipeline runner and destinations that acknowledge their batches asynchronously.
+ */
+public class AsyncAckConstants {
+
+  /**
+   * Key of the acknowledger, a <code>Consumer&lt;CompletionStage&lt;?&gt;&gt;</code>, in the stage runner shared map.
+   */
+  public static final String ACKNOWLEDGER_KEY = "sdc.batch.asyncAcknowledger";
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.queue;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestSpillQueue {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static byte[] fill(int length, byte value) {
+    byte[] data = new byte[length];
+    Arrays.fill(data, value);
+    return data;
+  }
+
+  private static byte[] random(int length) {
+    byte[] data = new byte[length];
+    new Random(length).nextBytes(data);
+    return data;
+  }
+
+  private int segmentFiles(File dir) {
+    return dir.list().length;
+  }
+
+  @Test
+  public void testMemoryOnly() throws Exception {
+    File dir = tempFolder.newFolder();
+    try (SpillQueue queue = SpillQueue.builder().directory(dir).maxMemoryBytes(1000).build()) {
+      Assert.assertTrue(queue.isEmpty());
+      Assert.assertNull(queue.poll());
+
+      Assert.assertTrue(queue.offer(fill(400, (byte) 1)));
+      Assert.assertTrue(queue.offer(fill(600, (byte) 2)));
+      Assert.assertEquals(2, queue.size());
+      Assert.assertEquals(1000, queue.getMemoryBytes());
+      Assert.assertEquals(0, queue.getDiskBytes());
+      Assert.assertEquals(0, segmentFiles(dir));
+      Assert.assertEquals(0, queue.getSpilledBytes().getCount());
+
+      Assert.assertArrayEquals(fill(400, (byte) 1), queue.poll());
+      Assert.assertArrayEquals(fill(600, (byte) 2), queue.poll());
+      Assert.assertNull(queue.poll());
+      Assert.assertEquals(0, queue.getMemoryBytes());
+    }
+  }
+
+  @Test
+  public void testSpillKeepsOrder() throws Exception {
+    File dir = tempFolder.newFolder();
+    Counter spilled = new Counter();
+    Timer latency = new Timer();
+    try (SpillQueue queue = SpillQueue.builder()
+        .directory(dir)
+        .maxMemoryBytes(250)
+        .segmentSizeBytes(1024)
+        .spilledBytes(spilled)
+        .readLatency(latency)
+        .build()) {
+      for (int i = 0; i < 20; i++) {
+        Assert.assertTrue(queue.offer(random(100 + i)));
+      }
+      // memory tier holds the first 2 entries, everything after the first spill goes to disk
+      Assert.assertEquals(20, queue.size());
+      Assert.assertEquals(201, queue.getMemoryBytes());
+      Assert.assertTrue(queue.getSegmentCount() > 1);
+      Assert.assertEquals(queue.getSegmentCount(), segmentFiles(dir));
+      Assert.assertTrue(spilled.getCount() > 0);
+
+      // polling frees memory but new entries must queue behind the spilled ones
+      Assert.assertArrayEquals(random(100), queue.poll());
+      Assert.assertArrayEquals(random(101), queue.poll());
+      Assert.assertTrue(queue.offer(random(50)));
+      Assert.assertEquals(0, queue.getMemoryBytes());
+
+      for (int i = 2; i < 20; i++) {
+        Assert.assertArrayEquals(random(100 + i), queue.poll());
+      }
+      Assert.assertArrayEquals(random(50), queue.poll());
+      Assert.assertNull(queue.poll());
+      Assert.assertEquals(19, latency.getCount());
+
+      // drained segments are deleted and the memory tier is used again
+      Assert.assertEquals(0, queue.getSegmentCount());
+      Assert.assertEquals(0, queue.getDiskBytes());
+      Assert.assertEquals(0, segmentFiles(dir));
+      Assert.assertTrue(queue.offer(random(10)));
+      Assert.assertEquals(10, queue.getMemoryBytes());
+    }
+  }
+
+  @Test
+  public void testCompression() throws Exception {
+    File dir = tempFolder.newFolder();
+    try (SpillQueue queue = SpillQueue.builder().directory(dir).segmentSizeBytes(64 * 1024).build()) {
+      Assert.assertTrue(queue.offer(fill(10000, (byte) 7)));
+      Assert.assertTrue(queue.getSpilledBytes().getCount() < 1000);
+
+      // incompressible data is stored as is
+      Assert.assertTrue(queue.offer(random(1000)));
+      Assert.assertTrue(queue.offer(new byte[0]));
+
+      Assert.assertArrayEquals(fill(10000, (byte) 7), queue.poll());
+      Assert.assertArrayEquals(random(1000), queue.poll());
+      Assert.assertArrayEquals(new byte[0], queue.poll());
+      Assert.assertNull(queue.poll());
+    }
+  }
+
+  @Test
+  public void testNoCompression() throws Exception {
+    File dir = tempFolder.newFolder();
+    try (SpillQueue queue = SpillQueue.builder().directory(dir).compress(false).build()) {
+      Assert.assertTrue(queue.offer(fill(10000, (byte) 7)));
+      Assert.assertEquals(10000 + SpillQueue.ENTRY_HEADER_SIZE, queue.getSpilledBytes().getCount());
+      Assert.assertArrayEquals(fill(10000, (byte) 7), queue.poll());
+    }
+  }
+
+  @Test
+  public void testEntryLargerThanSegment() throws Exception {
+    File dir = tempFolder.newFolder();
+    try (SpillQueue queue = SpillQueue.builder().directory(dir).segmentSizeBytes(100).build()) {
+      Assert.assertTrue(queue.offer(random(10)));
+      Assert.assertTrue(queue.offer(random(500)));
+      Assert.assertTrue(queue.offer(random(20)));
+      Assert.assertEquals(3, queue.getSegmentCount());
+
+      Assert.assertArrayEquals(random(10), queue.poll());
+      Assert.assertArrayEquals(random(500), queue.poll());
+      Assert.assertArrayEquals(random(20), queue.poll());
+    }
+  }
+
+  @Test
+  public void testDiskFull() throws Exception {
+    File dir = tempFolder.newFolder();
+    try (SpillQueue queue = SpillQueue.builder().directory(dir).segmentSizeBytes(300).maxDiskBytes(600).build()) {
+      Assert.assertTrue(queue.offer(random(200)));
+      Assert.assertTrue(queue.offer(random(200)));
+      Assert.assertFalse(queue.offer(random(200)));
+      Assert.assertEquals(2, queue.size());
+      Assert.assertEquals(600, queue.getDiskBytes());
+
+      Assert.assertArrayEquals(random(200), queue.poll());
+      Assert.assertTrue(queue.offer(random(201)));
+      Assert.assertArrayEquals(random(200), queue.poll());
+      Assert.assertArrayEquals(random(201), queue.poll());
+    }
+  }
+
+  @Test
+  public void testCloseDeletesSegments() throws Exception {
+    File dir = tempFolder.newFolder();
+    SpillQueue queue = SpillQueue.builder().directory(dir).segmentSizeBytes(100).build();
+    for (int i = 0; i < 5; i++) {
+      queue.offer(random(80));
+    }
+    Assert.assertEquals(5, segmentFiles(dir));
+    queue.close();
+    Assert.assertEquals(0, segmentFiles(dir));
+    Assert.assertEquals(0, queue.size());
+  }
+
+}
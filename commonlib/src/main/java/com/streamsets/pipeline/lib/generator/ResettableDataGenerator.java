@@ -0,0 +1,34 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.generator;
+
+import java.io.IOException;
+
+/**
+ * Data generator that can be reused for a new, independent output on the same stream.
+ * <p/>
+ * Creating a generator can be far more expensive than writing a single record (writers, encoders, schema lookups), so
+ * callers producing one output per record can keep the generator and reset it instead. The caller must flush the
+ * generator and take away everything written to the stream so far before calling {@link #reset()}.
+ */
+public interface ResettableDataGenerator extends DataGenerator {
+
+  /**
+   * Starts a new output, writing whatever a freshly created generator writes before the first record.
+   */
+  public void reset() throws IOException;
+
+}
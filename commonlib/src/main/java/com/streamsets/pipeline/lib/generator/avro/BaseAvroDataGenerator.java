@@ -200,6 +200,20 @@ abstract public class BaseAvroDataGenerator implements DataGenerator {
     }
   }
 
+  /**
+   * Starts a new output on the same stream, for generators implementing ResettableDataGenerator.
+   */
+  protected void resetOutput() throws IOException {
+    if (state == State.CLOSED) {
+      throw new IOException("generator has been closed");
+    }
+
+    if(state == State.OPENED) {
+      getFlushable().flush();
+      postInitialize();
+    }
+  }
+
   @Override
   public void close() throws IOException {
     if(state == State.CLOSED) {
@@ -41,12 +41,34 @@ public class ExactFileContextProvider extends BaseFileContextProvider {
       String archiveDir,
       FileEventPublisher eventPublisher,
       boolean inPreviewMode
+  ) throws IOException {
+    this(fileInfos, charset, maxLineLength, postProcessing, archiveDir, eventPublisher, inPreviewMode, null);
+  }
+
+  public ExactFileContextProvider(
+      List<MultiFileInfo> fileInfos,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      FileEventPublisher eventPublisher,
+      boolean inPreviewMode,
+      LiveFileBufferPool bufferPool
   ) throws IOException {
     super();
     fileContexts = new ArrayList<>();
     fileKeys = new LinkedHashSet<>();
     for (MultiFileInfo dirInfo : fileInfos) {
-      fileContexts.add(new FileContext(dirInfo, charset, maxLineLength, postProcessing, archiveDir, eventPublisher, inPreviewMode));
+      fileContexts.add(new FileContext(
+          dirInfo,
+          charset,
+          maxLineLength,
+          postProcessing,
+          archiveDir,
+          eventPublisher,
+          inPreviewMode,
+          bufferPool
+      ));
       if (fileKeys.contains(dirInfo.getFileKey())) {
         throw new IOException(Utils.format("File '{}' already specified, it cannot be added more than once",
             dirInfo.getFileKey()));
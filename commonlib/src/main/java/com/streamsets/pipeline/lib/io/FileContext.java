@@ -48,10 +48,17 @@ public class FileContext {
   private final Path dir;
   private boolean open;
   private boolean inPreviewMode;
+  private final LiveFileBufferPool bufferPool;
 
   public FileContext(MultiFileInfo multiFileInfo, Charset charset, int maxLineLength,
       PostProcessingOptions postProcessing, String archiveDir, FileEventPublisher eventPublisher,
       boolean inPreviewMode) throws IOException {
+    this(multiFileInfo, charset, maxLineLength, postProcessing, archiveDir, eventPublisher, inPreviewMode, null);
+  }
+
+  public FileContext(MultiFileInfo multiFileInfo, Charset charset, int maxLineLength,
+      PostProcessingOptions postProcessing, String archiveDir, FileEventPublisher eventPublisher,
+      boolean inPreviewMode, LiveFileBufferPool bufferPool) throws IOException {
     open = true;
     this.multiFileInfo = multiFileInfo;
     this.charset = charset;
@@ -65,6 +72,7 @@ public class FileContext {
     rollMode = multiFileInfo.getFileRollMode().createRollMode(name.toString(), multiFileInfo.getPattern());
     scanner = new LiveDirectoryScanner(dir.toString(), multiFileInfo.getFirstFile(), getRollMode());
     this.inPreviewMode = inPreviewMode;
+    this.bufferPool = bufferPool;
   }
 
   public String toString() {
@@ -116,7 +124,7 @@ public class FileContext {
       }
       if (currentFile != null) {
         reader = new SingleLineLiveFileReader(getRollMode(), getMultiFileInfo().getTag(), currentFile, charset,
-                                              fileOffset, maxLineLength);
+                                              fileOffset, maxLineLength, bufferPool);
         if (!multiFileInfo.getMultiLineMainLinePatter().isEmpty()) {
           reader = new MultiLineLiveFileReader(getMultiFileInfo().getTag(), reader,
                                                Pattern.compile(multiFileInfo.getMultiLineMainLinePatter()));
@@ -110,6 +110,7 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
   private final FileEventPublisher eventPublisher;
   private int scanIntervalSecs;
   private boolean inPreviewMode;
+  private final LiveFileBufferPool bufferPool;
 
 
   private boolean allowForLateDirectoryCreation;
@@ -127,6 +128,31 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
       String archiveDir,
       FileEventPublisher eventPublisher,
       boolean inPreviewMode) throws IOException {
+    this(
+        allowForLateDirectoryCreation,
+        fileInfos,
+        scanIntervalSecs,
+        charset,
+        maxLineLength,
+        postProcessing,
+        archiveDir,
+        eventPublisher,
+        inPreviewMode,
+        null
+    );
+  }
+
+  public GlobFileContextProvider(
+      boolean allowForLateDirectoryCreation,
+      List<MultiFileInfo> fileInfos,
+      int scanIntervalSecs,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      FileEventPublisher eventPublisher,
+      boolean inPreviewMode,
+      LiveFileBufferPool bufferPool) throws IOException {
     super();
     // if scan interval is zero the GlobFileInfo will work synchronously and it won't require an executor
     globFileInfos = new CopyOnWriteArrayList<GlobFileInfo>();
@@ -140,6 +166,7 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
     this.archiveDir = archiveDir;
     this.eventPublisher = eventPublisher;
     this.inPreviewMode = inPreviewMode;
+    this.bufferPool = bufferPool;
 
     executor = (scanIntervalSecs == 0) ? null :
         new SafeScheduledExecutorService(fileInfos.size() / 3 + 1, "File Finder");
@@ -171,7 +198,8 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
               postProcessing,
               archiveDir,
               eventPublisher,
-              inPreviewMode
+              inPreviewMode,
+              bufferPool
           )
       );
     } else {
@@ -222,7 +250,8 @@ public class GlobFileContextProvider extends BaseFileContextProvider {
             postProcessing,
             archiveDir,
             eventPublisher,
-            inPreviewMode
+            inPreviewMode,
+            bufferPool
         );
         fileContexts.add(fileContext);
         fileToGlobFile.put(fileContext, globfileInfo);
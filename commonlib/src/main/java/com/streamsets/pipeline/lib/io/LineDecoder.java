@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import java.io.CharArrayReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A <code>LineDecoder</code> decodes {@link FileLine}s into a reusable character buffer using a reusable
+ * {@link CharsetDecoder}, without creating a <code>String</code> per line.
+ * <p/>
+ * The returned {@link Reader}s are slices of the character buffer, they are valid until the next decode call.
+ * Malformed and unmappable input is replaced, as {@link FileLine#getText()} does.
+ * <p/>
+ * IMPORTANT: A <code>LineDecoder</code> is not thread safe.
+ */
+public class LineDecoder {
+  private final Charset charset;
+  private final CharsetDecoder decoder;
+  private CharBuffer chars;
+
+  public LineDecoder(Charset charset) {
+    this.charset = charset;
+    decoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    chars = CharBuffer.allocate(1024);
+  }
+
+  /**
+   * Returns a {@link Reader} with the text of the line.
+   *
+   * @param line the line to decode.
+   * @return a {@link Reader} with the text of the line, valid until the next call.
+   */
+  public Reader getReader(FileLine line) {
+    if (line.getBuffer() == null || !charset.equals(line.getCharset())) {
+      // lines assembled by the multi-line reader already are strings
+      return new StringReader(line.getText());
+    }
+    CharBuffer decoded = decode(line.getBuffer(), line.getOffset(), line.getLength());
+    return new CharArrayReader(decoded.array(), 0, decoded.limit());
+  }
+
+  /**
+   * Decodes the given bytes into the reusable character buffer.
+   *
+   * @return the character buffer flipped for reading, valid until the next call.
+   */
+  CharBuffer decode(byte[] data, int offset, int length) {
+    int maxChars = (int) Math.ceil(length * (double) decoder.maxCharsPerByte());
+    if (chars.capacity() < maxChars) {
+      chars = CharBuffer.allocate(Math.max(maxChars, chars.capacity() * 2));
+    }
+    chars.clear();
+    decoder.reset();
+    ByteBuffer in = ByteBuffer.wrap(data, offset, length);
+    CoderResult result = decoder.decode(in, chars, true);
+    if (result.isUnderflow()) {
+      decoder.flush(chars);
+    }
+    chars.flip();
+    return chars;
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A <code>LiveFileBufferPool</code> holds the read buffers of all the {@link SingleLineLiveFileReader}s of a
+ * {@link MultiFileReader}.
+ * <p/>
+ * Readers only hold a direct buffer while they have data that has not been returned as a chunk yet, a reader that
+ * consumed all its data gives its buffer back to the pool. When tailing many files most of them are idle or at a
+ * line boundary at any given time, so only a handful of buffers are allocated instead of one per file.
+ * <p/>
+ * All the readers share a single chunk array, the {@link LiveFileChunk} returned by a reader is valid until the next
+ * read done by any reader using the same pool.
+ * <p/>
+ * IMPORTANT: The pool is not thread safe, it must be used by the thread driving the {@link MultiFileReader}.
+ */
+public class LiveFileBufferPool {
+  private final int bufferSize;
+  private final Deque<ByteBuffer> free;
+  private final byte[] chunkBytes;
+  private int allocated;
+
+  /**
+   * Creates a <code>LiveFileBufferPool</code>.
+   *
+   * @param bufferSize the size of the buffers, it must be the maximum line length of the readers using the pool.
+   */
+  public LiveFileBufferPool(int bufferSize) {
+    Utils.checkArgument(bufferSize > 1, "bufferSize must be greater than one");
+    this.bufferSize = bufferSize;
+    free = new ArrayDeque<>();
+    chunkBytes = new byte[bufferSize];
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Returns a cleared direct buffer, reusing a released one if available.
+   *
+   * @return a cleared direct buffer.
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = free.pollFirst();
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(bufferSize);
+      allocated++;
+    }
+    return buffer;
+  }
+
+  /**
+   * Gives a buffer back to the pool.
+   *
+   * @param buffer buffer obtained via {@link #acquire()}.
+   */
+  public void release(ByteBuffer buffer) {
+    buffer.clear();
+    free.addFirst(buffer);
+  }
+
+  /**
+   * Returns the chunk array shared by all readers using the pool.
+   *
+   * @return the chunk array shared by all readers using the pool.
+   */
+  byte[] getChunkBytes() {
+    return chunkBytes;
+  }
+
+  /**
+   * Returns the number of direct buffers allocated by the pool.
+   *
+   * @return the number of direct buffers allocated by the pool.
+   */
+  public int getAllocatedBuffers() {
+    return allocated;
+  }
+
+  /**
+   * Returns the number of direct buffers currently held by readers.
+   *
+   * @return the number of direct buffers currently held by readers.
+   */
+  public int getBuffersInUse() {
+    return allocated - free.size();
+  }
+
+}
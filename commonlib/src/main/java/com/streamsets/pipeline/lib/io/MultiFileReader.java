@@ -60,6 +60,7 @@ public class MultiFileReader implements Closeable {
   private final List<FileEvent> events;
   private boolean open;
   private boolean inPreviewMode;
+  private final LiveFileBufferPool bufferPool;
 
   /**
    * Creates a <code>MultiFileReader</code> that will scan/read multiple directories for data.
@@ -79,6 +80,44 @@ public class MultiFileReader implements Closeable {
       int scanIntervalSecs,
       boolean allowForLateDirectoryCreation,
       boolean inPreviewMode
+  ) throws IOException {
+    this(
+        fileInfos,
+        charset,
+        maxLineLength,
+        postProcessing,
+        archiveDir,
+        globbing,
+        scanIntervalSecs,
+        allowForLateDirectoryCreation,
+        inPreviewMode,
+        false
+    );
+  }
+
+  /**
+   * Creates a <code>MultiFileReader</code> that will scan/read multiple directories for data.
+   * <p/>
+   * With pooled buffers all files are read through a shared {@link LiveFileBufferPool} of direct buffers, the
+   * returned {@link LiveFileChunk} is then valid only until the next {@link #next(long)} call.
+   *
+   * @param fileInfos a list with the information for for each directory to scan/read.
+   * @param charset the data charset (for all files)
+   * @param maxLineLength the maximum line length (for all files)
+   * @param pooledBuffers if files should be read using a shared pool of direct buffers.
+   * @throws IOException thrown if there was an IO error while creating the reader.
+   */
+  public MultiFileReader(
+      List<MultiFileInfo> fileInfos,
+      Charset charset,
+      int maxLineLength,
+      PostProcessingOptions postProcessing,
+      String archiveDir,
+      boolean globbing,
+      int scanIntervalSecs,
+      boolean allowForLateDirectoryCreation,
+      boolean inPreviewMode,
+      boolean pooledBuffers
   ) throws IOException {
     Utils.checkNotNull(fileInfos, "fileInfos");
     Utils.checkArgument(!fileInfos.isEmpty(), "fileInfos cannot be empty");
@@ -91,6 +130,7 @@ public class MultiFileReader implements Closeable {
 
     archiveDir = (postProcessing == PostProcessingOptions.ARCHIVE) ? archiveDir : null;
     this.inPreviewMode = inPreviewMode;
+    bufferPool = (pooledBuffers) ? new LiveFileBufferPool(maxLineLength) : null;
 
     events = new ArrayList<>(fileInfos.size() * 2);
     FileEventPublisher eventPublisher = new FileEventPublisher() {
@@ -111,7 +151,8 @@ public class MultiFileReader implements Closeable {
         postProcessing,
         archiveDir,
         eventPublisher,
-        inPreviewMode
+        inPreviewMode,
+        bufferPool
     ) : new ExactFileContextProvider(
         fileInfos,
         charset,
@@ -119,7 +160,8 @@ public class MultiFileReader implements Closeable {
         postProcessing,
         archiveDir,
         eventPublisher,
-        inPreviewMode
+        inPreviewMode,
+        bufferPool
     );
 
     open = true;
@@ -247,6 +289,15 @@ public class MultiFileReader implements Closeable {
     return chunk;
   }
 
+  /**
+   * Returns the buffer pool used by the readers.
+   *
+   * @return the buffer pool used by the readers, <code>null</code> if not using pooled buffers.
+   */
+  public LiveFileBufferPool getBufferPool() {
+    return bufferPool;
+  }
+
   /**
    * Determines the offset lag for each active file being read.
    *
@@ -23,9 +23,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.Reader;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 
 /**
@@ -43,6 +42,9 @@ import java.nio.file.StandardOpenOption;
  * (ie UTF-8 or ASCII)
  * <p/>
  * IMPORTANT: The provided charset must encode LF and CR as '0x0A' and '0x0D' respectively.
+ * <p/>
+ * When created with a {@link LiveFileBufferPool} the reader reads into pooled direct buffers, holding one only while
+ * it has data not yet returned in a chunk, and the returned chunks use the chunk array shared by the pool.
  */
 public class SingleLineLiveFileReader implements LiveFileReader {
   private static final Logger LOG = LoggerFactory.getLogger(SingleLineLiveFileReader.class);
@@ -62,9 +64,10 @@ public class SingleLineLiveFileReader implements LiveFileReader {
   private long offset;
   private boolean truncateMode;
 
-  private final SeekableByteChannel channel;
+  private final FileChannel channel;
 
-  private final ByteBuffer buffer;
+  private final LiveFileBufferPool bufferPool;
+  private ByteBuffer buffer;
   private final byte[] chunkBytes;
 
   private boolean open;
@@ -97,10 +100,31 @@ public class SingleLineLiveFileReader implements LiveFileReader {
   public SingleLineLiveFileReader(RollMode rollMode, String tag, LiveFile file, Charset charset, long offset,
       int maxLineLen)
       throws IOException {
+    this(rollMode, tag, file, charset, offset, maxLineLen, null);
+  }
+
+  /**
+   * Creates a <code>SingleLiveFileReader</code> that reads using pooled buffers.
+   *
+   * @param rollMode {@link RollMode} the file roll mode.
+   * @param tag the file tag.
+   * @param file {@link LiveFile} of the file to read.
+   * @param charset {@link Charset} of the file.
+   * @param offset offset in bytes to start reading the file from, negative for truncate mode.
+   * @param maxLineLen the maximum line length including the EOL characters, it must match the pool buffer size.
+   * @param bufferPool the pool to get read buffers from, if <code>null</code> the reader allocates its own buffers.
+   * @throws IOException thrown if the file could not be opened or the specified offset is beyond the current file
+   * length.
+   */
+  public SingleLineLiveFileReader(RollMode rollMode, String tag, LiveFile file, Charset charset, long offset,
+      int maxLineLen, LiveFileBufferPool bufferPool)
+      throws IOException {
     Utils.checkNotNull(rollMode, "rollMode");
     Utils.checkNotNull(file, "file");
     Utils.checkNotNull(charset, "charset");
     Utils.checkArgument(maxLineLen > 1, "maxLineLen must greater than 1");
+    Utils.checkArgument(bufferPool == null || bufferPool.getBufferSize() == maxLineLen,
+        "bufferPool buffer size must be maxLineLen");
     validateCharset(charset, '\n', "\\n");
     validateCharset(charset, '\r', "\\r");
     this.rollMode = rollMode;
@@ -116,7 +140,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
       LOG.debug("Original file '{}' refreshed to '{}'", file, currentFile);
     }
 
-    channel = Files.newByteChannel(currentFile.getPath(), StandardOpenOption.READ);
+    channel = FileChannel.open(currentFile.getPath(), StandardOpenOption.READ);
     open = true;
 
     long actualSize;
@@ -141,8 +165,13 @@ public class SingleLineLiveFileReader implements LiveFileReader {
     }
     LOG.debug("File '{}', positioned at offset '{}'", currentFile, offset);
 
-    buffer = ByteBuffer.allocate(maxLineLen);
-    chunkBytes = new byte[maxLineLen];
+    this.bufferPool = bufferPool;
+    if (bufferPool == null) {
+      buffer = ByteBuffer.allocate(maxLineLen);
+      chunkBytes = new byte[maxLineLen];
+    } else {
+      chunkBytes = bufferPool.getChunkBytes();
+    }
 
     lastPosCheckedForEol = 0;
   }
@@ -154,10 +183,37 @@ public class SingleLineLiveFileReader implements LiveFileReader {
         channel.close();
       } catch (IOException ex) {
         //NOP
+      } finally {
+        releaseBuffer();
       }
     }
   }
 
+  // with a pool the buffer is taken only when reading
+  private void acquireBuffer() {
+    if (buffer == null) {
+      buffer = bufferPool.acquire();
+    }
+  }
+
+  // with a pool the buffer is given back if it does not have leftover data
+  private void releaseBufferIfEmpty() {
+    if (bufferPool != null && buffer != null && buffer.position() == 0) {
+      releaseBuffer();
+    }
+  }
+
+  private void releaseBuffer() {
+    if (bufferPool != null && buffer != null) {
+      bufferPool.release(buffer);
+      buffer = null;
+    }
+  }
+
+  private int getBufferedBytes() {
+    return (buffer == null) ? 0 : buffer.position();
+  }
+
   private void validateCharset(Charset charset, char c, String cStr) {
     ByteBuffer bf = charset.encode("" + c);
     if (bf.limit() != 1) {
@@ -193,7 +249,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
   public boolean hasNext() throws IOException {
     Utils.checkState(open, Utils.formatL("LiveFileReader for '{}' is not open", currentFile));
     // the buffer is dirty, or the file is still live, or the channel pos is less than the file length
-    return (buffer.position() > 0) || !isEof();
+    return (getBufferedBytes() > 0) || !isEof();
   }
 
   @Override
@@ -235,7 +291,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
           break;
         }
       }
-      offset = channel.position() - buffer.position();
+      offset = channel.position() - getBufferedBytes();
       return liveFileChunk;
     } catch (IOException ex) {
       closeChannel();
@@ -247,7 +303,11 @@ public class SingleLineLiveFileReader implements LiveFileReader {
   public void close() throws IOException {
     if (open) {
       open = false;
-      channel.close();
+      try {
+        channel.close();
+      } finally {
+        releaseBuffer();
+      }
     }
   }
 
@@ -257,6 +317,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
   private boolean fastForward() throws IOException {
     try {
       boolean stillTruncate;
+      acquireBuffer();
       buffer.clear();
       if (channel.read(buffer) > -1 || isEof()) {
         //set the buffer into read from mode
@@ -282,6 +343,10 @@ public class SingleLineLiveFileReader implements LiveFileReader {
         stillTruncate = true;
         offset = channel.position();
       }
+      if (stillTruncate) {
+        buffer.clear();
+      }
+      releaseBufferIfEmpty();
       return stillTruncate;
     } catch (IOException ex) {
       closeChannel();
@@ -292,6 +357,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
   private LiveFileChunk readChunk() throws IOException {
     try {
       LiveFileChunk liveFileChunk = null;
+      acquireBuffer();
       if (channel.read(buffer) > 0 || buffer.limit() - buffer.position() > 0 || isEof()) {
         // we have data, set the buffer into read from mode
         buffer.flip();
@@ -320,6 +386,7 @@ public class SingleLineLiveFileReader implements LiveFileReader {
         // correcting next position in buffer scanned for EOL to reflect post compact() position.
         lastPosCheckedForEol = buffer.position();
       }
+      releaseBufferIfEmpty();
       return liveFileChunk;
     } catch (IOException ex) {
       closeChannel();
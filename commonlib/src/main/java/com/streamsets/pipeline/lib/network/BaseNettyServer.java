@@ -51,25 +51,42 @@ public abstract class BaseNettyServer {
   }
 
   public void listen() throws Exception {
+    int socketIndex = 0;
     for (SocketAddress address : addresses) {
       AbstractBootstrap b = bootstrap(enableEpoll);
       LOG.info("Starting server on address {}", address);
       if (enableEpoll) {
         // for epoll, bind for each thread
         for (int i = 0; i < numThreads; i++) {
+          configureSocket(b, socketIndex++);
           ChannelFuture channelFuture = b.bind(address).sync();
           channelFutures.add(channelFuture);
         }
       } else {
         // for non-epoll (NIO threadpool), bind once
+        configureSocket(b, socketIndex++);
         ChannelFuture channelFuture = b.bind(address).sync();
         channelFutures.add(channelFuture);
       }
     }
   }
 
+  /**
+   * @return the number of sockets {@link #listen()} binds: one per address, or one per address and thread with epoll
+   */
+  public int getNumberOfSockets() {
+    return enableEpoll ? addresses.size() * numThreads : addresses.size();
+  }
+
   protected abstract AbstractBootstrap bootstrap(boolean enableEpoll);
 
+  /**
+   * Called right before each socket is bound, with the index of that socket across all addresses, so that
+   * subclasses can give every socket its own handler.
+   */
+  protected void configureSocket(AbstractBootstrap bootstrap, int socketIndex) {
+  }
+
   public void close() {
     LOG.info("Closing server channels");
     for (ChannelFuture channelFuture : channelFutures) {
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.DatagramPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Queues the packets of a single socket into its own {@link SpscRingBuffer}. Unlike {@link PacketQueueUDPHandler}
+ * this handler is not sharable: every socket gets its own instance, and its queue is drained by a single worker.
+ */
+public class RingBufferUDPHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+  private static final Logger LOG = LoggerFactory.getLogger(RingBufferUDPHandler.class);
+
+  private final Map<String, Object> gaugeMap;
+  private final SpscRingBuffer<DatagramPacket> queue;
+  // only updated from the event loop of the socket
+  private long droppedPacketCount;
+  private long queuedPacketCount;
+
+  public RingBufferUDPHandler(Map<String, Object> gaugeMap, int packetQueueSize) {
+    this.gaugeMap = gaugeMap;
+    this.queue = new SpscRingBuffer<>(packetQueueSize);
+  }
+
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) {
+    ctx.flush();
+  }
+
+  @Override
+  public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    String msg = "Uncaught throwable in UDP Server: " + cause;
+    LOG.error(msg, cause);
+  }
+
+  @Override
+  protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) throws Exception {
+    packet.retain();
+    if (queue.offer(packet)) {
+      gaugeMap.put(PacketQueueUDPHandler.GAUGE_NUM_QUEUED_PACKETS, ++queuedPacketCount);
+      gaugeMap.put(PacketQueueUDPHandler.GAUGE_PACKET_QUEUE_SIZE, queue.size());
+    } else {
+      gaugeMap.put(PacketQueueUDPHandler.GAUGE_NUM_DROPPED_PACKETS, ++droppedPacketCount);
+      // allow Netty to collect the buffer
+      packet.release();
+    }
+  }
+
+  public SpscRingBuffer<DatagramPacket> getPacketQueue() {
+    return queue;
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock free ring buffer for exactly one producer thread and one consumer thread.
+ * <p/>
+ * Used to hand packets from the event loop of a socket to the worker thread that owns that socket, so that neither
+ * side contends on a lock or with the other sockets.
+ */
+public class SpscRingBuffer<E> {
+  private static final int SPIN_TRIES = 100;
+  private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final Object[] buffer;
+  private final int mask;
+  private final int capacity;
+  // next slot to read, written by the consumer only
+  private final AtomicLong head = new AtomicLong();
+  // next slot to write, written by the producer only
+  private final AtomicLong tail = new AtomicLong();
+  // producer local copy of head
+  private long cachedHead;
+  // consumer local copy of tail
+  private long cachedTail;
+
+  public SpscRingBuffer(int capacity) {
+    Utils.checkArgument(capacity > 0 && capacity <= 1 << 30, "capacity must be between 1 and 2^30");
+    this.capacity = capacity;
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    buffer = new Object[size];
+    mask = size - 1;
+  }
+
+  /**
+   * Producer side.
+   *
+   * @return false if the buffer is full
+   */
+  public boolean offer(E element) {
+    Utils.checkNotNull(element, "element");
+    final long t = tail.get();
+    if (t - cachedHead >= capacity) {
+      cachedHead = head.get();
+      if (t - cachedHead >= capacity) {
+        return false;
+      }
+    }
+    buffer[(int) (t & mask)] = element;
+    // publishes the element to the consumer
+    tail.lazySet(t + 1);
+    return true;
+  }
+
+  /**
+   * Consumer side.
+   *
+   * @return the next element, or null if the buffer is empty
+   */
+  @SuppressWarnings("unchecked")
+  public E poll() {
+    final long h = head.get();
+    if (h >= cachedTail) {
+      cachedTail = tail.get();
+      if (h >= cachedTail) {
+        return null;
+      }
+    }
+    final int index = (int) (h & mask);
+    final E element = (E) buffer[index];
+    buffer[index] = null;
+    // releases the slot to the producer
+    head.lazySet(h + 1);
+    return element;
+  }
+
+  /**
+   * Consumer side, waits up to the given time for an element to become available. Spins briefly, then parks in
+   * short increments, as the producer does not signal the consumer.
+   *
+   * @return the next element, or null if none became available in time
+   */
+  public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+    E element = poll();
+    if (element != null) {
+      return element;
+    }
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int tries = 0;
+    while ((element = poll()) == null) {
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+      final long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return null;
+      }
+      if (tries < SPIN_TRIES) {
+        tries++;
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+      }
+    }
+    return element;
+  }
+
+  public int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+}
@@ -15,7 +15,9 @@
  */
 package com.streamsets.pipeline.lib.udp;
 
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.network.BaseNettyServer;
+import io.netty.bootstrap.AbstractBootstrap;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelOption;
@@ -34,6 +36,7 @@ import java.util.List;
 public class UDPConsumingServer extends BaseNettyServer {
 
   private final SimpleChannelInboundHandler<DatagramPacket> handler;
+  private final List<? extends SimpleChannelInboundHandler<DatagramPacket>> socketHandlers;
 
   public UDPConsumingServer(
       boolean enableEpoll,
@@ -61,6 +64,38 @@ public class UDPConsumingServer extends BaseNettyServer {
         addresses
     );
     this.handler = handler;
+    this.socketHandlers = null;
+  }
+
+  /**
+   * Creates a server where every bound socket has its own handler, the handler at index i serving the i-th socket.
+   * With epoll, {@code numThreads} sockets are bound to each address with SO_REUSEPORT and each of them is served by
+   * its own event loop, so the handlers do not need to be sharable.
+   */
+  public UDPConsumingServer(
+      boolean enableEpoll,
+      int numThreads,
+      List<InetSocketAddress> addresses,
+      List<? extends SimpleChannelInboundHandler<DatagramPacket>> socketHandlers
+  ) {
+    super(
+        enableEpoll,
+        numThreads,
+        addresses
+    );
+    Utils.checkArgument(
+        socketHandlers.size() == getNumberOfSockets(),
+        Utils.formatL("Expected {} socket handlers, got {}", getNumberOfSockets(), socketHandlers.size())
+    );
+    this.handler = socketHandlers.get(0);
+    this.socketHandlers = socketHandlers;
+  }
+
+  @Override
+  protected void configureSocket(AbstractBootstrap bootstrap, int socketIndex) {
+    if (socketHandlers != null) {
+      ((Bootstrap) bootstrap).handler(socketHandlers.get(socketIndex));
+    }
   }
 
   @Override
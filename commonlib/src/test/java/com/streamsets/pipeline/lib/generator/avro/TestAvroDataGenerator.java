@@ -26,6 +26,7 @@ import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.generator.DataGeneratorException;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
 import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
 import com.streamsets.pipeline.lib.util.AvroTypeUtil;
 import com.streamsets.pipeline.lib.util.CommonError;
 import com.streamsets.pipeline.lib.util.JsonUtil;
@@ -388,6 +389,46 @@ public class TestAvroDataGenerator {
     Assert.assertFalse(dataFileReader.hasNext());
   }
 
+  @Test
+  public void testMessageGeneratorReset() throws Exception {
+    Record record = createRecord();
+
+    // output of a fresh generator
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataGenerator fresh = new AvroMessageGenerator(
+        false,
+        baos,
+        SCHEMA,
+        AvroTypeUtil.getDefaultValuesFromSchema(SCHEMA, new HashSet<String>()),
+        null,
+        null,
+        0
+    );
+    fresh.write(record);
+    fresh.close();
+    byte[] expected = baos.toByteArray();
+
+    // a reset generator produces the very same independent output
+    baos = new ByteArrayOutputStream();
+    ResettableDataGenerator gen = new AvroMessageGenerator(
+        false,
+        baos,
+        SCHEMA,
+        AvroTypeUtil.getDefaultValuesFromSchema(SCHEMA, new HashSet<String>()),
+        null,
+        null,
+        0
+    );
+    for (int i = 0; i < 3; i++) {
+      gen.write(record);
+      gen.flush();
+      Assert.assertArrayEquals(expected, baos.toByteArray());
+      baos.reset();
+      gen.reset();
+    }
+    gen.close();
+  }
+
   private Record createRecord() throws IOException {
     Map<String, Object> obj = new HashMap<>();
     obj.put("name", "hari");
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.io;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class TestLineDecoder {
+
+  @Test
+  public void testDecodeLines() throws Exception {
+    byte[] data = "Hola\nni\u00f1o\r\nadi\u00f3s".getBytes(StandardCharsets.UTF_8);
+    LiveFileChunk chunk = new LiveFileChunk(
+        "tag",
+        Mockito.mock(LiveFile.class),
+        StandardCharsets.UTF_8,
+        data,
+        0,
+        data.length,
+        false
+    );
+    List<FileLine> lines = chunk.getLines();
+    Assert.assertEquals(3, lines.size());
+
+    LineDecoder decoder = new LineDecoder(StandardCharsets.UTF_8);
+    for (FileLine line : lines) {
+      Assert.assertEquals(line.getText(), IOUtils.toString(decoder.getReader(line)));
+    }
+  }
+
+  @Test
+  public void testBufferGrowsAndIsReused() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.append((char) ('a' + i % 26));
+    }
+    String longLine = sb.toString();
+    LineDecoder decoder = new LineDecoder(StandardCharsets.UTF_8);
+    byte[] data = longLine.getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals(longLine, decoder.decode(data, 0, data.length).toString());
+    data = "short".getBytes(StandardCharsets.UTF_8);
+    Assert.assertEquals("short", decoder.decode(data, 0, data.length).toString());
+    Assert.assertEquals("hor", decoder.decode(data, 1, 3).toString());
+  }
+
+  @Test
+  public void testMalformedInputIsReplaced() throws Exception {
+    byte[] data = new byte[] {'a', (byte) 0xC3, '\n'};
+    LiveFileChunk chunk = new LiveFileChunk(
+        null,
+        Mockito.mock(LiveFile.class),
+        StandardCharsets.UTF_8,
+        data,
+        0,
+        data.length,
+        false
+    );
+    FileLine line = chunk.getLines().get(0);
+    LineDecoder decoder = new LineDecoder(StandardCharsets.UTF_8);
+    Assert.assertEquals(line.getText(), IOUtils.toString(decoder.getReader(line)));
+  }
+
+  @Test
+  public void testStringLines() throws Exception {
+    LineDecoder decoder = new LineDecoder(Charset.forName("ISO-8859-1"));
+    FileLine line = new FileLine(10, "multi\nline\n");
+    Assert.assertEquals("multi\nline\n", IOUtils.toString(decoder.getReader(line)));
+  }
+
+}
@@ -18,13 +18,16 @@ package com.streamsets.pipeline.lib.io;
 import com.streamsets.pipeline.config.FileRollMode;
 import com.streamsets.pipeline.config.PostProcessingOptions;
 import com.streamsets.pipeline.sdk.DataCollectorServicesUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -41,6 +44,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class TestMultiFileReader {
   private static final Charset UTF8 = StandardCharsets.UTF_8;
@@ -587,4 +591,127 @@ public class TestMultiFileReader {
       mdr.getPendingFiles();
     } while (numOfLinesProcessed < totalNumberOfLines);
   }
+
+  @Test
+  public void testPooledBuffersManyFiles() throws Exception {
+    int files = 20;
+    List<MultiFileInfo> fileInfos = new ArrayList<>();
+    for (int i = 0; i < files; i++) {
+      File file = new File(testDir1, "file" + i + ".txt");
+      Files.write(file.toPath(), Arrays.asList("a" + i, "b" + i), UTF8);
+      fileInfos.add(new MultiFileInfo(null, file.getPath(), FileRollMode.REVERSE_COUNTER, "", "", ""));
+    }
+    MultiFileReader mdr = new MultiFileReader(
+        fileInfos,
+        UTF8,
+        1024,
+        PostProcessingOptions.NONE,
+        null,
+        false,
+        0,
+        false,
+        false,
+        true
+    );
+    mdr.setOffsets(new HashMap<String, String>());
+
+    LineDecoder decoder = new LineDecoder(UTF8);
+    Set<String> lines = new HashSet<>();
+    LiveFileChunk chunk = mdr.next(0);
+    while (chunk != null) {
+      for (FileLine line : chunk.getLines()) {
+        lines.add(IOUtils.toString(decoder.getReader(line)));
+      }
+      chunk = mdr.next(0);
+    }
+    Assert.assertEquals(files * 2, lines.size());
+    for (int i = 0; i < files; i++) {
+      Assert.assertTrue(lines.contains("a" + i + "\n"));
+      Assert.assertTrue(lines.contains("b" + i + "\n"));
+    }
+    // all files end in a full line, a single buffer is reused for all of them
+    Assert.assertEquals(1, mdr.getBufferPool().getAllocatedBuffers());
+    Assert.assertEquals(0, mdr.getBufferPool().getBuffersInUse());
+    mdr.close();
+  }
+
+  @Ignore
+  @Test
+  public void benchmarkPooledBuffers() throws Exception {
+    // every round appends one second worth of lines (10k lines/sec) to every file and reads them all
+    int files = 200;
+    int linesPerSecond = 10_000;
+    int seconds = 5;
+    int maxLineLength = 64 * 1024;
+    String line = "2020-01-01 00:00:00,000 INFO  [main] com.acme.Service - request processed in 12 ms";
+
+    for (boolean pooled : new boolean[] {false, true, false, true}) {
+      File dir = new File("target", UUID.randomUUID().toString()).getAbsoluteFile();
+      Assert.assertTrue(dir.mkdirs());
+      List<MultiFileInfo> fileInfos = new ArrayList<>();
+      for (int i = 0; i < files; i++) {
+        File file = new File(dir, "file" + i + ".log");
+        Files.write(file.toPath(), new byte[0]);
+        fileInfos.add(new MultiFileInfo(null, file.getPath(), FileRollMode.REVERSE_COUNTER, "", "", ""));
+      }
+      MultiFileReader mdr = new MultiFileReader(
+          fileInfos,
+          UTF8,
+          maxLineLength,
+          PostProcessingOptions.NONE,
+          null,
+          false,
+          0,
+          false,
+          false,
+          pooled
+      );
+      mdr.setOffsets(new HashMap<String, String>());
+      LineDecoder decoder = new LineDecoder(UTF8);
+      char[] chars = new char[maxLineLength];
+
+      StringBuilder second = new StringBuilder();
+      for (int i = 0; i < linesPerSecond; i++) {
+        second.append(line).append(i).append('\n');
+      }
+      byte[] secondBytes = second.toString().getBytes(UTF8);
+
+      com.sun.management.ThreadMXBean threadBean =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      long readNanos = 0;
+      long allocatedBytes = 0;
+      long lines = 0;
+      for (int s = 0; s < seconds; s++) {
+        for (MultiFileInfo fileInfo : fileInfos) {
+          Files.write(Paths.get(fileInfo.getFileFullPath()), secondBytes, StandardOpenOption.APPEND);
+        }
+        long allocatedStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        mdr.setOffsets(mdr.getOffsets());
+        LiveFileChunk chunk = mdr.next(0);
+        while (chunk != null) {
+          for (FileLine fileLine : chunk.getLines()) {
+            if (pooled) {
+              lines += decoder.getReader(fileLine).read(chars);
+            } else {
+              lines += fileLine.getText().length();
+            }
+          }
+          chunk = mdr.next(0);
+        }
+        readNanos += System.nanoTime() - start;
+        allocatedBytes += threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+      }
+      System.out.println(String.format(
+          "%s buffers, %d files: %d ms, %d KB allocated, %d chars, %d direct buffers",
+          (pooled) ? "Pooled" : "Per file",
+          files,
+          TimeUnit.NANOSECONDS.toMillis(readNanos),
+          allocatedBytes / 1024,
+          lines,
+          (pooled) ? mdr.getBufferPool().getAllocatedBuffers() : 0
+      ));
+      mdr.close();
+    }
+  }
 }
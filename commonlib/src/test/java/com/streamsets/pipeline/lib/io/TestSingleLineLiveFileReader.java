@@ -29,6 +29,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
@@ -593,4 +594,100 @@ public class TestSingleLineLiveFileReader {
     lfr.close();
   }
 
+  @Test
+  public void testPooledBuffers() throws Exception {
+    Path file1 = createFile(Arrays.asList("Hello1\n", "Hel"));
+    Path file2 = createFile(Arrays.asList("Bye1\n", "Bye2\n"));
+    LiveFileBufferPool pool = new LiveFileBufferPool(10);
+    LiveFileReader lfr1 = new SingleLineLiveFileReader(
+        LogRollModeFactory.REVERSE_COUNTER.get(file1.getFileName().toString(), ""),
+        null,
+        new LiveFile(file1),
+        Charset.defaultCharset(),
+        0,
+        10,
+        pool
+    );
+    LiveFileReader lfr2 = new SingleLineLiveFileReader(
+        LogRollModeFactory.REVERSE_COUNTER.get(file2.getFileName().toString(), ""),
+        null,
+        new LiveFile(file2),
+        Charset.defaultCharset(),
+        0,
+        10,
+        pool
+    );
+    Assert.assertEquals(0, pool.getAllocatedBuffers());
+
+    // the incomplete last line keeps the buffer with the reader
+    LiveFileChunk chunk = lfr1.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals("Hello1\n", readChunk(chunk));
+    Assert.assertEquals(7, lfr1.getOffset());
+    Assert.assertTrue(lfr1.hasNext());
+    Assert.assertEquals(1, pool.getBuffersInUse());
+
+    // all data returned, the buffer goes back to the pool
+    chunk = lfr2.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals("Bye1\nBye2\n", readChunk(chunk));
+    Assert.assertEquals(10, lfr2.getOffset());
+    Assert.assertEquals(2, pool.getAllocatedBuffers());
+    Assert.assertEquals(1, pool.getBuffersInUse());
+
+    Files.write(file1, Arrays.asList("lo"), StandardOpenOption.APPEND);
+    chunk = lfr1.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertEquals("Hello\n", readChunk(chunk));
+    Assert.assertEquals(13, lfr1.getOffset());
+    Assert.assertEquals(0, pool.getBuffersInUse());
+
+    chunk = lfr2.next(0);
+    Assert.assertNull(chunk);
+    Assert.assertEquals(10, lfr2.getOffset());
+    Assert.assertEquals(2, pool.getAllocatedBuffers());
+    Assert.assertEquals(0, pool.getBuffersInUse());
+
+    lfr1.close();
+    lfr2.close();
+    Assert.assertEquals(0, pool.getBuffersInUse());
+  }
+
+  @Test
+  public void testPooledBuffersTruncate() throws Exception {
+    Path file = createFile(Arrays.asList("Hello1234567890\n", "Hello\n"));
+    LiveFileBufferPool pool = new LiveFileBufferPool(6);
+    LiveFileReader lfr = new SingleLineLiveFileReader(
+        LogRollModeFactory.REVERSE_COUNTER.get(file.getFileName().toString(), ""),
+        null,
+        new LiveFile(file),
+        Charset.defaultCharset(),
+        0,
+        6,
+        pool
+    );
+
+    LiveFileChunk chunk = lfr.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertTrue(chunk.isTruncated());
+    Assert.assertEquals("Hello1", readChunk(chunk));
+    Assert.assertEquals(-6, lfr.getOffset());
+    Assert.assertEquals(0, pool.getBuffersInUse());
+
+    Assert.assertNull(lfr.next(0));
+    Assert.assertEquals(-12, lfr.getOffset());
+    Assert.assertEquals(0, pool.getBuffersInUse());
+
+    chunk = lfr.next(0);
+    Assert.assertNotNull(chunk);
+    Assert.assertFalse(chunk.isTruncated());
+    Assert.assertEquals(16, chunk.getOffset());
+    Assert.assertEquals("Hello\n", readChunk(chunk));
+    Assert.assertEquals(22, lfr.getOffset());
+
+    lfr.close();
+    Assert.assertEquals(1, pool.getAllocatedBuffers());
+    Assert.assertEquals(0, pool.getBuffersInUse());
+  }
+
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.udp;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class TestSpscRingBuffer {
+
+  @Test
+  public void testCapacityIsExact() {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(3);
+    Assert.assertEquals(3, buffer.capacity());
+    Assert.assertTrue(buffer.offer(1));
+    Assert.assertTrue(buffer.offer(2));
+    Assert.assertTrue(buffer.offer(3));
+    Assert.assertFalse(buffer.offer(4));
+    Assert.assertEquals(3, buffer.size());
+
+    Assert.assertEquals(1, (int) buffer.poll());
+    Assert.assertTrue(buffer.offer(4));
+    Assert.assertEquals(3, buffer.size());
+  }
+
+  @Test
+  public void testFifoAcrossWrap() {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(4);
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < 3; i++) {
+        Assert.assertTrue(buffer.offer(round * 3 + i));
+      }
+      for (int i = 0; i < 3; i++) {
+        Assert.assertEquals(round * 3 + i, (int) buffer.poll());
+      }
+    }
+    Assert.assertNull(buffer.poll());
+    Assert.assertEquals(0, buffer.size());
+  }
+
+  @Test
+  public void testPollTimeout() throws Exception {
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(1);
+    long start = System.nanoTime();
+    Assert.assertNull(buffer.poll(20, TimeUnit.MILLISECONDS));
+    Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+  }
+
+  @Test(timeout = 30000)
+  public void testProducerConsumer() throws Exception {
+    final int count = 100000;
+    SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(64);
+    Thread producer = new Thread(() -> {
+      for (int i = 0; i < count; i++) {
+        while (!buffer.offer(i)) {
+          Thread.yield();
+        }
+      }
+    });
+    producer.start();
+
+    List<Integer> received = new ArrayList<>(count);
+    while (received.size() < count) {
+      Integer value = buffer.poll(1, TimeUnit.SECONDS);
+      if (value != null) {
+        received.add(value);
+      }
+    }
+    producer.join();
+
+    for (int i = 0; i < count; i++) {
+      Assert.assertEquals(i, (int) received.get(i));
+    }
+    Assert.assertNull(buffer.poll());
+  }
+}
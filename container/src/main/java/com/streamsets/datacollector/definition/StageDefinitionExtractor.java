@@ -195,7 +195,20 @@ public abstract class StageDefinitionExtractor {
   }
 
   public StageDefinition extract(StageLibraryDefinition libraryDef, Class<? extends Stage> klass, Object contextMsg) {
-    List<ErrorMessage> errors = validate(libraryDef, klass, contextMsg);
+    return extract(libraryDef, klass, contextMsg, true);
+  }
+
+  /**
+   * Extracts the stage definition, skipping the validation if <code>validate</code> is <code>false</code>. Only to be
+   * used for stages known to have validated already with the very same classes.
+   */
+  public StageDefinition extract(
+      StageLibraryDefinition libraryDef,
+      Class<? extends Stage> klass,
+      Object contextMsg,
+      boolean validate
+  ) {
+    List<ErrorMessage> errors = validate ? validate(libraryDef, klass, contextMsg) : Collections.emptyList();
     if (errors.isEmpty()) {
       try {
         contextMsg = Utils.formatL("{} Stage='{}'", contextMsg, klass.getSimpleName());
@@ -15,10 +15,13 @@
  */
 package com.streamsets.datacollector.execution;
 
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotPage;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotStageSummary;
 import com.streamsets.datacollector.util.PipelineException;
 
 import java.io.Closeable;
 import java.io.InputStream;
+import java.util.List;
 
 public interface Snapshot extends Closeable {
 
@@ -26,4 +29,10 @@ public interface Snapshot extends Closeable {
 
   public InputStream getOutput() throws PipelineException;
 
+  // stages captured in each batch, without their records
+  public List<List<SnapshotStageSummary>> getIndex() throws PipelineException;
+
+  // up to len records the stage wrote to the lane in the given batch, starting at offset
+  public SnapshotPage getPage(int batch, String instanceName, String lane, int offset, int len) throws PipelineException;
+
 }
@@ -29,7 +29,11 @@ public interface SnapshotStore {
   // creates a snapshot info, in progress
   public SnapshotInfo create(String user, String name, String rev, String id, String label, boolean failureSnapshot) throws PipelineException;
 
+  // appends a captured batch to the data of the snapshot, the snapshot stays in progress.
+  public void appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch) throws PipelineException;
+
   // saves the data of the snapshot and updates the corresponding snapshot info.
+  // the given batches are appended after the ones passed to appendBatch.
   public SnapshotInfo save(
       String name,
       String rev,
@@ -38,6 +42,9 @@ public interface SnapshotStore {
       List<List<StageOutput>> snapshotBatches
   ) throws PipelineException;
 
+  // completes a snapshot whose batches were all passed to appendBatch and updates the corresponding snapshot info.
+  public SnapshotInfo finishCapture(String name, String rev, String id, long batchNumber) throws PipelineException;
+
   // Updates the label of snapshot by updating the Snapshot Info
   public SnapshotInfo updateLabel(String name, String rev, String id, String snapshotLabel) throws PipelineException;
 
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.streamsets.datacollector.util.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Adjusts the batch size requested from poll origins using an additive increase / multiplicative decrease policy.
+ * <p/>
+ * After every batch the end to end batch latency and the heap usage are compared with their targets. If either is
+ * over target the batch size is cut by the decrease factor, otherwise if the origin filled the batch the batch size
+ * grows by the increase step. The batch size always stays between the configured minimum and
+ * <code>production.maxBatchSize</code>, it starts at the maximum so pipelines that meet their targets behave as
+ * without the controller.
+ * <p/>
+ * The heap usage is the occupancy of the tenured pool after the last collection, the current heap usage includes
+ * garbage that the next collection frees and would cut the batch size for nothing.
+ */
+public class AdaptiveBatchSizeController {
+  static final String GAUGE_BATCH_SIZE = "Batch Size";
+  static final String GAUGE_LAST_LATENCY = "Last Batch Latency (ms)";
+  static final String GAUGE_HEAP_USAGE = "Heap Usage (%)";
+  static final String GAUGE_DECREASES = "Decreases";
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final long targetLatencyMillis;
+  private final double heapBudget;
+  private final int increaseStep;
+  private final double decreaseFactor;
+  private final DoubleSupplier heapUsage;
+  private final Map<String, Object> gaugeMap;
+
+  private volatile int batchSize;
+  private long decreases;
+
+  public static boolean isEnabled(Configuration configuration) {
+    return configuration.get(Constants.ADAPTIVE_BATCH_SIZE_ENABLED_KEY, Constants.ADAPTIVE_BATCH_SIZE_ENABLED_DEFAULT);
+  }
+
+  public AdaptiveBatchSizeController(Configuration configuration, Map<String, Object> gaugeMap) {
+    this(
+        configuration.get(Constants.ADAPTIVE_BATCH_SIZE_MIN_KEY, Constants.ADAPTIVE_BATCH_SIZE_MIN_DEFAULT),
+        configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT),
+        configuration.get(
+            Constants.ADAPTIVE_BATCH_SIZE_TARGET_LATENCY_MS_KEY,
+            Constants.ADAPTIVE_BATCH_SIZE_TARGET_LATENCY_MS_DEFAULT
+        ),
+        configuration.get(
+            Constants.ADAPTIVE_BATCH_SIZE_HEAP_BUDGET_PERCENT_KEY,
+            Constants.ADAPTIVE_BATCH_SIZE_HEAP_BUDGET_PERCENT_DEFAULT
+        ) / 100d,
+        configuration.get(
+            Constants.ADAPTIVE_BATCH_SIZE_INCREASE_STEP_KEY,
+            Constants.ADAPTIVE_BATCH_SIZE_INCREASE_STEP_DEFAULT
+        ),
+        configuration.get(
+            Constants.ADAPTIVE_BATCH_SIZE_DECREASE_PERCENT_KEY,
+            Constants.ADAPTIVE_BATCH_SIZE_DECREASE_PERCENT_DEFAULT
+        ) / 100d,
+        createHeapUsageSupplier(),
+        gaugeMap
+    );
+  }
+
+  @VisibleForTesting
+  AdaptiveBatchSizeController(
+      int minBatchSize,
+      int maxBatchSize,
+      long targetLatencyMillis,
+      double heapBudget,
+      int increaseStep,
+      double decreaseFactor,
+      DoubleSupplier heapUsage,
+      Map<String, Object> gaugeMap
+  ) {
+    Preconditions.checkArgument(minBatchSize > 0, "Minimum batch size must be greater than zero");
+    Preconditions.checkArgument(maxBatchSize >= minBatchSize, "Maximum batch size must not be less than the minimum");
+    Preconditions.checkArgument(targetLatencyMillis > 0, "Target latency must be greater than zero");
+    Preconditions.checkArgument(heapBudget > 0 && heapBudget <= 1, "Heap budget must be between 1 and 100 percent");
+    Preconditions.checkArgument(increaseStep > 0, "Increase step must be greater than zero");
+    Preconditions.checkArgument(
+        decreaseFactor > 0 && decreaseFactor < 1,
+        "Decrease percent must be between 1 and 99 percent"
+    );
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.targetLatencyMillis = targetLatencyMillis;
+    this.heapBudget = heapBudget;
+    this.increaseStep = increaseStep;
+    this.decreaseFactor = decreaseFactor;
+    this.heapUsage = heapUsage;
+    this.gaugeMap = gaugeMap;
+    batchSize = maxBatchSize;
+    gaugeMap.put(GAUGE_BATCH_SIZE, batchSize);
+    gaugeMap.put(GAUGE_LAST_LATENCY, 0L);
+    gaugeMap.put(GAUGE_HEAP_USAGE, 0L);
+    gaugeMap.put(GAUGE_DECREASES, 0L);
+  }
+
+  /**
+   * Returns the batch size to request for the next batch.
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Updates the batch size with the outcome of a batch.
+   *
+   * @param latencyMillis end to end duration of the batch.
+   * @param inputRecords number of records produced by the origin in the batch.
+   */
+  public synchronized void batchCompleted(long latencyMillis, int inputRecords) {
+    double heap = heapUsage.getAsDouble();
+    int current = batchSize;
+    if (latencyMillis > targetLatencyMillis || heap > heapBudget) {
+      batchSize = Math.max(minBatchSize, (int) (current * decreaseFactor));
+      decreases++;
+    } else if (inputRecords >= current) {
+      // growing the batch only helps if the origin was limited by it
+      batchSize = (int) Math.min((long) maxBatchSize, (long) current + increaseStep);
+    }
+    gaugeMap.put(GAUGE_BATCH_SIZE, batchSize);
+    gaugeMap.put(GAUGE_LAST_LATENCY, latencyMillis);
+    gaugeMap.put(GAUGE_HEAP_USAGE, Math.round(heap * 100));
+    gaugeMap.put(GAUGE_DECREASES, decreases);
+  }
+
+  /**
+   * Returns the supplier of the tenured pool occupancy after the last collection, falling back to the current heap
+   * usage on JVMs that don't report it.
+   */
+  @VisibleForTesting
+  static DoubleSupplier createHeapUsageSupplier() {
+    MemoryPoolMXBean tenuredPool = getTenuredPool();
+    if (tenuredPool == null) {
+      return () -> getUsage(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
+    }
+    return () -> getUsage(tenuredPool.getCollectionUsage());
+  }
+
+  /**
+   * The tenured pool is the heap pool supporting both usage thresholds, young pools only support the collection
+   * usage threshold. Single generation collectors have a single pool supporting both.
+   */
+  private static MemoryPoolMXBean getTenuredPool() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP
+          && pool.isUsageThresholdSupported()
+          && pool.isCollectionUsageThresholdSupported()
+          && pool.getCollectionUsage() != null) {
+        return pool;
+      }
+    }
+    return null;
+  }
+
+  private static double getUsage(MemoryUsage usage) {
+    long max = (usage.getMax() > 0) ? usage.getMax() : usage.getCommitted();
+    return (max > 0) ? (double) usage.getUsed() / max : 0;
+  }
+
+}
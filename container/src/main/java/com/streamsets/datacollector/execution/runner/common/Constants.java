@@ -26,6 +26,32 @@ public class Constants {
   public static final String PIPELINE_CLUSTER_TOKEN_KEY = "pipeline.cluster.token";
   public static final String MAX_BATCH_SIZE_KEY = "production.maxBatchSize";
   public static final int MAX_BATCH_SIZE_DEFAULT = 50000;
+  public static final String ADAPTIVE_BATCH_SIZE_ENABLED_KEY = "production.adaptiveBatchSize.enabled";
+  public static final boolean ADAPTIVE_BATCH_SIZE_ENABLED_DEFAULT = false;
+  public static final String ADAPTIVE_BATCH_SIZE_MIN_KEY = "production.adaptiveBatchSize.min";
+  public static final int ADAPTIVE_BATCH_SIZE_MIN_DEFAULT = 100;
+  public static final String ADAPTIVE_BATCH_SIZE_TARGET_LATENCY_MS_KEY = "production.adaptiveBatchSize.targetLatencyMs";
+  public static final long ADAPTIVE_BATCH_SIZE_TARGET_LATENCY_MS_DEFAULT = 5000;
+  public static final String ADAPTIVE_BATCH_SIZE_HEAP_BUDGET_PERCENT_KEY =
+      "production.adaptiveBatchSize.heapBudgetPercent";
+  public static final int ADAPTIVE_BATCH_SIZE_HEAP_BUDGET_PERCENT_DEFAULT = 80;
+  public static final String ADAPTIVE_BATCH_SIZE_INCREASE_STEP_KEY = "production.adaptiveBatchSize.increaseStep";
+  public static final int ADAPTIVE_BATCH_SIZE_INCREASE_STEP_DEFAULT = 100;
+  public static final String ADAPTIVE_BATCH_SIZE_DECREASE_PERCENT_KEY = "production.adaptiveBatchSize.decreasePercent";
+  public static final int ADAPTIVE_BATCH_SIZE_DECREASE_PERCENT_DEFAULT = 50;
+  public static final String ASYNC_ACKNOWLEDGEMENTS_ENABLED_KEY = "production.asyncAcknowledgements.enabled";
+  public static final boolean ASYNC_ACKNOWLEDGEMENTS_ENABLED_DEFAULT = false;
+  public static final String ASYNC_ACKNOWLEDGEMENTS_MAX_PENDING_BATCHES_KEY =
+      "production.asyncAcknowledgements.maxPendingBatches";
+  public static final int ASYNC_ACKNOWLEDGEMENTS_MAX_PENDING_BATCHES_DEFAULT = 4;
+  public static final String ERROR_RECORDS_SPILL_ENABLED_KEY = "production.errorRecordsSpill.enabled";
+  public static final boolean ERROR_RECORDS_SPILL_ENABLED_DEFAULT = false;
+  public static final String ERROR_RECORDS_SPILL_THRESHOLD_KEY = "production.errorRecordsSpill.threshold";
+  public static final int ERROR_RECORDS_SPILL_THRESHOLD_DEFAULT = 10000;
+  public static final String ERROR_RECORDS_SPILL_MEMORY_MB_KEY = "production.errorRecordsSpill.memoryMB";
+  public static final int ERROR_RECORDS_SPILL_MEMORY_MB_DEFAULT = 16;
+  public static final String ERROR_RECORDS_SPILL_MAX_DISK_MB_KEY = "production.errorRecordsSpill.maxDiskMB";
+  public static final int ERROR_RECORDS_SPILL_MAX_DISK_MB_DEFAULT = 1024;
   public static final String DELIVERY_GUARANTEE = "deliveryGuarantee";
   public static final String MAX_ERROR_FILE_SIZE_KEY = "production.maxErrorFileSize";
   public static final String MAX_ERROR_FILE_SIZE_DEFAULT = "1024MB";
@@ -46,6 +46,7 @@ import com.streamsets.datacollector.event.json.MetricRegistryJson;
 import com.streamsets.datacollector.runner.BatchContextImpl;
 import com.streamsets.datacollector.runner.BatchImpl;
 import com.streamsets.datacollector.runner.BatchListener;
+import com.streamsets.datacollector.runner.ErrorRecordSpillConfig;
 import com.streamsets.datacollector.runner.ErrorSink;
 import com.streamsets.datacollector.runner.EventSink;
 import com.streamsets.datacollector.runner.FullPipeBatch;
@@ -65,14 +66,17 @@ import com.streamsets.datacollector.runner.StageContext;
 import com.streamsets.datacollector.runner.StageOutput;
 import com.streamsets.datacollector.runner.StagePipe;
 import com.streamsets.datacollector.runner.StageRuntime;
+import com.streamsets.datacollector.runner.production.AsyncAckSourceOffsetTracker;
 import com.streamsets.datacollector.runner.production.BadRecordsHandler;
 import com.streamsets.datacollector.runner.production.PipelineErrorNotificationRequest;
+import com.streamsets.datacollector.runner.production.ProductionSourceOffsetTracker;
 import com.streamsets.datacollector.runner.production.ReportErrorDelegate;
 import com.streamsets.datacollector.runner.production.StatsAggregationHandler;
 import com.streamsets.datacollector.usagestats.StatsCollector;
 import com.streamsets.datacollector.util.AggregatorUtil;
 import com.streamsets.datacollector.util.Configuration;
 import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.datacollector.util.PipelineDirectoryUtil;
 import com.streamsets.datacollector.util.PipelineException;
 import com.streamsets.datacollector.util.ValidationUtil;
 import com.streamsets.pipeline.api.Batch;
@@ -93,9 +97,11 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.File;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -153,6 +159,11 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private Long rateLimit;
 
   private RateLimiter rateLimiter;
+  // null unless production.adaptiveBatchSize.enabled is set
+  private final AdaptiveBatchSizeController batchSizeController;
+  private final ErrorRecordSpillConfig errorRecordSpillConfig;
+  // null unless production.asyncAcknowledgements.enabled is set and applicable to the pipeline
+  private AsyncAckSourceOffsetTracker asyncAckTracker;
 
   /*indicates if the execution must be stopped after the current batch*/
   private volatile boolean stop = false;
@@ -180,7 +191,8 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   private BlockingQueue<Record> statsAggregatorRequests;
   private final List<BatchListener> batchListenerList = new CopyOnWriteArrayList<>();
   private ThreadHealthReporter threadHealthReporter;
-  private final List<List<StageOutput>> capturedBatches = new ArrayList<>();
+  /*number of batches appended to the snapshot being captured*/
+  private int capturedBatches = 0;
   private PipeContext pipeContext = null;
   private PipelineConfigBean pipelineConfigBean = null;
   private PipelineConfiguration pipelineConfiguration = null;
@@ -245,6 +257,56 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     batchErrorMessagesCounter = MetricsConfigurator.createCounter(metrics, "pipeline.batchErrorMessages", pipelineName,
       revision);
     runnersHistogram = MetricsConfigurator.createHistogram5Min(metrics, "pipeline.runners", pipelineName, revision);
+    if (AdaptiveBatchSizeController.isEnabled(configuration)) {
+      batchSizeController = new AdaptiveBatchSizeController(
+          configuration,
+          MetricsConfigurator.createGauge(
+              metrics,
+              "pipeline.adaptiveBatchSize",
+              (Comparator<String>) null,
+              pipelineName,
+              revision
+          ).getValue()
+      );
+    } else {
+      batchSizeController = null;
+    }
+    if (configuration.get(Constants.ERROR_RECORDS_SPILL_ENABLED_KEY, Constants.ERROR_RECORDS_SPILL_ENABLED_DEFAULT)) {
+      errorRecordSpillConfig = new ErrorRecordSpillConfig(
+          createErrorRecordsSpillDir(),
+          configuration.get(
+              Constants.ERROR_RECORDS_SPILL_THRESHOLD_KEY,
+              Constants.ERROR_RECORDS_SPILL_THRESHOLD_DEFAULT
+          ),
+          configuration.get(
+              Constants.ERROR_RECORDS_SPILL_MEMORY_MB_KEY,
+              Constants.ERROR_RECORDS_SPILL_MEMORY_MB_DEFAULT
+          ) * 1024L * 1024L,
+          configuration.get(
+              Constants.ERROR_RECORDS_SPILL_MAX_DISK_MB_KEY,
+              Constants.ERROR_RECORDS_SPILL_MAX_DISK_MB_DEFAULT
+          ) * 1024L * 1024L,
+          MetricsConfigurator.createCounter(metrics, "pipeline.errorRecordsSpilledBytes", pipelineName, revision),
+          MetricsConfigurator.createTimer(metrics, "pipeline.errorRecordsSpillReadBack", pipelineName, revision)
+      );
+    } else {
+      errorRecordSpillConfig = null;
+    }
+  }
+
+  /**
+   * Spilled error records only live for the duration of a batch, segment files left over by a previous run that did
+   * not shut down cleanly are deleted.
+   */
+  private File createErrorRecordsSpillDir() {
+    File spillDir = PipelineDirectoryUtil.getPipelineErrorRecordsSpillDir(runtimeInfo, pipelineName, revision);
+    if (spillDir.exists() && !PipelineDirectoryUtil.deleteAll(spillDir)) {
+      LOG.warn("Could not delete error records spill directory '{}'", spillDir.getAbsolutePath());
+    }
+    if (!spillDir.exists() && !spillDir.mkdirs()) {
+      throw new RuntimeException(Utils.format("Could not create directory '{}'", spillDir.getAbsolutePath()));
+    }
+    return spillDir;
   }
 
   public void setObserveRequests(BlockingQueue<Object> observeRequests) {
@@ -397,6 +459,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       if (originPipe.getStage().getStage() instanceof PushSource) {
         runPushSource();
       } else {
+        enableAsyncAcknowledgements(pipes);
         runPollSource();
       }
 
@@ -457,11 +520,19 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   private FullPipeBatch createFullPipeBatch(String entityName, String previousOffset) {
+    return createFullPipeBatch(
+        entityName,
+        previousOffset,
+        configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT)
+    );
+  }
+
+  private FullPipeBatch createFullPipeBatch(String entityName, String previousOffset, int batchSize) {
     FullPipeBatch pipeBatch;
     if(batchesToCapture > 0) {
       pipeBatch = new FullPipeBatch(entityName, previousOffset, snapshotBatchSize, true);
     } else {
-      pipeBatch = new FullPipeBatch(entityName, previousOffset, configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT), false);
+      pipeBatch = new FullPipeBatch(entityName, previousOffset, batchSize, false, errorRecordSpillConfig);
     }
     pipeBatch.setRateLimiter(rateLimiter);
 
@@ -530,6 +601,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
       // We try to create partial batch on processing failure
       createFailureBatch(batchContext.getPipeBatch());
+      releaseErrorRecordSpill(batchContext.getPipeBatch());
 
       // We got exception while executing pipeline which is a signal that we should stop processing
       ((StageContext)originPipe.getStage().getContext()).setStop(true);
@@ -570,6 +642,42 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     ((StageContext)originPipe.getStage().getContext()).setStop(true);
   }
 
+  /**
+   * Lets destinations acknowledge batches asynchronously when enabled. Only the plain offset tracker qualifies, origins
+   * that commit on their own (OffsetCommitter) would commit data of batches that were not acknowledged yet.
+   */
+  private void enableAsyncAcknowledgements(List<PipeRunner> pipes) {
+    if (!configuration.get(
+        Constants.ASYNC_ACKNOWLEDGEMENTS_ENABLED_KEY,
+        Constants.ASYNC_ACKNOWLEDGEMENTS_ENABLED_DEFAULT
+    )) {
+      return;
+    }
+    if (deliveryGuarantee != DeliveryGuarantee.AT_LEAST_ONCE
+        || !(offsetTracker instanceof ProductionSourceOffsetTracker)) {
+      LOG.info("Asynchronous acknowledgements are not applicable to this pipeline, destinations stay synchronous");
+      return;
+    }
+    asyncAckTracker = new AsyncAckSourceOffsetTracker(
+        offsetTracker,
+        configuration.get(
+            Constants.ASYNC_ACKNOWLEDGEMENTS_MAX_PENDING_BATCHES_KEY,
+            Constants.ASYNC_ACKNOWLEDGEMENTS_MAX_PENDING_BATCHES_DEFAULT
+        )
+    );
+    offsetTracker = asyncAckTracker;
+    for (PipeRunner pipeRunner : pipes) {
+      for (Pipe pipe : pipeRunner.getPipes()) {
+        if (pipe instanceof StagePipe && pipe.getStage().getDefinition().getType() == StageType.TARGET) {
+          ((StageContext) pipe.getStage().getContext()).getStageRunnerSharedMap().put(
+              AsyncAckSourceOffsetTracker.ACKNOWLEDGER_KEY,
+              asyncAckTracker.getAcknowledger()
+          );
+        }
+      }
+    }
+  }
+
   public void runPollSource() throws StageException, PipelineException {
     while (!offsetTracker.isFinished() && !stop && !finished) {
       if (threadHealthReporter != null) {
@@ -586,57 +694,94 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
 
       // Start of the batch execution
       long start = System.currentTimeMillis();
-      FullPipeBatch pipeBatch = createFullPipeBatch(Source.POLL_SOURCE_OFFSET_KEY, offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
-
-      // Run origin
-      Map<String, Long> memoryConsumedByStage = new HashMap<>();
-      Map<String, Object> stageBatchMetrics = new HashMap<>();
-      processPipe(
-        originPipe,
-        pipeBatch,
-        false,
-        null,
-        null,
-        memoryConsumedByStage,
-        stageBatchMetrics
-      );
-
-      // Since the origin already run, the FullPipeBatch will have a new offset
-      String newOffset = pipeBatch.getNewOffset();
-
+      if (asyncAckTracker != null) {
+        asyncAckTracker.startBatch();
+      }
+      boolean batchSucceeded = false;
       try {
-        // Run rest of the pipeline
-        runSourceLessBatch(
-          start,
-          pipeBatch,
-          Source.POLL_SOURCE_OFFSET_KEY,
-          newOffset,
-          memoryConsumedByStage,
-          stageBatchMetrics
+        // Push origins get their batch size once when they start, only poll origins follow the controller
+        FullPipeBatch pipeBatch = createFullPipeBatch(
+            Source.POLL_SOURCE_OFFSET_KEY,
+            offsetTracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY),
+            (batchSizeController != null) ? batchSizeController.getBatchSize()
+                : configuration.get(Constants.MAX_BATCH_SIZE_KEY, Constants.MAX_BATCH_SIZE_DEFAULT)
         );
-      } catch (Throwable t) {
-        // We try to create partial batch on processing failure
-        createFailureBatch(pipeBatch);
-
-        // If applicable record the error codes
-        if(statsCollector != null) {
-          if(exceptionFromExecution instanceof StageException) {
-            statsCollector.errorCode(((StageException) exceptionFromExecution).getErrorCode());
-          }
-          if(exceptionFromExecution instanceof PipelineRuntimeException) {
-            statsCollector.errorCode(((PipelineRuntimeException) exceptionFromExecution).getErrorCode());
+
+        // Run origin
+        Map<String, Long> memoryConsumedByStage = new HashMap<>();
+        Map<String, Object> stageBatchMetrics = new HashMap<>();
+        try {
+          processPipe(
+            originPipe,
+            pipeBatch,
+            false,
+            null,
+            null,
+            memoryConsumedByStage,
+            stageBatchMetrics
+          );
+        } catch (Throwable t) {
+          releaseErrorRecordSpill(pipeBatch);
+          throw t;
+        }
+
+        // Since the origin already run, the FullPipeBatch will have a new offset
+        String newOffset = pipeBatch.getNewOffset();
+
+        try {
+          // Run rest of the pipeline
+          runSourceLessBatch(
+            start,
+            pipeBatch,
+            Source.POLL_SOURCE_OFFSET_KEY,
+            newOffset,
+            memoryConsumedByStage,
+            stageBatchMetrics
+          );
+        } catch (Throwable t) {
+          // We try to create partial batch on processing failure
+          createFailureBatch(pipeBatch);
+          releaseErrorRecordSpill(pipeBatch);
+
+          // If applicable record the error codes
+          if(statsCollector != null) {
+            if(exceptionFromExecution instanceof StageException) {
+              statsCollector.errorCode(((StageException) exceptionFromExecution).getErrorCode());
+            }
+            if(exceptionFromExecution instanceof PipelineRuntimeException) {
+              statsCollector.errorCode(((PipelineRuntimeException) exceptionFromExecution).getErrorCode());
+            }
           }
+
+          Throwables.propagateIfInstanceOf(t, StageException.class);
+          Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
+          Throwables.propagate(t);
         }
+        batchSucceeded = true;
+
+        if (batchSizeController != null && !pipeBatch.isIdleBatch()) {
+          batchSizeController.batchCompleted(System.currentTimeMillis() - start, pipeBatch.getInputRecords());
+        }
+      } finally {
+        if (asyncAckTracker != null && !batchSucceeded) {
+          // Acknowledgements of a failed batch must not be claimed by the commit of a later batch
+          asyncAckTracker.abortBatch();
+        }
+      }
 
-        Throwables.propagateIfInstanceOf(t, StageException.class);
-        Throwables.propagateIfInstanceOf(t, PipelineRuntimeException.class);
-        Throwables.propagate(t);
+      if (asyncAckTracker != null) {
+        asyncAckTracker.awaitCapacity();
       }
 
       for (BatchListener batchListener : batchListenerList) {
         batchListener.postBatch();
       }
     }
+
+    // Make sure that all offsets are committed before the pipeline is stopped
+    if (asyncAckTracker != null) {
+      asyncAckTracker.awaitAll();
+    }
   }
 
   @Override
@@ -804,6 +949,9 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
   }
 
   public Map<String, String> getCommittedOffsets() {
+    if (asyncAckTracker != null) {
+      return asyncAckTracker.getCommittedOffsets();
+    }
     return offsetTracker.getOffsets();
   }
 
@@ -834,7 +982,7 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     synchronized (this) {
       this.snapshotBatchSize = 0;
       this.batchesToCapture = 0;
-      capturedBatches.clear();
+      capturedBatches = 0;
     }
   }
 
@@ -966,7 +1114,9 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
       List<StageOutput> snapshot = pipeBatch.getSnapshotsOfAllStagesOutput();
       if( batchesToCapture > 0 && ValidationUtil.isSnapshotOutputUsable(pipeBatch.getSnapshotsOfAllStagesOutput())) {
         if (!snapshot.isEmpty()) {
-          capturedBatches.add(snapshot);
+          // append right away, so that captured batches are not all kept in memory until the last one
+          snapshotStore.appendBatch(pipelineName, revision, snapshotName, snapshot);
+          capturedBatches++;
         }
         /*
          * Reset the capture snapshot variable only after capturing the snapshot
@@ -976,9 +1126,9 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
         if (batchesToCapture == 0) {
           snapshotBatchSize = 0;
           batchesToCapture = 0;
-          if (!capturedBatches.isEmpty()) {
-            snapshotStore.save(pipelineName, revision, snapshotName, batchCountMeter.getCount(), capturedBatches);
-            capturedBatches.clear();
+          if (capturedBatches > 0) {
+            snapshotStore.finishCapture(pipelineName, revision, snapshotName, batchCountMeter.getCount());
+            capturedBatches = 0;
           }
         }
       }
@@ -1144,6 +1294,14 @@ public class ProductionPipelineRunner implements PipelineRunner, PushSourceConte
     }
   }
 
+  /**
+   * Deletes the error records spilled by a failed batch, the bad records handler only releases the spill of batches it
+   * handles.
+   */
+  private void releaseErrorRecordSpill(FullPipeBatch pipeBatch) {
+    pipeBatch.getErrorSink().releaseSpill();
+  }
+
   /**
    * Create special batch by salvaging memory structures when pipelines gets into un-recoverable error.
    *
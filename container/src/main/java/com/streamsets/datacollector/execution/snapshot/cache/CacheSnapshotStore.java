@@ -64,6 +64,20 @@ public class CacheSnapshotStore implements SnapshotStore {
     }
   }
 
+  @Override
+  public void appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch) throws PipelineException {
+    synchronized (lockCache.getLock(name)) {
+      try {
+        if (getSnapshotInfoFromCache(name, rev, id) == null) {
+          throw new PipelineException(ContainerError.CONTAINER_0605);
+        }
+        snapshotStore.appendBatch(name, rev, id, snapshotBatch);
+      } catch (ExecutionException e) {
+        throw new PipelineException(ContainerError.CONTAINER_0600, id, name, rev, e.toString(), e);
+      }
+    }
+  }
+
   @Override
   public SnapshotInfo save(
       String name,
@@ -87,6 +101,22 @@ public class CacheSnapshotStore implements SnapshotStore {
     }
   }
 
+  @Override
+  public SnapshotInfo finishCapture(String name, String rev, String id, long batchNumber) throws PipelineException {
+    synchronized (lockCache.getLock(name)) {
+      try {
+        if (getSnapshotInfoFromCache(name, rev, id) == null) {
+          throw new PipelineException(ContainerError.CONTAINER_0605);
+        }
+        SnapshotInfo updatedSnapshotInfo = snapshotStore.finishCapture(name, rev, id, batchNumber);
+        snapshotStateCache.put(getCacheKey(name, rev, id), updatedSnapshotInfo);
+        return updatedSnapshotInfo;
+      } catch (ExecutionException e) {
+        throw new PipelineException(ContainerError.CONTAINER_0600, id, name, rev, e.toString(), e);
+      }
+    }
+  }
+
   @Override
   public SnapshotInfo updateLabel(String name, String rev, String id, String snapshotLabel) throws PipelineException {
     return snapshotStore.updateLabel(name, rev, id, snapshotLabel);
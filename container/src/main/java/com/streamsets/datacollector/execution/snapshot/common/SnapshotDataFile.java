@@ -0,0 +1,442 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.common;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.RecordJson;
+import com.streamsets.datacollector.restapi.bean.StageOutputJson;
+import com.streamsets.datacollector.runner.StageOutput;
+import com.streamsets.pipeline.api.Record;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot data on disk.
+ * <p/>
+ * Batches are appended as they are captured, one length-prefixed frame per stage output:
+ * <pre>
+ *   int     batch
+ *   UTF     stage instance name
+ *   int     number of output lanes, followed by a (UTF lane, int records) pair per lane
+ *   int     error records
+ *   int     stage errors
+ *   int     event records
+ *   int     payload length
+ *   byte[]  payload, the stage output as JSON compressed with GZIP
+ * </pre>
+ * The frame headers are enough to list the content of the snapshot and to skip to a given stage without
+ * decompressing anything else. Snapshots written before this format are a single JSON file and are still read.
+ */
+public class SnapshotDataFile {
+  public static final String DATA_FILE_NAME = "snapshot.data";
+  public static final String LEGACY_DATA_FILE_NAME = "snapshot.json";
+
+  private static final int MAGIC = 0x53444353;
+  private static final int VERSION = 1;
+
+  private final File dataFile;
+  private final File legacyDataFile;
+  private final ObjectMapper json;
+  // number of batches in the data file, -1 until known
+  private int batchCount = -1;
+
+  public SnapshotDataFile(File snapshotDir, ObjectMapper json) {
+    this.dataFile = new File(snapshotDir, DATA_FILE_NAME);
+    this.legacyDataFile = new File(snapshotDir, LEGACY_DATA_FILE_NAME);
+    this.json = json;
+  }
+
+  public boolean exists() {
+    return dataFile.exists() || legacyDataFile.exists();
+  }
+
+  /**
+   * Makes sure the data file exists, even if no batch has been appended to it.
+   */
+  public void create() throws IOException {
+    if (!dataFile.exists() || dataFile.length() == 0) {
+      try (DataOutputStream out = new DataOutputStream(new FileOutputStream(dataFile))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+      }
+      batchCount = 0;
+    }
+  }
+
+  /**
+   * Appends a captured batch as the next batch of the snapshot.
+   * <p/>
+   * The number of batches is kept by the instance, the frame headers are only scanned by the first append to a data
+   * file that this instance did not create, so the same instance should be used for all the batches of a capture.
+   */
+  public void append(List<StageOutput> batch) throws IOException {
+    create();
+    if (batchCount < 0) {
+      batchCount = readIndex().size();
+    }
+    int batchIndex = batchCount;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(dataFile, true)))) {
+      for (StageOutput stageOutput : batch) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (OutputStream compressed = new GZIPOutputStream(payload)) {
+          json.writeValue(compressed, new StageOutputJson(stageOutput));
+        }
+        SnapshotStageSummary summary = summarize(batchIndex, stageOutput);
+        out.writeInt(summary.getBatch());
+        out.writeUTF(summary.getInstanceName());
+        out.writeInt(summary.getLaneRecords().size());
+        for (Map.Entry<String, Integer> lane : summary.getLaneRecords().entrySet()) {
+          out.writeUTF(lane.getKey());
+          out.writeInt(lane.getValue());
+        }
+        out.writeInt(summary.getErrorRecords());
+        out.writeInt(summary.getStageErrors());
+        out.writeInt(summary.getEventRecords());
+        out.writeInt(payload.size());
+        payload.writeTo(out);
+      }
+    }
+    batchCount++;
+  }
+
+  /**
+   * Returns the stages captured in each batch, reading only the frame headers.
+   */
+  public List<List<SnapshotStageSummary>> readIndex() throws IOException {
+    List<List<SnapshotStageSummary>> index = new ArrayList<>();
+    if (isLegacy()) {
+      readLegacy((batch, stageOutput) -> {
+        addToIndex(index, summarize(batch, stageOutput));
+        return true;
+      });
+    } else {
+      readFrames(summary -> false, (summary, payload) -> {
+        addToIndex(index, summary);
+        return true;
+      });
+    }
+    return index;
+  }
+
+  /**
+   * Returns up to {@code len} records the stage wrote to the lane in the given batch, starting at {@code offset},
+   * or null if the snapshot does not have that stage or lane. Only the matching frame is decompressed and records
+   * before the offset are skipped without being deserialized.
+   */
+  public SnapshotPage readPage(int batch, String instanceName, String lane, int offset, int len) throws IOException {
+    SnapshotPage[] page = new SnapshotPage[1];
+    if (isLegacy()) {
+      readLegacy((batchIndex, stageOutput) -> {
+        if (batchIndex != batch || !stageOutput.getInstanceName().equals(instanceName)) {
+          return true;
+        }
+        List<Record> records = stageOutput.getOutput().get(lane);
+        if (records != null) {
+          int from = Math.min(offset, records.size());
+          int to = Math.min(from + len, records.size());
+          page[0] = new SnapshotPage(batch, instanceName, lane, offset, records.size(), records.subList(from, to));
+        }
+        return false;
+      });
+    } else {
+      readFrames(
+          summary -> summary.getBatch() == batch && summary.getInstanceName().equals(instanceName),
+          (summary, payload) -> {
+            if (payload == null) {
+              return true;
+            }
+            Integer totalRecords = summary.getLaneRecords().get(lane);
+            if (totalRecords != null) {
+              try (JsonParser parser = json.getFactory().createParser(
+                  new GZIPInputStream(new ByteArrayInputStream(payload))
+              )) {
+                page[0] = new SnapshotPage(
+                    batch,
+                    instanceName,
+                    lane,
+                    offset,
+                    totalRecords,
+                    readLaneRecords(parser, lane, offset, len)
+                );
+              }
+            }
+            return false;
+          }
+      );
+    }
+    return page[0];
+  }
+
+  /**
+   * Returns the snapshot in the JSON format of {@link com.streamsets.datacollector.restapi.bean.SnapshotDataJson},
+   * decompressing one frame at a time while the stream is read.
+   */
+  public InputStream openJson() throws IOException {
+    if (isLegacy()) {
+      return new FileInputStream(legacyDataFile);
+    }
+    return new JsonStream();
+  }
+
+  private boolean isLegacy() {
+    return !dataFile.exists() && legacyDataFile.exists();
+  }
+
+  private interface FrameHandler {
+    // payload is null unless requested for the frame; returns false to stop reading
+    boolean handle(SnapshotStageSummary summary, byte[] payload) throws IOException;
+  }
+
+  private interface StageOutputHandler {
+    // returns false to stop reading
+    boolean handle(int batch, StageOutput stageOutput) throws IOException;
+  }
+
+  private void readFrames(Predicate<SnapshotStageSummary> readPayload, FrameHandler handler) throws IOException {
+    if (!dataFile.exists()) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile)))) {
+      // a frame cut short, e.g. by a crash while appending, ends the snapshot
+      try {
+        readFileHeader(in);
+        while (true) {
+          SnapshotStageSummary summary = readSummary(in);
+          int payloadLength = in.readInt();
+          byte[] payload = null;
+          if (readPayload.test(summary)) {
+            payload = new byte[payloadLength];
+            in.readFully(payload);
+          } else if (in.skipBytes(payloadLength) < payloadLength) {
+            return;
+          }
+          if (!handler.handle(summary, payload)) {
+            return;
+          }
+        }
+      } catch (EOFException e) {
+        // end of the snapshot
+      }
+    }
+  }
+
+  private void readLegacy(StageOutputHandler handler) throws IOException {
+    try (JsonParser parser = json.getFactory().createParser(legacyDataFile)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        if (parser.nextToken() == JsonToken.START_ARRAY && "snapshotBatches".equals(field)) {
+          int batch = 0;
+          while (parser.nextToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+              StageOutput stageOutput = json.readValue(parser, StageOutputJson.class).getStageOutput();
+              if (!handler.handle(batch, stageOutput)) {
+                return;
+              }
+            }
+            batch++;
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+  }
+
+  private List<Record> readLaneRecords(JsonParser parser, String lane, int offset, int len) throws IOException {
+    List<Record> records = new ArrayList<>();
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      return records;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      if (parser.nextToken() == JsonToken.START_OBJECT && "output".equals(field)) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          if (parser.nextToken() == JsonToken.START_ARRAY && name.equals(lane)) {
+            int index = 0;
+            while (records.size() < len && parser.nextToken() == JsonToken.START_OBJECT) {
+              if (index >= offset) {
+                records.add(BeanHelper.unwrapRecord(json.readValue(parser, RecordJson.class)));
+              } else {
+                parser.skipChildren();
+              }
+              index++;
+            }
+            return records;
+          }
+          parser.skipChildren();
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return records;
+  }
+
+  private static void readFileHeader(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a snapshot data file");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported snapshot data file version " + version);
+    }
+  }
+
+  private static SnapshotStageSummary readSummary(DataInputStream in) throws IOException {
+    int batch = in.readInt();
+    String instanceName = in.readUTF();
+    int lanes = in.readInt();
+    Map<String, Integer> laneRecords = new LinkedHashMap<>();
+    for (int i = 0; i < lanes; i++) {
+      laneRecords.put(in.readUTF(), in.readInt());
+    }
+    return new SnapshotStageSummary(batch, instanceName, laneRecords, in.readInt(), in.readInt(), in.readInt());
+  }
+
+  private static SnapshotStageSummary summarize(int batch, StageOutput stageOutput) {
+    Map<String, Integer> laneRecords = new LinkedHashMap<>();
+    if (stageOutput.getOutput() != null) {
+      for (Map.Entry<String, List<Record>> lane : stageOutput.getOutput().entrySet()) {
+        laneRecords.put(lane.getKey(), size(lane.getValue()));
+      }
+    }
+    return new SnapshotStageSummary(
+        batch,
+        stageOutput.getInstanceName(),
+        laneRecords,
+        size(stageOutput.getErrorRecords()),
+        size(stageOutput.getStageErrors()),
+        size(stageOutput.getEventRecords())
+    );
+  }
+
+  private static void addToIndex(List<List<SnapshotStageSummary>> index, SnapshotStageSummary summary) {
+    while (index.size() <= summary.getBatch()) {
+      index.add(new ArrayList<>());
+    }
+    index.get(summary.getBatch()).add(summary);
+  }
+
+  private static int size(Collection<?> collection) {
+    return collection == null ? 0 : collection.size();
+  }
+
+  private static InputStream bytes(String str) {
+    return new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Streams the frames as {"snapshotBatches":[[stage, stage, ...], [stage, ...]]}.
+   */
+  private class JsonStream extends InputStream {
+    private final DataInputStream in;
+    private InputStream current;
+    private int batch = -1;
+    private boolean done;
+
+    JsonStream() throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(dataFile)));
+      try {
+        readFileHeader(in);
+      } catch (EOFException e) {
+        done = true;
+      } catch (IOException e) {
+        in.close();
+        throw e;
+      }
+      current = bytes(done ? "{\"snapshotBatches\":[]}" : "{\"snapshotBatches\":[");
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      while (current != null) {
+        int read = current.read(b, off, len);
+        if (read > 0) {
+          return read;
+        }
+        current.close();
+        current = next();
+      }
+      return -1;
+    }
+
+    private InputStream next() throws IOException {
+      if (done) {
+        return null;
+      }
+      SnapshotStageSummary summary;
+      byte[] payload;
+      try {
+        summary = readSummary(in);
+        payload = new byte[in.readInt()];
+        in.readFully(payload);
+      } catch (EOFException e) {
+        done = true;
+        return bytes(batch == -1 ? "]}" : "]]}");
+      }
+      String separator = batch == -1 ? "[" : (summary.getBatch() != batch ? "],[" : ",");
+      batch = summary.getBatch();
+      return new SequenceInputStream(bytes(separator), new GZIPInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (current != null) {
+        current.close();
+        current = null;
+      }
+      in.close();
+    }
+  }
+}
@@ -21,18 +21,17 @@ import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.util.ContainerError;
 
 import java.io.Closeable;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 public class SnapshotImpl implements Snapshot, Closeable {
 
   private SnapshotInfo snapshotInfo;
-  private File snapshotFile;
+  private SnapshotDataFile snapshotFile;
   private InputStream output;
 
-  public SnapshotImpl(SnapshotInfo snapshotInfo, File snapshotFile) {
+  public SnapshotImpl(SnapshotInfo snapshotInfo, SnapshotDataFile snapshotFile) {
     this.snapshotInfo = snapshotInfo;
     this.snapshotFile = snapshotFile;
   }
@@ -46,7 +45,7 @@ public class SnapshotImpl implements Snapshot, Closeable {
   public InputStream getOutput() throws PipelineRuntimeException {
     if(snapshotFile != null) {
       try {
-        output = new FileInputStream(snapshotFile);
+        output = snapshotFile.openJson();
         return output;
       } catch (Exception ex) {
         throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
@@ -56,6 +55,38 @@ public class SnapshotImpl implements Snapshot, Closeable {
     return null;
   }
 
+  @Override
+  public List<List<SnapshotStageSummary>> getIndex() throws PipelineRuntimeException {
+    if(snapshotFile != null) {
+      try {
+        return snapshotFile.readIndex();
+      } catch (Exception ex) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+          snapshotInfo.getRev(), ex.toString(), ex);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public SnapshotPage getPage(
+      int batch,
+      String instanceName,
+      String lane,
+      int offset,
+      int len
+  ) throws PipelineRuntimeException {
+    if(snapshotFile != null) {
+      try {
+        return snapshotFile.readPage(batch, instanceName, lane, offset, len);
+      } catch (Exception ex) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0600, snapshotInfo.getId(), snapshotInfo.getName(),
+          snapshotInfo.getRev(), ex.toString(), ex);
+      }
+    }
+    return null;
+  }
+
   @Override
   public void close() throws IOException {
     snapshotInfo = null;
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.common;
+
+import com.streamsets.pipeline.api.Record;
+
+import java.util.List;
+
+/**
+ * A slice of the records a stage wrote to one of its output lanes in a captured batch.
+ */
+public class SnapshotPage {
+
+  private final int batch;
+  private final String instanceName;
+  private final String lane;
+  private final int offset;
+  private final int totalRecords;
+  private final List<Record> records;
+
+  public SnapshotPage(
+      int batch,
+      String instanceName,
+      String lane,
+      int offset,
+      int totalRecords,
+      List<Record> records
+  ) {
+    this.batch = batch;
+    this.instanceName = instanceName;
+    this.lane = lane;
+    this.offset = offset;
+    this.totalRecords = totalRecords;
+    this.records = records;
+  }
+
+  public int getBatch() {
+    return batch;
+  }
+
+  public String getInstanceName() {
+    return instanceName;
+  }
+
+  public String getLane() {
+    return lane;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getTotalRecords() {
+    return totalRecords;
+  }
+
+  public List<Record> getRecords() {
+    return records;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.snapshot.common;
+
+import java.util.Map;
+
+/**
+ * What a stage wrote in one captured batch, without the records themselves.
+ */
+public class SnapshotStageSummary {
+
+  private final int batch;
+  private final String instanceName;
+  private final Map<String, Integer> laneRecords;
+  private final int errorRecords;
+  private final int stageErrors;
+  private final int eventRecords;
+
+  public SnapshotStageSummary(
+      int batch,
+      String instanceName,
+      Map<String, Integer> laneRecords,
+      int errorRecords,
+      int stageErrors,
+      int eventRecords
+  ) {
+    this.batch = batch;
+    this.instanceName = instanceName;
+    this.laneRecords = laneRecords;
+    this.errorRecords = errorRecords;
+    this.stageErrors = stageErrors;
+    this.eventRecords = eventRecords;
+  }
+
+  public int getBatch() {
+    return batch;
+  }
+
+  public String getInstanceName() {
+    return instanceName;
+  }
+
+  public Map<String, Integer> getLaneRecords() {
+    return laneRecords;
+  }
+
+  public int getErrorRecords() {
+    return errorRecords;
+  }
+
+  public int getStageErrors() {
+    return stageErrors;
+  }
+
+  public int getEventRecords() {
+    return eventRecords;
+  }
+}
@@ -19,13 +19,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
-import com.streamsets.datacollector.execution.snapshot.common.SnapshotData;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotDataFile;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotImpl;
 import com.streamsets.datacollector.execution.snapshot.common.SnapshotInfoImpl;
 import com.streamsets.datacollector.io.DataStore;
 import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.main.RuntimeInfo;
-import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
 import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
 import com.streamsets.datacollector.runner.StageOutput;
@@ -46,13 +45,16 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FileSnapshotStore implements SnapshotStore {
-  private static final String SNAPSHOT_FILE_NAME = "snapshot.json";
   private static final String INFO_FILE_NAME = "info.json";
   private final LockCache<String> lockCache;
   private final RuntimeInfo runtimeInfo;
   private final ObjectMapper json;
+  // data files of the snapshots being captured, they keep track of the number of batches appended so far
+  private final Map<String, SnapshotDataFile> capturingDataFiles = new ConcurrentHashMap<>();
 
   @Inject
   public FileSnapshotStore(RuntimeInfo runtimeInfo, LockCache<String> lockCache) {
@@ -75,6 +77,17 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
+  @Override
+  public void appendBatch(String name, String rev, String id, List<StageOutput> snapshotBatch)
+      throws PipelineException {
+    synchronized (lockCache.getLock(name)) {
+      if (getInfo(name, rev, id) == null) {
+        throw new PipelineException(ContainerError.CONTAINER_0605);
+      }
+      persistSnapshot(getCapturingDataFile(name, rev, id), name, rev, id, Collections.singletonList(snapshotBatch));
+    }
+  }
+
   @Override
   public SnapshotInfo save(
       String name,
@@ -88,24 +101,42 @@ public class FileSnapshotStore implements SnapshotStore {
       if (existingInfo == null) {
         throw new PipelineException(ContainerError.CONTAINER_0605);
       }
-      persistSnapshot(name, rev, id, snapshotBatches);
-      SnapshotInfo updatedSnapshotInfo =
-        new SnapshotInfoImpl(
-            existingInfo.getUser(),
-            id,
-            existingInfo.getLabel(),
-            name,
-            rev,
-            System.currentTimeMillis(),
-            false,
-            batchNumber,
-            existingInfo.isFailureSnapshot()
-        );
-      persistSnapshotInfo(updatedSnapshotInfo);
-      return updatedSnapshotInfo;
+      persistSnapshot(getCapturingDataFile(name, rev, id), name, rev, id, snapshotBatches);
+      return complete(existingInfo, batchNumber);
+    }
+  }
+
+  @Override
+  public SnapshotInfo finishCapture(String name, String rev, String id, long batchNumber) throws PipelineException {
+    synchronized (lockCache.getLock(name)) {
+      SnapshotInfo existingInfo = getInfo(name, rev, id);
+      if (existingInfo == null) {
+        throw new PipelineException(ContainerError.CONTAINER_0605);
+      }
+      // the data file is created by the first appended batch, an empty capture still gets one
+      persistSnapshot(getCapturingDataFile(name, rev, id), name, rev, id, Collections.<List<StageOutput>>emptyList());
+      return complete(existingInfo, batchNumber);
     }
   }
 
+  private SnapshotInfo complete(SnapshotInfo existingInfo, long batchNumber) throws PipelineException {
+    capturingDataFiles.remove(getSnapshotKey(existingInfo.getName(), existingInfo.getRev(), existingInfo.getId()));
+    SnapshotInfo updatedSnapshotInfo =
+      new SnapshotInfoImpl(
+          existingInfo.getUser(),
+          existingInfo.getId(),
+          existingInfo.getLabel(),
+          existingInfo.getName(),
+          existingInfo.getRev(),
+          System.currentTimeMillis(),
+          false,
+          batchNumber,
+          existingInfo.isFailureSnapshot()
+      );
+    persistSnapshotInfo(updatedSnapshotInfo);
+    return updatedSnapshotInfo;
+  }
+
   @Override
   public SnapshotInfo updateLabel(String name, String rev, String id, String snapshotLabel) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
@@ -134,7 +165,8 @@ public class FileSnapshotStore implements SnapshotStore {
   public Snapshot get(String name, String rev, String id) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
       SnapshotInfo info = getInfo(name, rev, id);
-      File data = getData(name, rev, id);
+      // batches are appended while the snapshot is captured, they are only exposed once it is complete
+      SnapshotDataFile data = info != null && info.isInProgress() ? null : getData(name, rev, id);
       return new SnapshotImpl(info, data);
     }
   }
@@ -166,6 +198,7 @@ public class FileSnapshotStore implements SnapshotStore {
   @Override
   public void deleteSnapshot(String name, String rev, String id) throws PipelineException {
     synchronized (lockCache.getLock(name)) {
+      capturingDataFiles.remove(getSnapshotKey(name, rev, id));
       File snapshotBaseDir = PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, name, rev, id);
       if (snapshotBaseDir.exists()) {
         if (!PipelineDirectoryUtil.deleteAll(snapshotBaseDir)) {
@@ -196,8 +229,8 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
-  File getData(String name, String rev, String id) throws PipelineRuntimeException {
-    File dataFile = getPipelineSnapshotFile(name, rev, id);
+  SnapshotDataFile getData(String name, String rev, String id) throws PipelineRuntimeException {
+    SnapshotDataFile dataFile = getPipelineSnapshotFile(name, rev, id);
     if(dataFile.exists()) {
       return dataFile;
     } else {
@@ -205,9 +238,22 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
-  private File getPipelineSnapshotFile(String pipelineName, String rev, String snapshotName) {
-    return new File(PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, pipelineName, rev, snapshotName),
-      SNAPSHOT_FILE_NAME);
+  private SnapshotDataFile getPipelineSnapshotFile(String pipelineName, String rev, String snapshotName) {
+    return new SnapshotDataFile(
+        PipelineDirectoryUtil.getPipelineSnapshotDir(runtimeInfo, pipelineName, rev, snapshotName),
+        json
+    );
+  }
+
+  private SnapshotDataFile getCapturingDataFile(String name, String rev, String id) {
+    return capturingDataFiles.computeIfAbsent(
+        getSnapshotKey(name, rev, id),
+        key -> getPipelineSnapshotFile(name, rev, id)
+    );
+  }
+
+  private static String getSnapshotKey(String name, String rev, String id) {
+    return name + "::" + rev + "::" + id;
   }
 
   private File getPipelineSnapshotInfoFile(String name, String rev, String id) {
@@ -229,16 +275,20 @@ public class FileSnapshotStore implements SnapshotStore {
     }
   }
 
-  private void persistSnapshot(String name, String rev, String id, List<List<StageOutput>> snapshotBatches)
-    throws PipelineRuntimeException {
-    DataStore dataStore = new DataStore(getPipelineSnapshotFile(name, rev, id));
-    try (OutputStream out = dataStore.getOutputStream()) {
-      json.writeValue(out, new SnapshotDataJson(new SnapshotData(snapshotBatches)));
-      dataStore.commit(out);
+  private void persistSnapshot(
+      SnapshotDataFile dataFile,
+      String name,
+      String rev,
+      String id,
+      List<List<StageOutput>> snapshotBatches
+  ) throws PipelineRuntimeException {
+    try {
+      dataFile.create();
+      for (List<StageOutput> snapshotBatch : snapshotBatches) {
+        dataFile.append(snapshotBatch);
+      }
     } catch (IOException e) {
       throw new PipelineRuntimeException(ContainerError.CONTAINER_0603, id, name, rev, e.toString(), e);
-    } finally {
-      dataStore.release();
     }
   }
 
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+/**
+ * Aggregated profile of a single stage over a profiling recording, all times are in nanoseconds.
+ */
+public class StageProfile {
+  private final String pipelineId;
+  private final String stageInstanceName;
+  private long batches;
+  private long inputRecords;
+  private long outputRecords;
+  private long errorRecords;
+  private long wallTime;
+  private long cpuTime;
+  private long allocatedBytes;
+  private long lockWaitTime;
+  private long ioWaitTime;
+
+  public StageProfile(String pipelineId, String stageInstanceName) {
+    this.pipelineId = pipelineId;
+    this.stageInstanceName = stageInstanceName;
+  }
+
+  void addBatch(
+      long inputRecords,
+      long outputRecords,
+      long errorRecords,
+      long wallTime,
+      long cpuTime,
+      long allocatedBytes
+  ) {
+    this.batches++;
+    this.inputRecords += inputRecords;
+    this.outputRecords += outputRecords;
+    this.errorRecords += errorRecords;
+    this.wallTime += wallTime;
+    this.cpuTime += cpuTime;
+    this.allocatedBytes += allocatedBytes;
+  }
+
+  void addLockWait(long time) {
+    lockWaitTime += time;
+  }
+
+  void addIoWait(long time) {
+    ioWaitTime += time;
+  }
+
+  public String getPipelineId() {
+    return pipelineId;
+  }
+
+  public String getStageInstanceName() {
+    return stageInstanceName;
+  }
+
+  public long getBatches() {
+    return batches;
+  }
+
+  public long getInputRecords() {
+    return inputRecords;
+  }
+
+  public long getOutputRecords() {
+    return outputRecords;
+  }
+
+  public long getErrorRecords() {
+    return errorRecords;
+  }
+
+  public long getWallTime() {
+    return wallTime;
+  }
+
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public long getLockWaitTime() {
+    return lockWaitTime;
+  }
+
+  public long getIoWaitTime() {
+    return ioWaitTime;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+import com.streamsets.pipeline.api.impl.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Profiles the execution of stages on the pipeline hot path by emitting a JDK Flight Recorder event per stage batch
+ * with the thread CPU time and allocated bytes it took.
+ * <p/>
+ * Nothing is measured unless a flight recording with the stage events enabled is running, so the cost when not
+ * profiling is a single check per stage batch. On JVMs without Flight Recorder support the profiler is a no-op.
+ * <p/>
+ * The Flight Recorder based classes live in <code>src/main/java11</code>, which is only compiled on JDK 11 or later,
+ * and are loaded by name so this class and its callers still build on JDK 8.
+ */
+public abstract class StageProfiler {
+  private static final Logger LOG = LoggerFactory.getLogger(StageProfiler.class);
+
+  static final String JFR_PROFILER_CLASS = "com.streamsets.datacollector.profiling.JfrStageProfiler";
+  static final String JFR_RECORDER_CLASS = "com.streamsets.datacollector.profiling.JfrStageProfilingRecorder";
+
+  private static final boolean SUPPORTED = checkSupported();
+  private static final StageProfiler INSTANCE = (SUPPORTED)
+      ? newJfrInstance(JFR_PROFILER_CLASS, StageProfiler.class)
+      : new NoOpStageProfiler();
+
+  /**
+   * Measurements of one stage batch.
+   */
+  public interface Sample {
+
+    /**
+     * Marks the end of the stage execution, must be called on the thread that started the sample.
+     */
+    void stop();
+
+    /**
+     * Emits the event with the given batch details.
+     */
+    void commit(
+        String pipelineId,
+        String stageInstanceName,
+        int runnerId,
+        int inputRecords,
+        int outputRecords,
+        int errorRecords
+    );
+  }
+
+  public static StageProfiler get() {
+    return INSTANCE;
+  }
+
+  public static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  /**
+   * Starts measuring a stage batch on the current thread.
+   *
+   * @return the sample or <code>null</code> if no recording is interested in stage events.
+   */
+  public abstract Sample start();
+
+  private static boolean checkSupported() {
+    try {
+      Class<?> klass = Class.forName("jdk.jfr.FlightRecorder");
+      if (!(Boolean) klass.getMethod("isAvailable").invoke(null)) {
+        return false;
+      }
+    } catch (ClassNotFoundException ex) {
+      LOG.debug("Flight Recorder is not available in this JVM, stage profiling is disabled");
+      return false;
+    } catch (Exception | LinkageError ex) {
+      LOG.warn("Could not check Flight Recorder availability, stage profiling is disabled: {}", ex.toString(), ex);
+      return false;
+    }
+    try {
+      // Not initialized here, StageProfilingRecorder initialization depends on this class being initialized
+      Class.forName(JFR_PROFILER_CLASS, false, StageProfiler.class.getClassLoader());
+      Class.forName(JFR_RECORDER_CLASS, false, StageProfiler.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException ex) {
+      LOG.debug("Data Collector was built without Flight Recorder support, stage profiling is disabled");
+      return false;
+    }
+  }
+
+  static <T> T newJfrInstance(String className, Class<T> type) {
+    try {
+      return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+    } catch (ReflectiveOperationException | LinkageError ex) {
+      throw new IllegalStateException(Utils.format("Could not create '{}': {}", className, ex.toString()), ex);
+    }
+  }
+
+  private static class NoOpStageProfiler extends StageProfiler {
+    @Override
+    public Sample start() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a bounded profiling recording of the stage events and summarizes it per stage.
+ * <p/>
+ * Flight recordings are JVM wide, so there is a single recorder and at most one profiling recording at a time. Must
+ * only be used when {@link StageProfiler#isSupported()} is true.
+ */
+public abstract class StageProfilingRecorder {
+  private static final StageProfilingRecorder INSTANCE = (StageProfiler.isSupported())
+      ? StageProfiler.newJfrInstance(StageProfiler.JFR_RECORDER_CLASS, StageProfilingRecorder.class)
+      : null;
+
+  public static StageProfilingRecorder get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts a profiling recording that stops on its own after the given duration, the recording data is kept in a
+   * temporary file in the given directory until {@link #stop()} is called.
+   */
+  public abstract void start(File directory, Duration duration, long maxSizeBytes) throws IOException;
+
+  public abstract Map<String, Object> getStatus();
+
+  /**
+   * Stops the active recording, if it did not stop already, and returns the per stage summary sorted by CPU time.
+   */
+  public abstract List<StageProfile> stop() throws IOException;
+}
@@ -15,7 +15,9 @@
  */
 package com.streamsets.datacollector.record;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.streamsets.datacollector.restapi.bean.FieldJson;
@@ -31,69 +33,231 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Deserializes the fields written by {@link RecordImpl.FieldWithPath}.
+ * <p/>
+ * The field is read straight from the parser tokens rather than through an intermediate {@code Map} tree, and numeric
+ * values are parsed into primitives and given to the typed {@link Field} factories, so a numeric field costs its
+ * {@code Field} and boxed value only (instead of a map with its entries, the value string and a type conversion).
+ * Fields whose value precedes their type are handled by the map based parsing.
+ */
 public class FieldDeserializer extends JsonDeserializer<FieldJson> {
+  private static final String TYPE = "type";
+  private static final String VALUE = "value";
+  private static final String ATTRIBUTES = "attributes";
+  private static final String SQPATH = "sqpath";
 
   @Override
-  @SuppressWarnings("unchecked")
   public FieldJson deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
-    Field field = parse(jp.readValueAs(Map.class));
-    return new FieldJson(field);
+    return new FieldJson(parse(jp, ctxt, null));
   }
 
+  /**
+   * Parses the field starting at the current token, leaving the parser at the end of it. If path is not null the
+   * single quote escaped path of the field is stored in it.
+   */
   @SuppressWarnings("unchecked")
-  private Field parse(Map<String, Object> map) {
-    Field field = null;
-    if (map != null) {
-      Field.Type type = Field.Type.valueOf((String) map.get("type"));
-      Object value = map.get("value");
-      Map<String, String> attributes = (Map<String, String>) map.get("attributes");
-      if (value != null) {
-        switch (type) {
-          case MAP:
-            Map<String, Field> fMap = new HashMap<>();
-            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
-              fMap.put(entry.getKey(), parse((Map<String, Object>) entry.getValue()));
-            }
-            value = fMap;
-            break;
-          case LIST:
-            List<Field> fList = new ArrayList<>();
-            for (Map<String, Object> element : (List<Map<String, Object>>) value) {
-              fList.add(parse(element));
-            }
-            value = fList;
-            break;
-          case LIST_MAP:
-            //When converting list to listMap, Key for the listMap is recovered using path attribute
-            Map<String, Field> listMap = new LinkedHashMap<>();
-            for (Map<String, Object> element : (List<Map<String, Object>>) value) {
-              String path = (String)element.get("sqpath");
-              listMap.put(EscapeUtil.getLastFieldNameFromPath(path), parse(element));
-            }
-            value = listMap;
-            break;
-          case BYTE_ARRAY:
-            value = Base64.decodeBase64((String) value);
-            break;
-          case INTEGER:
-            value = Integer.parseInt((String) value);
-            break;
-          case LONG:
-            value = Long.parseLong((String) value);
-            break;
-          case FLOAT:
-            value = Float.parseFloat((String) value);
-            break;
-          case DOUBLE:
-            value = Double.parseDouble((String) value);
+  private Field parse(JsonParser jp, DeserializationContext ctxt, String[] path) throws IOException {
+    if (jp.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(jp, "Expected a field");
+    }
+    Field.Type type = null;
+    Map<String, String> attributes = null;
+    boolean hasValue = false;
+    boolean untypedValue = false;
+    Object value = null;
+    long longValue = 0;
+    double doubleValue = 0;
+    while (jp.nextToken() == JsonToken.FIELD_NAME) {
+      String name = jp.getCurrentName();
+      JsonToken token = jp.nextToken();
+      switch (name) {
+        case TYPE:
+          type = Field.Type.valueOf(jp.getText());
+          break;
+        case VALUE:
+          hasValue = token != JsonToken.VALUE_NULL;
+          if (!hasValue) {
             break;
-          default:
+          }
+          if (type == null) {
+            value = jp.readValueAs(Object.class);
+            untypedValue = true;
             break;
-        }
+          }
+          switch (type) {
+            case MAP:
+              value = parseMap(jp, ctxt);
+              break;
+            case LIST:
+              value = parseList(jp, ctxt);
+              break;
+            case LIST_MAP:
+              value = parseListMap(jp, ctxt);
+              break;
+            case BYTE_ARRAY:
+              value = Base64.decodeBase64(jp.getText());
+              break;
+            case INTEGER:
+              longValue = Integer.parseInt(jp.getText());
+              break;
+            case LONG:
+              longValue = Long.parseLong(jp.getText());
+              break;
+            case FLOAT:
+              doubleValue = Float.parseFloat(jp.getText());
+              break;
+            case DOUBLE:
+              doubleValue = Double.parseDouble(jp.getText());
+              break;
+            default:
+              value = jp.readValueAs(Object.class);
+              break;
+          }
+          break;
+        case ATTRIBUTES:
+          attributes = (token == JsonToken.VALUE_NULL) ? null : jp.readValueAs(Map.class);
+          break;
+        case SQPATH:
+          if (path != null) {
+            path[0] = jp.getText();
+          }
+          break;
+        default:
+          jp.skipChildren();
+          break;
+      }
+    }
+    if (type == null) {
+      throw new JsonParseException(jp, "Field without type");
+    }
+    if (!hasValue) {
+      return Field.create(type, null, attributes);
+    }
+    if (untypedValue) {
+      return parse(type, value, attributes);
+    }
+    if (attributes == null) {
+      switch (type) {
+        case INTEGER:
+          return Field.create((int) longValue);
+        case LONG:
+          return Field.create(longValue);
+        case FLOAT:
+          return Field.create((float) doubleValue);
+        case DOUBLE:
+          return Field.create(doubleValue);
+        default:
+          return Field.create(type, value);
       }
-      field = Field.create(type, value, attributes);
+    }
+    switch (type) {
+      case INTEGER:
+        return Field.create(type, (int) longValue, attributes);
+      case LONG:
+        return Field.create(type, longValue, attributes);
+      case FLOAT:
+        return Field.create(type, (float) doubleValue, attributes);
+      case DOUBLE:
+        return Field.create(type, doubleValue, attributes);
+      default:
+        return Field.create(type, value, attributes);
+    }
+  }
+
+  private Map<String, Field> parseMap(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    Map<String, Field> map = new HashMap<>();
+    while (jp.nextToken() == JsonToken.FIELD_NAME) {
+      String name = jp.getCurrentName();
+      jp.nextToken();
+      map.put(name, parse(jp, ctxt, null));
+    }
+    return map;
+  }
+
+  private List<Field> parseList(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    List<Field> list = new ArrayList<>();
+    while (jp.nextToken() != JsonToken.END_ARRAY) {
+      list.add(parse(jp, ctxt, null));
+    }
+    return list;
+  }
+
+  private LinkedHashMap<String, Field> parseListMap(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    //When converting list to listMap, Key for the listMap is recovered using path attribute
+    LinkedHashMap<String, Field> listMap = new LinkedHashMap<>();
+    String[] path = new String[1];
+    while (jp.nextToken() != JsonToken.END_ARRAY) {
+      path[0] = null;
+      Field field = parse(jp, ctxt, path);
+      listMap.put(EscapeUtil.getLastFieldNameFromPath(path[0]), field);
+    }
+    return listMap;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Field parse(Map<String, Object> map) {
+    Field field = null;
+    if (map != null) {
+      field = parse(
+          Field.Type.valueOf((String) map.get(TYPE)),
+          map.get(VALUE),
+          (Map<String, String>) map.get(ATTRIBUTES)
+      );
     }
     return field;
   }
 
+  @SuppressWarnings("unchecked")
+  private Field parse(Field.Type type, Object value, Map<String, String> attributes) {
+    if (value != null) {
+      switch (type) {
+        case MAP:
+          Map<String, Field> fMap = new HashMap<>();
+          for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+            fMap.put(entry.getKey(), parse((Map<String, Object>) entry.getValue()));
+          }
+          value = fMap;
+          break;
+        case LIST:
+          List<Field> fList = new ArrayList<>();
+          for (Map<String, Object> element : (List<Map<String, Object>>) value) {
+            fList.add(parse(element));
+          }
+          value = fList;
+          break;
+        case LIST_MAP:
+          //When converting list to listMap, Key for the listMap is recovered using path attribute
+          Map<String, Field> listMap = new LinkedHashMap<>();
+          for (Map<String, Object> element : (List<Map<String, Object>>) value) {
+            String path = (String)element.get(SQPATH);
+            listMap.put(EscapeUtil.getLastFieldNameFromPath(path), parse(element));
+          }
+          value = listMap;
+          break;
+        case BYTE_ARRAY:
+          value = Base64.decodeBase64((String) value);
+          break;
+        case INTEGER:
+          value = Integer.parseInt((String) value);
+          break;
+        case LONG:
+          value = Long.parseLong((String) value);
+          break;
+        case FLOAT:
+          value = Float.parseFloat((String) value);
+          break;
+        case DOUBLE:
+          value = Double.parseDouble((String) value);
+          break;
+        default:
+          break;
+      }
+    }
+    return Field.create(type, value, attributes);
+  }
+
 }
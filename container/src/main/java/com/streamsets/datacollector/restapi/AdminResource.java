@@ -24,6 +24,9 @@ import com.streamsets.datacollector.cli.sch.SchAdmin;
 import com.streamsets.datacollector.inspector.HealthInspectorManager;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.UserGroupManager;
+import com.streamsets.datacollector.profiling.StageProfile;
+import com.streamsets.datacollector.profiling.StageProfiler;
+import com.streamsets.datacollector.profiling.StageProfilingRecorder;
 import com.streamsets.datacollector.restapi.bean.BeanHelper;
 import com.streamsets.datacollector.restapi.bean.DPMInfoJson;
 import com.streamsets.datacollector.restapi.bean.MultiStatusResponseJson;
@@ -60,10 +63,12 @@ import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -78,6 +83,8 @@ import java.util.Map;
 @RequiresCredentialsDeployed
 public class AdminResource {
   private static final Logger LOG = LoggerFactory.getLogger(AdminResource.class);
+  private static final int MAX_PROFILING_DURATION_SECS = 3600;
+  private static final int MAX_PROFILING_SIZE_MB = 1024;
 
   private final RuntimeInfo runtimeInfo;
   private final Configuration config;
@@ -314,6 +321,75 @@ public class AdminResource {
     return Response.ok(augmented).build();
   }
 
+  @POST
+  @Path("/profiling/start")
+  @ApiOperation(value = "Starts a bounded Flight Recorder recording of per stage CPU time, allocations and waits",
+    response = Map.class, authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @RolesAllowed({AuthzRole.ADMIN, AuthzRole.ADMIN_REMOTE})
+  public Response startProfiling(
+      @QueryParam("durationSecs") @DefaultValue("60") int durationSecs,
+      @QueryParam("maxSizeMB") @DefaultValue("64") int maxSizeMB
+  ) throws IOException {
+    if (!StageProfiler.isSupported()) {
+      return Response.status(Response.Status.NOT_IMPLEMENTED).type(MediaType.APPLICATION_JSON)
+          .entity(Collections.singletonMap("message", "Flight Recorder is not available in this JVM")).build();
+    }
+    if (durationSecs < 1 || durationSecs > MAX_PROFILING_DURATION_SECS || maxSizeMB < 1
+        || maxSizeMB > MAX_PROFILING_SIZE_MB) {
+      return Response.status(Response.Status.BAD_REQUEST).type(MediaType.APPLICATION_JSON)
+          .entity(Collections.singletonMap("message", Utils.format(
+              "durationSecs must be between 1 and {} and maxSizeMB between 1 and {}",
+              MAX_PROFILING_DURATION_SECS,
+              MAX_PROFILING_SIZE_MB
+          ))).build();
+    }
+    StageProfilingRecorder recorder = StageProfilingRecorder.get();
+    try {
+      recorder.start(
+          new File(runtimeInfo.getDataDir()),
+          Duration.ofSeconds(durationSecs),
+          maxSizeMB * 1024L * 1024L
+      );
+    } catch (IllegalStateException ex) {
+      return Response.status(Response.Status.CONFLICT).type(MediaType.APPLICATION_JSON)
+          .entity(Collections.singletonMap("message", ex.getMessage())).build();
+    }
+    return Response.ok(recorder.getStatus()).build();
+  }
+
+  @GET
+  @Path("/profiling")
+  @ApiOperation(value = "Returns the status of the stage profiling recording", response = Map.class,
+    authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @RolesAllowed({AuthzRole.ADMIN, AuthzRole.ADMIN_REMOTE})
+  public Response getProfilingStatus() {
+    if (!StageProfiler.isSupported()) {
+      return Response.ok(Collections.singletonMap("supported", false)).build();
+    }
+    return Response.ok(StageProfilingRecorder.get().getStatus()).build();
+  }
+
+  @POST
+  @Path("/profiling/stop")
+  @ApiOperation(value = "Stops the stage profiling recording and returns the per stage summary",
+    response = StageProfile.class, responseContainer = "List", authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @RolesAllowed({AuthzRole.ADMIN, AuthzRole.ADMIN_REMOTE})
+  public Response stopProfiling() throws IOException {
+    if (!StageProfiler.isSupported()) {
+      return Response.status(Response.Status.NOT_IMPLEMENTED).type(MediaType.APPLICATION_JSON)
+          .entity(Collections.singletonMap("message", "Flight Recorder is not available in this JVM")).build();
+    }
+    try {
+      return Response.ok(StageProfilingRecorder.get().stop()).build();
+    } catch (IllegalStateException ex) {
+      return Response.status(Response.Status.CONFLICT).type(MediaType.APPLICATION_JSON)
+          .entity(Collections.singletonMap("message", ex.getMessage())).build();
+    }
+  }
+
   @GET
   @Path("/directories")
   @ApiOperation(value = "Returns SDC Directories", response = Map.class, authorizations = @Authorization(value = "basic"))
@@ -21,6 +21,7 @@ import com.streamsets.datacollector.execution.Manager;
 import com.streamsets.datacollector.execution.PipelineState;
 import com.streamsets.datacollector.execution.PipelineStatus;
 import com.streamsets.datacollector.execution.Runner;
+import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.StartPipelineContextBuilder;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
@@ -36,6 +37,8 @@ import com.streamsets.datacollector.restapi.bean.RecordJson;
 import com.streamsets.datacollector.restapi.bean.SampledRecordJson;
 import com.streamsets.datacollector.restapi.bean.SnapshotDataJson;
 import com.streamsets.datacollector.restapi.bean.SnapshotInfoJson;
+import com.streamsets.datacollector.restapi.bean.SnapshotPageJson;
+import com.streamsets.datacollector.restapi.bean.SnapshotStageSummaryJson;
 import com.streamsets.datacollector.restapi.bean.SourceOffsetJson;
 import com.streamsets.datacollector.restapi.bean.UserJson;
 import com.streamsets.datacollector.runner.PipelineRuntimeException;
@@ -76,6 +79,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import java.io.IOException;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -730,6 +734,80 @@ public class ManagerResource {
     return Response.noContent().build();
   }
 
+  @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}/index")
+  @GET
+  @ApiOperation(value = "Return the stages and lanes captured in each batch of the Snapshot, without records",
+    response = SnapshotStageSummaryJson.class, responseContainer = "List",
+    authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @RolesAllowed({
+      AuthzRole.MANAGER,
+      AuthzRole.CREATOR,
+      AuthzRole.ADMIN,
+      AuthzRole.MANAGER_REMOTE,
+      AuthzRole.CREATOR_REMOTE,
+      AuthzRole.ADMIN_REMOTE
+  })
+  public Response getSnapshotIndex(
+      @PathParam("pipelineId") String pipelineId,
+      @PathParam("snapshotName") String snapshotName,
+      @QueryParam("rev") @DefaultValue("0") String rev
+  ) throws PipelineException, IOException {
+    PipelineInfo pipelineInfo = store.getInfo(pipelineId);
+    RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
+    Runner runner = manager.getRunner(pipelineId, rev);
+    if(runner != null) {
+      try (Snapshot snapshot = runner.getSnapshot(snapshotName)) {
+        List<List<SnapshotStageSummaryJson>> index = BeanHelper.wrapSnapshotIndex(snapshot.getIndex());
+        if (index != null) {
+          return Response.ok().type(MediaType.APPLICATION_JSON).entity(index).build();
+        }
+      }
+    }
+    return Response.status(Response.Status.NOT_FOUND).build();
+  }
+
+  @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}/records")
+  @GET
+  @ApiOperation(value = "Return a page of the records a stage wrote to an output lane in a batch of the Snapshot",
+    response = SnapshotPageJson.class, authorizations = @Authorization(value = "basic"))
+  @Produces(MediaType.APPLICATION_JSON)
+  @RolesAllowed({
+      AuthzRole.MANAGER,
+      AuthzRole.CREATOR,
+      AuthzRole.ADMIN,
+      AuthzRole.MANAGER_REMOTE,
+      AuthzRole.CREATOR_REMOTE,
+      AuthzRole.ADMIN_REMOTE
+  })
+  public Response getSnapshotRecords(
+      @PathParam("pipelineId") String pipelineId,
+      @PathParam("snapshotName") String snapshotName,
+      @QueryParam("rev") @DefaultValue("0") String rev,
+      @QueryParam("batch") @DefaultValue("0") int batch,
+      @QueryParam("stageInstanceName") String stageInstanceName,
+      @QueryParam("lane") String lane,
+      @QueryParam("offset") @DefaultValue("0") int offset,
+      @QueryParam("len") @DefaultValue("100") int len
+  ) throws PipelineException, IOException {
+    Utils.checkArgument(stageInstanceName != null && lane != null, "stageInstanceName and lane are required");
+    Utils.checkArgument(offset >= 0 && len >= 0, "offset and len cannot be negative");
+    PipelineInfo pipelineInfo = store.getInfo(pipelineId);
+    RestAPIUtils.injectPipelineInMDC(pipelineInfo.getTitle(), pipelineInfo.getPipelineId());
+    Runner runner = manager.getRunner(pipelineId, rev);
+    if(runner != null) {
+      try (Snapshot snapshot = runner.getSnapshot(snapshotName)) {
+        SnapshotPageJson page = BeanHelper.wrapSnapshotPage(
+            snapshot.getPage(batch, stageInstanceName, lane, offset, len)
+        );
+        if (page != null) {
+          return Response.ok().type(MediaType.APPLICATION_JSON).entity(page).build();
+        }
+      }
+    }
+    return Response.status(Response.Status.NOT_FOUND).build();
+  }
+
   @Path("/pipeline/{pipelineId}/snapshot/{snapshotName}")
   @DELETE
   @ApiOperation(value = "Delete Snapshot data", authorizations = @Authorization(value = "basic"))
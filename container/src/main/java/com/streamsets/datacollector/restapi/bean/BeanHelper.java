@@ -48,6 +48,8 @@ import com.streamsets.datacollector.execution.PreviewOutput;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.alerts.AlertInfo;
 import com.streamsets.datacollector.execution.runner.common.SampledRecord;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotPage;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotStageSummary;
 import com.streamsets.datacollector.record.HeaderImpl;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.production.SourceOffset;
@@ -141,6 +143,28 @@ public class BeanHelper {
     return new SnapshotInfoJson(snapshotInfo);
   }
 
+  public static List<List<SnapshotStageSummaryJson>> wrapSnapshotIndex(List<List<SnapshotStageSummary>> index) {
+    if(index == null) {
+      return null;
+    }
+    List<List<SnapshotStageSummaryJson>> indexJson = new ArrayList<>(index.size());
+    for(List<SnapshotStageSummary> batch : index) {
+      List<SnapshotStageSummaryJson> batchJson = new ArrayList<>(batch.size());
+      for(SnapshotStageSummary summary : batch) {
+        batchJson.add(new SnapshotStageSummaryJson(summary));
+      }
+      indexJson.add(batchJson);
+    }
+    return indexJson;
+  }
+
+  public static SnapshotPageJson wrapSnapshotPage(SnapshotPage snapshotPage) {
+    if(snapshotPage == null) {
+      return null;
+    }
+    return new SnapshotPageJson(snapshotPage);
+  }
+
   public static ConfigConfigurationJson wrapConfigConfiguration(Config config) {
     if(config == null) {
       return null;
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.restapi.bean;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotPage;
+
+import java.util.List;
+
+public class SnapshotPageJson {
+
+  private final SnapshotPage page;
+
+  public SnapshotPageJson(SnapshotPage page) {
+    this.page = page;
+  }
+
+  public int getBatch() {
+    return page.getBatch();
+  }
+
+  public String getInstanceName() {
+    return page.getInstanceName();
+  }
+
+  public String getLane() {
+    return page.getLane();
+  }
+
+  public int getOffset() {
+    return page.getOffset();
+  }
+
+  public int getTotalRecords() {
+    return page.getTotalRecords();
+  }
+
+  public List<RecordJson> getRecords() {
+    return BeanHelper.wrapRecords(page.getRecords());
+  }
+
+  @JsonIgnore
+  public SnapshotPage getSnapshotPage() {
+    return page;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.restapi.bean;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotStageSummary;
+
+import java.util.Map;
+
+public class SnapshotStageSummaryJson {
+
+  private final SnapshotStageSummary summary;
+
+  public SnapshotStageSummaryJson(SnapshotStageSummary summary) {
+    this.summary = summary;
+  }
+
+  public int getBatch() {
+    return summary.getBatch();
+  }
+
+  public String getInstanceName() {
+    return summary.getInstanceName();
+  }
+
+  public Map<String, Integer> getLaneRecords() {
+    return summary.getLaneRecords();
+  }
+
+  public int getErrorRecords() {
+    return summary.getErrorRecords();
+  }
+
+  public int getStageErrors() {
+    return summary.getStageErrors();
+  }
+
+  public int getEventRecords() {
+    return summary.getEventRecords();
+  }
+
+  @JsonIgnore
+  public SnapshotStageSummary getSnapshotStageSummary() {
+    return summary;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+import com.streamsets.pipeline.lib.queue.SpillQueue;
+
+import java.io.File;
+
+/**
+ * Settings that let an {@link ErrorSink} move error records off heap. Once a batch holds more than the threshold
+ * error records on heap, further error records are serialized into a {@link SpillQueue} that keeps up to
+ * maxMemoryBytes of serialized records in memory and spills the rest to segment files in the given directory.
+ * <p/>
+ * One instance is shared by all the error sinks of a pipeline so they report to the same metrics.
+ */
+public class ErrorRecordSpillConfig {
+  private final File directory;
+  private final int threshold;
+  private final long maxMemoryBytes;
+  private final long maxDiskBytes;
+  private final Counter spilledBytes;
+  private final Timer readLatency;
+
+  public ErrorRecordSpillConfig(
+      File directory,
+      int threshold,
+      long maxMemoryBytes,
+      long maxDiskBytes,
+      Counter spilledBytes,
+      Timer readLatency
+  ) {
+    Preconditions.checkArgument(threshold > 0, "threshold must be greater than zero");
+    this.directory = directory;
+    this.threshold = threshold;
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.maxDiskBytes = maxDiskBytes;
+    this.spilledBytes = spilledBytes;
+    this.readLatency = readLatency;
+  }
+
+  /**
+   * Number of error records per batch kept on heap before spilling, also the number of spilled records read back
+   * at a time.
+   */
+  public int getThreshold() {
+    return threshold;
+  }
+
+  SpillQueue createQueue() {
+    return SpillQueue.builder()
+        .directory(directory)
+        .prefix("sdc-error-records")
+        .maxMemoryBytes(maxMemoryBytes)
+        .maxDiskBytes(maxDiskBytes)
+        .spilledBytes(spilledBytes)
+        .readLatency(readLatency)
+        .build();
+  }
+}
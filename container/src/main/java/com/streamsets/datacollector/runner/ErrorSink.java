@@ -15,14 +15,22 @@
  */
 package com.streamsets.datacollector.runner;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import com.google.common.base.Preconditions;
+import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.production.ReportErrorDelegate;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.api.interceptor.Interceptor;
+import com.streamsets.pipeline.lib.queue.SpillQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -34,20 +42,38 @@ import java.util.Set;
 
 /**
  * Error sink is an entity that ends up collecting error records as they are generated by the stages.
+ *
+ * When created with an {@link ErrorRecordSpillConfig}, error records over the configured threshold are serialized to
+ * a {@link SpillQueue} instead of being kept on heap. Spilled records are not visible through
+ * {@link #getErrorRecords()} and {@link #getErrorRecords(String)}, they are only counted and must be drained with
+ * {@link #pollSpilledErrorRecords()}.
  */
 public class ErrorSink implements ReportErrorDelegate {
+  private static final Logger LOG = LoggerFactory.getLogger(ErrorSink.class);
 
   private final Map<String, List<ErrorMessage>> stageErrors;
   private final Map<String, List<Record>> errorRecords;
   private final Map<String, List<? extends Interceptor>> interceptors;
+  private final ErrorRecordSpillConfig spillConfig;
+  private final Map<String, Integer> spilledErrorRecords;
+  private SpillQueue spillQueue;
+  private Kryo kryo;
+  private Output output;
   private int size;
+  private int inMemoryErrorRecords;
   private int totalErrorRecords;
   private int totalErrorMessages;
 
   public ErrorSink() {
+    this(null);
+  }
+
+  public ErrorSink(ErrorRecordSpillConfig spillConfig) {
     stageErrors = new LinkedHashMap<>();
     errorRecords = new LinkedHashMap<>();
     interceptors = new HashMap<>();
+    this.spillConfig = spillConfig;
+    spilledErrorRecords = new HashMap<>();
     size = 0;
     totalErrorMessages = 0;
     totalErrorRecords = 0;
@@ -57,6 +83,8 @@ public class ErrorSink implements ReportErrorDelegate {
   public void clear() {
     stageErrors.clear();
     errorRecords.clear();
+    inMemoryErrorRecords = 0;
+    releaseSpill();
   }
 
   @Override
@@ -71,10 +99,68 @@ public class ErrorSink implements ReportErrorDelegate {
   }
 
   public void addRecord(String stage, Record errorRecord) {
-    addError(errorRecords, stage, errorRecord);
+    if (spillConfig != null && inMemoryErrorRecords >= spillConfig.getThreshold() && spill(stage, errorRecord)) {
+      size++;
+    } else {
+      addError(errorRecords, stage, errorRecord);
+      inMemoryErrorRecords++;
+    }
     totalErrorRecords++;
   }
 
+  private boolean spill(String stage, Record errorRecord) {
+    try {
+      if (spillQueue == null) {
+        spillQueue = spillConfig.createQueue();
+        kryo = new Kryo();
+        output = new Output(4096, -1);
+      }
+      output.clear();
+      kryo.writeObject(output, errorRecord);
+      if (spillQueue.offer(output.toBytes())) {
+        spilledErrorRecords.merge(stage, 1, Integer::sum);
+        return true;
+      }
+      LOG.warn("Error record spill is full, keeping error record from stage '{}' on heap", stage);
+    } catch (IOException ex) {
+      LOG.warn("Could not spill error record from stage '{}', keeping it on heap: {}", stage, ex.toString(), ex);
+    }
+    return false;
+  }
+
+  /**
+   * Returns the next spilled error records, at most the spill threshold at a time, or an empty list once all the
+   * spilled error records have been returned.
+   */
+  public List<Record> pollSpilledErrorRecords() throws IOException {
+    if (spillQueue == null) {
+      return Collections.emptyList();
+    }
+    List<Record> records = new ArrayList<>();
+    byte[] data;
+    while (records.size() < spillConfig.getThreshold() && (data = spillQueue.poll()) != null) {
+      records.add(kryo.readObject(new Input(data), RecordImpl.class));
+    }
+    return records;
+  }
+
+  public int getSpilledErrorRecordCount() {
+    return (spillQueue == null) ? 0 : spillQueue.size();
+  }
+
+  /**
+   * Deletes any spilled error record that has not been polled yet.
+   */
+  public void releaseSpill() {
+    if (spillQueue != null) {
+      spillQueue.close();
+      spillQueue = null;
+      kryo = null;
+      output = null;
+    }
+    spilledErrorRecords.clear();
+  }
+
   public Map<String, List<ErrorMessage>> getStageErrors() {
     return stageErrors;
   }
@@ -110,6 +196,13 @@ public class ErrorSink implements ReportErrorDelegate {
     return getErrors(stageErrors, stage);
   }
 
+  /**
+   * Number of error records of the given stage, including the spilled ones.
+   */
+  public int getErrorRecordCount(String stage) {
+    return getErrors(errorRecords, stage).size() + spilledErrorRecords.getOrDefault(stage, 0);
+  }
+
   public int size() {
     return size;
   }
@@ -61,13 +61,27 @@ public class FullPipeBatch implements PipeBatch {
   private boolean isIdleBatch;
 
   public FullPipeBatch(String sourceEntity, String lastOffset, int batchSize, boolean snapshotStagesOutput) {
+    this(sourceEntity, lastOffset, batchSize, snapshotStagesOutput, null);
+  }
+
+  /**
+   * Spilling of error records is not compatible with capturing snapshots (spilled records are not part of the stage
+   * output) and thus the spill configuration is ignored when snapshotStagesOutput is true.
+   */
+  public FullPipeBatch(
+      String sourceEntity,
+      String lastOffset,
+      int batchSize,
+      boolean snapshotStagesOutput,
+      @Nullable ErrorRecordSpillConfig errorRecordSpillConfig
+  ) {
     this.sourceEntity = sourceEntity;
     this.lastOffset = lastOffset;
     this.batchSize = batchSize;
     fullPayload = new HashMap<>();
     processedStages = new HashSet<>();
     stageOutputSnapshot = (snapshotStagesOutput) ? new ArrayList<StageOutput>() : null;
-    errorSink = new ErrorSink();
+    errorSink = new ErrorSink((snapshotStagesOutput) ? null : errorRecordSpillConfig);
     eventSink = new EventSink();
     processedSink = new ProcessedSink();
     sourceResponseSink = new SourceResponseSinkImpl();
@@ -160,7 +174,7 @@ public class FullPipeBatch implements PipeBatch {
     StagePipe pipe = batchMaker.getStagePipe();
     if (pipe.getStage().getDefinition().getType() == StageType.SOURCE) {
       inputRecords += batchMaker.getSize() +
-          errorSink.getErrorRecords(pipe.getStage().getInfo().getInstanceName()).size();
+          errorSink.getErrorRecordCount(pipe.getStage().getInfo().getInstanceName());
     }
     Map<String, List<Record>> stageOutput = batchMaker.getStageOutput();
     List<? extends Interceptor> interceptors = pipe.getStage().getPostInterceptors();
@@ -185,7 +199,7 @@ public class FullPipeBatch implements PipeBatch {
       stageOutputSnapshot.add(new StageOutput(instanceName, records, errorSink, eventSink));
     }
     if (pipe.getStage().getDefinition().getType().isOneOf(StageType.TARGET, StageType.EXECUTOR)) {
-      outputRecords -= errorSink.getErrorRecords(pipe.getStage().getInfo().getInstanceName()).size();
+      outputRecords -= errorSink.getErrorRecordCount(pipe.getStage().getInfo().getInstanceName());
     }
     completeStage(pipe);
   }
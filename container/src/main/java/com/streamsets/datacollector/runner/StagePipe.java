@@ -27,6 +27,7 @@ import com.streamsets.datacollector.event.json.CounterJson;
 import com.streamsets.datacollector.event.json.HistogramJson;
 import com.streamsets.datacollector.event.json.MeterJson;
 import com.streamsets.datacollector.event.json.MetricRegistryJson;
+import com.streamsets.datacollector.profiling.StageProfiler;
 import com.streamsets.datacollector.util.AggregatorUtil;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.pipeline.api.Batch;
@@ -217,6 +218,7 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     getStage().setSinks(errorSink, eventSink, processedSink, sourceResponseSink);
     Batch batch = new FilterRecordBatch(batchImpl, predicates, getStage().getContext());
 
+    StageProfiler.Sample profilerSample = StageProfiler.get().start();
     long start = System.currentTimeMillis();
     String newOffset = getStage().execute(
         previousOffset,
@@ -228,6 +230,9 @@ public class StagePipe extends Pipe<StagePipe.Context> {
         processedSink,
         sourceResponseSink
     );
+    if (profilerSample != null) {
+      profilerSample.stop();
+    }
     if (isSource()) {
       pipeBatch.setNewOffset(newOffset);
     }
@@ -241,6 +246,17 @@ public class StagePipe extends Pipe<StagePipe.Context> {
       eventSink,
       newOffset
     );
+
+    if (profilerSample != null) {
+      profilerSample.commit(
+          name,
+          stageInstanceName,
+          getStage().getContext().getRunnerId(),
+          batchImpl.getSize(),
+          batchMaker.getSize(),
+          errorSink.getErrorRecordCount(stageInstanceName)
+      );
+    }
   }
 
   protected Map<String, Object> finishBatchAndCalculateMetrics(
@@ -260,7 +276,7 @@ public class StagePipe extends Pipe<StagePipe.Context> {
     inputRecordsMeter.mark(batchSize);
     inputRecordsHistogram.update(batchSize);
 
-    int stageErrorRecordCount = errorSink.getErrorRecords(getStage().getInfo().getInstanceName()).size();
+    int stageErrorRecordCount = errorSink.getErrorRecordCount(getStage().getInfo().getInstanceName());
     errorRecordsCounter.inc(stageErrorRecordCount);
     errorRecordsMeter.mark(stageErrorRecordCount);
     errorRecordsHistogram.update(stageErrorRecordCount);
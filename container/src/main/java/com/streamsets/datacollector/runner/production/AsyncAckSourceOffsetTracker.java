@@ -0,0 +1,269 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.lib.util.AsyncAckConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Offset tracker that lets destinations acknowledge a batch asynchronously.
+ * <p/>
+ * Destinations are normally durable when their <code>write(Batch)</code> returns and the runner commits the offset right
+ * after. With this tracker a destination can instead hand over a completion handle and return as soon as the data is
+ * in flight. The runner moves on with the next batch while the offsets are committed to the wrapped tracker strictly in
+ * batch order, each one only once all handles registered for its batch and for all previous batches completed.
+ * <p/>
+ * Stage libraries can't see container classes, so the contract only uses JDK types: the runner stores
+ * {@link #getAcknowledger()} in the stage runner shared map of every destination under {@link #ACKNOWLEDGER_KEY}. The
+ * destination passes a {@link CompletionStage} to it from its <code>write(Batch)</code>. If the calling thread is not
+ * running a tracked batch, the acknowledger simply waits for the handle, so destinations don't need a second code path.
+ * <p/>
+ * At most <code>maxPendingBatches</code> batches can wait for their acknowledgements, {@link #awaitCapacity()} blocks
+ * the runner when there are more. A failed handle fails the pipeline and neither its offset nor any later offset is
+ * committed, so the batches are read again on restart. This only keeps at least once semantics when the offset alone
+ * determines where the origin resumes, hence it must not be used with origins that commit on their own
+ * (OffsetCommitter).
+ */
+public class AsyncAckSourceOffsetTracker implements SourceOffsetTracker {
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncAckSourceOffsetTracker.class);
+
+  /**
+   * Key of the acknowledger in the stage runner shared map.
+   */
+  public static final String ACKNOWLEDGER_KEY = AsyncAckConstants.ACKNOWLEDGER_KEY;
+
+  private final SourceOffsetTracker delegate;
+  private final int maxPendingBatches;
+  private final Deque<PendingCommit> pending;
+  private final Map<String, String> stagedOffsets;
+  private final ThreadLocal<List<CompletableFuture<?>>> currentBatch;
+  private final Consumer<CompletionStage<?>> acknowledger;
+  private volatile boolean stagedFinished;
+
+  private static class PendingCommit {
+    private final String entity;
+    private final String offset;
+    private final CompletableFuture<Void> acknowledged;
+
+    private PendingCommit(String entity, String offset, CompletableFuture<Void> acknowledged) {
+      this.entity = entity;
+      this.offset = offset;
+      this.acknowledged = acknowledged;
+    }
+  }
+
+  public AsyncAckSourceOffsetTracker(SourceOffsetTracker delegate, int maxPendingBatches) {
+    this.delegate = delegate;
+    this.maxPendingBatches = Math.max(1, maxPendingBatches);
+    this.pending = new ArrayDeque<>();
+    this.stagedOffsets = new HashMap<>(delegate.getOffsets());
+    this.currentBatch = new ThreadLocal<>();
+    this.acknowledger = this::acknowledge;
+    this.stagedFinished = delegate.isFinished();
+  }
+
+  /**
+   * Returns the acknowledger destinations hand their completion handles to.
+   */
+  public Consumer<CompletionStage<?>> getAcknowledger() {
+    return acknowledger;
+  }
+
+  /**
+   * Starts tracking the acknowledgements registered from the current thread, must be called by the runner thread before
+   * the batch goes through the destinations. Handles not yet claimed by a commit are carried over to the next batch.
+   */
+  public void startBatch() {
+    if (currentBatch.get() == null) {
+      currentBatch.set(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Drops the acknowledgements registered from the current thread, must be called by the runner thread when the batch
+   * failed before its offset was committed.
+   */
+  public void abortBatch() {
+    currentBatch.remove();
+  }
+
+  private void acknowledge(CompletionStage<?> completion) {
+    List<CompletableFuture<?>> acks = currentBatch.get();
+    if (acks == null) {
+      // Not a tracked batch, e.g. preview or an idle batch, behave as a synchronous destination
+      completion.toCompletableFuture().join();
+    } else {
+      acks.add(completion.toCompletableFuture());
+    }
+  }
+
+  @Override
+  public boolean isFinished() {
+    return stagedFinished;
+  }
+
+  @Override
+  public void commitOffset(String entity, String newOffset) {
+    List<CompletableFuture<?>> acks = currentBatch.get();
+    currentBatch.remove();
+
+    if (entity != null) {
+      if (Source.POLL_SOURCE_OFFSET_KEY.equals(entity)) {
+        stagedFinished = newOffset == null;
+      }
+      synchronized (stagedOffsets) {
+        if (newOffset == null) {
+          stagedOffsets.remove(entity);
+        } else {
+          stagedOffsets.put(entity, newOffset);
+        }
+      }
+    }
+
+    synchronized (pending) {
+      if (pending.isEmpty() && (acks == null || acks.isEmpty())) {
+        delegate.commitOffset(entity, newOffset);
+        return;
+      }
+      CompletableFuture<Void> acknowledged = (acks == null || acks.isEmpty())
+          ? CompletableFuture.completedFuture(null)
+          : CompletableFuture.allOf(acks.toArray(new CompletableFuture[acks.size()]));
+      pending.addLast(new PendingCommit(entity, newOffset, acknowledged));
+    }
+    commitAcknowledged();
+  }
+
+  /**
+   * Commits, in order, all offsets whose batches were acknowledged and stops at the first one that wasn't.
+   *
+   * @return the failure of the first batch whose acknowledgement failed, null if there is none.
+   */
+  private Throwable commitAcknowledged() {
+    synchronized (pending) {
+      while (!pending.isEmpty() && pending.peekFirst().acknowledged.isDone()) {
+        PendingCommit commit = pending.peekFirst();
+        if (commit.acknowledged.isCompletedExceptionally()) {
+          try {
+            commit.acknowledged.get();
+          } catch (InterruptedException | ExecutionException ex) {
+            return ex.getCause() != null ? ex.getCause() : ex;
+          }
+        }
+        delegate.commitOffset(commit.entity, commit.offset);
+        pending.removeFirst();
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Blocks until no more than <code>maxPendingBatches</code> batches wait for their acknowledgements.
+   */
+  public void awaitCapacity() throws PipelineRuntimeException {
+    await(maxPendingBatches);
+  }
+
+  /**
+   * Blocks until all acknowledgements arrived and all offsets were committed.
+   */
+  public void awaitAll() throws PipelineRuntimeException {
+    await(0);
+  }
+
+  private void await(int maxPending) throws PipelineRuntimeException {
+    while (true) {
+      Throwable failure = commitAcknowledged();
+      if (failure != null) {
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0804, failure.toString(), failure);
+      }
+      CompletableFuture<Void> oldest;
+      synchronized (pending) {
+        if (pending.size() <= maxPending) {
+          return;
+        }
+        oldest = pending.peekFirst().acknowledged;
+      }
+      try {
+        oldest.get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new PipelineRuntimeException(ContainerError.CONTAINER_0801, ex);
+      } catch (ExecutionException ex) {
+        // Reported by commitAcknowledged() on the next iteration
+        LOG.debug("Batch acknowledgement failed: {}", ex.toString(), ex);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int getPendingBatches() {
+    synchronized (pending) {
+      return pending.size();
+    }
+  }
+
+  /**
+   * Returns offsets of the batches read so far, including the ones still waiting for their acknowledgements.
+   */
+  @Override
+  public Map<String, String> getOffsets() {
+    synchronized (stagedOffsets) {
+      return Collections.unmodifiableMap(new HashMap<>(stagedOffsets));
+    }
+  }
+
+  /**
+   * Returns offsets that were committed to the wrapped tracker.
+   */
+  public Map<String, String> getCommittedOffsets() {
+    return delegate.getOffsets();
+  }
+
+  @Override
+  public long getLastBatchTime() {
+    return delegate.getLastBatchTime();
+  }
+
+  @Override
+  public void resetOffset() {
+    synchronized (pending) {
+      pending.clear();
+    }
+    delegate.resetOffset();
+    synchronized (stagedOffsets) {
+      stagedOffsets.clear();
+      stagedOffsets.putAll(delegate.getOffsets());
+    }
+  }
+}
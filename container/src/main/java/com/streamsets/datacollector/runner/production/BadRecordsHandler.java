@@ -23,11 +23,13 @@ import com.streamsets.datacollector.runner.ErrorSink;
 import com.streamsets.datacollector.runner.EventSink;
 import com.streamsets.datacollector.runner.StagePipe;
 import com.streamsets.datacollector.runner.StageRuntime;
+import com.streamsets.datacollector.util.ContainerError;
 import com.streamsets.datacollector.validation.Issue;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.SourceResponseSink;
 import com.streamsets.pipeline.api.StageException;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -68,10 +70,36 @@ public class BadRecordsHandler {
     List<Record> badRecords = getBadRecords(errorSink);
 
     // Shortcut to avoid synchronization if there are no error records
-    if(badRecords.isEmpty()) {
-      return;
+    if(!badRecords.isEmpty()) {
+      execute(sourceEntity, sourceOffset, badRecords, sourceResponseSink);
     }
 
+    // Records spilled by the error sink are read back and sent to the error stage in batches of bounded size
+    if (errorSink.getSpilledErrorRecordCount() > 0) {
+      try {
+        List<Record> spilledRecords = errorSink.pollSpilledErrorRecords();
+        while (!spilledRecords.isEmpty()) {
+          badRecords = new ArrayList<>(spilledRecords.size());
+          for (Record record : spilledRecords) {
+            badRecords.add(toBadRecord(record));
+          }
+          execute(sourceEntity, sourceOffset, badRecords, sourceResponseSink);
+          spilledRecords = errorSink.pollSpilledErrorRecords();
+        }
+      } catch (IOException ex) {
+        throw new StageException(ContainerError.CONTAINER_0805, ex.toString(), ex);
+      } finally {
+        errorSink.releaseSpill();
+      }
+    }
+  }
+
+  private void execute(
+      String sourceEntity,
+      String sourceOffset,
+      List<Record> badRecords,
+      SourceResponseSink sourceResponseSink
+  ) throws StageException {
     synchronized (errorStage) {
       errorStage.execute(
           sourceOffset,
@@ -106,25 +134,29 @@ public class BadRecordsHandler {
 
     for (Map.Entry<String, List<Record>> entry : errorSink.getErrorRecords().entrySet()) {
       for (Record record : entry.getValue()) {
-        RecordImpl errorRecord;
-
-        switch (errorRecordPolicy) {
-          case ORIGINAL_RECORD:
-            errorRecord = (RecordImpl) ((RecordImpl)record).getHeader().getSourceRecord();
-            errorRecord.getHeader().copyErrorFrom(record);
-            break;
-          case STAGE_RECORD:
-            errorRecord = (RecordImpl) record;
-            break;
-          default:
-           throw new IllegalArgumentException("Uknown error record policy: " + errorRecordPolicy);
-        }
-
-        errorRecord.getHeader().setErrorContext(runtimeInfo.getId(), pipelineName);
-        badRecords.add(errorRecord);
+        badRecords.add(toBadRecord(record));
       }
     }
     return badRecords;
   }
 
+  private Record toBadRecord(Record record) {
+    RecordImpl errorRecord;
+
+    switch (errorRecordPolicy) {
+      case ORIGINAL_RECORD:
+        errorRecord = (RecordImpl) ((RecordImpl)record).getHeader().getSourceRecord();
+        errorRecord.getHeader().copyErrorFrom(record);
+        break;
+      case STAGE_RECORD:
+        errorRecord = (RecordImpl) record;
+        break;
+      default:
+       throw new IllegalArgumentException("Uknown error record policy: " + errorRecordPolicy);
+    }
+
+    errorRecord.getHeader().setErrorContext(runtimeInfo.getId(), pipelineName);
+    return errorRecord;
+  }
+
 }
@@ -75,6 +75,7 @@ import com.streamsets.datacollector.util.Version;
 import com.streamsets.pipeline.SDCClassLoader;
 import com.streamsets.pipeline.api.ext.DataCollectorServices;
 import com.streamsets.pipeline.api.ext.json.JsonMapper;
+import com.streamsets.pipeline.api.impl.ErrorMessage;
 import com.streamsets.pipeline.api.impl.LocaleInContext;
 import com.streamsets.pipeline.api.impl.Utils;
 import org.apache.commons.lang3.StringUtils;
@@ -89,6 +90,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Method;
@@ -115,6 +117,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLibraryTask {
@@ -146,6 +149,10 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   public static final String CONFIG_LOAD_THREADS_MAX = "stagelibs.load.threads.max";
   public static final int DEFAULT_LOAD_THREADS_MAX = Runtime.getRuntime().availableProcessors();
 
+  public static final String CONFIG_VALIDATION_CACHE_ENABLED = "stagelibs.definition.validationCache.enabled";
+  public static final boolean DEFAULT_VALIDATION_CACHE_ENABLED = true;
+  static final String VALIDATION_CACHE_DIR = "stagelibs-validation-cache";
+
   private static final String DEFAULT_REQUIRED_STAGELIBS = "";
 
 
@@ -183,6 +190,13 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
   private final Map<String, EventDefinitionJson> eventDefinitionMap = new HashMap<>();
   private volatile List<RepositoryManifestJson> repositoryManifestList = null;
   private List<StageDefinitionMinimalJson> stageDefinitionMinimalList;
+  private StageValidationCache validationCache;
+  private final AtomicInteger cachedLibraries = new AtomicInteger();
+  // Startup cost of the stage definitions, to weigh what the validation cache saves against the extraction it keeps
+  private final AtomicInteger validatedStages = new AtomicInteger();
+  private final AtomicInteger cachedStages = new AtomicInteger();
+  private final AtomicLong validationNanos = new AtomicLong();
+  private final AtomicLong extractionNanos = new AtomicLong();
 
   @Inject
   public ClassLoaderStageLibraryTask(RuntimeInfo runtimeInfo, BuildInfo buildInfo, Configuration configuration) {
@@ -299,6 +313,13 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     delegateMap = new HashMap<>();
     connectionMap = new HashMap<>();
     connectionVerifierMap = new HashMap<>();
+    if (configuration.get(CONFIG_VALIDATION_CACHE_ENABLED, DEFAULT_VALIDATION_CACHE_ENABLED)) {
+      validationCache = new StageValidationCache(
+          new File(runtimeInfo.getDataDir(), VALIDATION_CACHE_DIR),
+          buildInfo,
+          json
+      );
+    }
 
     // Initialize static classes
     try {
@@ -342,9 +363,11 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
         throw new RuntimeException("At least one of the stage libraries failed to load.");
       }
 
-      LOG.info("Loaded {} libraries with a total of {} stages, {} lineage publishers, {} services, {} interceptors, " +
-              "{} delegates, {} credentialStores, {} connections, and {} connection verifiers in {}",
+      LOG.info("Loaded {} libraries ({} with cached stage definition validation) with a total of {} stages, " +
+              "{} lineage publishers, {} services, {} interceptors, {} delegates, {} credentialStores, {} connections, " +
+              "and {} connection verifiers in {}",
           stageLibraries.size(),
+          cachedLibraries.get(),
           stageList.size(),
           lineagePublisherDefinitions.size(),
           serviceList.size(),
@@ -355,6 +378,14 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
           connectionVerifierMap.size(),
           DurationFormatUtils.formatDuration(System.currentTimeMillis() - start, "H:m:s.S", false)
       );
+      LOG.info("Stage definitions: validated {} stages in {} ms, skipped validation of {} cached stages, " +
+              "extracted {} stages in {} ms (times summed over the loading threads)",
+          validatedStages.get(),
+          TimeUnit.NANOSECONDS.toMillis(validationNanos.get()),
+          cachedStages.get(),
+          validatedStages.get() + cachedStages.get(),
+          TimeUnit.NANOSECONDS.toMillis(extractionNanos.get())
+      );
     } catch (InterruptedException e) {
       throw new RuntimeException("Failed loading stage libraries", e);
     } finally {
@@ -638,9 +669,18 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
         stageLibraryMap.put(libDef.getName(), libDef);
       }
 
-      // Load Stages
+      // Load Stages, stages that validated on a previous start with the very same jars are not validated again
+      String cacheKey = validationCache == null ? null : validationCache.getLibraryKey(cl);
+      Set<String> validatedClasses = validationCache == null
+          ? Collections.emptySet()
+          : validationCache.getValidatedClasses(libDef.getName(), cacheKey);
+      if (!validatedClasses.isEmpty()) {
+        cachedLibraries.incrementAndGet();
+      }
+      List<String> stageClasses = new ArrayList<>();
       for(Class klass : loadClassesFromResource(libDef, cl, STAGES_DEFINITION_RESOURCE)) {
-        StageDefinition stage = StageDefinitionExtractor.get().extract(libDef, klass, Utils.formatL("Library='{}'", libDef.getName()));
+        StageDefinition stage = extractStage(libDef, klass, validatedClasses.contains(klass.getName()));
+        stageClasses.add(klass.getName());
         String key = createKey(libDef.getName(), stage.getName());
         LOG.debug("Loaded stage '{}'  version {}", key, stage.getVersion());
         localStageList.add(stage);
@@ -664,6 +704,9 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
       synchronized (eventDefinitionMap) {
         eventDefinitionMap.putAll(localEventDefinitionMap);
       }
+      if (cacheKey != null && !validatedClasses.containsAll(stageClasses)) {
+        validationCache.setValidatedClasses(libDef.getName(), cacheKey, stageClasses);
+      }
 
       // Load Lineage publishers
       for(Class klass : loadClassesFromResource(libDef, cl, LINEAGE_PUBLISHERS_DEFINITION_RESOURCE)) {
@@ -775,6 +818,38 @@ public class ClassLoaderStageLibraryTask extends AbstractTask implements StageLi
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private StageDefinition extractStage(StageLibraryDefinition libDef, Class klass, boolean validated) {
+    StageDefinitionExtractor extractor = StageDefinitionExtractor.get();
+    Object contextMsg = Utils.formatL("Library='{}'", libDef.getName());
+    if (validated) {
+      try {
+        long start = System.nanoTime();
+        StageDefinition stage = extractor.extract(libDef, klass, contextMsg, false);
+        extractionNanos.addAndGet(System.nanoTime() - start);
+        cachedStages.incrementAndGet();
+        return stage;
+      } catch (RuntimeException ex) {
+        LOG.warn(
+            "Cached stage definition validation of '{}' in library '{}' is stale, validating again: {}",
+            klass.getName(),
+            libDef.getName(),
+            ex.toString()
+        );
+        validationCache.invalidate(libDef.getName());
+      }
+    }
+    long start = System.nanoTime();
+    List<ErrorMessage> errors = extractor.validate(libDef, klass, contextMsg);
+    long validationEnd = System.nanoTime();
+    validationNanos.addAndGet(validationEnd - start);
+    validatedStages.incrementAndGet();
+    // with errors, the validating extraction reports them
+    StageDefinition stage = extractor.extract(libDef, klass, contextMsg, !errors.isEmpty());
+    extractionNanos.addAndGet(System.nanoTime() - validationEnd);
+    return stage;
+  }
+
   private <T> List<Class<? extends T>> loadClassesFromResource(
     StageLibraryDefinition libDef,
     ClassLoader cl,
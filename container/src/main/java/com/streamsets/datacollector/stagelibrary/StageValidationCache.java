@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.streamsets.datacollector.io.DataStore;
+import com.streamsets.datacollector.main.BuildInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * On disk cache of stage definition validation results, one file per stage library.
+ * <p/>
+ * Validating a stage definition extracts all its configuration, group and EL definitions through reflection, and the
+ * extraction that follows does all of that again. The outcome of the validation only depends on the library jars and
+ * on the Data Collector build, so once the stages of a library validated they are recorded here with a key made of
+ * the Data Collector version and build and of the name, size and modification time of every jar of the library. On
+ * the next start, stages of an unchanged library are extracted without validating them again. Any change to the jars
+ * or to the Data Collector build changes the key and the library goes through the full validation.
+ * <p/>
+ * Libraries loaded from directories (development environments) are never cached.
+ * <p/>
+ * Only the validation outcome is cached: stage libraries are still scanned and all stage classes are still loaded and
+ * extracted on every start.
+ */
+public class StageValidationCache {
+  private static final Logger LOG = LoggerFactory.getLogger(StageValidationCache.class);
+
+  static final String KEY = "key";
+  static final String VALIDATED = "validated";
+
+  private final File dir;
+  private final String buildKey;
+  private final ObjectMapper json;
+
+  public StageValidationCache(File dir, BuildInfo buildInfo, ObjectMapper json) {
+    this.dir = dir;
+    this.buildKey = buildInfo.getVersion() + ":" + buildInfo.getBuiltRepoSha() + ":" + buildInfo.getBuiltDate();
+    this.json = json;
+  }
+
+  /**
+   * Returns the cache key of the given stage library class loader.
+   *
+   * @return the cache key, or <code>null</code> if the library can't be cached.
+   */
+  public String getLibraryKey(ClassLoader cl) {
+    if (!(cl instanceof URLClassLoader)) {
+      return null;
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(buildKey, StandardCharsets.UTF_8);
+    for (URL url : ((URLClassLoader) cl).getURLs()) {
+      File file;
+      try {
+        file = new File(url.toURI());
+      } catch (URISyntaxException | IllegalArgumentException ex) {
+        return null;
+      }
+      if (!file.isFile()) {
+        return null;
+      }
+      hasher.putString(file.getAbsolutePath(), StandardCharsets.UTF_8);
+      hasher.putLong(file.length());
+      hasher.putLong(file.lastModified());
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns the stage classes of the library that validated with the same key.
+   *
+   * @return the class names, empty if the library is not in the cache or its key changed.
+   */
+  @SuppressWarnings("unchecked")
+  public Set<String> getValidatedClasses(String library, String libraryKey) {
+    if (libraryKey == null) {
+      return Collections.emptySet();
+    }
+    DataStore dataStore = new DataStore(getFile(library));
+    try {
+      if (dataStore.exists()) {
+        try (InputStream is = dataStore.getInputStream()) {
+          Map<String, Object> entry = json.readValue(is, Map.class);
+          if (libraryKey.equals(entry.get(KEY))) {
+            return new HashSet<>((List<String>) entry.get(VALIDATED));
+          }
+          LOG.debug("Stage library '{}' changed, its stage definitions will be validated", library);
+        }
+      }
+    } catch (IOException | RuntimeException ex) {
+      LOG.warn("Could not read stage validation cache for '{}': {}", library, ex.toString(), ex);
+    }
+    return Collections.emptySet();
+  }
+
+  /**
+   * Records the stage classes of the library that validated.
+   */
+  public void setValidatedClasses(String library, String libraryKey, Collection<String> classNames) {
+    if (libraryKey == null) {
+      return;
+    }
+    Map<String, Object> entry = new HashMap<>();
+    entry.put(KEY, libraryKey);
+    entry.put(VALIDATED, new TreeSet<>(classNames));
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      LOG.warn("Could not create stage validation cache directory '{}'", dir);
+      return;
+    }
+    DataStore dataStore = new DataStore(getFile(library));
+    try (OutputStream os = dataStore.getOutputStream()) {
+      json.writeValue(os, entry);
+      dataStore.commit(os);
+    } catch (IOException ex) {
+      LOG.warn("Could not write stage validation cache for '{}': {}", library, ex.toString(), ex);
+    } finally {
+      dataStore.release();
+    }
+  }
+
+  /**
+   * Removes the library from the cache.
+   */
+  public void invalidate(String library) {
+    DataStore dataStore = new DataStore(getFile(library));
+    try {
+      dataStore.delete();
+    } catch (IOException ex) {
+      LOG.warn("Could not delete stage validation cache for '{}': {}", library, ex.toString(), ex);
+    }
+  }
+
+  private File getFile(String library) {
+    return new File(dir, library.replaceAll("[^A-Za-z0-9_.-]", "_") + ".json");
+  }
+
+}
@@ -27,6 +27,7 @@ public class PipelineDirectoryUtil {
   public static final String PIPELINE_INFO_BASE_DIR = "pipelines";
 
   private static final String SNAPSHOTS_BASE_DIR = "snapshots";
+  private static final String ERROR_RECORDS_SPILL_DIR = "errorRecordsSpill";
 
   private PipelineDirectoryUtil() {}
 
@@ -53,6 +54,10 @@ public class PipelineDirectoryUtil {
     return snapshotDir;
   }
 
+  public static File getPipelineErrorRecordsSpillDir(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
+    return new File(getPipelineDir(runtimeInfo, pipelineName, rev), ERROR_RECORDS_SPILL_DIR);
+  }
+
   public static File getPipelineSnapshotBaseDir(RuntimeInfo runtimeInfo, String pipelineName, String rev) {
     File pipelineDir = getPipelineDir(runtimeInfo, pipelineName, rev);
     File snapshotsBaseDir = new File(pipelineDir, SNAPSHOTS_BASE_DIR);
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Flight Recorder backed profiler, only loaded when the JVM supports Flight Recorder.
+ */
+class JfrStageProfiler extends StageProfiler {
+  private final ThreadMXBean threadBean;
+  private final com.sun.management.ThreadMXBean allocationBean;
+  private final boolean cpuTimeSupported;
+
+  JfrStageProfiler() {
+    threadBean = ManagementFactory.getThreadMXBean();
+    cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+    if (threadBean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported()
+        && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemoryEnabled()) {
+      allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+    } else {
+      allocationBean = null;
+    }
+  }
+
+  @Override
+  public Sample start() {
+    StageProcessEvent event = new StageProcessEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+    JfrSample sample = new JfrSample(event, cpuTime(), allocatedBytes());
+    event.begin();
+    return sample;
+  }
+
+  private long cpuTime() {
+    return (cpuTimeSupported) ? threadBean.getCurrentThreadCpuTime() : 0;
+  }
+
+  private long allocatedBytes() {
+    return (allocationBean != null) ? allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+  }
+
+  private class JfrSample implements Sample {
+    private final StageProcessEvent event;
+    private final long startCpuTime;
+    private final long startAllocatedBytes;
+
+    JfrSample(StageProcessEvent event, long startCpuTime, long startAllocatedBytes) {
+      this.event = event;
+      this.startCpuTime = startCpuTime;
+      this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    @Override
+    public void stop() {
+      event.end();
+      event.cpuTime = cpuTime() - startCpuTime;
+      event.allocatedBytes = allocatedBytes() - startAllocatedBytes;
+    }
+
+    @Override
+    public void commit(
+        String pipelineId,
+        String stageInstanceName,
+        int runnerId,
+        int inputRecords,
+        int outputRecords,
+        int errorRecords
+    ) {
+      if (event.shouldCommit()) {
+        event.pipelineId = pipelineId;
+        event.stageInstanceName = stageInstanceName;
+        event.runnerId = runnerId;
+        event.inputRecords = inputRecords;
+        event.outputRecords = outputRecords;
+        event.errorRecords = errorRecords;
+        event.commit();
+      }
+    }
+  }
+}
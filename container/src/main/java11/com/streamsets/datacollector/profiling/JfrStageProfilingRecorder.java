@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a bounded flight recording of the stage events plus the JVM lock and I/O wait events and summarizes it per
+ * stage. Wait events are attributed to the stage batch that was running on the same thread when the wait started.
+ */
+class JfrStageProfilingRecorder extends StageProfilingRecorder {
+  private static final Logger LOG = LoggerFactory.getLogger(JfrStageProfilingRecorder.class);
+
+  @VisibleForTesting
+  static final List<String> LOCK_EVENTS = Arrays.asList(
+      "jdk.JavaMonitorEnter",
+      "jdk.JavaMonitorWait",
+      "jdk.ThreadPark"
+  );
+
+  @VisibleForTesting
+  static final List<String> IO_EVENTS = Arrays.asList(
+      "jdk.SocketRead",
+      "jdk.SocketWrite",
+      "jdk.FileRead",
+      "jdk.FileWrite"
+  );
+
+  private static final Duration WAIT_THRESHOLD = Duration.ofMillis(1);
+
+  private Recording recording;
+  private Path destination;
+  private Instant startTime;
+  private Duration duration;
+
+  @VisibleForTesting
+  JfrStageProfilingRecorder() {
+  }
+
+  @Override
+  public synchronized void start(File directory, Duration duration, long maxSizeBytes) throws IOException {
+    Preconditions.checkState(recording == null, "A profiling recording is already active");
+    destination = File.createTempFile("sdc-stage-profile", ".jfr", directory).toPath();
+    Recording newRecording = new Recording();
+    try {
+      newRecording.setName("sdc-stage-profiling");
+      newRecording.enable(StageProcessEvent.class);
+      for (String event : LOCK_EVENTS) {
+        newRecording.enable(event).withThreshold(WAIT_THRESHOLD).withoutStackTrace();
+      }
+      for (String event : IO_EVENTS) {
+        newRecording.enable(event).withThreshold(WAIT_THRESHOLD).withoutStackTrace();
+      }
+      newRecording.setToDisk(true);
+      newRecording.setDuration(duration);
+      newRecording.setMaxSize(maxSizeBytes);
+      newRecording.setDestination(destination);
+      newRecording.start();
+    } catch (IOException | RuntimeException ex) {
+      newRecording.close();
+      Files.deleteIfExists(destination);
+      throw ex;
+    }
+    recording = newRecording;
+    startTime = Instant.now();
+    this.duration = duration;
+    LOG.info("Started stage profiling recording for '{}'", duration);
+  }
+
+  @Override
+  public synchronized Map<String, Object> getStatus() {
+    Map<String, Object> status = new LinkedHashMap<>();
+    status.put("active", recording != null);
+    if (recording != null) {
+      status.put("running", recording.getState() == RecordingState.RUNNING);
+      status.put("startTime", startTime.toEpochMilli());
+      status.put("durationSecs", duration.getSeconds());
+    }
+    return status;
+  }
+
+  @Override
+  public synchronized List<StageProfile> stop() throws IOException {
+    Preconditions.checkState(recording != null, "There is no active profiling recording");
+    try {
+      if (recording.getState() == RecordingState.RUNNING) {
+        recording.stop();
+      }
+      return summarize(RecordingFile.readAllEvents(destination));
+    } finally {
+      recording.close();
+      recording = null;
+      Files.deleteIfExists(destination);
+      LOG.info("Stopped stage profiling recording");
+    }
+  }
+
+  @VisibleForTesting
+  static List<StageProfile> summarize(List<RecordedEvent> events) {
+    Map<String, StageProfile> profiles = new LinkedHashMap<>();
+    Map<Long, List<RecordedEvent>> stageEventsPerThread = new HashMap<>();
+    List<RecordedEvent> waitEvents = new ArrayList<>();
+
+    for (RecordedEvent event : events) {
+      String eventName = event.getEventType().getName();
+      if (StageProcessEvent.NAME.equals(eventName)) {
+        getProfile(profiles, event).addBatch(
+            event.getInt("inputRecords"),
+            event.getInt("outputRecords"),
+            event.getInt("errorRecords"),
+            event.getDuration().toNanos(),
+            event.getLong("cpuTime"),
+            event.getLong("allocatedBytes")
+        );
+        RecordedThread thread = event.getThread();
+        if (thread != null) {
+          stageEventsPerThread.computeIfAbsent(thread.getJavaThreadId(), k -> new ArrayList<>()).add(event);
+        }
+      } else if (LOCK_EVENTS.contains(eventName) || IO_EVENTS.contains(eventName)) {
+        waitEvents.add(event);
+      }
+    }
+
+    for (List<RecordedEvent> stageEvents : stageEventsPerThread.values()) {
+      stageEvents.sort(Comparator.comparing(RecordedEvent::getStartTime));
+    }
+    for (RecordedEvent waitEvent : waitEvents) {
+      RecordedThread thread = waitEvent.getThread();
+      List<RecordedEvent> stageEvents = (thread == null) ? null : stageEventsPerThread.get(thread.getJavaThreadId());
+      RecordedEvent stageEvent = (stageEvents == null) ? null : findEnclosing(stageEvents, waitEvent.getStartTime());
+      if (stageEvent != null) {
+        StageProfile profile = getProfile(profiles, stageEvent);
+        if (LOCK_EVENTS.contains(waitEvent.getEventType().getName())) {
+          profile.addLockWait(waitEvent.getDuration().toNanos());
+        } else {
+          profile.addIoWait(waitEvent.getDuration().toNanos());
+        }
+      }
+    }
+
+    List<StageProfile> summary = new ArrayList<>(profiles.values());
+    summary.sort(Comparator.comparingLong(StageProfile::getCpuTime).reversed());
+    return summary;
+  }
+
+  private static StageProfile getProfile(Map<String, StageProfile> profiles, RecordedEvent stageEvent) {
+    String pipelineId = stageEvent.getString("pipelineId");
+    String stageInstanceName = stageEvent.getString("stageInstanceName");
+    return profiles.computeIfAbsent(
+        pipelineId + "::" + stageInstanceName,
+        k -> new StageProfile(pipelineId, stageInstanceName)
+    );
+  }
+
+  // stage events of a thread never overlap, so the candidate is the last one that started before the given time
+  private static RecordedEvent findEnclosing(List<RecordedEvent> stageEvents, Instant time) {
+    int low = 0;
+    int high = stageEvents.size() - 1;
+    RecordedEvent candidate = null;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      RecordedEvent event = stageEvents.get(mid);
+      if (event.getStartTime().isAfter(time)) {
+        high = mid - 1;
+      } else {
+        candidate = event;
+        low = mid + 1;
+      }
+    }
+    return (candidate != null && candidate.getEndTime().isAfter(time)) ? candidate : null;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name(StageProcessEvent.NAME)
+@Label("Stage Batch")
+@Category({"StreamSets Data Collector", "Pipeline"})
+@Description("Processing of a batch by a pipeline stage")
+@StackTrace(false)
+class StageProcessEvent extends Event {
+  static final String NAME = "com.streamsets.datacollector.StageProcess";
+
+  @Label("Pipeline Id")
+  String pipelineId;
+
+  @Label("Stage")
+  String stageInstanceName;
+
+  @Label("Runner Id")
+  int runnerId;
+
+  @Label("Input Records")
+  int inputRecords;
+
+  @Label("Output Records")
+  int outputRecords;
+
+  @Label("Error Records")
+  int errorRecords;
+
+  @Label("CPU Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long cpuTime;
+
+  @Label("Allocated")
+  @DataAmount(DataAmount.BYTES)
+  long allocatedBytes;
+}
@@ -37,6 +37,7 @@ import com.streamsets.pipeline.api.OffsetCommitter;
 import com.streamsets.pipeline.api.PipelineLifecycleStage;
 import com.streamsets.pipeline.api.RawSource;
 import com.streamsets.pipeline.api.RawSourcePreviewer;
+import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.StageType;
@@ -49,6 +50,7 @@ import com.streamsets.pipeline.api.base.BaseTarget;
 import com.streamsets.pipeline.api.service.ServiceConfiguration;
 import com.streamsets.pipeline.api.service.ServiceDependency;
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.InputStream;
@@ -565,4 +567,45 @@ public class TestStageDefinitionExtractor {
     Assert.assertEquals("upgrader/source1.yaml", def.getYamlUpgrader());
   }
 
+  @Test
+  public void testExtractWithoutValidation() {
+    StageDefinition def = StageDefinitionExtractor.get().extract(MOCK_LIB_DEF, Source2.class, "x", false);
+    StageDefinition validated = StageDefinitionExtractor.get().extract(MOCK_LIB_DEF, Source2.class, "x");
+    Assert.assertEquals(validated.getName(), def.getName());
+    Assert.assertEquals(validated.getVersion(), def.getVersion());
+    Assert.assertEquals(validated.getConfigDefinitions().size(), def.getConfigDefinitions().size());
+  }
+
+  /**
+   * Compares what the stage validation cache saves on startup, the validation, with what it keeps, the extraction.
+   * The stage library task logs the same figures for the real stage libraries when it starts.
+   */
+  @Ignore
+  @Test
+  public void benchmarkValidation() {
+    int iterations = 20000;
+    List<Class<? extends Stage>> stages =
+        ImmutableList.of(Source1.class, Source2.class, Target1.class, Executor1.class);
+    for (int run = 0; run < 2; run++) {
+      long validationNanos = 0;
+      long extractionNanos = 0;
+      for (int i = 0; i < iterations; i++) {
+        for (Class<? extends Stage> stage : stages) {
+          long start = System.nanoTime();
+          Assert.assertTrue(StageDefinitionExtractor.get().validate(MOCK_LIB_DEF, stage, "x").isEmpty());
+          long validationEnd = System.nanoTime();
+          Assert.assertNotNull(StageDefinitionExtractor.get().extract(MOCK_LIB_DEF, stage, "x", false));
+          validationNanos += validationEnd - start;
+          extractionNanos += System.nanoTime() - validationEnd;
+        }
+      }
+      int count = iterations * stages.size();
+      System.out.printf(
+          "validation : %,d ns/stage, extraction : %,d ns/stage, validation share : %d%%%n",
+          validationNanos / count,
+          extractionNanos / count,
+          100 * validationNanos / (validationNanos + extractionNanos)
+      );
+    }
+  }
 }
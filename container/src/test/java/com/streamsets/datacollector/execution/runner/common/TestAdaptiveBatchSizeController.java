@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.execution.runner.common;
+
+import com.streamsets.datacollector.util.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestAdaptiveBatchSizeController {
+
+  private AdaptiveBatchSizeController create(AtomicReference<Double> heap, Map<String, Object> gauge) {
+    return new AdaptiveBatchSizeController(10, 1000, 100, 0.8, 50, 0.5, heap::get, gauge);
+  }
+
+  @Test
+  public void testStartsAtMaximum() {
+    Map<String, Object> gauge = new HashMap<>();
+    AdaptiveBatchSizeController controller = create(new AtomicReference<>(0.1), gauge);
+    Assert.assertEquals(1000, controller.getBatchSize());
+    Assert.assertEquals(1000, gauge.get(AdaptiveBatchSizeController.GAUGE_BATCH_SIZE));
+
+    // within targets, never above the maximum
+    controller.batchCompleted(50, 1000);
+    Assert.assertEquals(1000, controller.getBatchSize());
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseOnLatency() {
+    Map<String, Object> gauge = new HashMap<>();
+    AdaptiveBatchSizeController controller = create(new AtomicReference<>(0.1), gauge);
+    controller.batchCompleted(200, 1000);
+    Assert.assertEquals(500, controller.getBatchSize());
+    controller.batchCompleted(200, 500);
+    Assert.assertEquals(250, controller.getBatchSize());
+    for (int i = 0; i < 10; i++) {
+      controller.batchCompleted(200, 250);
+    }
+    Assert.assertEquals(10, controller.getBatchSize());
+    Assert.assertEquals(12L, gauge.get(AdaptiveBatchSizeController.GAUGE_DECREASES));
+    Assert.assertEquals(200L, gauge.get(AdaptiveBatchSizeController.GAUGE_LAST_LATENCY));
+  }
+
+  @Test
+  public void testMultiplicativeDecreaseOnHeap() {
+    AtomicReference<Double> heap = new AtomicReference<>(0.9);
+    Map<String, Object> gauge = new HashMap<>();
+    AdaptiveBatchSizeController controller = create(heap, gauge);
+    controller.batchCompleted(10, 1000);
+    Assert.assertEquals(500, controller.getBatchSize());
+    Assert.assertEquals(90L, gauge.get(AdaptiveBatchSizeController.GAUGE_HEAP_USAGE));
+
+    heap.set(0.5);
+    controller.batchCompleted(10, 500);
+    Assert.assertEquals(550, controller.getBatchSize());
+  }
+
+  @Test
+  public void testHeapAndLatency() {
+    AtomicReference<Double> heap = new AtomicReference<>(0.5);
+    Map<String, Object> gauge = new HashMap<>();
+    AdaptiveBatchSizeController controller = create(heap, gauge);
+
+    // heap over budget, latency under target
+    heap.set(0.85);
+    controller.batchCompleted(50, 1000);
+    Assert.assertEquals(500, controller.getBatchSize());
+
+    // heap under budget, latency over target
+    heap.set(0.5);
+    controller.batchCompleted(150, 500);
+    Assert.assertEquals(250, controller.getBatchSize());
+
+    // both over, a single decrease
+    heap.set(0.85);
+    controller.batchCompleted(150, 250);
+    Assert.assertEquals(125, controller.getBatchSize());
+    Assert.assertEquals(3L, gauge.get(AdaptiveBatchSizeController.GAUGE_DECREASES));
+
+    // heap exactly at budget and latency exactly at target are within targets
+    heap.set(0.8);
+    controller.batchCompleted(100, 125);
+    Assert.assertEquals(175, controller.getBatchSize());
+
+    // both under, back to growing
+    heap.set(0.5);
+    controller.batchCompleted(50, 175);
+    Assert.assertEquals(225, controller.getBatchSize());
+    Assert.assertEquals(3L, gauge.get(AdaptiveBatchSizeController.GAUGE_DECREASES));
+    Assert.assertEquals(50L, gauge.get(AdaptiveBatchSizeController.GAUGE_HEAP_USAGE));
+  }
+
+  @Test
+  public void testHeapUsageSupplier() {
+    double usage = AdaptiveBatchSizeController.createHeapUsageSupplier().getAsDouble();
+    Assert.assertTrue(usage >= 0 && usage <= 1);
+  }
+
+  @Test
+  public void testAdditiveIncreaseOnlyWhenBatchIsFull() {
+    AdaptiveBatchSizeController controller = create(new AtomicReference<>(0.1), new HashMap<>());
+    controller.batchCompleted(200, 1000);
+    Assert.assertEquals(500, controller.getBatchSize());
+
+    // origin did not fill the batch, a larger batch would not help
+    controller.batchCompleted(10, 20);
+    Assert.assertEquals(500, controller.getBatchSize());
+
+    for (int i = 0; i < 20; i++) {
+      controller.batchCompleted(10, controller.getBatchSize());
+    }
+    Assert.assertEquals(1000, controller.getBatchSize());
+  }
+
+  @Test
+  public void testFromConfiguration() {
+    Configuration configuration = new Configuration();
+    Assert.assertFalse(AdaptiveBatchSizeController.isEnabled(configuration));
+    configuration.set(Constants.ADAPTIVE_BATCH_SIZE_ENABLED_KEY, true);
+    configuration.set(Constants.MAX_BATCH_SIZE_KEY, 2000);
+    configuration.set(Constants.ADAPTIVE_BATCH_SIZE_TARGET_LATENCY_MS_KEY, 100);
+    configuration.set(Constants.ADAPTIVE_BATCH_SIZE_DECREASE_PERCENT_KEY, 25);
+    Assert.assertTrue(AdaptiveBatchSizeController.isEnabled(configuration));
+
+    AdaptiveBatchSizeController controller = new AdaptiveBatchSizeController(configuration, new HashMap<>());
+    Assert.assertEquals(2000, controller.getBatchSize());
+    controller.batchCompleted(200, 2000);
+    Assert.assertEquals(500, controller.getBatchSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBounds() {
+    new AdaptiveBatchSizeController(100, 10, 100, 0.8, 50, 0.5, () -> 0.1, new HashMap<>());
+  }
+
+}
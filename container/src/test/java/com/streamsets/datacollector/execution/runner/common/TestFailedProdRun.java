@@ -41,6 +41,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.UUID;
@@ -201,4 +202,104 @@ public class TestFailedProdRun {
     Assert.assertTrue(ErrorListeningSource.capturedError.toString().endsWith(msg));
   }
 
+  private static ProductionPipelineRunner createSpillingRunner(RuntimeInfo runtimeInfo, Configuration conf) {
+    BuildInfo buildInfo = Mockito.mock(BuildInfo.class);
+    Mockito.when(buildInfo.getVersion()).thenReturn("3.17.0");
+    conf.set(Constants.ERROR_RECORDS_SPILL_ENABLED_KEY, true);
+    conf.set(Constants.ERROR_RECORDS_SPILL_THRESHOLD_KEY, 1);
+    conf.set(Constants.ERROR_RECORDS_SPILL_MEMORY_MB_KEY, 0);
+    ProductionPipelineRunner runner = new ProductionPipelineRunner(
+        PIPELINE_NAME,
+        REVISION,
+        null,
+        conf,
+        buildInfo,
+        runtimeInfo,
+        new MetricRegistry(),
+        Mockito.mock(FileSnapshotStore.class),
+        null,
+        null
+    );
+    runner.setObserveRequests(new ArrayBlockingQueue<>(100, true /*FIFO*/));
+    runner.setOffsetTracker(Mockito.mock(SourceOffsetTracker.class));
+    return runner;
+  }
+
+  @Test
+  public void testErrorRecordsSpillDirCleanedOnStart() throws IOException {
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    Mockito.when(runtimeInfo.getId()).thenReturn("id");
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn("target/" + UUID.randomUUID());
+    File spillDir = PipelineDirectoryUtil.getPipelineErrorRecordsSpillDir(runtimeInfo, PIPELINE_NAME, REVISION);
+    Files.createDirectories(spillDir.toPath());
+    File staleSegment = new File(spillDir, "errorRecords-stale.segment");
+    Files.write(staleSegment.toPath(), new byte[1024]);
+
+    createSpillingRunner(runtimeInfo, new Configuration());
+
+    Assert.assertTrue(spillDir.isDirectory());
+    Assert.assertFalse(staleSegment.exists());
+  }
+
+  @Test
+  public void testErrorRecordsSpillReleasedOnBatchFailure() throws Exception {
+    RuntimeInfo runtimeInfo = Mockito.mock(RuntimeInfo.class);
+    Mockito.when(runtimeInfo.getId()).thenReturn("id");
+    Mockito.when(runtimeInfo.getDataDir()).thenReturn("target/" + UUID.randomUUID());
+    BuildInfo buildInfo = Mockito.mock(BuildInfo.class);
+    Mockito.when(buildInfo.getVersion()).thenReturn("3.17.0");
+    File spillDir = PipelineDirectoryUtil.getPipelineErrorRecordsSpillDir(runtimeInfo, PIPELINE_NAME, REVISION);
+    SomeException thrown = new SomeException("processor failure");
+    MockStages.setSourceCapture(new BaseSource() {
+      @Override
+      public String produce(String lastSourceOffset, int maxBatchSize, BatchMaker batchMaker) throws StageException {
+        for (int i = 0; i < 5; i++) {
+          Record record = getContext().createRecord("e" + i);
+          record.set(Field.create(i));
+          getContext().toError(record, "error");
+        }
+        Record record = getContext().createRecord("x");
+        record.set(Field.create(1));
+        batchMaker.addRecord(record);
+        return "1";
+      }
+    });
+    MockStages.setProcessorCapture(new SingleLaneRecordProcessor() {
+      @Override
+      protected void process(Record record, SingleLaneBatchMaker batchMaker) throws StageException {
+        // the source error records are spilled by now, the failing batch must not leave them behind
+        Assert.assertTrue(spillDir.list().length > 0);
+        throw thrown;
+      }
+    });
+    Configuration conf = new Configuration();
+    ProductionPipelineRunner runner = createSpillingRunner(runtimeInfo, conf);
+    PipelineConfiguration pipelineConfiguration = MockStages.createPipelineConfigurationSourceProcessorTarget();
+    ProductionPipeline pipeline = new ProductionPipelineBuilder(
+      PIPELINE_NAME,
+      REVISION,
+      conf,
+      runtimeInfo,
+      buildInfo,
+      MockStages.createStageLibrary(),
+      runner,
+      null,
+      Mockito.mock(BlobStoreTask.class),
+      Mockito.mock(LineagePublisherTask.class),
+      Mockito.mock(StatsCollector.class)
+    ).build(
+      MockStages.userContext(),
+      pipelineConfiguration,
+      System.currentTimeMillis()
+    );
+    try {
+      pipeline.registerStatusListener(new TestProductionPipeline.MyStateListener());
+      pipeline.run();
+      Assert.fail();
+    } catch (SomeException ex) {
+      Assert.assertSame(thrown, ex);
+    }
+    Assert.assertEquals(0, spillDir.list().length);
+  }
+
 }
@@ -15,10 +15,14 @@
  */
 package com.streamsets.datacollector.execution.snapshot;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import com.streamsets.datacollector.execution.Snapshot;
 import com.streamsets.datacollector.execution.SnapshotInfo;
 import com.streamsets.datacollector.execution.SnapshotStore;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotPage;
+import com.streamsets.datacollector.execution.snapshot.common.SnapshotStageSummary;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
 import com.streamsets.datacollector.record.RecordImpl;
 import com.streamsets.datacollector.runner.ErrorSink;
 import com.streamsets.datacollector.runner.EventSink;
@@ -227,6 +231,69 @@ public abstract class TestSnapshotStore {
 
   }
 
+  @Test
+  public void testAppendBatchAndPage() throws Exception {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL, false);
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    SnapshotInfo info = snapshotStore.finishCapture(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, 7);
+    Assert.assertFalse(info.isInProgress());
+    Assert.assertEquals(7, info.getBatchNumber());
+    Assert.assertFalse(snapshotStore.getInfo(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID).isInProgress());
+
+    Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID);
+    List<List<SnapshotStageSummary>> index = snapshot.getIndex();
+    Assert.assertEquals(2, index.size());
+    Assert.assertEquals(2, index.get(1).size());
+    Assert.assertEquals(1, index.get(1).get(0).getBatch());
+    Assert.assertEquals("source", index.get(1).get(0).getInstanceName());
+    Assert.assertEquals(2, (int) index.get(1).get(0).getLaneRecords().get("lane"));
+    Assert.assertEquals(1, (int) index.get(1).get(1).getLaneRecords().get("lane"));
+
+    SnapshotPage page = snapshot.getPage(1, "source", "lane", 1, 10);
+    Assert.assertNotNull(page);
+    Assert.assertEquals(2, page.getTotalRecords());
+    Assert.assertEquals(1, page.getRecords().size());
+    Assert.assertEquals("s:2", page.getRecords().get(0).getHeader().getSourceId());
+
+    Assert.assertNull(snapshot.getPage(1, "source", "missing", 0, 10));
+    Assert.assertNull(snapshot.getPage(1, "missing", "lane", 0, 10));
+
+    // the full output keeps the legacy shape of one array per batch
+    JsonNode output = ObjectMapperFactory.get().readTree(snapshot.getOutput());
+    Assert.assertEquals(2, output.get("snapshotBatches").size());
+    Assert.assertEquals(2, output.get("snapshotBatches").get(0).size());
+    snapshot.close();
+  }
+
+  @Test
+  public void testAppendBatchNumbering() throws Exception {
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL, false);
+    for (int i = 0; i < 3; i++) {
+      snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    }
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, 0, getSnapshotData());
+
+    Snapshot snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID);
+    List<List<SnapshotStageSummary>> index = snapshot.getIndex();
+    Assert.assertEquals(5, index.size());
+    for (int i = 0; i < index.size(); i++) {
+      Assert.assertEquals(i, index.get(i).get(0).getBatch());
+      Assert.assertEquals(i, index.get(i).get(1).getBatch());
+    }
+    snapshot.close();
+
+    // a new capture with the same id starts over
+    snapshotStore.deleteSnapshot(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID);
+    snapshotStore.create(USER, PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, SNAPSHOT_LABEL, false);
+    snapshotStore.appendBatch(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, createSnapshotData());
+    snapshotStore.save(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID, 0, Collections.<List<StageOutput>>emptyList());
+    snapshot = snapshotStore.get(PIPELINE_NAME, PIPELINE_REV, SNAPSHOT_ID);
+    Assert.assertEquals(1, snapshot.getIndex().size());
+    Assert.assertEquals(0, snapshot.getIndex().get(0).get(0).getBatch());
+    snapshot.close();
+  }
+
   private List<List<StageOutput>> getSnapshotData() throws Exception {
     List<List<StageOutput>> snapshotBatches = new ArrayList<>();
     snapshotBatches.add(createSnapshotData());
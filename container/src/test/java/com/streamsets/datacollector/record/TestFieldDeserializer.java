@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.record;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.restapi.bean.BeanHelper;
+import com.streamsets.datacollector.restapi.bean.FieldJson;
+import com.streamsets.datacollector.restapi.bean.RecordJson;
+import com.streamsets.datacollector.util.EscapeUtil;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestFieldDeserializer {
+
+  private static Field roundTrip(Field field) throws Exception {
+    RecordImpl record = new RecordImpl("stage", "id", null, null);
+    record.set(field);
+    ObjectMapper objectMapper = ObjectMapperFactory.getOneLine();
+    String json = objectMapper.writeValueAsString(BeanHelper.wrapRecord(record));
+    return objectMapper.readValue(json, RecordJson.class).getRecord().get();
+  }
+
+  private static LinkedHashMap<String, Field> createNumericFields(int count) {
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      switch (i % 4) {
+        case 0:
+          map.put("int" + i, Field.create(i));
+          break;
+        case 1:
+          map.put("long" + i, Field.create(i * 1000L));
+          break;
+        case 2:
+          map.put("float" + i, Field.create(i * 0.25f));
+          break;
+        default:
+          map.put("double" + i, Field.create(i * 1.5d));
+          break;
+      }
+    }
+    return map;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Map<String, String> attributes = new HashMap<>();
+    attributes.put("precision", "10");
+    LinkedHashMap<String, Field> listMap = createNumericFields(8);
+    listMap.put("a/b", Field.create(Field.Type.LONG, null));
+    listMap.put("withAttributes", Field.create(Field.Type.DOUBLE, 1.5d, attributes));
+    List<Field> list = new ArrayList<>();
+    list.add(Field.create(Long.MAX_VALUE));
+    list.add(Field.create(Integer.MIN_VALUE));
+    list.add(Field.create(Field.Type.INTEGER, 5, attributes));
+    list.add(Field.create(Field.Type.FLOAT, null));
+    Map<String, Field> map = new HashMap<>();
+    map.put("listMap", Field.createListMap(listMap));
+    map.put("list", Field.create(list));
+    map.put("string", Field.create("hello"));
+    map.put("boolean", Field.create(true));
+    map.put("bytes", Field.create(new byte[] {1, 2, 3}));
+    map.put("nullMap", Field.create(Field.Type.MAP, null));
+    Field field = Field.create(map);
+
+    Field parsed = roundTrip(field);
+    Assert.assertEquals(field, parsed);
+    Map<String, Field> parsedListMap = parsed.getValueAsMap().get("listMap").getValueAsListMap();
+    Assert.assertEquals(new ArrayList<>(listMap.keySet()), new ArrayList<>(parsedListMap.keySet()));
+    Assert.assertEquals(attributes, parsedListMap.get("withAttributes").getAttributes());
+    Assert.assertArrayEquals(new byte[] {1, 2, 3}, parsed.getValueAsMap().get("bytes").getValueAsByteArray());
+  }
+
+  @Test
+  public void testValueBeforeType() throws Exception {
+    String json = "{\"value\":[{\"type\":\"LONG\",\"value\":\"1\",\"sqpath\":\"/x\"}," +
+        "{\"sqpath\":\"/y\",\"value\":\"2.5\",\"type\":\"DOUBLE\"}],\"type\":\"LIST_MAP\"}";
+    Field field = ObjectMapperFactory.getOneLine().readValue(json, FieldJson.class).getField();
+    Assert.assertEquals(Field.Type.LIST_MAP, field.getType());
+    Assert.assertEquals(Field.create(1L), field.getValueAsListMap().get("x"));
+    Assert.assertEquals(Field.create(2.5d), field.getValueAsListMap().get("y"));
+  }
+
+  /**
+   * The previous implementation, which parsed the field through an intermediate Map tree.
+   */
+  @SuppressWarnings("unchecked")
+  private static Field parseFromMap(Map<String, Object> map) {
+    Field.Type type = Field.Type.valueOf((String) map.get("type"));
+    Object value = map.get("value");
+    if (value != null) {
+      switch (type) {
+        case LIST_MAP:
+          Map<String, Field> listMap = new LinkedHashMap<>();
+          for (Map<String, Object> element : (List<Map<String, Object>>) value) {
+            String path = (String) element.get("sqpath");
+            listMap.put(EscapeUtil.getLastFieldNameFromPath(path), parseFromMap(element));
+          }
+          value = listMap;
+          break;
+        case INTEGER:
+          value = Integer.parseInt((String) value);
+          break;
+        case LONG:
+          value = Long.parseLong((String) value);
+          break;
+        case FLOAT:
+          value = Float.parseFloat((String) value);
+          break;
+        case DOUBLE:
+          value = Double.parseDouble((String) value);
+          break;
+        default:
+          break;
+      }
+    }
+    return Field.create(type, value, (Map<String, String>) map.get("attributes"));
+  }
+
+  @Ignore
+  @Test
+  @SuppressWarnings("unchecked")
+  public void benchmarkNumericFields() throws Exception {
+    // telemetry like record with 500 numeric fields
+    RecordImpl record = new RecordImpl("stage", "id", null, null);
+    record.set(Field.createListMap(createNumericFields(500)));
+    ObjectMapper objectMapper = ObjectMapperFactory.getOneLine();
+    String json = objectMapper.writeValueAsString(record.getValue());
+    int iterations = 10_000;
+
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (boolean streaming : new boolean[] {false, true, false, true}) {
+      long allocatedStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        Field field = (streaming)
+            ? objectMapper.readValue(json, FieldJson.class).getField()
+            : parseFromMap(objectMapper.readValue(json, Map.class));
+        Assert.assertEquals(500, field.getValueAsListMap().size());
+      }
+      long nanos = System.nanoTime() - start;
+      long allocated = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedStart;
+      System.out.printf(
+          "%-9s : %,d bytes/record allocated, %,d ns/record%n",
+          (streaming) ? "streaming" : "map",
+          allocated / iterations,
+          nanos / iterations
+      );
+    }
+  }
+
+}
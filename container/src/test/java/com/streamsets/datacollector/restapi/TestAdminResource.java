@@ -23,6 +23,7 @@ import com.streamsets.datacollector.execution.SnapshotStore;
 import com.streamsets.datacollector.main.BuildInfo;
 import com.streamsets.datacollector.main.RuntimeInfo;
 import com.streamsets.datacollector.main.UserGroupManager;
+import com.streamsets.datacollector.profiling.StageProfiler;
 import com.streamsets.datacollector.restapi.bean.DPMInfoJson;
 import com.streamsets.datacollector.store.PipelineStoreTask;
 import com.streamsets.datacollector.usagestats.StatsCollector;
@@ -41,6 +42,7 @@ import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
+import java.util.Map;
 
 import static org.mockito.Mockito.mock;
 
@@ -89,6 +91,32 @@ public class TestAdminResource extends JerseyTest {
     Assert.assertTrue(exceptionTriggered);
   }
 
+  @Test
+  public void testProfilingRequests() {
+    Response response = target("/v1/system/profiling").request().get();
+    Assert.assertEquals(200, response.getStatus());
+    Map status = response.readEntity(Map.class);
+    if (!StageProfiler.isSupported()) {
+      Assert.assertEquals(false, status.get("supported"));
+      return;
+    }
+    Assert.assertEquals(false, status.get("active"));
+
+    response = target("/v1/system/profiling/start").queryParam("durationSecs", 0)
+        .request()
+        .header("X-Requested-By", "SDC")
+        .post(null);
+    Assert.assertEquals(400, response.getStatus());
+    response.close();
+
+    response = target("/v1/system/profiling/stop")
+        .request()
+        .header("X-Requested-By", "SDC")
+        .post(null);
+    Assert.assertEquals(409, response.getStatus());
+    response.close();
+  }
+
   @Override
   protected Application configure() {
     return new ResourceConfig() {
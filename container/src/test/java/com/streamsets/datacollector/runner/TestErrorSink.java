@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.streamsets.datacollector.record.RecordImpl;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class TestErrorSink {
+  private File spillDir;
+
+  @Before
+  public void setUp() {
+    spillDir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(spillDir.mkdirs());
+  }
+
+  private Record createRecord(int i) {
+    RecordImpl record = new RecordImpl("s", "id" + i, null, null);
+    record.set(Field.create(i));
+    record.getHeader().setSourceRecord(new RecordImpl("s", "source" + i, null, null));
+    return record;
+  }
+
+  @Test
+  public void testNoSpill() throws Exception {
+    ErrorSink errorSink = new ErrorSink();
+    for (int i = 0; i < 10; i++) {
+      errorSink.addRecord("s", createRecord(i));
+    }
+    Assert.assertEquals(10, errorSink.getErrorRecords().get("s").size());
+    Assert.assertEquals(10, errorSink.getErrorRecordCount("s"));
+    Assert.assertEquals(0, errorSink.getSpilledErrorRecordCount());
+    Assert.assertTrue(errorSink.pollSpilledErrorRecords().isEmpty());
+  }
+
+  @Test
+  public void testSpill() throws Exception {
+    Counter spilledBytes = new Counter();
+    Timer readLatency = new Timer();
+    ErrorRecordSpillConfig config = new ErrorRecordSpillConfig(
+        spillDir,
+        3,
+        0,
+        Long.MAX_VALUE,
+        spilledBytes,
+        readLatency
+    );
+    ErrorSink errorSink = new ErrorSink(config);
+    errorSink.registerInterceptorsForStage("s", Collections.emptyList());
+    errorSink.registerInterceptorsForStage("t", Collections.emptyList());
+
+    for (int i = 0; i < 5; i++) {
+      errorSink.addRecord("s", createRecord(i));
+    }
+    for (int i = 5; i < 8; i++) {
+      errorSink.addRecord("t", createRecord(i));
+    }
+
+    Assert.assertEquals(3, errorSink.getErrorRecords("s").size());
+    Assert.assertEquals(0, errorSink.getErrorRecords("t").size());
+    Assert.assertEquals(5, errorSink.getErrorRecordCount("s"));
+    Assert.assertEquals(3, errorSink.getErrorRecordCount("t"));
+    Assert.assertEquals(5, errorSink.getSpilledErrorRecordCount());
+    Assert.assertEquals(8, errorSink.getTotalErrorRecords());
+    Assert.assertEquals(8, errorSink.size());
+    Assert.assertTrue(spilledBytes.getCount() > 0);
+    Assert.assertTrue(spillDir.list().length > 0);
+
+    // spilled records are read back in order, at most threshold at a time
+    List<Record> records = errorSink.pollSpilledErrorRecords();
+    Assert.assertEquals(3, records.size());
+    for (int i = 0; i < 3; i++) {
+      Record record = records.get(i);
+      Assert.assertEquals(i + 3, record.get().getValueAsInteger());
+      Assert.assertEquals("id" + (i + 3), record.getHeader().getSourceId());
+      Assert.assertEquals(
+          "source" + (i + 3),
+          ((RecordImpl) record).getHeader().getSourceRecord().getHeader().getSourceId()
+      );
+    }
+    records = errorSink.pollSpilledErrorRecords();
+    Assert.assertEquals(2, records.size());
+    Assert.assertEquals(6, records.get(0).get().getValueAsInteger());
+    Assert.assertEquals(7, records.get(1).get().getValueAsInteger());
+    Assert.assertTrue(errorSink.pollSpilledErrorRecords().isEmpty());
+    Assert.assertEquals(5, readLatency.getCount());
+
+    errorSink.releaseSpill();
+    Assert.assertEquals(3, errorSink.getErrorRecordCount("s"));
+    Assert.assertEquals(0, errorSink.getErrorRecordCount("t"));
+    Assert.assertEquals(0, spillDir.list().length);
+  }
+
+  @Test
+  public void testReleaseUnpolledSpill() throws Exception {
+    ErrorRecordSpillConfig config = new ErrorRecordSpillConfig(
+        spillDir,
+        1,
+        0,
+        Long.MAX_VALUE,
+        new Counter(),
+        new Timer()
+    );
+    ErrorSink errorSink = new ErrorSink(config);
+    for (int i = 0; i < 3; i++) {
+      errorSink.addRecord("s", createRecord(i));
+    }
+    Assert.assertEquals(2, errorSink.getSpilledErrorRecordCount());
+    Assert.assertTrue(spillDir.list().length > 0);
+
+    errorSink.releaseSpill();
+    Assert.assertEquals(0, errorSink.getSpilledErrorRecordCount());
+    Assert.assertEquals(0, spillDir.list().length);
+  }
+
+  @Test
+  public void testSpillFullKeepsRecordsOnHeap() throws Exception {
+    ErrorRecordSpillConfig config = new ErrorRecordSpillConfig(spillDir, 1, 0, 0, new Counter(), new Timer());
+    ErrorSink errorSink = new ErrorSink(config);
+    for (int i = 0; i < 3; i++) {
+      errorSink.addRecord("s", createRecord(i));
+    }
+    Assert.assertEquals(3, errorSink.getErrorRecords().get("s").size());
+    Assert.assertEquals(0, errorSink.getSpilledErrorRecordCount());
+    Assert.assertEquals(3, errorSink.getErrorRecordCount("s"));
+  }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.runner.production;
+
+import com.streamsets.datacollector.runner.PipelineRuntimeException;
+import com.streamsets.datacollector.runner.SourceOffsetTracker;
+import com.streamsets.datacollector.util.ContainerError;
+import com.streamsets.pipeline.api.Source;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class TestAsyncAckSourceOffsetTracker {
+
+  private static class MemoryOffsetTracker implements SourceOffsetTracker {
+    private final Map<String, String> offsets = new HashMap<>();
+    private final List<String> commits = new ArrayList<>();
+
+    @Override
+    public boolean isFinished() {
+      return false;
+    }
+
+    @Override
+    public void commitOffset(String entity, String newOffset) {
+      commits.add(newOffset);
+      offsets.put(entity, newOffset);
+    }
+
+    @Override
+    public Map<String, String> getOffsets() {
+      return Collections.unmodifiableMap(offsets);
+    }
+
+    @Override
+    public long getLastBatchTime() {
+      return 0;
+    }
+
+    @Override
+    public void resetOffset() {
+      offsets.clear();
+    }
+  }
+
+  private MemoryOffsetTracker delegate;
+
+  @Before
+  public void setUp() {
+    delegate = new MemoryOffsetTracker();
+  }
+
+  private static void runBatch(AsyncAckSourceOffsetTracker tracker, String offset, CompletableFuture<?> ack) {
+    tracker.startBatch();
+    if (ack != null) {
+      tracker.getAcknowledger().accept(ack);
+    }
+    tracker.commitOffset(Source.POLL_SOURCE_OFFSET_KEY, offset);
+  }
+
+  @Test
+  public void testSynchronousBatches() throws Exception {
+    AsyncAckSourceOffsetTracker tracker = new AsyncAckSourceOffsetTracker(delegate, 2);
+    runBatch(tracker, "1", null);
+    runBatch(tracker, "2", CompletableFuture.completedFuture(null));
+
+    Assert.assertEquals(0, tracker.getPendingBatches());
+    Assert.assertEquals(Arrays.asList("1", "2"), delegate.commits);
+  }
+
+  @Test
+  public void testAbortBatch() throws Exception {
+    AsyncAckSourceOffsetTracker tracker = new AsyncAckSourceOffsetTracker(delegate, 2);
+    CompletableFuture<Void> failedBatchAck = new CompletableFuture<>();
+
+    // the batch fails after the destination registered its acknowledgement, its offset is never committed
+    tracker.startBatch();
+    tracker.getAcknowledger().accept(failedBatchAck);
+    tracker.abortBatch();
+
+    // the next batch doesn't wait for the acknowledgement of the failed one
+    runBatch(tracker, "1", null);
+    Assert.assertEquals(0, tracker.getPendingBatches());
+    Assert.assertEquals(Collections.singletonList("1"), delegate.commits);
+  }
+
+  @Test
+  public void testInOrderCommits() throws Exception {
+    AsyncAckSourceOffsetTracker tracker = new AsyncAckSourceOffsetTracker(delegate, 5);
+    CompletableFuture<Void> ack1 = new CompletableFuture<>();
+    CompletableFuture<Void> ack2 = new CompletableFuture<>();
+
+    runBatch(tracker, "1", ack1);
+    runBatch(tracker, "2", ack2);
+    // batch without acknowledgement still waits for the previous ones
+    runBatch(tracker, "3", null);
+
+    Assert.assertEquals(3, tracker.getPendingBatches());
+    Assert.assertTrue(delegate.commits.isEmpty());
+    // the origin continues from the last batch, the committed offsets stay behind
+    Assert.assertEquals("3", tracker.getOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+    Assert.assertNull(tracker.getCommittedOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+
+    ack2.complete(null);
+    tracker.awaitCapacity();
+    Assert.assertTrue(delegate.commits.isEmpty());
+
+    ack1.complete(null);
+    tracker.awaitAll();
+    Assert.assertEquals(0, tracker.getPendingBatches());
+    Assert.assertEquals(Arrays.asList("1", "2", "3"), delegate.commits);
+    Assert.assertEquals("3", tracker.getCommittedOffsets().get(Source.POLL_SOURCE_OFFSET_KEY));
+  }
+
+  @Test(timeout = 10000)
+  public void testBoundedPendingBatches() throws Exception {
+    AsyncAckSourceOffsetTracker tracker = new AsyncAckSourceOffsetTracker(delegate, 1);
+    CompletableFuture<Void> ack1 = new CompletableFuture<>();
+    CompletableFuture<Void> ack2 = new CompletableFuture<>();
+
+    runBatch(tracker, "1", ack1);
+    tracker.awaitCapacity();
+    runBatch(tracker, "2", ack2);
+
+    Thread acker = new Thread(() -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      ack1.complete(null);
+    });
+    acker.start();
+
+    tracker.awaitCapacity();
+    acker.join();
+    Assert.assertEquals(1, tracker.getPendingBatches());
+    Assert.assertEquals(Collections.singletonList("1"), delegate.commits);
+  }
+
+  @Test
+  public void testFailedAcknowledgement() throws Exception {
+    AsyncAckSourceOffsetTracker tracker = new AsyncAckSourceOffsetTracker(delegate, 5);
+    CompletableFuture<Void> ack1 = new CompletableFuture<>();
+    CompletableFuture<Void> ack2 = new CompletableFuture<>();
+
+    runBatch(tracker, "1", ack1);
+    runBatch(tracker, "2", ack2);
+    ack1.completeExceptionally(new RuntimeException("broker down"));
+    ack2.complete(null);
+
+    try {
+      tracker.awaitAll();
+      Assert.fail();
+    } catch (PipelineRuntimeException ex) {
+      Assert.assertEquals(ContainerError.CONTAINER_0804, ex.getErrorCode());
+    }
+    // neither the failed batch nor any later one is committed
+    Assert.assertTrue(delegate.commits.isEmpty());
+  }
+
+  @Test
+  public void testAcknowledgeOutsideOfBatch() throws Exception {
+    AsyncAckSourceOffsetTracker tracker = new AsyncAckSourceOffsetTracker(delegate, 5);
+
+    // no tracked batch on this thread, the acknowledger waits for the handle
+    tracker.getAcknowledger().accept(CompletableFuture.completedFuture(null));
+    CompletableFuture<Void> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new RuntimeException("failed"));
+    try {
+      tracker.getAcknowledger().accept(failed);
+      Assert.fail();
+    } catch (CompletionException ex) {
+      Assert.assertEquals("failed", ex.getCause().getMessage());
+    }
+    Assert.assertEquals(0, tracker.getPendingBatches());
+  }
+
+}
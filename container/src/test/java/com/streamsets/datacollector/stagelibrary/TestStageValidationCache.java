@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.stagelibrary;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.datacollector.json.ObjectMapperFactory;
+import com.streamsets.datacollector.main.BuildInfo;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.UUID;
+
+public class TestStageValidationCache {
+
+  private File dir;
+  private File jar;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = new File("target", UUID.randomUUID().toString());
+    Assert.assertTrue(dir.mkdirs());
+    jar = new File(dir, "lib.jar");
+    try (OutputStream os = new FileOutputStream(jar)) {
+      os.write(new byte[]{1, 2, 3});
+    }
+  }
+
+  private static BuildInfo createBuildInfo(String version) {
+    BuildInfo buildInfo = Mockito.mock(BuildInfo.class);
+    Mockito.when(buildInfo.getVersion()).thenReturn(version);
+    Mockito.when(buildInfo.getBuiltRepoSha()).thenReturn("sha");
+    Mockito.when(buildInfo.getBuiltDate()).thenReturn("date");
+    return buildInfo;
+  }
+
+  private StageValidationCache createCache(String version) {
+    return new StageValidationCache(new File(dir, "cache"), createBuildInfo(version), ObjectMapperFactory.get());
+  }
+
+  private ClassLoader createClassLoader(File... files) throws Exception {
+    URL[] urls = new URL[files.length];
+    for (int i = 0; i < files.length; i++) {
+      urls[i] = files[i].toURI().toURL();
+    }
+    return new URLClassLoader(urls, null);
+  }
+
+  @Test
+  public void testLibraryKey() throws Exception {
+    StageValidationCache cache = createCache("1.0");
+    String key = cache.getLibraryKey(createClassLoader(jar));
+    Assert.assertNotNull(key);
+    Assert.assertEquals(key, cache.getLibraryKey(createClassLoader(jar)));
+
+    // different SDC build
+    Assert.assertNotEquals(key, createCache("2.0").getLibraryKey(createClassLoader(jar)));
+
+    // modified jar
+    try (OutputStream os = new FileOutputStream(jar, true)) {
+      os.write(4);
+    }
+    Assert.assertNotEquals(key, cache.getLibraryKey(createClassLoader(jar)));
+
+    // directories and non URL class loaders can't be cached
+    Assert.assertNull(cache.getLibraryKey(createClassLoader(jar, dir)));
+    Assert.assertNull(cache.getLibraryKey(Mockito.mock(ClassLoader.class)));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    StageValidationCache cache = createCache("1.0");
+    String key = cache.getLibraryKey(createClassLoader(jar));
+
+    Assert.assertTrue(cache.getValidatedClasses("lib", key).isEmpty());
+
+    cache.setValidatedClasses("lib", key, ImmutableList.of("a.B", "a.A"));
+    Assert.assertEquals(ImmutableSet.of("a.A", "a.B"), cache.getValidatedClasses("lib", key));
+
+    // a new cache instance, as on the next start, sees the same entries
+    Assert.assertEquals(ImmutableSet.of("a.A", "a.B"), createCache("1.0").getValidatedClasses("lib", key));
+
+    // other libraries and keys don't match
+    Assert.assertTrue(cache.getValidatedClasses("other", key).isEmpty());
+    Assert.assertTrue(cache.getValidatedClasses("lib", "other").isEmpty());
+    Assert.assertTrue(cache.getValidatedClasses("lib", null).isEmpty());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    StageValidationCache cache = createCache("1.0");
+    String key = cache.getLibraryKey(createClassLoader(jar));
+
+    cache.setValidatedClasses("lib", key, ImmutableList.of("a.A"));
+    cache.invalidate("lib");
+    Assert.assertTrue(cache.getValidatedClasses("lib", key).isEmpty());
+
+    // invalidating a library that is not cached is a no-op
+    cache.invalidate("other");
+  }
+
+}
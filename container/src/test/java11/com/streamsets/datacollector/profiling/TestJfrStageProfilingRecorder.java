@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.datacollector.profiling;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+public class TestJfrStageProfilingRecorder {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Before
+  public void setUp() {
+    Assume.assumeTrue(StageProfiler.isSupported());
+  }
+
+  private byte[] allocate(int size) {
+    byte[] data = new byte[size];
+    data[size - 1] = 1;
+    return data;
+  }
+
+  @Test
+  public void testRecording() throws Exception {
+    StageProfilingRecorder recorder = new JfrStageProfilingRecorder();
+    Assert.assertFalse((Boolean) recorder.getStatus().get("active"));
+
+    File dir = tempFolder.newFolder();
+    recorder.start(dir, Duration.ofMinutes(1), 16 * 1024 * 1024);
+    Map<String, Object> status = recorder.getStatus();
+    Assert.assertTrue((Boolean) status.get("active"));
+    Assert.assertTrue((Boolean) status.get("running"));
+    Assert.assertEquals(60L, status.get("durationSecs"));
+
+    try {
+      recorder.start(dir, Duration.ofMinutes(1), 16 * 1024 * 1024);
+      Assert.fail();
+    } catch (IllegalStateException ex) {
+      // expected
+    }
+
+    // stage 'a' allocates and parks
+    for (int i = 0; i < 3; i++) {
+      StageProfiler.Sample sample = StageProfiler.get().start();
+      Assert.assertNotNull(sample);
+      allocate(1024 * 1024);
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+      sample.stop();
+      sample.commit("pipeline", "a", 0, 10, 8, 2);
+    }
+
+    // stage 'b' blocks on a monitor held by another thread
+    Object lock = new Object();
+    CountDownLatch locked = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      synchronized (lock) {
+        locked.countDown();
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+      }
+    });
+    holder.start();
+    locked.await();
+    StageProfiler.Sample sample = StageProfiler.get().start();
+    synchronized (lock) {
+      allocate(10);
+    }
+    sample.stop();
+    sample.commit("pipeline", "b", 1, 5, 5, 0);
+    holder.join();
+
+    List<StageProfile> summary = recorder.stop();
+    Assert.assertFalse((Boolean) recorder.getStatus().get("active"));
+    Assert.assertEquals(0, dir.list().length);
+
+    Assert.assertEquals(2, summary.size());
+    StageProfile a = summary.stream().filter(p -> p.getStageInstanceName().equals("a")).findFirst().get();
+    Assert.assertEquals("pipeline", a.getPipelineId());
+    Assert.assertEquals(3, a.getBatches());
+    Assert.assertEquals(30, a.getInputRecords());
+    Assert.assertEquals(24, a.getOutputRecords());
+    Assert.assertEquals(6, a.getErrorRecords());
+    Assert.assertTrue(a.getAllocatedBytes() >= 3 * 1024 * 1024);
+    Assert.assertTrue(a.getWallTime() >= TimeUnit.MILLISECONDS.toNanos(60));
+    Assert.assertTrue(a.getLockWaitTime() >= TimeUnit.MILLISECONDS.toNanos(60));
+    Assert.assertTrue(a.getLockWaitTime() <= a.getWallTime());
+
+    StageProfile b = summary.stream().filter(p -> p.getStageInstanceName().equals("b")).findFirst().get();
+    Assert.assertEquals(1, b.getBatches());
+    Assert.assertTrue(b.getLockWaitTime() > 0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStopWithoutRecording() throws Exception {
+    new JfrStageProfilingRecorder().stop();
+  }
+
+  @Test
+  public void testNoSampleWithoutRecording() {
+    Assert.assertNull(StageProfiler.get().start());
+  }
+
+}
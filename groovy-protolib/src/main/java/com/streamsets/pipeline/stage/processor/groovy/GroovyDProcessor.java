@@ -27,6 +27,8 @@ import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.processor.scripting.ProcessingModeChooserValues;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordTypeValueChooser;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScopeValueChooser;
 
 import java.util.Map;
 
@@ -35,7 +37,7 @@ import static com.streamsets.pipeline.stage.processor.groovy.GroovyProcessor.GRO
 import static com.streamsets.pipeline.stage.processor.groovy.GroovyProcessor.GROOVY_INDY_ENGINE;
 
 @StageDef(
-    version = 2,
+    version = 3,
     label = "Groovy Evaluator",
     description = "Processes records using Groovy",
     icon="groovy.png",
@@ -142,11 +144,40 @@ public class GroovyDProcessor extends DProcessor {
   )
   public Map<String, String> userParams;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of script engines, each with its own compiled script, that process every batch in " +
+          "parallel. The batch is split in contiguous shards and output records keep the original order.",
+      displayPosition = 90,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 1,
+      max = Integer.MAX_VALUE,
+      group = "ADVANCED"
+  )
+  public int numThreads = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "SHARED",
+      label = "State Scope",
+      description = "When using several threads, whether the state object is shared by all of them or each thread " +
+          "has its own state initialized by the init script",
+      displayPosition = 100,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ADVANCED"
+  )
+  @ValueChooserModel(ScriptStateScopeValueChooser.class)
+  public ScriptStateScope stateScope = ScriptStateScope.SHARED;
+
   @Override
   protected Processor createProcessor() {
     final String engineName = invokeDynamic ? GROOVY_INDY_ENGINE : GROOVY_ENGINE;
     return new GroovyProcessor(processingMode, script, initScript, destroyScript, engineName, scriptRecordType,
-        userParams);
+        userParams, numThreads, stateScope);
   }
 
 }
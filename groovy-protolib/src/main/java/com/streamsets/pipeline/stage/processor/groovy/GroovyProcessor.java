@@ -20,6 +20,7 @@ import com.streamsets.pipeline.stage.processor.scripting.AbstractScriptingProces
 import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.util.scripting.ScriptObjectFactory;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,7 +44,23 @@ public class GroovyProcessor extends AbstractScriptingProcessor {
       ScriptRecordType scriptRecordType,
       Map<String, String> userParams
   ) {
-    super(LOG, engineName, Groups.GROOVY.name(), processingMode, script, initScript, destroyScript, userParams);
+    this(processingMode, script, initScript, destroyScript, engineName, scriptRecordType, userParams, 1,
+        ScriptStateScope.SHARED);
+  }
+
+  public GroovyProcessor(
+      ProcessingMode processingMode,
+      String script,
+      String initScript,
+      String destroyScript,
+      String engineName,
+      ScriptRecordType scriptRecordType,
+      Map<String, String> userParams,
+      int numThreads,
+      ScriptStateScope stateScope
+  ) {
+    super(LOG, engineName, Groups.GROOVY.name(), processingMode, script, initScript, destroyScript, userParams,
+        numThreads, stateScope);
     this.scriptRecordType = scriptRecordType;
   }
 
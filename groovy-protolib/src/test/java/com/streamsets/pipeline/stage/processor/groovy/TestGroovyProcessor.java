@@ -26,6 +26,7 @@ import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.processor.scripting.ScriptingProcessorTestUtil;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -515,4 +516,75 @@ public class TestGroovyProcessor {
     );
     ScriptingProcessorTestUtil.verifyNativeNullRootValue(GroovyDProcessor.class, processor);
   }
+
+  @Test
+  public void testLazyNativeRecord() throws Exception {
+    String script = "for (record in sdc.records) {\n" +
+        "  record.value['nested']['changed'] = 5\n" +
+        "  record.value['added'] = 'added'\n" +
+        "  sdc.output.write(record)\n" +
+        "}";
+
+    Processor processor = new GroovyProcessor(
+        ProcessingMode.RECORD,
+        script,
+        "",
+        "",
+        GroovyProcessor.GROOVY_ENGINE,
+        ScriptRecordType.LAZY_NATIVE_OBJECTS,
+        Collections.emptyMap()
+    );
+    ScriptingProcessorTestUtil.verifyLazyNativeRecord(GroovyDProcessor.class, processor);
+  }
+
+  @Test
+  public void testParallelPerEngineState() throws Exception {
+    String initScript = "sdc.state['count'] = 0\n";
+    String script = "for (record in sdc.records) {\n" +
+        "  sdc.state['count'] = sdc.state['count'] + 1\n" +
+        "  record.value['count'] = sdc.state['count']\n" +
+        "  sdc.output.write(record)\n" +
+        "}";
+
+    Processor processor = new GroovyProcessor(
+        ProcessingMode.BATCH,
+        script,
+        initScript,
+        "",
+        GroovyProcessor.GROOVY_ENGINE,
+        ScriptRecordType.NATIVE_OBJECTS,
+        Collections.emptyMap(),
+        4,
+        ScriptStateScope.PER_ENGINE
+    );
+    ScriptingProcessorTestUtil.verifyParallelPerEngineState(GroovyDProcessor.class, processor);
+  }
+
+  @Test
+  public void testParallelShardFailure() throws Exception {
+    String script = "def first = sdc.records[0]\n" +
+        "if (first.value['index'] < 0) {\n" +
+        "  first.value['done'] = sdc.state.size()\n" +
+        "  sdc.output.write(first)\n" +
+        "} else if (first.value['index'] == 0) {\n" +
+        "  Thread.sleep(100)\n" +
+        "  throw new Exception('first shard fails')\n" +
+        "} else {\n" +
+        "  Thread.sleep(500)\n" +
+        "  sdc.state[first.value['index'].toString()] = true\n" +
+        "}";
+
+    Processor processor = new GroovyProcessor(
+        ProcessingMode.BATCH,
+        script,
+        "",
+        "",
+        GroovyProcessor.GROOVY_ENGINE,
+        ScriptRecordType.NATIVE_OBJECTS,
+        Collections.emptyMap(),
+        4,
+        ScriptStateScope.SHARED
+    );
+    ScriptingProcessorTestUtil.verifyParallelShardFailure(GroovyDProcessor.class, processor);
+  }
 }
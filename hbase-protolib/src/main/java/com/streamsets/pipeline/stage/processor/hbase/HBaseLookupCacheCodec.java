@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.hbase;
+
+import com.google.common.base.Optional;
+import com.streamsets.pipeline.hbase.api.common.producer.HBaseColumn;
+import com.streamsets.pipeline.stage.processor.kv.PersistentCacheCodec;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Persistent cache codec for the HBase Lookup. Keys are the row key plus the column family, qualifier and timestamp
+ * when they are set, only values of existing cells are persisted.
+ */
+public class HBaseLookupCacheCodec implements PersistentCacheCodec<Pair<String, HBaseColumn>, Optional<String>> {
+
+  @Override
+  public byte[] encodeKey(Pair<String, HBaseColumn> key) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeBytes(out, key.getKey().getBytes(StandardCharsets.UTF_8));
+      HBaseColumn column = key.getValue();
+      writeOptionalBytes(out, column.getCf());
+      writeOptionalBytes(out, column.getQualifier());
+      out.writeBoolean(column.getTimestamp().isPresent());
+      if (column.getTimestamp().isPresent()) {
+        out.writeLong(column.getTimestamp().getAsLong());
+      }
+    } catch (IOException e) {
+      // can't happen writing to memory
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public boolean isPersistent(Optional<String> value) {
+    return value.isPresent();
+  }
+
+  @Override
+  public byte[] encodeValue(Optional<String> value) {
+    return value.get().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public Optional<String> decodeValue(byte[] bytes) {
+    return Optional.of(new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  private static void writeOptionalBytes(DataOutputStream out, Optional<byte[]> bytes) throws IOException {
+    out.writeBoolean(bytes.isPresent());
+    if (bytes.isPresent()) {
+      writeBytes(out, bytes.get());
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
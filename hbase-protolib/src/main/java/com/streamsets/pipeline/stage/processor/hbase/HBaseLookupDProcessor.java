@@ -26,7 +26,7 @@ import com.streamsets.pipeline.hbase.api.common.processor.Groups;
 import com.streamsets.pipeline.hbase.api.common.processor.HBaseLookupConfig;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "HBase Lookup",
     description = "Performs KV lookups to enrich records",
     icon = "hbase.png",
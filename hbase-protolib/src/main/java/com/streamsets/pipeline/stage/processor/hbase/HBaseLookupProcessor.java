@@ -49,6 +49,7 @@ import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
+import com.streamsets.pipeline.stage.processor.kv.MappedFileCacheStore;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.HTableDescriptor;
@@ -83,6 +84,8 @@ public class HBaseLookupProcessor extends BaseProcessor {
   private LoadingCache<Pair<String, HBaseColumn>, Optional<String>> cache;
   private CacheCleaner cacheCleaner;
   private HBaseConnectionHelper hbaseConnectionHelper;
+  private MappedFileCacheStore persistentStore;
+  private Map<String, Object> cacheGauge;
 
   public HBaseLookupProcessor(HBaseLookupConfig conf) {
     if (null != conf.hBaseConnectionConfig.zookeeperQuorum) {
@@ -222,7 +225,37 @@ public class HBaseLookupProcessor extends BaseProcessor {
             e
         ));
       }
-      cache = LookupUtils.buildCache(store, conf.cache);
+    }
+
+    if (issues.isEmpty() && conf.cache.enabled && conf.cache.persistentEnabled) {
+      try {
+        // values are keyed by row and column, they also depend on the cluster and table
+        persistentStore = LookupUtils.openSharedPersistentStore(getContext(), conf.cache, Utils.format(
+            "{}|{}|{}|{}",
+            conf.hBaseConnectionConfig.zookeeperQuorum,
+            conf.hBaseConnectionConfig.clientPort,
+            conf.hBaseConnectionConfig.zookeeperParentZNode,
+            conf.hBaseConnectionConfig.tableName
+        ));
+        if (getContext().getRunnerId() == 0) {
+          cacheGauge = getContext().createGauge(LookupUtils.CACHE_GAUGE_NAME).getValue();
+        }
+      } catch (StageException e) {
+        issues.add(getContext().createConfigIssue(
+            "LOOKUP",
+            "conf.cache.persistentDirectory",
+            e.getErrorCode(),
+            e.getParams()
+        ));
+      }
+    }
+
+    if(issues.isEmpty()) {
+      if (persistentStore != null) {
+        cache = LookupUtils.buildCache(store, conf.cache, persistentStore, new HBaseLookupCacheCodec());
+      } else {
+        cache = LookupUtils.buildCache(store, conf.cache);
+      }
 
       cacheCleaner = new CacheCleaner(cache, "HBaseLookupProcessor", 10 * 60 * 1000);
     }
@@ -244,6 +277,11 @@ public class HBaseLookupProcessor extends BaseProcessor {
     } else {
       throw new IllegalArgumentException(Utils.format("Unrecognized lookup mode: '{}'", conf.mode));
     }
+
+    // Memory tier statistics are those of the first runner, the persistent tier is shared by all runners
+    if (cacheGauge != null) {
+      LookupUtils.updateCacheGauge(cacheGauge, cache, persistentStore);
+    }
   }
 
   @Override
@@ -260,6 +298,7 @@ public class HBaseLookupProcessor extends BaseProcessor {
         throw new RuntimeException(e);
       }
     }
+    LookupUtils.closeSharedPersistentStore(getContext(), persistentStore);
   }
 
   private void doRecordLookup(Batch batch, BatchMaker batchMaker) throws StageException {
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.hbase;
+
+import com.google.common.base.Optional;
+import com.streamsets.pipeline.hbase.api.common.producer.HBaseColumn;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class TestHBaseLookupCacheCodec {
+
+  private static HBaseColumn column(String cf, String qualifier, Long timestamp) {
+    HBaseColumn column = new HBaseColumn();
+    if (cf != null) {
+      column.setCf(cf.getBytes(StandardCharsets.UTF_8));
+    }
+    if (qualifier != null) {
+      column.setQualifier(qualifier.getBytes(StandardCharsets.UTF_8));
+    }
+    if (timestamp != null) {
+      column.setTimestamp(timestamp);
+    }
+    return column;
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    HBaseLookupCacheCodec codec = new HBaseLookupCacheCodec();
+    Optional<String> value = Optional.of("{\"cf:a\":\"v\"}");
+    Assert.assertTrue(codec.isPersistent(value));
+    Assert.assertEquals(value, codec.decodeValue(codec.encodeValue(value)));
+  }
+
+  @Test
+  public void testMissingValuesNotPersistent() {
+    Assert.assertFalse(new HBaseLookupCacheCodec().isPersistent(Optional.absent()));
+  }
+
+  @Test
+  public void testKeys() {
+    HBaseLookupCacheCodec codec = new HBaseLookupCacheCodec();
+    byte[] key = codec.encodeKey(Pair.of("row", column("cf", "a", 1L)));
+    Assert.assertArrayEquals(key, codec.encodeKey(Pair.of("row", column("cf", "a", 1L))));
+
+    Assert.assertFalse(Arrays.equals(key, codec.encodeKey(Pair.of("row", column("cf", "a", null)))));
+    Assert.assertFalse(Arrays.equals(key, codec.encodeKey(Pair.of("row", column("cf", "a", 2L)))));
+    Assert.assertFalse(Arrays.equals(key, codec.encodeKey(Pair.of("row", column("cf", null, 1L)))));
+    Assert.assertFalse(Arrays.equals(key, codec.encodeKey(Pair.of("rowcf", column(null, "a", 1L)))));
+    Assert.assertFalse(Arrays.equals(key, codec.encodeKey(Pair.of("row", column("cfa", null, 1L)))));
+  }
+}
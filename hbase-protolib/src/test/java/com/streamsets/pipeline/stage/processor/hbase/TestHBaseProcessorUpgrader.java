@@ -80,4 +80,24 @@ public class TestHBaseProcessorUpgrader {
     assertEquals("conf.hBaseConnectionConfig.zookeeperParentZNode", configs.get(0).getName());
 
   }
+
+  @Test
+  public void testV3toV4() throws Exception {
+    List<Config> configs = new ArrayList<>();
+
+    StageUpgrader hbaseProcessorUpgrader = new HBaseProcessorUpgrader();
+    hbaseProcessorUpgrader.upgrade("a", "b", "c", 3, 4, configs);
+
+    assertEquals(5, configs.size());
+    assertEquals("conf.cache.persistentEnabled", configs.get(0).getName());
+    assertEquals(false, configs.get(0).getValue());
+    assertEquals("conf.cache.persistentDirectory", configs.get(1).getName());
+    assertEquals("", configs.get(1).getValue());
+    assertEquals("conf.cache.persistentMaxSizeMB", configs.get(2).getName());
+    assertEquals(256, configs.get(2).getValue());
+    assertEquals("conf.cache.persistentExpirationTime", configs.get(3).getName());
+    assertEquals(1, configs.get(3).getValue());
+    assertEquals("conf.cache.persistentTimeUnit", configs.get(4).getName());
+    assertEquals("DAYS", configs.get(4).getValue());
+  }
 }
@@ -16,8 +16,8 @@
 package com.streamsets.pipeline.lib.fragmentqueue;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.squareup.tape.QueueFile;
 import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.lib.queue.SpillQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,11 +28,15 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Disk based fragment queue, fragments are compressed and appended to memory mapped segment files that are deleted
+ * as soon as their fragments have been polled.
+ */
 public class FileFragmentQueue implements FragmentQueue {
   private static final Logger LOG = LoggerFactory.getLogger(FileFragmentQueue.class);
+  private static final int MAX_SEGMENT_SIZE = 8 * 1000 * 1000;
 
-  private File file;
-  private QueueFile queueFile;
+  private SpillQueue queueFile;
   private AtomicLong queueFileSize = new AtomicLong(0);
   private AtomicInteger lostFragments;
   private long maxQueueFileSize;
@@ -41,11 +45,7 @@ public class FileFragmentQueue implements FragmentQueue {
     this.maxQueueFileSize = maxFileSizeMB * 1000 * 1000;
   }
 
-  private File getFile() {
-    return file;
-  }
-
-  private QueueFile getQueueFile() {
+  private SpillQueue getQueueFile() {
     return queueFile;
   }
 
@@ -61,16 +61,17 @@ public class FileFragmentQueue implements FragmentQueue {
   @Override
   public List<Stage.ConfigIssue> init(Stage.Context context) {
     List<Stage.ConfigIssue> issues = new ArrayList<>();
-    try {
-      file = File.createTempFile("sdc-fragments", ".queueFile");
-      if (!getFile().delete()) {
-        issues.add(context.createConfigIssue("", "", Errors.FRAGMENT_CACHE_WRITER_00, getFile().getAbsolutePath()));
-      }
-      queueFile = new QueueFile(getFile());
-      queueFileSize = new AtomicLong(0);
-    } catch (IOException ex) {
-      issues.add(context.createConfigIssue("", "", Errors.FRAGMENT_CACHE_WRITER_01, ex.toString()));
+    File tempDir = new File(System.getProperty("java.io.tmpdir"));
+    if (!tempDir.canWrite()) {
+      issues.add(context.createConfigIssue("", "", Errors.FRAGMENT_CACHE_WRITER_01, tempDir.getAbsolutePath()));
     }
+    queueFile = SpillQueue.builder()
+        .prefix("sdc-fragments")
+        .segmentSizeBytes((int) Math.min(MAX_SEGMENT_SIZE, Math.max(getMaxQueueFileSize(), 1000)))
+        .spilledBytes(context.createCounter("Spilled Bytes"))
+        .readLatency(context.createTimer("Spill Read Latency"))
+        .build();
+    queueFileSize = new AtomicLong(0);
     lostFragments = new AtomicInteger(0);
     return issues;
   }
@@ -78,14 +79,7 @@ public class FileFragmentQueue implements FragmentQueue {
   @Override
   public void destroy() {
     if (getQueueFile() != null) {
-      try {
-        getQueueFile().close();
-        if (!file.delete()) {
-          LOG.warn("Could not delete queue file '{}' on destroy", getFile().getAbsolutePath());
-        }
-      } catch (IOException ex) {
-        LOG.warn("Error deleting queue file '{}' on destroy: {}", getFile().getAbsolutePath(), ex.toString(), ex);
-      }
+      getQueueFile().close();
     }
   }
 
@@ -98,8 +92,7 @@ public class FileFragmentQueue implements FragmentQueue {
   public void write(List<byte[]> fragments) throws IOException {
     int lost = 0;
     for (byte[] fragment : fragments) {
-      if (getQueueFileSize().get() + fragment.length < getMaxQueueFileSize()) {
-        getQueueFile().add(fragment);
+      if (getQueueFileSize().get() + fragment.length < getMaxQueueFileSize() && getQueueFile().offer(fragment)) {
         getQueueFileSize().addAndGet(fragment.length);
       } else {
         lost++;
@@ -121,9 +114,9 @@ public class FileFragmentQueue implements FragmentQueue {
     List<byte[]> fragments = null;
     byte[] data;
     do {
-      data = getQueueFile().peek();
+      data = getQueueFile().poll();
       if (data != null) {
-        getQueueFile().remove();
+        getQueueFileSize().addAndGet(-data.length);
         if (fragments == null) {
           fragments = new ArrayList<>();
         }
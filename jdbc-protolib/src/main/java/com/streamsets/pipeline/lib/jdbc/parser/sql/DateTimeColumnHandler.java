@@ -118,7 +118,10 @@ public class DateTimeColumnHandler {
     if (columnValue == null) {
       return Field.create(type, null);
     } else {
-      Optional<String> ts = matchDateTimeString(toTimestampPattern.matcher(columnValue));
+      boolean simpleCall = SQLRedoTokenizer.isSimpleCall(columnValue);
+      Optional<String> ts = simpleCall ?
+          Optional.ofNullable(SQLRedoTokenizer.toTimestampLiteral(columnValue, SQLRedoTokenizer.TO_TIMESTAMP, true)) :
+          matchDateTimeString(toTimestampPattern.matcher(columnValue));
       if (ts.isPresent()) {
         if (timestampAsString) {
           return Field.create(Field.Type.STRING, ts.get());
@@ -129,7 +132,9 @@ public class DateTimeColumnHandler {
         return field;
       }
       // We did not find TO_TIMESTAMP, so try TO_DATE
-      Optional<String> dt = matchDateTimeString(toDatePattern.matcher(columnValue));
+      Optional<String> dt = simpleCall ?
+          Optional.ofNullable(SQLRedoTokenizer.toDateLiteral(columnValue)) :
+          matchDateTimeString(toDatePattern.matcher(columnValue));
       return Field.create(type, dt.map(s -> Date.from(getDate(s).atZone(zoneId).toInstant())).orElse(null));
     }
   }
@@ -138,13 +143,15 @@ public class DateTimeColumnHandler {
     if (columnValue == null) {
       return Field.createZonedDateTime(null);
     }
-    Matcher m = toTimeStampTzPatternTz.matcher(columnValue);
-    if (m.find()) {
+    Optional<String> ts = SQLRedoTokenizer.isSimpleCall(columnValue) ?
+        Optional.ofNullable(SQLRedoTokenizer.toTimestampLiteral(columnValue, SQLRedoTokenizer.TO_TIMESTAMP_TZ, false)) :
+        matchDateTimeString(toTimeStampTzPatternTz.matcher(columnValue));
+    if (ts.isPresent()) {
       if (timestampAsString) {
-        return Field.create(Field.Type.STRING, m.group(1));
+        return Field.create(Field.Type.STRING, ts.get());
       }
       // Zoned Timestamp can maintain fractional seconds precision
-      return Field.createZonedDateTime(ZonedDateTime.parse(m.group(1), zonedDtFormatter));
+      return Field.createZonedDateTime(ZonedDateTime.parse(ts.get(), zonedDtFormatter));
     }
     return Field.createZonedDateTime(null);
   }
@@ -153,13 +160,15 @@ public class DateTimeColumnHandler {
     if (columnValue == null) {
       return Field.createZonedDateTime(null);
     }
-    Matcher m = toTimeStampTzPatternLocalTz.matcher(columnValue);
-    if (m.find()) {
+    Optional<String> ts = SQLRedoTokenizer.isSimpleCall(columnValue) ?
+        Optional.ofNullable(SQLRedoTokenizer.toTimestampLiteral(columnValue, SQLRedoTokenizer.TO_TIMESTAMP_TZ, true)) :
+        matchDateTimeString(toTimeStampTzPatternLocalTz.matcher(columnValue));
+    if (ts.isPresent()) {
       if (timestampAsString) {
-        return Field.create(Field.Type.STRING, m.group(1));
+        return Field.create(Field.Type.STRING, ts.get());
       }
       // Zoned Timestamp can maintain fractional seconds precision
-      return Field.createZonedDateTime(ZonedDateTime.of(LocalDateTime.parse(m.group(1), localDtFormatter), zoneId));
+      return Field.createZonedDateTime(ZonedDateTime.of(LocalDateTime.parse(ts.get(), localDtFormatter), zoneId));
     }
     return Field.createZonedDateTime(null);
   }
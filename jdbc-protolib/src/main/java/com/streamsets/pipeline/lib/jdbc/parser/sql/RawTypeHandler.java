@@ -32,12 +32,18 @@ public class RawTypeHandler {
     if (value == null) {
       return null;
     }
-    Matcher m = HEX_TO_RAW_PATTERN.matcher(value);
-    if (m.find()) {
+    String hex;
+    if (SQLRedoTokenizer.isSimpleCall(value)) {
+      hex = SQLRedoTokenizer.hexToRawLiteral(value);
+    } else {
+      Matcher m = HEX_TO_RAW_PATTERN.matcher(value);
+      hex = m.find() ? m.group(1) : null;
+    }
+    if (hex != null) {
       try {
-        return Hex.decodeHex(m.group(1).toCharArray());
+        return Hex.decodeHex(hex.toCharArray());
       } catch (DecoderException e) {
-        throw new StageException(JDBC_204, m.group(1));
+        throw new StageException(JDBC_204, hex);
       }
     }
     throw new UnsupportedFieldTypeException(column, value, columnType);
@@ -0,0 +1,587 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single pass tokenizer for the INSERT, UPDATE and DELETE statements LogMiner writes to SQL_REDO.
+ *
+ * It accepts the same statements as {@link SQLParser} and returns the same column/value map as
+ * {@link SQLParserUtils#process}, without building a parse tree. Column names and values are collected into buffers
+ * that are reused across statements, so an instance must not be shared between threads. Anything outside of the
+ * shapes LogMiner emits (unquoted literals, expressions, unusual identifiers) makes {@link #process} return null so
+ * that the caller falls back to one of the full parsers.
+ */
+public final class SQLRedoTokenizer {
+
+  private static final String NULL_STRING = "NULL";
+  private static final String ROWID = "ROWID";
+
+  static final String TO_DATE = "TO_DATE('";
+  static final String TO_TIMESTAMP = "TO_TIMESTAMP('";
+  static final String TO_TIMESTAMP_TZ = "TO_TIMESTAMP_TZ('";
+  static final String HEXTORAW = "HEXTORAW('";
+
+  private String sql;
+  private int pos;
+  private int length;
+  private boolean caseSensitive;
+
+  private String[] names = new String[16];
+  private String[] values = new String[16];
+  private int nameCount;
+  private int valueCount;
+
+  /**
+   * Tokenizes a SQL_REDO statement.
+   *
+   * @param sql SQL_REDO statement.
+   * @param type One of OracleCDCOperationCode constants.
+   * @param allowNulls whether the expected columns missing in the statement must be added with null values.
+   * @param caseSensitive whether the column names must keep their case.
+   * @param columnsExpected columns of the table, used with {@code allowNulls}.
+   * @return the column/value map, or null when the statement must be handled by a full parser.
+   */
+  public Map<String, String> process(
+      String sql,
+      int type,
+      boolean allowNulls,
+      boolean caseSensitive,
+      Set<String> columnsExpected
+  ) {
+    if (StringUtils.isEmpty(sql) || !tokenize(sql, type, caseSensitive)) {
+      return null;
+    }
+    Map<String, String> colVals = new HashMap<>();
+    for (int i = 0; i < nameCount; i++) {
+      if (!colVals.containsKey(names[i])) {
+        colVals.put(names[i], values[i]);
+      }
+    }
+    if (allowNulls && columnsExpected != null) {
+      columnsExpected.forEach(col -> colVals.putIfAbsent(col, null));
+    }
+    return colVals;
+  }
+
+  private boolean tokenize(String sql, int type, boolean caseSensitive) {
+    this.sql = sql;
+    this.pos = 0;
+    this.length = sql.length();
+    this.caseSensitive = caseSensitive;
+    this.nameCount = 0;
+    this.valueCount = 0;
+    try {
+      boolean matched;
+      switch (type) {
+        case OracleCDCOperationCode.INSERT_CODE:
+          matched = insert();
+          break;
+        case OracleCDCOperationCode.UPDATE_CODE:
+        case OracleCDCOperationCode.SELECT_FOR_UPDATE_CODE:
+          matched = update();
+          break;
+        case OracleCDCOperationCode.DELETE_CODE:
+          matched = delete();
+          break;
+        default:
+          matched = false;
+          break;
+      }
+      if (!matched) {
+        return false;
+      }
+      skipWhiteSpace();
+      return pos == length;
+    } finally {
+      // Do not keep the statement reachable from the thread local holding this tokenizer
+      this.sql = null;
+    }
+  }
+
+  private boolean insert() {
+    skipWhiteSpace();
+    if (!keyword("INSERT")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!keyword("INTO")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!schemaAndTable()) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!expect('(')) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!insertColumnName()) {
+      return false;
+    }
+    while (true) {
+      int mark = pos;
+      skipWhiteSpace();
+      if (!expect(',')) {
+        pos = mark;
+        break;
+      }
+      skipWhiteSpace();
+      if (!insertColumnName()) {
+        return false;
+      }
+    }
+    skipWhiteSpace();
+    if (!expect(')')) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!keyword("VALUES")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!expect('(')) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!columnValue()) {
+      return false;
+    }
+    while (true) {
+      int mark = pos;
+      skipWhiteSpace();
+      if (!expect(',')) {
+        pos = mark;
+        break;
+      }
+      skipWhiteSpace();
+      if (!columnValue()) {
+        return false;
+      }
+    }
+    return expect(')') && nameCount == valueCount;
+  }
+
+  private boolean update() {
+    skipWhiteSpace();
+    if (!keyword("UPDATE")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!schemaAndTable()) {
+      return false;
+    }
+    tableAlias();
+    skipWhiteSpace();
+    if (!keyword("SET") || !columnNameValue()) {
+      return false;
+    }
+    while (true) {
+      int mark = pos;
+      skipWhiteSpace();
+      if (!expect(',')) {
+        pos = mark;
+        break;
+      }
+      if (!columnNameValue()) {
+        return false;
+      }
+    }
+    skipWhiteSpace();
+    return whereClause();
+  }
+
+  private boolean delete() {
+    skipWhiteSpace();
+    if (!keyword("DELETE")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!keyword("FROM")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!schemaAndTable()) {
+      return false;
+    }
+    tableAlias();
+    skipWhiteSpace();
+    return whereClause();
+  }
+
+  private boolean whereClause() {
+    if (!keyword("WHERE")) {
+      // The WHERE clause is optional
+      return true;
+    }
+    if (!columnNameValue()) {
+      return false;
+    }
+    while (true) {
+      int mark = pos;
+      skipWhiteSpace();
+      if (!keyword("AND")) {
+        pos = mark;
+        return true;
+      }
+      if (!columnNameValue()) {
+        return false;
+      }
+    }
+  }
+
+  private boolean schemaAndTable() {
+    return identifier() != null && expect('.') && identifier() != null;
+  }
+
+  private void tableAlias() {
+    while (true) {
+      int mark = pos;
+      skipWhiteSpace();
+      if (keywordAhead("SET") || keywordAhead("WHERE") || (pos < length && sql.charAt(pos) == '(')) {
+        pos = mark;
+        return;
+      }
+      if (letters() == 0) {
+        pos = mark;
+        return;
+      }
+      skipWhiteSpace();
+    }
+  }
+
+  private boolean columnNameValue() {
+    skipWhiteSpace();
+    int start = pos;
+    if (letters() > 0 && expect('.')) {
+      // Table alias, the column name follows
+      start = pos;
+    }
+    pos = start;
+    String name = columnName();
+    if (name == null) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!expect('=') && !keyword("IS")) {
+      return false;
+    }
+    skipWhiteSpace();
+    if (!columnValue()) {
+      return false;
+    }
+    addName(name);
+    skipWhiteSpace();
+    return true;
+  }
+
+  private boolean insertColumnName() {
+    String name = columnName();
+    if (name == null) {
+      return false;
+    }
+    addName(name);
+    return true;
+  }
+
+  private String columnName() {
+    String name;
+    if (keywordAhead(ROWID) && (pos + ROWID.length() == length || !isNameChar(sql.charAt(pos + ROWID.length())))) {
+      name = sql.substring(pos, pos + ROWID.length());
+      pos += ROWID.length();
+    } else {
+      name = identifier();
+      if (name == null) {
+        return null;
+      }
+    }
+    return caseSensitive ? name : name.toUpperCase();
+  }
+
+  /**
+   * Double quoted identifier, returned without the quotes. Identifiers containing single quotes are left to the
+   * full parsers, which treat them as escape characters.
+   */
+  private String identifier() {
+    if (!expect('"')) {
+      return null;
+    }
+    int start = pos;
+    while (pos < length) {
+      char c = sql.charAt(pos);
+      if (c == '"') {
+        String identifier = sql.substring(start, pos);
+        pos++;
+        return identifier;
+      }
+      if (c == '\'') {
+        return null;
+      }
+      pos++;
+    }
+    return null;
+  }
+
+  private boolean columnValue() {
+    if (pos >= length) {
+      return false;
+    }
+    char c = sql.charAt(pos);
+    if (c == '\'') {
+      int start = pos + 1;
+      boolean escaped = skipQuoted();
+      if (pos < 0) {
+        return false;
+      }
+      String value = sql.substring(start, pos - 1);
+      addValue(escaped ? value.replace("''", "'") : value);
+      return true;
+    }
+    int start = pos;
+    int wordLength = word();
+    if (wordLength == 0) {
+      return false;
+    }
+    if (pos < length && sql.charAt(pos) == '(') {
+      pos = start;
+      if (!function()) {
+        return false;
+      }
+      String value = sql.substring(start, pos);
+      addValue(value.contains("''") ? value.replace("''", "'") : value);
+      return true;
+    }
+    if (wordLength == NULL_STRING.length() && sql.regionMatches(true, start, NULL_STRING, 0, wordLength)) {
+      addValue(null);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Function call whose arguments are string literals, NULL or other function calls, like TO_DATE, TO_TIMESTAMP,
+   * HEXTORAW or EMPTY_CLOB.
+   */
+  private boolean function() {
+    if (word() == 0 || !expect('(')) {
+      return false;
+    }
+    if (expect(')')) {
+      return true;
+    }
+    while (true) {
+      if (!functionArgument()) {
+        return false;
+      }
+      int mark = pos;
+      skipWhiteSpace();
+      if (!expect(',')) {
+        pos = mark;
+        return expect(')');
+      }
+      skipWhiteSpace();
+    }
+  }
+
+  private boolean functionArgument() {
+    if (pos >= length) {
+      return false;
+    }
+    if (sql.charAt(pos) == '\'') {
+      skipQuoted();
+      return pos >= 0;
+    }
+    int start = pos;
+    int wordLength = word();
+    if (wordLength == 0) {
+      return false;
+    }
+    if (pos < length && sql.charAt(pos) == '(') {
+      pos = start;
+      return function();
+    }
+    return wordLength == NULL_STRING.length() && sql.regionMatches(true, start, NULL_STRING, 0, wordLength);
+  }
+
+  /**
+   * Skips a single quoted literal starting at the current position. Sets the position to -1 if the literal is not
+   * terminated.
+   *
+   * @return true if the literal contains escaped quotes.
+   */
+  private boolean skipQuoted() {
+    boolean escaped = false;
+    pos++;
+    while (pos < length) {
+      if (sql.charAt(pos) == '\'') {
+        if (pos + 1 < length && sql.charAt(pos + 1) == '\'') {
+          escaped = true;
+          pos += 2;
+          continue;
+        }
+        pos++;
+        return escaped;
+      }
+      pos++;
+    }
+    pos = -1;
+    return escaped;
+  }
+
+  private void addName(String name) {
+    if (nameCount == names.length) {
+      String[] grown = new String[names.length * 2];
+      System.arraycopy(names, 0, grown, 0, nameCount);
+      names = grown;
+    }
+    names[nameCount++] = name;
+  }
+
+  private void addValue(String value) {
+    if (valueCount == values.length) {
+      String[] grown = new String[values.length * 2];
+      System.arraycopy(values, 0, grown, 0, valueCount);
+      values = grown;
+    }
+    values[valueCount++] = value;
+  }
+
+  private int word() {
+    int start = pos;
+    while (pos < length && isNameChar(sql.charAt(pos)) && sql.charAt(pos) != '"') {
+      pos++;
+    }
+    return pos - start;
+  }
+
+  private int letters() {
+    int start = pos;
+    while (pos < length && isLetter(sql.charAt(pos))) {
+      pos++;
+    }
+    return pos - start;
+  }
+
+  private boolean keywordAhead(String keyword) {
+    return sql.regionMatches(true, pos, keyword, 0, keyword.length());
+  }
+
+  private boolean keyword(String keyword) {
+    if (keywordAhead(keyword)) {
+      pos += keyword.length();
+      return true;
+    }
+    return false;
+  }
+
+  private boolean expect(char c) {
+    if (pos < length && sql.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private void skipWhiteSpace() {
+    while (pos < length) {
+      char c = sql.charAt(pos);
+      if (c != ' ' && c != '\n' && c != '\t' && c != '\r' && c != '\f') {
+        return;
+      }
+      pos++;
+    }
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+  }
+
+  private static boolean isNameChar(char c) {
+    return isLetter(c) || (c >= '0' && c <= '9') || c == '_' || c == '"';
+  }
+
+  /**
+   * Whether the value is a single call to one of the functions LogMiner uses for literals, so that its argument can
+   * be read with {@link #toDateLiteral}, {@link #toTimestampLiteral} or {@link #hexToRawLiteral} instead of a regular
+   * expression. Those methods return exactly what the regular expressions in {@link DateTimeColumnHandler} and
+   * {@link RawTypeHandler} capture for such values.
+   */
+  static boolean isSimpleCall(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      // Line terminators, which the regular expressions do not match with '.'
+      if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+        return false;
+      }
+    }
+    return value.indexOf("TO_", 1) < 0 && value.indexOf("HEXTORAW", 1) < 0;
+  }
+
+  /**
+   * First argument of TO_DATE('...', '...'), null if the value is not a TO_DATE call.
+   */
+  static String toDateLiteral(String simpleCall) {
+    if (!simpleCall.startsWith(TO_DATE)) {
+      return null;
+    }
+    int end = simpleCall.lastIndexOf("',");
+    return end >= TO_DATE.length() ? simpleCall.substring(TO_DATE.length(), end) : null;
+  }
+
+  /**
+   * Argument of TO_TIMESTAMP('...') or TO_TIMESTAMP_TZ('...'), null if the value is not a call to the given function.
+   *
+   * @param simpleCall value for which {@link #isSimpleCall} is true.
+   * @param function {@link #TO_TIMESTAMP} or {@link #TO_TIMESTAMP_TZ}.
+   * @param ignoreTrailingDots whether the dots Oracle appends to timestamps without fractional seconds are dropped.
+   */
+  static String toTimestampLiteral(String simpleCall, String function, boolean ignoreTrailingDots) {
+    if (!simpleCall.startsWith(function)) {
+      return null;
+    }
+    int end = simpleCall.lastIndexOf('\'');
+    if (end < function.length()) {
+      return null;
+    }
+    if (ignoreTrailingDots) {
+      while (end > function.length() && simpleCall.charAt(end - 1) == '.') {
+        end--;
+      }
+      if (end == function.length()) {
+        return null;
+      }
+    }
+    return simpleCall.substring(function.length(), end);
+  }
+
+  /**
+   * Argument of HEXTORAW('...'), null if the value is not a HEXTORAW call.
+   */
+  static String hexToRawLiteral(String simpleCall) {
+    if (!simpleCall.startsWith(HEXTORAW)) {
+      return null;
+    }
+    int end = simpleCall.lastIndexOf("')");
+    return end >= HEXTORAW.length() ? simpleCall.substring(HEXTORAW.length(), end) : null;
+  }
+}
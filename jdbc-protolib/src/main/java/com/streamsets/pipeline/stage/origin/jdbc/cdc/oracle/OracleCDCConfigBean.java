@@ -250,7 +250,8 @@ public class OracleCDCConfigBean {
       required = true,
       type = ConfigDef.Type.BOOLEAN,
       label = "Use PEG Parser",
-      description = "Optionally use the alternate parser to enhance performance",
+      description = "Optionally use the alternate parser to enhance performance. Common LogMiner statements are " +
+          "tokenized directly, the PEG parser handles the rest",
       displayPosition = 8,
       group = "ADVANCED",
       dependsOn = "parseQuery",
@@ -39,6 +39,7 @@ import com.streamsets.pipeline.lib.jdbc.parser.sql.ParseUtil;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLListener;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLParser;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLParserUtils;
+import com.streamsets.pipeline.lib.jdbc.parser.sql.SQLRedoTokenizer;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.UnparseableEmptySQLException;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.UnparseableSQLException;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.UnsupportedFieldTypeException;
@@ -292,6 +293,7 @@ public class OracleCDCSource extends BaseSource {
   private final ThreadLocal<SQLListener> sqlListener = ThreadLocal.withInitial(SQLListener::new);
   private final ThreadLocal<SQLParser> sqlParser =
       ThreadLocal.withInitial(() -> Parboiled.createParser(SQLParser.class));
+  private final ThreadLocal<SQLRedoTokenizer> sqlRedoTokenizer = ThreadLocal.withInitial(SQLRedoTokenizer::new);
 
   private ExecutorService parsingExecutor;
 
@@ -1057,14 +1059,25 @@ public class OracleCDCSource extends BaseSource {
           columnsExpected = tableSchemas.get(table).keySet();
         }
         try {
-          columns = SQLParserUtils.process(
-            sqlParser.get(),
-            sql,
-            operationCode,
-            configBean.allowNulls,
-            configBean.baseConfigBean.caseSensitive,
-            columnsExpected
+          // The tokenizer handles the statements LogMiner usually writes, anything else goes to the PEG parser
+          columns = sqlRedoTokenizer.get().process(
+              sql,
+              operationCode,
+              configBean.allowNulls,
+              configBean.baseConfigBean.caseSensitive,
+              columnsExpected
           );
+          if (columns == null) {
+            LOG.trace("Falling back to the PEG parser for SQL_REDO: '{}'", sql);
+            columns = SQLParserUtils.process(
+              sqlParser.get(),
+              sql,
+              operationCode,
+              configBean.allowNulls,
+              configBean.baseConfigBean.caseSensitive,
+              columnsExpected
+            );
+          }
         } catch (UnparseableEmptySQLException e) {
           LOG.debug("Empty Redo Log SQL: '{}'. That is probably caused by a column type not supported by LogMiner.", e.getMessage());
           emptySQL = true;
@@ -19,7 +19,8 @@ import com.streamsets.pipeline.api.Label;
 
 public enum DecoderValues implements Label {
 
-  WAL2JSON("wal2json")
+  WAL2JSON("wal2json"),
+  PGOUTPUT("pgoutput"),
   ;
 
   private final String label;
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import org.postgresql.replication.LogSequenceNumber;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoder for the binary protocol (version 1) of the built-in pgoutput logical decoding plugin.
+ *
+ * Messages are read straight from the replication stream buffer. Relation and type metadata are cached per OID
+ * as the server sends them, and the changes of a transaction are accumulated until its commit message, at which
+ * point the whole transaction is returned as a single {@link Field} shaped like the wal2json output, so that the
+ * rest of the origin (filters, record generation and offsets) is shared between both decoders.
+ */
+public class PgOutputDecoder {
+
+  // Microseconds between 1970-01-01 and 2000-01-01, the PostgreSQL epoch
+  private static final long POSTGRES_EPOCH_MICROS = 946_684_800_000_000L;
+
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSx").withZone(ZoneOffset.UTC);
+
+  private static final int BOOL_OID = 16;
+  private static final int INT8_OID = 20;
+  private static final int INT2_OID = 21;
+  private static final int INT4_OID = 23;
+  private static final int OID_OID = 26;
+  private static final int FLOAT4_OID = 700;
+  private static final int FLOAT8_OID = 701;
+  private static final int BPCHAR_OID = 1042;
+  private static final int VARCHAR_OID = 1043;
+  private static final int NUMERIC_OID = 1700;
+
+  private static final Map<Integer, String> BUILTIN_TYPES = ImmutableMap.<Integer, String>builder()
+      .put(BOOL_OID, "boolean")
+      .put(17, "bytea")
+      .put(18, "\"char\"")
+      .put(19, "name")
+      .put(INT8_OID, "bigint")
+      .put(INT2_OID, "smallint")
+      .put(INT4_OID, "integer")
+      .put(25, "text")
+      .put(OID_OID, "oid")
+      .put(114, "json")
+      .put(142, "xml")
+      .put(650, "cidr")
+      .put(FLOAT4_OID, "real")
+      .put(FLOAT8_OID, "double precision")
+      .put(790, "money")
+      .put(829, "macaddr")
+      .put(869, "inet")
+      .put(1000, "boolean[]")
+      .put(1005, "smallint[]")
+      .put(1007, "integer[]")
+      .put(1009, "text[]")
+      .put(1015, "character varying[]")
+      .put(1016, "bigint[]")
+      .put(BPCHAR_OID, "character")
+      .put(VARCHAR_OID, "character varying")
+      .put(1082, "date")
+      .put(1083, "time without time zone")
+      .put(1114, "timestamp without time zone")
+      .put(1184, "timestamp with time zone")
+      .put(1186, "interval")
+      .put(1266, "time with time zone")
+      .put(1560, "bit")
+      .put(1562, "bit varying")
+      .put(NUMERIC_OID, "numeric")
+      .put(2950, "uuid")
+      .put(3802, "jsonb")
+      .build();
+
+  private static final class Column {
+    private final boolean key;
+    private final String name;
+    private final int typeOid;
+    private final int typeModifier;
+
+    private Column(boolean key, String name, int typeOid, int typeModifier) {
+      this.key = key;
+      this.name = name;
+      this.typeOid = typeOid;
+      this.typeModifier = typeModifier;
+    }
+  }
+
+  private static final class Relation {
+    private final String schema;
+    private final String table;
+    private final Column[] columns;
+
+    private Relation(String schema, String table, Column[] columns) {
+      this.schema = schema;
+      this.table = table;
+      this.columns = columns;
+    }
+  }
+
+  private final Map<Integer, Relation> relations = new HashMap<>();
+  private final Map<Integer, String> types = new HashMap<>();
+
+  private long xid;
+  private long commitTime;
+  private List<Field> changes;
+
+  /**
+   * Decodes one pgoutput message.
+   *
+   * @param buffer replication message, read from its position to its limit, the buffer itself is not modified
+   * @return the complete transaction on a commit message, null for any other message
+   * @throws IOException if the message is malformed or references a relation that was never described
+   */
+  public Field decode(ByteBuffer buffer) throws IOException {
+    ByteBuffer in = buffer.slice();
+    try {
+      byte type = in.get();
+      switch (type) {
+        case 'B':
+          in.getLong(); // final LSN of the transaction
+          commitTime = in.getLong();
+          xid = Integer.toUnsignedLong(in.getInt());
+          changes = new ArrayList<>();
+          return null;
+        case 'C':
+          in.get(); // flags, currently unused
+          in.getLong(); // LSN of the commit
+          long endLsn = in.getLong();
+          commitTime = in.getLong();
+          return commit(endLsn);
+        case 'R':
+          readRelation(in);
+          return null;
+        case 'Y':
+          int oid = in.getInt();
+          String namespace = readString(in);
+          String name = readString(in);
+          types.put(oid, "pg_catalog".equals(namespace) ? name : namespace + "." + name);
+          return null;
+        case 'I':
+          addChange("insert", in);
+          return null;
+        case 'U':
+          addChange("update", in);
+          return null;
+        case 'D':
+          addChange("delete", in);
+          return null;
+        case 'O':
+        case 'T':
+        case 'M':
+          // Origin, truncate and generic messages carry no row changes
+          return null;
+        default:
+          throw new IOException("Unknown pgoutput message type '" + (char) type + "'");
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Truncated pgoutput message", e);
+    }
+  }
+
+  private Field commit(long endLsn) throws IOException {
+    if (changes == null) {
+      throw new IOException("pgoutput commit received without a begin message");
+    }
+    Map<String, Field> transaction = new LinkedHashMap<>();
+    transaction.put("xid", Field.create(xid));
+    transaction.put("nextlsn", Field.create(LogSequenceNumber.valueOf(endLsn).asString()));
+    transaction.put("timestamp", Field.create(formatTimestamp(commitTime)));
+    transaction.put("change", Field.create(changes));
+    changes = null;
+    return Field.create(transaction);
+  }
+
+  static String formatTimestamp(long postgresMicros) {
+    long micros = postgresMicros + POSTGRES_EPOCH_MICROS;
+    Instant instant = Instant.ofEpochSecond(
+        Math.floorDiv(micros, 1_000_000L),
+        TimeUnit.MICROSECONDS.toNanos(Math.floorMod(micros, 1_000_000L))
+    );
+    return TIMESTAMP_FORMAT.format(instant);
+  }
+
+  private void readRelation(ByteBuffer in) {
+    int oid = in.getInt();
+    String schema = readString(in);
+    String table = readString(in);
+    in.get(); // replica identity setting
+    Column[] columns = new Column[in.getShort()];
+    for (int i = 0; i < columns.length; i++) {
+      boolean key = (in.get() & 1) != 0;
+      String name = readString(in);
+      int typeOid = in.getInt();
+      int typeModifier = in.getInt();
+      columns[i] = new Column(key, name, typeOid, typeModifier);
+    }
+    relations.put(oid, new Relation(schema, table, columns));
+  }
+
+  private void addChange(String kind, ByteBuffer in) throws IOException {
+    if (changes == null) {
+      throw new IOException("pgoutput " + kind + " received outside of a transaction");
+    }
+    int oid = in.getInt();
+    Relation relation = relations.get(oid);
+    if (relation == null) {
+      throw new IOException("pgoutput " + kind + " references unknown relation " + oid);
+    }
+    boolean delete = "delete".equals(kind);
+
+    Map<String, Field> change = new LinkedHashMap<>();
+    change.put("kind", Field.create(kind));
+    change.put("schema", Field.create(relation.schema));
+    change.put("table", Field.create(relation.table));
+
+    // Old key ('K') or full old row ('O') comes first on updates and is the only tuple on deletes
+    Map<String, Field> oldKeys = null;
+    byte tupleType = in.get();
+    if (tupleType == 'K' || tupleType == 'O') {
+      oldKeys = new LinkedHashMap<>();
+      readTuple(in, relation, tupleType == 'K', "keynames", "keytypes", "keyvalues", oldKeys);
+      if (!delete) {
+        tupleType = in.get();
+      }
+    } else if (delete) {
+      throw new IOException("Unexpected pgoutput tuple type '" + (char) tupleType + "' in delete");
+    }
+
+    if (!delete) {
+      if (tupleType != 'N') {
+        throw new IOException("Unexpected pgoutput tuple type '" + (char) tupleType + "' in " + kind);
+      }
+      readTuple(in, relation, false, "columnnames", "columntypes", "columnvalues", change);
+    }
+    if (oldKeys != null) {
+      change.put("oldkeys", Field.create(oldKeys));
+    }
+    changes.add(Field.create(change));
+  }
+
+  private void readTuple(
+      ByteBuffer in,
+      Relation relation,
+      boolean keysOnly,
+      String namesKey,
+      String typesKey,
+      String valuesKey,
+      Map<String, Field> target
+  ) throws IOException {
+    List<Field> names = new ArrayList<>();
+    List<Field> typeNames = new ArrayList<>();
+    List<Field> values = new ArrayList<>();
+    int count = in.getShort();
+    if (count > relation.columns.length) {
+      throw new IOException("pgoutput tuple for " + relation.schema + "." + relation.table + " has " + count
+          + " columns, relation describes " + relation.columns.length);
+    }
+    for (int i = 0; i < count; i++) {
+      Column column = relation.columns[i];
+      byte kind = in.get();
+      Field value;
+      switch (kind) {
+        case 'n':
+          value = null;
+          break;
+        case 'u':
+          // Unchanged TOASTed value, not sent by the server; left out as wal2json does
+          continue;
+        case 't':
+          int length = in.getInt();
+          String text = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+          ((Buffer) in).position(in.position() + length);
+          value = toField(column.typeOid, text);
+          break;
+        default:
+          throw new IOException("Unknown pgoutput tuple data type '" + (char) kind + "'");
+      }
+      if (keysOnly && !column.key) {
+        continue;
+      }
+      names.add(Field.create(column.name));
+      typeNames.add(Field.create(typeName(column)));
+      values.add(value == null ? Field.create(Field.Type.STRING, null) : value);
+    }
+    target.put(namesKey, Field.create(names));
+    target.put(typesKey, Field.create(typeNames));
+    target.put(valuesKey, Field.create(values));
+  }
+
+  private static Field toField(int typeOid, String text) {
+    switch (typeOid) {
+      case BOOL_OID:
+        return Field.create("t".equals(text));
+      case INT2_OID:
+      case INT4_OID:
+        return Field.create(Integer.parseInt(text));
+      case INT8_OID:
+      case OID_OID:
+        return Field.create(Long.parseLong(text));
+      case FLOAT4_OID:
+      case FLOAT8_OID:
+        return Field.create(Double.parseDouble(text));
+      case NUMERIC_OID:
+        return "NaN".equals(text) ? Field.create(text) : Field.create(new BigDecimal(text));
+      default:
+        return Field.create(text);
+    }
+  }
+
+  private String typeName(Column column) {
+    String name = BUILTIN_TYPES.get(column.typeOid);
+    if (name == null) {
+      name = types.getOrDefault(column.typeOid, String.valueOf(column.typeOid));
+    }
+    // Same modifiers format_type() adds, the ones wal2json reports
+    int modifier = column.typeModifier - 4;
+    if (column.typeModifier >= 4) {
+      switch (column.typeOid) {
+        case BPCHAR_OID:
+        case VARCHAR_OID:
+          return name + "(" + modifier + ")";
+        case NUMERIC_OID:
+          return name + "(" + ((modifier >> 16) & 0xffff) + "," + (modifier & 0xffff) + ")";
+        default:
+          break;
+      }
+    }
+    return name;
+  }
+
+  private static String readString(ByteBuffer in) {
+    int start = in.position();
+    int end = start;
+    while (in.get(end) != 0) {
+      end++;
+    }
+    String value = new String(in.array(), in.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+    ((Buffer) in).position(end + 1);
+    return value;
+  }
+}
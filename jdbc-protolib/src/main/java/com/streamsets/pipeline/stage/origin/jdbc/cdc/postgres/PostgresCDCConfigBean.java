@@ -152,12 +152,11 @@ public class PostgresCDCConfigBean {
   )
   public String replicationType;
 
-  //HIDDEN - only choice supported today
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
       label = "Output Decoder",
-      description = "Output Decoder installed with Postgres",
+      description = "Logical decoding output plugin used by the replication slot",
       displayPosition = 50,
       group = "CDC",
       defaultValue = "WAL2JSON"
@@ -165,6 +164,19 @@ public class PostgresCDCConfigBean {
   @ValueChooserModel(DecoderChooserValues.class)
   public DecoderValues decoderValue;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Publication",
+      description = "Name of the publication that defines the tables streamed by pgoutput.",
+      defaultValue = "sdc",
+      displayPosition = 55,
+      group = "CDC",
+      dependsOn = "decoderValue",
+      triggeredByValue = "PGOUTPUT"
+  )
+  public String publicationName;
+
   @ConfigDef(
       required = true,
       type = ConfigDef.Type.MODEL,
@@ -28,6 +28,7 @@ import com.streamsets.pipeline.lib.jdbc.JdbcErrors;
 import com.streamsets.pipeline.lib.jdbc.parser.sql.DateTimeColumnHandler;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.apache.commons.lang3.StringUtils;
 import org.postgresql.replication.LogSequenceNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -345,6 +346,15 @@ public class PostgresCDCSource extends BaseSource implements OffsetCommitter {
       );
     }
 
+    if (configBean.decoderValue == DecoderValues.PGOUTPUT && StringUtils.isEmpty(configBean.publicationName)) {
+      issues.add(
+          getContext().createConfigIssue(
+              Groups.CDC.name(),
+              "postgresCDCConfigBean.publicationName",
+              JdbcErrors.JDBC_408, configBean.publicationName)
+      );
+    }
+
     switch(configBean.startValue) {
 
       case LSN:
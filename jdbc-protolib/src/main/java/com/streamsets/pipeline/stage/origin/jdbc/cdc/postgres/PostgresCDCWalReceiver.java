@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.Stage.ConfigIssue;
 import com.streamsets.pipeline.api.Stage.Context;
@@ -39,6 +40,7 @@ import org.postgresql.replication.fluent.logical.ChainedLogicalStreamBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -106,6 +108,7 @@ public class PostgresCDCWalReceiver {
   private final JdbcUtil jdbcUtil;
   private final long statusInterval;
   private final Map<String, Object> walSenderStatusGauge;
+  private final PgOutputDecoder pgOutputDecoder = new PgOutputDecoder();
 
   public PostgresCDCWalReceiver(
       PostgresCDCConfigBean configBean,
@@ -244,13 +247,22 @@ public class PostgresCDCWalReceiver {
         .replicationStream()
         .logical()
         .withStatusInterval((int) statusInterval, TimeUnit.MILLISECONDS)
-        .withSlotName(slotName)
-        .withSlotOption("include-xids", true)
-        .withSlotOption("include-timestamp", true)
-        .withSlotOption("include-lsn", true);
+        .withSlotName(slotName);
+
+    if (outputPlugin == DecoderValues.PGOUTPUT) {
+      // pgoutput streams the tables of the publication, schema/table filters are applied on the decoded changes
+      streamBuilder
+          .withSlotOption("proto_version", 1)
+          .withSlotOption("publication_names", configBean.publicationName);
+    } else {
+      streamBuilder
+          .withSlotOption("include-xids", true)
+          .withSlotOption("include-timestamp", true)
+          .withSlotOption("include-lsn", true);
+    }
 
     // Push filtering of schema/tables to wal2json if non sql pattern
-    if (schemasAndTables != null && !schemasAndTables.isEmpty()) {
+    if (outputPlugin != DecoderValues.PGOUTPUT && schemasAndTables != null && !schemasAndTables.isEmpty()) {
       List<String> qualifiedNames = new ArrayList<>();
       for (SchemaAndTable schemaAndTable : schemasAndTables) {
         String schemaName = (schemaAndTable.getSchema().equals("%"))?  "*" : schemaAndTable.getSchema();
@@ -559,6 +571,9 @@ public class PostgresCDCWalReceiver {
       throw new StageException(JdbcErrors.JDBC_606);
     }
     try {
+      if (configBean.decoderValue == DecoderValues.PGOUTPUT) {
+        return readPgOutput();
+      }
       buffer = readNonBlocking();
       if(buffer != null) {
         ret = new PostgresWalRecord(
@@ -580,6 +595,27 @@ public class PostgresCDCWalReceiver {
     return ret;
   }
 
+  /**
+   * pgoutput sends one message per begin, relation, row change and commit. Drains the pending messages until a
+   * transaction is complete, so a record always covers a whole transaction as it does with wal2json.
+   */
+  private PostgresWalRecord readPgOutput() throws SQLException {
+    ByteBuffer buffer;
+    while ((buffer = readNonBlocking()) != null) {
+      Field transaction;
+      try {
+        transaction = pgOutputDecoder.decode(buffer);
+      } catch (IOException e) {
+        LOG.error(Utils.format("Error decoding pgoutput message at LSN {}: {}", getCurrentLSN(), e.getMessage()), e);
+        throw new StageException(JdbcErrors.JDBC_415, getCurrentLSN(), e.getMessage(), e);
+      }
+      if (transaction != null) {
+        return new PostgresWalRecord(buffer, getCurrentLSN(), DecoderValues.PGOUTPUT, transaction);
+      }
+    }
+    return null;
+  }
+
   public JdbcUtil getJdbcUtil() {
     return jdbcUtil;
   }
@@ -15,11 +15,7 @@
  */
 package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
 import com.streamsets.pipeline.api.Field;
-import com.streamsets.pipeline.lib.util.JsonUtil;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.List;
@@ -56,6 +52,13 @@ public class PostgresWalRecord {
     this.decoder = decoder;
   }
 
+  public PostgresWalRecord(ByteBuffer buffer, LogSequenceNumber lsn, DecoderValues decoder, Field field) {
+    this.buffer = buffer;
+    this.lsn = lsn;
+    this.field = field;
+    this.decoder = decoder;
+  }
+
   public PostgresWalRecord(PostgresWalRecord record, Field changes) {
     this.buffer = record.getBuffer();
     this.lsn = record.getLsn();
@@ -72,6 +75,10 @@ public class PostgresWalRecord {
   }
 
   public String toString() {
+    if (decoder == DecoderValues.PGOUTPUT) {
+      // pgoutput messages are binary, the decoded transaction is the readable form
+      return field + " LSN: " + lsn.asString();
+    }
     return bufferToString() + " LSN: " + lsn.asString();
   }
 
@@ -83,18 +90,15 @@ public class PostgresWalRecord {
       switch(decoder) {
 
         case WAL2JSON:
-          JsonNode json;
           try {
-            ObjectMapper om = new ObjectMapper();
-            ObjectReader reader = om.reader();
-            json = reader.readTree(bufferToString());
-
-            field = JsonUtil.jsonToField(om.convertValue(json, Map.class));
+            field = Wal2JsonFieldReader.read(buffer);
           } catch (IOException e) {
             field = null;
           }
           break;
 
+        // PGOUTPUT records are decoded by the receiver and always carry their field
+
         default:
           field = null; //should be null but here explicitly to highlight
           break;
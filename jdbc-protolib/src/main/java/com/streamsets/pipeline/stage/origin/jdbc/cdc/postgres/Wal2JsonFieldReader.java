@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.streamsets.pipeline.api.Field;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a wal2json message into a {@link Field} tree by streaming the JSON tokens straight out of the
+ * replication buffer, without building an intermediate String, JsonNode or Map.
+ *
+ * Field types match the ones produced by {@code JsonUtil.jsonToField} over a Jackson-bound Map.
+ */
+final class Wal2JsonFieldReader {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private Wal2JsonFieldReader() {
+  }
+
+  static Field read(ByteBuffer buffer) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(
+        buffer.array(),
+        buffer.arrayOffset() + buffer.position(),
+        buffer.remaining()
+    )) {
+      JsonToken token = parser.nextToken();
+      if (token == null) {
+        throw new IOException("Empty wal2json message");
+      }
+      return readValue(parser, token);
+    }
+  }
+
+  private static Field readValue(JsonParser parser, JsonToken token) throws IOException {
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Field> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.getCurrentName();
+          map.put(name, readValue(parser, parser.nextToken()));
+        }
+        return Field.create(map);
+      case START_ARRAY:
+        List<Field> list = new ArrayList<>();
+        JsonToken next;
+        while ((next = parser.nextToken()) != JsonToken.END_ARRAY) {
+          list.add(readValue(parser, next));
+        }
+        return Field.create(list);
+      case VALUE_STRING:
+        return Field.create(parser.getText());
+      case VALUE_NUMBER_INT:
+        switch (parser.getNumberType()) {
+          case INT:
+            return Field.create(parser.getIntValue());
+          case LONG:
+            return Field.create(parser.getLongValue());
+          default:
+            return Field.create(new BigDecimal(parser.getBigIntegerValue()));
+        }
+      case VALUE_NUMBER_FLOAT:
+        return Field.create(parser.getDoubleValue());
+      case VALUE_TRUE:
+        return Field.create(true);
+      case VALUE_FALSE:
+        return Field.create(false);
+      case VALUE_NULL:
+        return Field.create(Field.Type.STRING, null);
+      default:
+        throw new IOException("Unexpected wal2json token " + token);
+    }
+  }
+}
@@ -39,6 +39,11 @@ public class WalRecordFilteringUtils {
       postgresWalRecord = passesOperationFilter(postgresWalRecord, postgresCDCSource);
     }
 
+    // wal2json filters tables on the server through add-tables, pgoutput sends every table of the publication
+    if (postgresWalRecord != null && postgresWalRecord.getDecoder() == DecoderValues.PGOUTPUT) {
+      postgresWalRecord = passesTableFilter(postgresWalRecord, postgresCDCSource);
+    }
+
     return postgresWalRecord;
   }
 
@@ -36,11 +36,12 @@ import com.streamsets.pipeline.stage.common.MultipleValuesBehavior;
 import com.streamsets.pipeline.stage.common.MultipleValuesBehaviorChooserValues;
 import com.streamsets.pipeline.stage.destination.jdbc.Groups;
 import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTableConfig;
 
 import java.util.List;
 
 @StageDef(
-    version = 6,
+    version = 8,
     label = "JDBC Lookup",
     description = "Lookup values via JDBC to enrich records.",
     icon = "rdbms.png",
@@ -167,6 +168,9 @@ public class JdbcLookupDProcessor extends DProcessor {
   @ConfigDefBean(groups = "JDBC")
   public CacheConfig cacheConfig = new CacheConfig();
 
+  @ConfigDefBean(groups = "JDBC")
+  public ReferenceTableConfig referenceTableConfig = new ReferenceTableConfig();
+
   @Override
   protected Processor createProcessor() {
     return new JdbcLookupProcessor(
@@ -179,7 +183,8 @@ public class JdbcLookupDProcessor extends DProcessor {
       maxClobSize,
       maxBlobSize,
       getHikariConfigBean(),
-      cacheConfig
+      cacheConfig,
+      referenceTableConfig
     );
   }
 }
@@ -29,6 +29,8 @@ import com.streamsets.pipeline.lib.jdbc.UnknownTypeAction;
 import com.streamsets.pipeline.lib.jdbc.UtilsProvider;
 import com.streamsets.pipeline.lib.jdbc.multithread.DatabaseVendor;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import com.streamsets.pipeline.stage.processor.kv.Errors;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTableIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +41,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -85,6 +88,56 @@ public class JdbcLookupLoader extends CacheLoader<String, Optional<List<Map<Stri
     return lookupValuesForRecord(key);
   }
 
+  /**
+   * Runs the given query and indexes all the returned rows by the values of the key columns.
+   */
+  public ReferenceTableIndex<List<Map<String, Field>>> loadReferenceTable(
+      String query,
+      List<String> keyColumns,
+      int fetchSize
+  ) throws StageException {
+    LOG.debug("Loading reference table with SQL: {}", query);
+    Map<ReferenceTableIndex.Key, List<Map<String, Field>>> rows = new HashMap<>();
+    List<Field> keyValues = new ArrayList<>(keyColumns.size());
+
+    Timer.Context t = selectTimer.time();
+    try (
+      Connection connection = dataSource.getConnection();
+      Statement stmt = connection.createStatement()
+    ) {
+      stmt.setFetchSize(fetchSize);
+      try (ResultSet resultSet = stmt.executeQuery(query)) {
+        while (resultSet.next()) {
+          LinkedHashMap<String, Field> fields = jdbcUtil.resultSetToFields(resultSet,
+            maxClobSize,
+            maxBlobSize,
+            columnsToTypes,
+            errorRecordHandler,
+            unknownTypeAction,
+            vendor
+          );
+
+          keyValues.clear();
+          for (String keyColumn : keyColumns) {
+            if (!fields.containsKey(keyColumn)) {
+              throw new StageException(Errors.LOOKUP_06, keyColumn);
+            }
+            keyValues.add(fields.get(keyColumn));
+          }
+          rows.computeIfAbsent(ReferenceTableIndex.Key.of(keyValues), k -> new ArrayList<>(1)).add(fields);
+        }
+      }
+    } catch (SQLException e) {
+      LOG.error(JdbcErrors.JDBC_02.getMessage(), query, e);
+      throw new StageException(Errors.LOOKUP_05, jdbcUtil.formatSqlException(e), e);
+    } finally {
+      t.stop();
+      selectMeter.mark();
+    }
+
+    return ReferenceTableIndex.copyOf(rows);
+  }
+
   private Optional<List<Map<String, Field>>> lookupValuesForRecord(String preparedQuery) throws StageException {
     LOG.debug("Executing SQL:  {}", preparedQuery);
     List<Map<String, Field>> lookupItems = new ArrayList<>();
@@ -29,6 +29,7 @@ import com.streamsets.pipeline.api.base.SingleLaneRecordProcessor;
 import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELEvalException;
 import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.cache.CacheCleaner;
 import com.streamsets.pipeline.lib.el.RecordEL;
 import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
@@ -45,7 +46,13 @@ import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
 import com.streamsets.pipeline.stage.common.MultipleValuesBehavior;
 import com.streamsets.pipeline.stage.destination.jdbc.Groups;
 import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
+import com.streamsets.pipeline.stage.processor.kv.Errors;
+import com.streamsets.pipeline.stage.processor.kv.FieldRowsCacheCodec;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
+import com.streamsets.pipeline.stage.processor.kv.MappedFileCacheStore;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceKeyMapping;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTable;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTableConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.Connection;
@@ -67,6 +74,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
 
 public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
@@ -80,7 +88,12 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private static final String HIKARI_CONFIG_PREFIX = "hikariConfigBean.";
   private static final String CONNECTION_STRING = HIKARI_CONFIG_PREFIX + "connectionString";
   private static final String COLUMN_MAPPINGS = "columnMappings";
+  private static final String PERSISTENT_DIRECTORY = "cacheConfig.persistentDirectory";
+  private static final String QUERY = "query";
+  private static final String REFERENCE_KEY_MAPPINGS = "referenceTableConfig.keyMappings";
+  private static final int REFERENCE_TABLE_FETCH_SIZE = 10000;
   private final CacheConfig cacheConfig;
+  private final ReferenceTableConfig referenceTableConfig;
 
   private ELEval queryEval;
 
@@ -101,6 +114,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
   private LoadingCache<String, Optional<List<Map<String, Field>>>> cache;
   private Optional<List<Map<String, Field>>> defaultValue;
   private CacheCleaner cacheCleaner;
+  private MappedFileCacheStore persistentStore;
+  private Map<String, Object> cacheGauge;
+  private ReferenceTable<List<Map<String, Field>>> referenceTable;
+  // reused for every record, reference table lookups don't allocate
+  private final List<Field> referenceKeyValues = new ArrayList<>();
   private final MissingValuesBehavior missingValuesBehavior;
   private final UnknownTypeAction unknownTypeAction;
 
@@ -118,7 +136,8 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       int maxClobSize,
       int maxBlobSize,
       HikariPoolConfigBean hikariConfigBean,
-      CacheConfig cacheConfig
+      CacheConfig cacheConfig,
+      ReferenceTableConfig referenceTableConfig
   ) {
     this.query = query;
     this.validateColumnMappings = validateColumnMappings;
@@ -130,10 +149,12 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     this.maxBlobSize = maxBlobSize;
     this.hikariConfigBean = hikariConfigBean;
     this.cacheConfig = cacheConfig;
+    this.referenceTableConfig = referenceTableConfig;
   }
 
   /** {@inheritDoc} */
   @Override
+  @SuppressWarnings("unchecked")
   protected List<ConfigIssue> init() {
     // Validate configuration values and open any required resources.
     List<ConfigIssue> issues = super.init();
@@ -191,10 +212,49 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       }
     }
 
+    if (referenceTableConfig.enabled) {
+      if (query.contains("${")) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), QUERY, Errors.LOOKUP_08));
+      }
+      if (referenceTableConfig.keyMappings.isEmpty()) {
+        issues.add(context.createConfigIssue(Groups.JDBC.name(), REFERENCE_KEY_MAPPINGS, Errors.LOOKUP_09));
+      }
+      if (context.getRunnerId() == 0) {
+        if (issues.isEmpty() && referenceTable == null) {
+          referenceTable = createReferenceTable();
+          try {
+            referenceTable.start();
+            context.getStageRunnerSharedMap().put("jdbcLookupProcessor.referenceTable", referenceTable);
+          } catch (StageException e) {
+            issues.add(context.createConfigIssue(Groups.JDBC.name(), QUERY, e.getErrorCode(), e.getParams()));
+          }
+        }
+      } else {
+        referenceTable = (ReferenceTable<List<Map<String, Field>>>) context.getStageRunnerSharedMap().get(
+            "jdbcLookupProcessor.referenceTable");
+      }
+    }
+
+    if (issues.isEmpty() && cacheConfig.enabled && cacheConfig.persistentEnabled && persistentStore == null) {
+      try {
+        persistentStore = LookupUtils.openSharedPersistentStore(context, cacheConfig, getPersistentCacheFingerprint());
+        if (context.getRunnerId() == 0) {
+          cacheGauge = context.createGauge(LookupUtils.CACHE_GAUGE_NAME).getValue();
+        }
+      } catch (StageException e) {
+        issues.add(context.createConfigIssue(
+            Groups.JDBC.name(),
+            PERSISTENT_DIRECTORY,
+            e.getErrorCode(),
+            e.getParams()
+        ));
+      }
+    }
+
     if (issues.isEmpty()) {
       cache = buildCache();
       cacheCleaner = new CacheCleaner(cache, "JdbcLookupProcessor", 10 * 60 * 1000);
-      if (cacheConfig.enabled) {
+      if (cacheConfig.enabled && !referenceTableConfig.enabled) {
         preprocessThreads = Math.min(hikariConfigBean.minIdle, Runtime.getRuntime().availableProcessors()-1);
         preprocessThreads = Math.max(preprocessThreads, 1);
       }
@@ -309,7 +369,12 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       if (jdbcUtil != null) {
         jdbcUtil.closeQuietly(dataSource);
       }
+
+      if (referenceTable != null) {
+        referenceTable.close();
+      }
     }
+    LookupUtils.closeSharedPersistentStore(getContext(), persistentStore);
 
     super.destroy();
   }
@@ -361,6 +426,11 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
     //Normal processing per record
     super.process(batch, batchMaker);
+
+    // Memory tier statistics are those of the first runner, the persistent tier is shared by all runners
+    if (cacheGauge != null) {
+      LookupUtils.updateCacheGauge(cacheGauge, cache, persistentStore);
+    }
   }
 
   /** {@inheritDoc} */
@@ -369,8 +439,15 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     try {
       ELVars elVars = getContext().createELVars();
       RecordEL.setRecordInContext(elVars, record);
-      String preparedQuery = queryEval.eval(elVars, query, String.class);
-      Optional<List<Map<String, Field>>> entry = cache.get(preparedQuery);
+      String preparedQuery;
+      Optional<List<Map<String, Field>>> entry;
+      if (referenceTable != null) {
+        preparedQuery = query;
+        entry = lookupReferenceTable(record);
+      } else {
+        preparedQuery = queryEval.eval(elVars, query, String.class);
+        entry = cache.get(preparedQuery);
+      }
 
       if (!entry.isPresent()) {
         // No results
@@ -433,6 +510,55 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  private Optional<List<Map<String, Field>>> lookupReferenceTable(Record record) throws OnRecordErrorException {
+    referenceKeyValues.clear();
+    for (ReferenceKeyMapping mapping : referenceTableConfig.keyMappings) {
+      if (!record.has(mapping.field)) {
+        throw new OnRecordErrorException(record, Errors.LOOKUP_07, mapping.field);
+      }
+      referenceKeyValues.add(record.get(mapping.field));
+    }
+    List<Map<String, Field>> values = referenceTable.get(referenceKeyValues);
+    return values == null ? defaultValue : Optional.of(values);
+  }
+
+  private ReferenceTable<List<Map<String, Field>>> createReferenceTable() {
+    JdbcLookupLoader loader = new JdbcLookupLoader(
+      getContext(),
+      dataSource,
+      columnsToTypes,
+      maxClobSize,
+      maxBlobSize,
+      errorRecordHandler,
+      hikariConfigBean.getVendor(),
+      unknownTypeAction
+    );
+    List<String> keyColumns = new ArrayList<>();
+    for (ReferenceKeyMapping mapping : referenceTableConfig.keyMappings) {
+      keyColumns.add(mapping.columnName);
+    }
+    return new ReferenceTable<>(
+      getContext().getStageInfo().getInstanceName(),
+      () -> loader.loadReferenceTable(query, keyColumns, REFERENCE_TABLE_FETCH_SIZE),
+      referenceTableConfig.refreshInterval,
+      getContext().createGauge(ReferenceTable.GAUGE_NAME).getValue()
+    );
+  }
+
+  /**
+   * Cached rows are keyed by the resolved query, they also depend on the database and on how columns are converted.
+   */
+  private String getPersistentCacheFingerprint() {
+    return Utils.format(
+        "{}|{}|{}|{}|{}",
+        hikariConfigBean.getConnectionString(),
+        new TreeMap<>(columnsToTypes),
+        unknownTypeAction,
+        maxClobSize,
+        maxBlobSize
+    );
+  }
+
   private String prepareQuery(String query) {
     String preparedQuery = query.replaceAll("(\\$\\{)(.*?)(\\})", "0");
     return preparedQuery;
@@ -504,6 +630,10 @@ public class JdbcLookupProcessor extends SingleLaneRecordProcessor {
       hikariConfigBean.getVendor(),
       unknownTypeAction
     );
+    if (persistentStore != null) {
+      FieldRowsCacheCodec<String> codec = new FieldRowsCacheCodec<>(query -> query);
+      return LookupUtils.buildCache(loader, cacheConfig, defaultValue, persistentStore, codec);
+    }
     return LookupUtils.buildCache(loader, cacheConfig, defaultValue);
   }
 }
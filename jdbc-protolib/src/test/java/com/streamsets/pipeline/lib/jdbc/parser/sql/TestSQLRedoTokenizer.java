@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.jdbc.parser.sql;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Resources;
+import com.streamsets.pipeline.lib.jdbc.OracleCDCOperationCode;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.parboiled.Parboiled;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class TestSQLRedoTokenizer {
+
+  private static final class Statement {
+    private final int operationCode;
+    private final String sql;
+    private final boolean tokenized;
+
+    private Statement(int operationCode, String sql, boolean tokenized) {
+      this.operationCode = operationCode;
+      this.sql = sql;
+      this.tokenized = tokenized;
+    }
+  }
+
+  private static List<Statement> corpus() throws Exception {
+    List<Statement> statements = new ArrayList<>();
+    boolean tokenized = true;
+    for (String line : Resources.readLines(Resources.getResource("oracle/sql_redo_corpus.txt"), StandardCharsets.UTF_8)) {
+      if (line.startsWith("# Statements left to the full parsers")) {
+        tokenized = false;
+      } else if (!line.isEmpty() && !line.startsWith("#")) {
+        String[] parts = line.split("\t", 2);
+        statements.add(new Statement(Integer.parseInt(parts[0]), parts[1], tokenized));
+      }
+    }
+    return statements;
+  }
+
+  private static Map<String, String> parse(SQLParser parser, Statement statement, boolean caseSensitive) {
+    try {
+      return SQLParserUtils.process(parser, statement.sql, statement.operationCode, false, caseSensitive, null);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  @Test
+  public void testSameResultAsParserOnCorpus() throws Exception {
+    SQLParser parser = Parboiled.createParser(SQLParser.class);
+    SQLRedoTokenizer tokenizer = new SQLRedoTokenizer();
+    for (Statement statement : corpus()) {
+      for (boolean caseSensitive : new boolean[]{false, true}) {
+        Map<String, String> tokenized =
+            tokenizer.process(statement.sql, statement.operationCode, false, caseSensitive, null);
+        if (statement.tokenized) {
+          Assert.assertNotNull(statement.sql, tokenized);
+          Assert.assertEquals(statement.sql, parse(parser, statement, caseSensitive), tokenized);
+        } else {
+          Assert.assertNull(statement.sql, tokenized);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSameResultAsParserOnParserTests() throws Exception {
+    SQLRedoTokenizer tokenizer = new SQLRedoTokenizer();
+    for (Object[] data : TestSQLParser.data()) {
+      String sql = (String) data[0];
+      int code;
+      if (sql.startsWith("insert")) {
+        code = OracleCDCOperationCode.INSERT_CODE;
+      } else if (sql.startsWith("delete")) {
+        code = OracleCDCOperationCode.DELETE_CODE;
+      } else {
+        code = OracleCDCOperationCode.UPDATE_CODE;
+      }
+      Assert.assertEquals(sql, data[1], tokenizer.process(sql, code, false, false, null));
+    }
+  }
+
+  @Test
+  public void testAllowNulls() throws Exception {
+    String sql = " update \"SYS\".\"MANYCOLS\" set \"SALARY=\" = NULL, \"NAME\" = 'New Name' " +
+        "where \"ID\" = '1' and \"NAME\" = '=sdc' and ROWID = 'AAAAxhdjhjsdhaks'";
+    Set<String> expectedFields = ImmutableSet.of("ID", "NAME", "SALARY=", "LASTDATE");
+
+    Map<String, String> expected = SQLParserUtils.process(
+        Parboiled.createParser(SQLParser.class),
+        sql,
+        OracleCDCOperationCode.UPDATE_CODE,
+        true,
+        false,
+        expectedFields
+    );
+    Map<String, String> tokenized =
+        new SQLRedoTokenizer().process(sql, OracleCDCOperationCode.UPDATE_CODE, true, false, expectedFields);
+
+    Assert.assertEquals(expected, tokenized);
+    Assert.assertTrue(tokenized.containsKey("LASTDATE"));
+    Assert.assertEquals("New Name", tokenized.get("NAME"));
+  }
+
+  @Test
+  public void testFallback() {
+    SQLRedoTokenizer tokenizer = new SQLRedoTokenizer();
+    Assert.assertNull(tokenizer.process("", OracleCDCOperationCode.INSERT_CODE, false, false, null));
+    Assert.assertNull(tokenizer.process(null, OracleCDCOperationCode.INSERT_CODE, false, false, null));
+    Assert.assertNull(tokenizer.process(
+        " update \"SYS\".\"MANYCOLS\" set why are we testing this", OracleCDCOperationCode.UPDATE_CODE, false, false, null
+    ));
+    Assert.assertNull(tokenizer.process(
+        "insert into \"A\".\"B\"(\"ID\") values ('1", OracleCDCOperationCode.INSERT_CODE, false, false, null
+    ));
+    Assert.assertNull(tokenizer.process("commit", OracleCDCOperationCode.COMMIT_CODE, false, false, null));
+  }
+
+  @Test
+  public void testBuffersReused() {
+    SQLRedoTokenizer tokenizer = new SQLRedoTokenizer();
+    StringBuilder columns = new StringBuilder();
+    StringBuilder values = new StringBuilder();
+    for (int i = 0; i < 40; i++) {
+      columns.append(i == 0 ? "" : ",").append("\"C").append(i).append('"');
+      values.append(i == 0 ? "" : ",").append('\'').append(i).append('\'');
+    }
+    String wide = "insert into \"A\".\"B\"(" + columns + ") values (" + values + ")";
+    Assert.assertEquals(40, tokenizer.process(wide, OracleCDCOperationCode.INSERT_CODE, false, false, null).size());
+
+    Map<String, String> narrow = tokenizer.process(
+        "delete from \"A\".\"B\" where \"C1\" = '1'", OracleCDCOperationCode.DELETE_CODE, false, false, null
+    );
+    Assert.assertEquals(1, narrow.size());
+    Assert.assertEquals("1", narrow.get("C1"));
+  }
+
+  private static String regexGroup(Pattern pattern, String value) {
+    Matcher m = pattern.matcher(value);
+    return m.find() ? m.group(1) : null;
+  }
+
+  @Test
+  public void testLiteralsMatchRegularExpressions() {
+    // Same expressions as DateTimeColumnHandler and RawTypeHandler
+    Pattern toDate = Pattern.compile("TO_DATE\\('(.*)',.*");
+    Pattern toTimestamp = Pattern.compile("TO_TIMESTAMP\\('(.*[^\\.]).*'");
+    Pattern toTimestampTzLocal = Pattern.compile("TO_TIMESTAMP_TZ\\('(.*[^\\.]).*'");
+    Pattern toTimestampTz = Pattern.compile("TO_TIMESTAMP_TZ\\('(.*).*'");
+    Pattern hexToRaw = Pattern.compile("HEXTORAW\\('(.*)'\\)");
+
+    String[] values = {
+        "TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS')",
+        "TO_DATE('', 'DD-MM-YYYY HH24:MI:SS')",
+        "TO_DATE(',')",
+        "TO_TIMESTAMP('2016-11-21 11:34:09.982753')",
+        "TO_TIMESTAMP('2016-04-15 00:00:00.')",
+        "TO_TIMESTAMP('2016-04-15 00:00:00..')",
+        "TO_TIMESTAMP('.')",
+        "TO_TIMESTAMP('')",
+        "TO_TIMESTAMP_TZ('2017-06-19 10:20:30.123456 -07:00')",
+        "TO_TIMESTAMP_TZ('2017-06-19 10:20:30.')",
+        "TO_TIMESTAMP_TZ('')",
+        "HEXTORAW('48656c6c6f')",
+        "HEXTORAW('')",
+        "HEXTORAW(')",
+        "2016-11-21 11:34:09",
+        "",
+    };
+    for (String value : values) {
+      Assert.assertTrue(value, SQLRedoTokenizer.isSimpleCall(value));
+      Assert.assertEquals(value, regexGroup(toDate, value), SQLRedoTokenizer.toDateLiteral(value));
+      Assert.assertEquals(
+          value,
+          regexGroup(toTimestamp, value),
+          SQLRedoTokenizer.toTimestampLiteral(value, SQLRedoTokenizer.TO_TIMESTAMP, true)
+      );
+      Assert.assertEquals(
+          value,
+          regexGroup(toTimestampTzLocal, value),
+          SQLRedoTokenizer.toTimestampLiteral(value, SQLRedoTokenizer.TO_TIMESTAMP_TZ, true)
+      );
+      Assert.assertEquals(
+          value,
+          regexGroup(toTimestampTz, value),
+          SQLRedoTokenizer.toTimestampLiteral(value, SQLRedoTokenizer.TO_TIMESTAMP_TZ, false)
+      );
+      Assert.assertEquals(value, regexGroup(hexToRaw, value), SQLRedoTokenizer.hexToRawLiteral(value));
+    }
+
+    Assert.assertFalse(SQLRedoTokenizer.isSimpleCall(" TO_DATE('21-11-2016 11:34:09', 'DD-MM-YYYY HH24:MI:SS')"));
+    Assert.assertFalse(SQLRedoTokenizer.isSimpleCall("TO_DATE('21-11-2016\n11:34:09', 'DD-MM-YYYY HH24:MI:SS')"));
+    Assert.assertFalse(SQLRedoTokenizer.isSimpleCall("NVL(TO_DATE('21-11-2016', 'DD-MM-YYYY'), NULL)"));
+  }
+
+  /**
+   * Compares the tokenizer with the PEG parser over the statements of the corpus. Run manually.
+   */
+  @Ignore
+  @Test
+  public void benchmarkCorpus() throws Exception {
+    List<Statement> statements = new ArrayList<>();
+    for (Statement statement : corpus()) {
+      if (statement.tokenized) {
+        statements.add(statement);
+      }
+    }
+    SQLParser parser = Parboiled.createParser(SQLParser.class);
+    SQLRedoTokenizer tokenizer = new SQLRedoTokenizer();
+    int iterations = 20_000;
+
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      long columns = 0;
+      for (int i = 0; i < iterations; i++) {
+        for (Statement statement : statements) {
+          columns += parse(parser, statement, false).size();
+        }
+      }
+      long parserNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (Statement statement : statements) {
+          columns -= tokenizer.process(statement.sql, statement.operationCode, false, false, null).size();
+        }
+      }
+      long tokenizerNanos = System.nanoTime() - start;
+
+      Assert.assertEquals(0, columns);
+      long count = (long) iterations * statements.size();
+      System.out.println(String.format(
+          "Round %d, %d statements: PEG parser %d ns/statement, tokenizer %d ns/statement",
+          round,
+          count,
+          parserNanos / count,
+          tokenizerNanos / count
+      ));
+    }
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class TestPgOutputDecoder {
+
+  private static final int RELATION_OID = 16385;
+
+  private PgOutputDecoder decoder;
+
+  @Before
+  public void setUp() throws IOException {
+    decoder = new PgOutputDecoder();
+    Assert.assertNull(decoder.decode(relation()));
+  }
+
+  private static ByteBuffer message(Writer writer) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    writer.write(out);
+    out.flush();
+    return ByteBuffer.wrap(bytes.toByteArray());
+  }
+
+  private interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private static void string(DataOutputStream out, String value) throws IOException {
+    out.write(value.getBytes(StandardCharsets.UTF_8));
+    out.writeByte(0);
+  }
+
+  private static void text(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeByte('n');
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeByte('t');
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static ByteBuffer relation() throws IOException {
+    return message(out -> {
+      out.writeByte('R');
+      out.writeInt(RELATION_OID);
+      string(out, "public");
+      string(out, "accounts");
+      out.writeByte('d');
+      out.writeShort(4);
+      out.writeByte(1);
+      string(out, "id");
+      out.writeInt(23);
+      out.writeInt(-1);
+      out.writeByte(0);
+      string(out, "name");
+      out.writeInt(1043);
+      out.writeInt(24);
+      out.writeByte(0);
+      string(out, "balance");
+      out.writeInt(1700);
+      out.writeInt(((10 << 16) | 2) + 4);
+      out.writeByte(0);
+      string(out, "active");
+      out.writeInt(16);
+      out.writeInt(-1);
+    });
+  }
+
+  private static ByteBuffer begin(int xid) throws IOException {
+    return message(out -> {
+      out.writeByte('B');
+      out.writeLong(0x16751E8L);
+      // 2018-07-13 20:24:44.152109 UTC in microseconds since 2000-01-01
+      out.writeLong(584828684152109L);
+      out.writeInt(xid);
+    });
+  }
+
+  private static ByteBuffer commit() throws IOException {
+    return message(out -> {
+      out.writeByte('C');
+      out.writeByte(0);
+      out.writeLong(0x16751E8L);
+      out.writeLong(0x1675220L);
+      out.writeLong(584828684152109L);
+    });
+  }
+
+  private static ByteBuffer tupleData(String... values) throws IOException {
+    return message(out -> {
+      out.writeShort(values.length);
+      for (String value : values) {
+        text(out, value);
+      }
+    });
+  }
+
+  private static ByteBuffer change(char type, ByteBuffer... tuples) throws IOException {
+    return message(out -> {
+      out.writeByte(type);
+      out.writeInt(RELATION_OID);
+      for (ByteBuffer tuple : tuples) {
+        out.write(tuple.array());
+      }
+    });
+  }
+
+  private static ByteBuffer tuple(char tupleType, String... values) throws IOException {
+    ByteBuffer data = tupleData(values);
+    ByteBuffer tuple = ByteBuffer.allocate(data.remaining() + 1);
+    tuple.put((byte) tupleType);
+    tuple.put(data);
+    return tuple;
+  }
+
+  private static List<Field> list(Map<String, Field> change, String key) {
+    return change.get(key).getValueAsList();
+  }
+
+  @Test
+  public void testTransaction() throws IOException {
+    Assert.assertNull(decoder.decode(begin(598)));
+    Assert.assertNull(decoder.decode(change('I', tuple('N', "1", "alice", "10.50", "t"))));
+    Assert.assertNull(decoder.decode(change('U', tuple('K', "1", null, null, null), tuple('N', "2", "bob", null, "f"))));
+    Assert.assertNull(decoder.decode(change('D', tuple('K', "2", null, null, null))));
+
+    Field transaction = decoder.decode(commit());
+    Assert.assertNotNull(transaction);
+
+    PostgresWalRecord record = new PostgresWalRecord(
+        ByteBuffer.allocate(0),
+        null,
+        DecoderValues.PGOUTPUT,
+        transaction
+    );
+    Assert.assertEquals("598", record.getXid());
+    Assert.assertEquals("0/1675220", record.getNextLSN());
+    Assert.assertEquals("2018-07-13 20:24:44.152109+00", record.getTimestamp());
+
+    List<Field> changes = record.getChanges();
+    Assert.assertEquals(3, changes.size());
+
+    Map<String, Field> insert = changes.get(0).getValueAsMap();
+    Assert.assertEquals("insert", PostgresWalRecord.getTypeFromChangeMap(insert));
+    Assert.assertEquals("public", PostgresWalRecord.getSchemaFromChangeMap(insert));
+    Assert.assertEquals("accounts", PostgresWalRecord.getTableFromChangeMap(insert));
+    Assert.assertEquals("name", list(insert, "columnnames").get(1).getValueAsString());
+    Assert.assertEquals("integer", list(insert, "columntypes").get(0).getValueAsString());
+    Assert.assertEquals("character varying(20)", list(insert, "columntypes").get(1).getValueAsString());
+    Assert.assertEquals("numeric(10,2)", list(insert, "columntypes").get(2).getValueAsString());
+    Assert.assertEquals(Field.create(1), list(insert, "columnvalues").get(0));
+    Assert.assertEquals(Field.create("alice"), list(insert, "columnvalues").get(1));
+    Assert.assertEquals(Field.create(new BigDecimal("10.50")), list(insert, "columnvalues").get(2));
+    Assert.assertEquals(Field.create(true), list(insert, "columnvalues").get(3));
+    Assert.assertFalse(insert.containsKey("oldkeys"));
+
+    Map<String, Field> update = changes.get(1).getValueAsMap();
+    Assert.assertEquals("update", PostgresWalRecord.getTypeFromChangeMap(update));
+    Assert.assertNull(list(update, "columnvalues").get(2).getValue());
+    Map<String, Field> oldKeys = update.get("oldkeys").getValueAsMap();
+    Assert.assertEquals(1, list(oldKeys, "keynames").size());
+    Assert.assertEquals("id", list(oldKeys, "keynames").get(0).getValueAsString());
+    Assert.assertEquals(Field.create(1), list(oldKeys, "keyvalues").get(0));
+
+    Map<String, Field> delete = changes.get(2).getValueAsMap();
+    Assert.assertEquals("delete", PostgresWalRecord.getTypeFromChangeMap(delete));
+    Assert.assertFalse(delete.containsKey("columnvalues"));
+    Assert.assertEquals(Field.create(2), list(delete.get("oldkeys").getValueAsMap(), "keyvalues").get(0));
+  }
+
+  @Test
+  public void testRelationReplacedOnSchemaChange() throws IOException {
+    decoder.decode(message(out -> {
+      out.writeByte('R');
+      out.writeInt(RELATION_OID);
+      string(out, "public");
+      string(out, "accounts");
+      out.writeByte('d');
+      out.writeShort(1);
+      out.writeByte(1);
+      string(out, "id");
+      out.writeInt(20);
+      out.writeInt(-1);
+    }));
+    decoder.decode(begin(600));
+    decoder.decode(change('I', tuple('N', "9000000000")));
+    Field transaction = decoder.decode(commit());
+
+    Map<String, Field> insert = transaction.getValueAsMap().get("change").getValueAsList().get(0).getValueAsMap();
+    Assert.assertEquals(1, list(insert, "columnnames").size());
+    Assert.assertEquals("bigint", list(insert, "columntypes").get(0).getValueAsString());
+    Assert.assertEquals(Field.create(9000000000L), list(insert, "columnvalues").get(0));
+  }
+
+  @Test
+  public void testUnchangedToastColumnIsLeftOut() throws IOException {
+    decoder.decode(begin(601));
+    decoder.decode(message(out -> {
+      out.writeByte('U');
+      out.writeInt(RELATION_OID);
+      out.writeByte('N');
+      out.writeShort(4);
+      text(out, "3");
+      out.writeByte('u');
+      text(out, "1.00");
+      text(out, "t");
+    }));
+    Field transaction = decoder.decode(commit());
+
+    Map<String, Field> update = transaction.getValueAsMap().get("change").getValueAsList().get(0).getValueAsMap();
+    Assert.assertEquals(3, list(update, "columnnames").size());
+    Assert.assertEquals("balance", list(update, "columnnames").get(1).getValueAsString());
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownRelation() throws IOException {
+    decoder.decode(begin(602));
+    decoder.decode(message(out -> {
+      out.writeByte('I');
+      out.writeInt(RELATION_OID + 1);
+      out.writeByte('N');
+      out.writeShort(0);
+    }));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedMessage() throws IOException {
+    decoder.decode(message(out -> {
+      out.writeByte('B');
+      out.writeInt(1);
+    }));
+  }
+
+  @Test
+  public void testDecodeLeavesBufferUntouched() throws IOException {
+    ByteBuffer begin = begin(603);
+    decoder.decode(begin);
+    Assert.assertEquals(0, begin.position());
+  }
+}
@@ -105,4 +105,17 @@ public class TestPostgresCDCSourceUpgrader {
     );
   }
 
+  @Test
+  public void testV4ToV5() {
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(4).when(context).getFromVersion();
+    Mockito.doReturn(5).when(context).getToVersion();
+
+    List<Config> configs = postgresCDCSourceUpgrader.upgrade(new ArrayList<>(), context);
+
+    Assert.assertEquals(1, configs.size());
+    Assert.assertEquals("postgresCDCConfigBean.publicationName", configs.get(0).getName());
+    Assert.assertEquals("sdc", configs.get(0).getValue());
+  }
+
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jdbc.cdc.postgres;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.util.JsonUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class TestWal2JsonFieldReader {
+
+  private static final String WAL2JSON_MESSAGE = "{\"xid\":598,\"nextlsn\":\"0/16751E8\"," +
+      "\"timestamp\":\"2018-07-13 13:24:44.152109-07\",\"change\":[{\"kind\":\"update\",\"schema\":\"public\"," +
+      "\"table\":\"hashes\",\"columnnames\":[\"id\",\"value\",\"big\",\"ratio\",\"flag\",\"missing\"]," +
+      "\"columntypes\":[\"integer\",\"character(33)\",\"bigint\",\"double precision\",\"boolean\",\"text\"]," +
+      "\"columnvalues\":[1,\"a\\\"b\\u00e9\",9000000000,0.25,true,null]," +
+      "\"oldkeys\":{\"keynames\":[\"id\"],\"keytypes\":[\"integer\"],\"keyvalues\":[1]}}]}";
+
+  @Test
+  public void testSameFieldsAsJsonUtil() throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    Field expected = JsonUtil.jsonToField(mapper.readValue(WAL2JSON_MESSAGE, Map.class));
+
+    Field actual = Wal2JsonFieldReader.read(ByteBuffer.wrap(WAL2JSON_MESSAGE.getBytes(StandardCharsets.UTF_8)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testReadsFromBufferPosition() throws IOException {
+    byte[] bytes = ("HEADER" + WAL2JSON_MESSAGE).getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    buffer.position(6);
+
+    Field field = Wal2JsonFieldReader.read(buffer.slice());
+
+    Assert.assertEquals("0/16751E8", field.getValueAsMap().get("nextlsn").getValueAsString());
+    Assert.assertEquals(6, buffer.position());
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedMessage() throws IOException {
+    Wal2JsonFieldReader.read(ByteBuffer.wrap("{\"xid\":598,\"change\":[".getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -32,6 +32,7 @@ import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
 import com.streamsets.pipeline.stage.common.MultipleValuesBehavior;
 import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
 import com.streamsets.pipeline.stage.processor.kv.EvictionPolicyType;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceKeyMapping;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -782,4 +783,86 @@ public class TestJdbcLookup {
       processorRunner.runDestroy();
     }
   }
+
+  @Test
+  public void testFullTableLookup() throws Exception {
+    List<JdbcFieldColumnMapping> columnMappings = ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "/p_id"));
+
+    JdbcLookupDProcessor processor = createProcessor();
+    processor.referenceTableConfig.enabled = true;
+    processor.referenceTableConfig.refreshInterval = 0;
+    processor.referenceTableConfig.keyMappings = ImmutableList.of(
+        new ReferenceKeyMapping("/first_name", "FIRST_NAME"),
+        new ReferenceKeyMapping("/last_name", "LAST_NAME")
+    );
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", "SELECT P_ID, FIRST_NAME, LAST_NAME FROM TEST.TEST_TABLE")
+        .addConfiguration("columnMappings", columnMappings)
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.SPLIT_INTO_MULTIPLE_RECORDS)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", true)
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addOutputLane("lane")
+        .build();
+
+    Record adam = RecordCreator.create();
+    LinkedHashMap<String, Field> adamFields = new LinkedHashMap<>();
+    adamFields.put("first_name", Field.create("Adam"));
+    adamFields.put("last_name", Field.create("Kunicki"));
+    adam.set(Field.createListMap(adamFields));
+
+    Record girish = RecordCreator.create();
+    LinkedHashMap<String, Field> girishFields = new LinkedHashMap<>();
+    girishFields.put("first_name", Field.create("Girish"));
+    girishFields.put("last_name", Field.create("Pancha"));
+    girish.set(Field.createListMap(girishFields));
+
+    Record unknown = RecordCreator.create();
+    LinkedHashMap<String, Field> unknownFields = new LinkedHashMap<>();
+    unknownFields.put("first_name", Field.create("Jarcec"));
+    unknownFields.put("last_name", Field.create("Cecho"));
+    unknown.set(Field.createListMap(unknownFields));
+
+    processorRunner.runInit();
+    try {
+      // Rows inserted after the table was loaded are not visible until the next refresh
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("INSERT INTO TEST.TEST_TABLE VALUES (20, 'Jarcec', 'Cecho')");
+      }
+
+      StageRunner.Output output = processorRunner.runProcess(ImmutableList.of(adam, girish, unknown));
+      List<Record> records = output.getRecords().get("lane");
+      Assert.assertEquals(3, records.size());
+      Assert.assertEquals(1, records.get(0).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(4, records.get(1).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(5, records.get(2).get("/p_id").getValueAsInteger());
+      Assert.assertEquals(1, processorRunner.getErrorRecords().size());
+    } finally {
+      processorRunner.runDestroy();
+    }
+  }
+
+  @Test
+  public void testFullTableLookupWithExpression() throws Exception {
+    JdbcLookupDProcessor processor = createProcessor();
+    processor.referenceTableConfig.enabled = true;
+    processor.referenceTableConfig.keyMappings = ImmutableList.of(new ReferenceKeyMapping("[0]", "FIRST_NAME"));
+
+    ProcessorRunner processorRunner = new ProcessorRunner.Builder(JdbcLookupDProcessor.class, processor)
+        .addConfiguration("query", listQuery)
+        .addConfiguration("columnMappings", ImmutableList.of(new JdbcFieldColumnMapping("P_ID", "[2]")))
+        .addConfiguration("multipleValuesBehavior", MultipleValuesBehavior.FIRST_ONLY)
+        .addConfiguration("missingValuesBehavior", MissingValuesBehavior.SEND_TO_ERROR)
+        .addConfiguration("maxClobSize", 1000)
+        .addConfiguration("maxBlobSize", 1000)
+        .addConfiguration("validateColumnMappings", false)
+        .addOutputLane("lane")
+        .build();
+
+    List<Stage.ConfigIssue> issues = processorRunner.runValidateConfigs();
+    assertEquals(1, issues.size());
+  }
 }
@@ -97,4 +97,29 @@ public class TestJdbcLookupUpgrader {
 
     UpgraderTestUtils.assertExists(upgradedConfigs, "validateColumnMappings", false);
   }
+
+  @Test
+  public void testUpgradeV6toV7() throws StageException {
+    Mockito.doReturn(6).when(context).getFromVersion();
+    Mockito.doReturn(7).when(context).getToVersion();
+
+    List<Config> upgradedConfigs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "cacheConfig.persistentEnabled", false);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "cacheConfig.persistentDirectory", "");
+    UpgraderTestUtils.assertExists(upgradedConfigs, "cacheConfig.persistentMaxSizeMB", 256);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "cacheConfig.persistentExpirationTime", 1);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "cacheConfig.persistentTimeUnit", "DAYS");
+  }
+
+  @Test
+  public void testUpgradeV7toV8() throws StageException {
+    Mockito.doReturn(7).when(context).getFromVersion();
+    Mockito.doReturn(8).when(context).getToVersion();
+
+    List<Config> upgradedConfigs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(upgradedConfigs, "referenceTableConfig.enabled", false);
+    UpgraderTestUtils.assertExists(upgradedConfigs, "referenceTableConfig.refreshInterval", 3600);
+  }
 }
@@ -44,6 +44,9 @@ public enum JmsErrors implements ErrorCode {
 
   // Configuration issues
   JMS_30("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
+  JMS_31("Reading topic '{}' from multiple sessions requires a shared subscription"),
+  JMS_32("Shared subscription name cannot be empty"),
+  JMS_33("JMS consumer worker failed: {}"),
   ;
   private final String msg;
 
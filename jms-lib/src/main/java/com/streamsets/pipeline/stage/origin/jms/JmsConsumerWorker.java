@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jms;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.DeliveryGuarantee;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Drives a single transacted JMS session. JMS sessions must not be used concurrently, so every session gets its own
+ * worker and pipeline runner and commits its transaction once its batch has been processed.
+ */
+public class JmsConsumerWorker implements Callable<Exception> {
+  private static final Logger LOG = LoggerFactory.getLogger(JmsConsumerWorker.class);
+
+  static final String MESSAGES_CONSUMED = "Messages Consumed";
+  static final String BATCHES_COMMITTED = "Batches Committed";
+  static final String BATCHES_ROLLED_BACK = "Batches Rolled Back";
+
+  private final PushSource.Context context;
+  private final JmsMessageConsumer consumer;
+  private final int batchSize;
+  private final Map<String, Object> gaugeMap;
+
+  private long messagesConsumed;
+  private long batchesCommitted;
+  private long batchesRolledBack;
+
+  JmsConsumerWorker(PushSource.Context context, JmsMessageConsumer consumer, int batchSize,
+                    Map<String, Object> gaugeMap) {
+    this.context = context;
+    this.consumer = consumer;
+    this.batchSize = batchSize;
+    this.gaugeMap = gaugeMap;
+    updateGauge();
+  }
+
+  @Override
+  public Exception call() {
+    try {
+      while (!context.isStopped()) {
+        BatchContext batchContext = context.startBatch();
+        messagesConsumed += consumer.take(batchContext.getBatchMaker(), context, batchSize, messagesConsumed);
+
+        boolean preview = context.isPreview();
+        boolean atMostOnce = context.getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE;
+        if (!preview && atMostOnce) {
+          commit();
+        }
+
+        boolean batchSuccessful = context.processBatch(batchContext);
+
+        if (preview || (!atMostOnce && !batchSuccessful)) {
+          // Messages of a failed batch are redelivered by the broker.
+          rollback();
+        } else if (!atMostOnce) {
+          commit();
+        }
+        updateGauge();
+      }
+    } catch (StageException ex) {
+      rollback();
+      return ex;
+    }
+    return null;
+  }
+
+  private void commit() throws StageException {
+    consumer.commit();
+    batchesCommitted++;
+  }
+
+  private void rollback() {
+    try {
+      consumer.rollback();
+      batchesRolledBack++;
+    } catch (Exception ex) {
+      LOG.warn("Rollback failed: {}", ex.toString(), ex);
+    }
+  }
+
+  private void updateGauge() {
+    gaugeMap.put(MESSAGES_CONSUMED, messagesConsumed);
+    gaugeMap.put(BATCHES_COMMITTED, batchesCommitted);
+    gaugeMap.put(BATCHES_ROLLED_BACK, batchesRolledBack);
+  }
+}
@@ -17,7 +17,7 @@ package com.streamsets.pipeline.stage.origin.jms;
 
 
 import com.streamsets.pipeline.api.BatchMaker;
-import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.ProtoSource;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 
@@ -25,9 +25,9 @@ import java.util.List;
 
 public interface JmsMessageConsumer {
 
-  List<Stage.ConfigIssue> init(Source.Context context);
+  List<Stage.ConfigIssue> init(ProtoSource.Context context);
 
-  int take(BatchMaker batchMaker, Source.Context context, int batchSize, long messageIndex) throws StageException;
+  int take(BatchMaker batchMaker, ProtoSource.Context context, int batchSize, long messageIndex) throws StageException;
 
   void commit() throws StageException;
 
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.origin.jms;
 
 import com.streamsets.pipeline.stage.origin.lib.BasicConfig;
 
+import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.naming.InitialContext;
 
@@ -24,4 +25,8 @@ public interface JmsMessageConsumerFactory {
 
   JmsMessageConsumer create(InitialContext initialContext, ConnectionFactory connectionFactory,
                          BasicConfig basicConfig, JmsSourceConfig jmsConfig, JmsMessageConverter jmsMessageConverter);
+
+  JmsMessageConsumer create(InitialContext initialContext, Connection connection, BasicConfig basicConfig,
+                            JmsSourceConfig jmsConfig, JmsMessageConverter jmsMessageConverter, int sessionIndex,
+                            String sharedSubscriptionName);
 }
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.origin.jms;
 
 import com.streamsets.pipeline.stage.origin.lib.BasicConfig;
 
+import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.naming.InitialContext;
 
@@ -27,4 +28,12 @@ public class JmsMessageConsumerFactoryImpl implements JmsMessageConsumerFactory
                          BasicConfig basicConfig, JmsSourceConfig jmsConfig, JmsMessageConverter jmsMessageConverter) {
     return new JmsMessageConsumerImpl(initialContext, connectionFactory, basicConfig, jmsConfig, jmsMessageConverter);
   }
+
+  @Override
+  public JmsMessageConsumer create(InitialContext initialContext, Connection connection, BasicConfig basicConfig,
+                                   JmsSourceConfig jmsConfig, JmsMessageConverter jmsMessageConverter,
+                                   int sessionIndex, String sharedSubscriptionName) {
+    return new JmsMessageConsumerImpl(initialContext, connection, basicConfig, jmsConfig, jmsMessageConverter,
+        sessionIndex, sharedSubscriptionName);
+  }
 }
@@ -17,7 +17,7 @@ package com.streamsets.pipeline.stage.origin.jms;
 
 
 import com.streamsets.pipeline.api.BatchMaker;
-import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.ProtoSource;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
@@ -37,6 +37,8 @@ import javax.jms.MessageConsumer;
 import javax.jms.Session;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -44,11 +46,16 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
   private static final Logger LOG = LoggerFactory.getLogger(JmsMessageConsumerImpl.class);
   private static final int POLL_INTERVAL = 100; // ms
   private static final boolean IS_TRACE_ENABLED = LOG.isTraceEnabled();
+  private static final String CREATE_SHARED_CONSUMER = "createSharedConsumer";
+  private static final String CREATE_SHARED_DURABLE_CONSUMER = "createSharedDurableConsumer";
   private final InitialContext initialContext;
   private final ConnectionFactory connectionFactory;
   private final BasicConfig basicConfig;
   private final JmsSourceConfig jmsConfig;
   private final JmsMessageConverter jmsMessageConverter;
+  private final boolean ownsConnection;
+  private final String messageIdPrefix;
+  private final String sharedSubscriptionName;
   private Connection connection;
   private Session session;
   private Destination destination;
@@ -62,45 +69,38 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
     this.basicConfig = basicConfig;
     this.jmsConfig = jmsConfig;
     this.jmsMessageConverter = jmsMessageConverter;
+    this.ownsConnection = true;
+    this.messageIdPrefix = jmsConfig.destinationName;
+    this.sharedSubscriptionName = null;
+  }
+
+  /**
+   * Creates a consumer with its own session on an already started connection, which is shared with other consumers
+   * and is not closed by this consumer.
+   *
+   * @param sessionIndex index of the session on the connection, used to keep message ids unique across sessions.
+   * @param sharedSubscriptionName name of the shared topic subscription, or null to create a regular consumer.
+   */
+  public JmsMessageConsumerImpl(InitialContext initialContext, Connection connection,
+                                BasicConfig basicConfig, JmsSourceConfig jmsConfig,
+                                JmsMessageConverter jmsMessageConverter, int sessionIndex,
+                                String sharedSubscriptionName) {
+    this.initialContext = initialContext;
+    this.connectionFactory = null;
+    this.connection = connection;
+    this.basicConfig = basicConfig;
+    this.jmsConfig = jmsConfig;
+    this.jmsMessageConverter = jmsMessageConverter;
+    this.ownsConnection = false;
+    this.messageIdPrefix = jmsConfig.destinationName + "::" + sessionIndex;
+    this.sharedSubscriptionName = sharedSubscriptionName;
   }
 
   @Override
-  public List<Stage.ConfigIssue> init(Source.Context context) {
+  public List<Stage.ConfigIssue> init(ProtoSource.Context context) {
     List<Stage.ConfigIssue> issues = new ArrayList<>();
-    try {
-      if (jmsConfig.connection.useCredentials) {
-        connection = connectionFactory.createConnection(
-            jmsConfig.connection.username.get(),
-            jmsConfig.connection.password.get()
-        );
-      } else {
-        connection = connectionFactory.createConnection();
-      }
-    } catch (JMSException|StageException ex) {
-      if (jmsConfig.connection.useCredentials) {
-        issues.add(context.createConfigIssue(
-            JmsGroups.JMS.name(),
-            "jmsConfig.connectionFactory",
-            JmsErrors.JMS_03,
-            connectionFactory.getClass().getName(),
-            ex.toString()
-        ));
-        LOG.info(Utils.format(JmsErrors.JMS_03.getMessage(), connectionFactory.getClass().getName(), ex.toString()), ex);
-      } else {
-        issues.add(context.createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.connectionFactory", JmsErrors.JMS_02,
-          connectionFactory.getClass().getName(), ex.toString()));
-        LOG.info(Utils.format(JmsErrors.JMS_02.getMessage(), connectionFactory.getClass().getName(), ex.toString())
-          , ex);
-      }
-    }
-    if (issues.isEmpty()) {
-      try {
-        connection.start();
-      } catch (JMSException ex) {
-        issues.add(context.createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.connectionFactory", JmsErrors.JMS_04,
-          ex.toString()));
-        LOG.info(Utils.format(JmsErrors.JMS_04.getMessage(), ex.toString()), ex);
-      }
+    if (ownsConnection) {
+      connection = createConnection(context, connectionFactory, jmsConfig, issues);
     }
     if (issues.isEmpty()) {
       try {
@@ -147,8 +147,14 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
         }
         durableSubscriptionName = durableSubscriptionName.trim();
 
-        // added durable topic consumer support based on durable flag in stage config
-        if (durableSubscription) {
+        if (sharedSubscriptionName != null && destination instanceof Topic) {
+          messageConsumer = createSharedConsumer(
+              (Topic) destination,
+              durableSubscription ? durableSubscriptionName : sharedSubscriptionName,
+              messageSelector.isEmpty() ? null : messageSelector
+          );
+        } else if (durableSubscription) {
+          // added durable topic consumer support based on durable flag in stage config
           messageConsumer = session.createDurableSubscriber((Topic) destination, durableSubscriptionName, messageSelector.isEmpty() ? null: messageSelector, false);
         } else {
           messageConsumer = session.createConsumer(destination, messageSelector.isEmpty() ? null : messageSelector);
@@ -162,8 +168,56 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
     return issues;
   }
 
+  /**
+   * Creates and starts a connection, adding a config issue and returning null when that fails.
+   */
+  static Connection createConnection(
+      ProtoSource.Context context,
+      ConnectionFactory connectionFactory,
+      JmsSourceConfig jmsConfig,
+      List<Stage.ConfigIssue> issues
+  ) {
+    Connection connection = null;
+    try {
+      if (jmsConfig.connection.useCredentials) {
+        connection = connectionFactory.createConnection(
+            jmsConfig.connection.username.get(),
+            jmsConfig.connection.password.get()
+        );
+      } else {
+        connection = connectionFactory.createConnection();
+      }
+    } catch (JMSException|StageException ex) {
+      if (jmsConfig.connection.useCredentials) {
+        issues.add(context.createConfigIssue(
+            JmsGroups.JMS.name(),
+            "jmsConfig.connectionFactory",
+            JmsErrors.JMS_03,
+            connectionFactory.getClass().getName(),
+            ex.toString()
+        ));
+        LOG.info(Utils.format(JmsErrors.JMS_03.getMessage(), connectionFactory.getClass().getName(), ex.toString()), ex);
+      } else {
+        issues.add(context.createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.connectionFactory", JmsErrors.JMS_02,
+          connectionFactory.getClass().getName(), ex.toString()));
+        LOG.info(Utils.format(JmsErrors.JMS_02.getMessage(), connectionFactory.getClass().getName(), ex.toString())
+          , ex);
+      }
+    }
+    if (connection != null) {
+      try {
+        connection.start();
+      } catch (JMSException ex) {
+        issues.add(context.createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.connectionFactory", JmsErrors.JMS_04,
+          ex.toString()));
+        LOG.info(Utils.format(JmsErrors.JMS_04.getMessage(), ex.toString()), ex);
+      }
+    }
+    return connection;
+  }
+
   @Override
-  public int take(BatchMaker batchMaker, Source.Context context, int batchSize, long messageIndex)
+  public int take(BatchMaker batchMaker, ProtoSource.Context context, int batchSize, long messageIndex)
   throws StageException {
     long start = System.currentTimeMillis();
     int numMessagesConsumed = 0;
@@ -177,7 +231,7 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
           if (IS_TRACE_ENABLED) {
             LOG.trace("Got message: {}", message);
           }
-          String messageId = jmsConfig.destinationName + "::" + messageIndex;
+          String messageId = messageIdPrefix + "::" + messageIndex;
           int consumed = jmsMessageConverter.convert(batchMaker, context, messageId, message);
           messageIndex += consumed;
           numMessagesConsumed += consumed;
@@ -216,7 +270,7 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
         LOG.warn("Error closing session: " + ex, ex);
       }
     }
-    if (connection != null) {
+    if (ownsConnection && connection != null) {
       try {
         connection.close();
       } catch (JMSException ex) {
@@ -224,4 +278,28 @@ public class JmsMessageConsumerImpl implements JmsMessageConsumer {
       }
     }
   }
+
+  private MessageConsumer createSharedConsumer(Topic topic, String subscriptionName, String messageSelector)
+      throws JMSException {
+    // Shared subscriptions were added in JMS 2.0 while this library is built against the JMS 1.1 API, so the
+    // methods are looked up on the provider's session.
+    String methodName = jmsConfig.durableSubscription ? CREATE_SHARED_DURABLE_CONSUMER : CREATE_SHARED_CONSUMER;
+    try {
+      Method method = session.getClass().getMethod(methodName, Topic.class, String.class, String.class);
+      return (MessageConsumer) method.invoke(session, topic, subscriptionName, messageSelector);
+    } catch (NoSuchMethodException | IllegalAccessException | AbstractMethodError ex) {
+      throw new JMSException(Utils.format(
+          "Session '{}' does not support JMS 2.0 shared subscriptions: {}",
+          session.getClass().getName(),
+          ex.toString()
+      ));
+    } catch (InvocationTargetException ex) {
+      if (ex.getCause() instanceof JMSException) {
+        throw (JMSException) ex.getCause();
+      }
+      JMSException jmsException = new JMSException(String.valueOf(ex.getCause()));
+      jmsException.initCause(ex.getCause());
+      throw jmsException;
+    }
+  }
 }
@@ -16,7 +16,7 @@
 package com.streamsets.pipeline.stage.origin.jms;
 
 import com.streamsets.pipeline.api.BatchMaker;
-import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.ProtoSource;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 
@@ -25,7 +25,7 @@ import java.util.List;
 
 public interface JmsMessageConverter {
 
-  List<Stage.ConfigIssue> init(Source.Context context);
+  List<Stage.ConfigIssue> init(ProtoSource.Context context);
 
-  int convert(BatchMaker batchMaker, Source.Context context, String messageId, Message message) throws StageException;
+  int convert(BatchMaker batchMaker, ProtoSource.Context context, String messageId, Message message) throws StageException;
 }
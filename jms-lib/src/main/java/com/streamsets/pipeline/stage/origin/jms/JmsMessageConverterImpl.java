@@ -17,10 +17,11 @@ package com.streamsets.pipeline.stage.origin.jms;
 
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.ProtoSource;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.ToErrorContext;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.api.service.dataformats.DataFormatParserService;
 import com.streamsets.pipeline.lib.jms.config.JmsErrors;
@@ -50,14 +51,14 @@ public class JmsMessageConverterImpl implements JmsMessageConverter {
   }
 
   @Override
-  public List<Stage.ConfigIssue> init(Source.Context context) {
+  public List<Stage.ConfigIssue> init(ProtoSource.Context context) {
     this.parserService = context.getService(DataFormatParserService.class);
 
     return Collections.emptyList();
   }
 
   @Override
-  public int convert(BatchMaker batchMaker, Source.Context context, String messageId, Message message)
+  public int convert(BatchMaker batchMaker, ProtoSource.Context context, String messageId, Message message)
     throws StageException {
     byte[] payload = null;
     if (message instanceof TextMessage) {
@@ -99,7 +100,13 @@ public class JmsMessageConverterImpl implements JmsMessageConverter {
     int count = 0;
     if (payload != null) {
       try {
-        for (Record record : ServicesUtil.parseAll(context, context, messageConfig.produceSingleRecordPerMessage, messageId, payload)) {
+        for (Record record : ServicesUtil.parseAll(
+            context,
+            (ToErrorContext) context,
+            messageConfig.produceSingleRecordPerMessage,
+            messageId,
+            payload
+        )) {
           Record.Header header = record.getHeader();
           // Serialize properties as they are
           Enumeration propertyNames = message.getPropertyNames();
@@ -161,7 +168,7 @@ public class JmsMessageConverterImpl implements JmsMessageConverter {
     }
   }
 
-  private void handleException(Source.Context context, String messageId, Exception ex, Record record)
+  private void handleException(ProtoSource.Context context, String messageId, Exception ex, Record record)
     throws StageException {
     switch (context.getOnErrorRecord()) {
       case DISCARD:
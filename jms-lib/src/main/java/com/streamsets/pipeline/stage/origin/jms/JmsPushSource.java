@@ -0,0 +1,232 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jms;
+
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.jms.config.InitialContextFactory;
+import com.streamsets.pipeline.lib.jms.config.JmsErrors;
+import com.streamsets.pipeline.lib.jms.config.JmsGroups;
+import com.streamsets.pipeline.stage.origin.lib.BasicConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Topic;
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class JmsPushSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(JmsPushSource.class);
+  private static final String JMS_THREAD_PREFIX = "JMS Consumer Worker - ";
+  private static final String SESSION_GAUGE_NAME = "JMS Session ";
+  private static final long STATUS_CHECK_INTERVAL_MS = 1000;
+
+  private final BasicConfig basicConfig;
+  private final JmsPushSourceConfig jmsConfig;
+  private final JmsMessageConsumerFactory jmsMessageConsumerFactory;
+  private final JmsMessageConverter jmsMessageConverter;
+  private final InitialContextFactory initialContextFactory;
+  private final List<JmsMessageConsumer> consumers = new ArrayList<>();
+  private final List<Map<String, Object>> gaugeMaps = new ArrayList<>();
+  private InitialContext initialContext;
+  private Connection connection;
+  private ExecutorService executorService;
+  private boolean checkBatchSize = true;
+
+  public JmsPushSource(BasicConfig basicConfig, JmsPushSourceConfig jmsConfig,
+                       JmsMessageConsumerFactory jmsMessageConsumerFactory,
+                       JmsMessageConverter jmsMessageConverter, InitialContextFactory initialContextFactory) {
+    this.basicConfig = basicConfig;
+    this.jmsConfig = jmsConfig;
+    this.jmsMessageConsumerFactory = jmsMessageConsumerFactory;
+    this.jmsMessageConverter = jmsMessageConverter;
+    this.initialContextFactory = initialContextFactory;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = new ArrayList<>();
+    try {
+      initialContext = initialContextFactory.create(JmsSource.getContextProperties(jmsConfig));
+    } catch (NamingException ex) {
+      LOG.info(Utils.format(
+          JmsErrors.JMS_00.getMessage(), jmsConfig.connection.initialContextFactory,
+          jmsConfig.connection.providerURL, ex.toString()), ex);
+      issues.add(getContext().createConfigIssue(
+          JmsGroups.JMS.name(), "jmsConfig.initialContextFactory", JmsErrors.JMS_00,
+          jmsConfig.connection.initialContextFactory, jmsConfig.connection.providerURL, ex.toString()));
+    }
+    ConnectionFactory connectionFactory = null;
+    if (issues.isEmpty()) {
+      try {
+        connectionFactory = (ConnectionFactory) initialContext.lookup(jmsConfig.connection.connectionFactory);
+      } catch (NamingException ex) {
+        LOG.info(Utils.format(JmsErrors.JMS_01.getMessage(), jmsConfig.connection.initialContextFactory,
+            ex.toString()), ex);
+        issues.add(getContext().createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.initialContextFactory",
+            JmsErrors.JMS_01, jmsConfig.connection.connectionFactory, ex.toString()));
+      }
+    }
+    String sharedSubscriptionName = null;
+    if (issues.isEmpty() && isTopic()) {
+      if (jmsConfig.sharedSubscription) {
+        sharedSubscriptionName = jmsConfig.sharedSubscriptionName == null ? "" :
+            jmsConfig.sharedSubscriptionName.trim();
+        if (sharedSubscriptionName.isEmpty() && !jmsConfig.durableSubscription) {
+          issues.add(getContext().createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.sharedSubscriptionName",
+              JmsErrors.JMS_32));
+        }
+      } else if (jmsConfig.numThreads > 1) {
+        // Every non-shared subscriber of a topic receives every message.
+        issues.add(getContext().createConfigIssue(JmsGroups.JMS.name(), "jmsConfig.sharedSubscription",
+            JmsErrors.JMS_31, jmsConfig.destinationName));
+      }
+    }
+    if (issues.isEmpty()) {
+      connection = JmsMessageConsumerImpl.createConnection(getContext(), connectionFactory, jmsConfig, issues);
+    }
+    for (int i = 0; issues.isEmpty() && i < jmsConfig.numThreads; i++) {
+      JmsMessageConsumer consumer = jmsMessageConsumerFactory.create(
+          initialContext,
+          connection,
+          basicConfig,
+          jmsConfig,
+          jmsMessageConverter,
+          i,
+          sharedSubscriptionName
+      );
+      consumers.add(consumer);
+      issues.addAll(consumer.init(getContext()));
+      gaugeMaps.add(getContext().createGauge(SESSION_GAUGE_NAME + i).getValue());
+    }
+    // no dependencies on the above for initialization
+    issues.addAll(jmsMessageConverter.init(getContext()));
+    return issues;
+  }
+
+  private boolean isTopic() {
+    switch (jmsConfig.destinationType) {
+      case TOPIC:
+        return true;
+      case UNKNOWN:
+        try {
+          return initialContext.lookup(jmsConfig.destinationName) instanceof Topic;
+        } catch (NamingException ex) {
+          // Reported when the consumers look up the destination
+          return false;
+        }
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return jmsConfig.numThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    int batchSize = Math.min(basicConfig.maxBatchSize, maxBatchSize);
+    if (!getContext().isPreview() && checkBatchSize && basicConfig.maxBatchSize > maxBatchSize) {
+      getContext().reportError(JmsErrors.JMS_30, maxBatchSize);
+      checkBatchSize = false;
+    }
+
+    executorService = new SafeScheduledExecutorService(consumers.size(), JMS_THREAD_PREFIX);
+    ExecutorCompletionService<Exception> completionService = new ExecutorCompletionService<>(executorService);
+    try {
+      for (int i = 0; i < consumers.size(); i++) {
+        completionService.submit(new JmsConsumerWorker(getContext(), consumers.get(i), batchSize, gaugeMaps.get(i)));
+      }
+      while (!getContext().isStopped()) {
+        checkWorkerStatus(completionService);
+      }
+    } finally {
+      shutdownExecutor();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    shutdownExecutor();
+    for (JmsMessageConsumer consumer : consumers) {
+      consumer.close();
+    }
+    consumers.clear();
+    if (connection != null) {
+      try {
+        connection.close();
+      } catch (JMSException ex) {
+        LOG.warn("Error closing connection: " + ex, ex);
+      }
+    }
+    super.destroy();
+  }
+
+  private void checkWorkerStatus(ExecutorCompletionService<Exception> completionService) throws StageException {
+    try {
+      Future<Exception> future = completionService.poll(STATUS_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      if (future != null) {
+        Exception terminatingException = future.get();
+        if (terminatingException instanceof StageException) {
+          throw (StageException) terminatingException;
+        } else if (terminatingException != null) {
+          throw new StageException(JmsErrors.JMS_33, terminatingException.toString(), terminatingException);
+        }
+      }
+    } catch (InterruptedException ex) {
+      LOG.error("Thread interrupted", ex);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      Throwable cause = Throwables.getRootCause(ex);
+      if (cause instanceof StageException) {
+        throw (StageException) cause;
+      }
+      throw new StageException(JmsErrors.JMS_33, cause.toString(), cause);
+    }
+  }
+
+  private void shutdownExecutor() {
+    if (executorService != null && !executorService.isShutdown()) {
+      LOG.info("Shutting down executor service");
+      executorService.shutdown();
+      try {
+        // Workers finish their current batch within the batch wait time once the pipeline is stopped.
+        long timeout = basicConfig.maxWaitTime + STATUS_CHECK_INTERVAL_MS;
+        if (!executorService.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+          executorService.shutdownNow();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jms;
+
+import com.streamsets.pipeline.api.ConfigDef;
+
+public class JmsPushSourceConfig extends JmsSourceConfig {
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of sessions to open on the destination. Each session feeds its own pipeline runner and " +
+          "commits its own transaction.",
+      displayPosition = 100,
+      displayMode = ConfigDef.DisplayMode.BASIC,
+      group = "JMS",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int numThreads = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Shared Subscription",
+      description = "Share a single topic subscription between all sessions so that each message is read once. " +
+          "Requires a JMS 2.0 provider.",
+      displayPosition = 110,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "JMS"
+  )
+  public boolean sharedSubscription = false;
+
+  @ConfigDef(
+      required = false,
+      type = ConfigDef.Type.STRING,
+      label = "Shared Subscription Name",
+      description = "Name of a non-durable shared subscription. Durable shared subscriptions use the durable " +
+          "subscription name.",
+      displayPosition = 120,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "JMS",
+      dependsOn = "sharedSubscription",
+      triggeredByValue = "true"
+  )
+  public String sharedSubscriptionName;
+}
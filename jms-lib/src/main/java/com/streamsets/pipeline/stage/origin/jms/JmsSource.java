@@ -66,24 +66,7 @@ public class JmsSource extends BaseSource implements OffsetCommitter {
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = new ArrayList<>();
     try {
-      Properties contextProperties = new Properties();
-      contextProperties.setProperty(
-        javax.naming.Context.INITIAL_CONTEXT_FACTORY,
-        jmsConfig.connection.initialContextFactory);
-      contextProperties.setProperty(
-        javax.naming.Context.PROVIDER_URL, jmsConfig.connection.providerURL);
-      if (jmsConfig.connection.initialContextFactory.toLowerCase(Locale.ENGLISH).contains("oracle")) {
-        contextProperties.setProperty("db_url", jmsConfig.connection.providerURL); // workaround for SDC-2068
-      }
-      contextProperties.putAll(jmsConfig.contextProperties);
-      if (jmsConfig.clientID != null) {
-        contextProperties.setProperty("clientID", jmsConfig.clientID);
-      }
-      for (SecurityPropertyBean props : jmsConfig.connection.additionalSecurityProps) {
-        contextProperties.put(props.key, props.value.get());
-      }
-
-      initialContext = initialContextFactory.create(contextProperties);
+      initialContext = initialContextFactory.create(getContextProperties(jmsConfig));
     } catch (NamingException ex) {
       LOG.info(Utils.format(
           JmsErrors.JMS_00.getMessage(), jmsConfig.connection.initialContextFactory,
@@ -116,6 +99,26 @@ public class JmsSource extends BaseSource implements OffsetCommitter {
     return issues;
   }
 
+  static Properties getContextProperties(JmsSourceConfig jmsConfig) throws StageException {
+    Properties contextProperties = new Properties();
+    contextProperties.setProperty(
+      javax.naming.Context.INITIAL_CONTEXT_FACTORY,
+      jmsConfig.connection.initialContextFactory);
+    contextProperties.setProperty(
+      javax.naming.Context.PROVIDER_URL, jmsConfig.connection.providerURL);
+    if (jmsConfig.connection.initialContextFactory.toLowerCase(Locale.ENGLISH).contains("oracle")) {
+      contextProperties.setProperty("db_url", jmsConfig.connection.providerURL); // workaround for SDC-2068
+    }
+    contextProperties.putAll(jmsConfig.contextProperties);
+    if (jmsConfig.clientID != null) {
+      contextProperties.setProperty("clientID", jmsConfig.clientID);
+    }
+    for (SecurityPropertyBean props : jmsConfig.connection.additionalSecurityProps) {
+      contextProperties.put(props.key, props.value.get());
+    }
+    return contextProperties;
+  }
+
   @Override
   public void destroy() {
     if (jmsMessageConsumer != null) {
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.jms;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.service.dataformats.DataFormatParserService;
+import com.streamsets.pipeline.lib.jms.config.DestinationType;
+import com.streamsets.pipeline.lib.jms.config.InitialContextFactory;
+import com.streamsets.pipeline.lib.jms.config.connection.JmsConnection;
+import com.streamsets.pipeline.sdk.PushSourceRunner;
+import com.streamsets.pipeline.sdk.service.SdkJsonDataFormatParserService;
+import com.streamsets.pipeline.stage.origin.lib.BasicConfig;
+import com.streamsets.pipeline.stage.origin.lib.MessageConfig;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.jms.Connection;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TestJmsPushSource {
+  private final static String INITIAL_CONTEXT_FACTORY = "org.apache.activemq.jndi.ActiveMQInitialContextFactory";
+  private final static String CONNECTION_FACTORY = "ConnectionFactory";
+  private final static String BROKER_BIND_URL = "tcp://localhost:61517";
+  private final static String DESTINATION_NAME = "test";
+  private final static String JNDI_PREFIX = "dynamicQueues/";
+
+  private BrokerService broker;
+  private Connection connection;
+  private BasicConfig basicConfig;
+  private MessageConfig messageConfig;
+  private JmsPushSourceConfig jmsConfig;
+
+  @Before
+  public void setUp() throws Exception {
+    File baseDir = Files.createTempDir();
+    File tmpDir = new File(baseDir, "tmp");
+    Assert.assertTrue(tmpDir.mkdir());
+
+    broker = new BrokerService();
+    broker.addConnector(BROKER_BIND_URL);
+    broker.setTmpDataDirectory(tmpDir);
+    broker.setDataDirectoryFile(new File(baseDir, "data"));
+    broker.setPersistent(false);
+    broker.start();
+
+    basicConfig = new BasicConfig();
+    basicConfig.maxBatchSize = 10;
+    basicConfig.maxWaitTime = 500;
+    messageConfig = new MessageConfig();
+    jmsConfig = new JmsPushSourceConfig();
+    jmsConfig.connection = new JmsConnection();
+    jmsConfig.connection.useCredentials = false;
+    jmsConfig.connection.initialContextFactory = INITIAL_CONTEXT_FACTORY;
+    jmsConfig.connection.connectionFactory = CONNECTION_FACTORY;
+    jmsConfig.connection.providerURL = BROKER_BIND_URL;
+    jmsConfig.destinationName = JNDI_PREFIX + DESTINATION_NAME;
+
+    connection = new ActiveMQConnectionFactory(BROKER_BIND_URL).createConnection();
+    connection.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (connection != null) {
+      connection.close();
+    }
+    if (broker != null) {
+      broker.stop();
+    }
+  }
+
+  private void putQueue(List<String> events) throws Exception {
+    Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+    MessageProducer producer = session.createProducer(session.createQueue(DESTINATION_NAME));
+    for (String event : events) {
+      producer.send(session.createTextMessage(event));
+    }
+    session.commit();
+    session.close();
+  }
+
+  private PushSourceRunner createRunner() {
+    JmsPushSource origin = new JmsPushSource(basicConfig, jmsConfig, new JmsMessageConsumerFactoryImpl(),
+        new JmsMessageConverterImpl(messageConfig), new InitialContextFactory());
+    return new PushSourceRunner.Builder(JmsDPushSource.class, origin)
+        .addOutputLane("lane")
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .addService(DataFormatParserService.class, new SdkJsonDataFormatParserService())
+        .build();
+  }
+
+  private void runInit(String expectedError) {
+    PushSourceRunner runner = createRunner();
+    try {
+      runner.runInit();
+      Assert.fail();
+    } catch (StageException ex) {
+      Assert.assertTrue(ex.getMessage(), ex.getMessage().contains(expectedError + " "));
+    }
+  }
+
+  @Test
+  public void testMultipleSessions() throws Exception {
+    int numRecords = 100;
+    List<String> messages = Lists.newArrayList();
+    for (int i = 0; i < numRecords; i++) {
+      messages.add(String.format("{ \"i\": %d}", i));
+    }
+    putQueue(messages);
+
+    jmsConfig.numThreads = 3;
+    PushSourceRunner runner = createRunner();
+    runner.runInit();
+    Set<Integer> received = Collections.synchronizedSet(new HashSet<>());
+    List<String> recordIds = Collections.synchronizedList(Lists.newArrayList());
+    try {
+      runner.runProduce(new HashMap<>(), 10, output -> {
+        for (Record record : output.getRecords().get("lane")) {
+          Assert.assertTrue(received.add(record.get("/i").getValueAsInteger()));
+          recordIds.add(record.getHeader().getSourceId());
+        }
+        if (received.size() == numRecords) {
+          runner.setStop();
+        }
+      });
+      runner.waitOnProduce();
+    } finally {
+      runner.runDestroy();
+    }
+    Assert.assertEquals(numRecords, received.size());
+    Assert.assertEquals(numRecords, new HashSet<>(recordIds).size());
+
+    // All sessions committed their batches
+    Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+    Queue queue = session.createQueue(DESTINATION_NAME);
+    MessageConsumer consumer = session.createConsumer(queue);
+    Assert.assertNull(consumer.receive(500));
+    session.close();
+  }
+
+  @Test
+  public void testTopicRequiresSharedSubscription() throws Exception {
+    jmsConfig.numThreads = 2;
+    jmsConfig.destinationType = DestinationType.TOPIC;
+    jmsConfig.destinationName = DESTINATION_NAME;
+    runInit("JMS_31");
+  }
+
+  @Test
+  public void testSharedSubscriptionName() throws Exception {
+    jmsConfig.numThreads = 2;
+    jmsConfig.destinationType = DestinationType.TOPIC;
+    jmsConfig.destinationName = DESTINATION_NAME;
+    jmsConfig.sharedSubscription = true;
+    runInit("JMS_32");
+  }
+
+  @Test
+  public void testSharedSubscriptionNotSupported() throws Exception {
+    // ActiveMQ 5 sessions implement JMS 1.1 only
+    jmsConfig.numThreads = 2;
+    jmsConfig.destinationType = DestinationType.TOPIC;
+    jmsConfig.destinationName = DESTINATION_NAME;
+    jmsConfig.sharedSubscription = true;
+    jmsConfig.sharedSubscriptionName = "sub";
+    runInit("JMS_11");
+  }
+}
@@ -27,11 +27,13 @@ import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.processor.scripting.ProcessingModeChooserValues;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordTypeValueChooser;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScopeValueChooser;
 
 import java.util.Map;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "Jython Evaluator",
     description = "Processes records using Jython",
     icon = "jython.png",
@@ -121,9 +123,47 @@ public class JythonDProcessor extends DProcessor {
   )
   public Map<String, String> userParams;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of script engines, each with its own compiled script, that process every batch in " +
+          "parallel. The batch is split in contiguous shards and output records keep the original order.",
+      displayPosition = 90,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      min = 1,
+      max = Integer.MAX_VALUE,
+      group = "ADVANCED"
+  )
+  public int numThreads = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "SHARED",
+      label = "State Scope",
+      description = "When using several threads, whether the state object is shared by all of them or each thread " +
+          "has its own state initialized by the init script",
+      displayPosition = 100,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ADVANCED"
+  )
+  @ValueChooserModel(ScriptStateScopeValueChooser.class)
+  public ScriptStateScope stateScope = ScriptStateScope.SHARED;
+
   @Override
   protected Processor createProcessor() {
-    return new JythonProcessor(processingMode, script, initScript, destroyScript, scriptRecordType, userParams);
+    return new JythonProcessor(
+        processingMode,
+        script,
+        initScript,
+        destroyScript,
+        scriptRecordType,
+        userParams,
+        numThreads,
+        stateScope
+    );
   }
 
 }
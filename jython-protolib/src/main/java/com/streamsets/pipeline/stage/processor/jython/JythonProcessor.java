@@ -22,6 +22,7 @@ import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.util.scripting.ScriptObjectFactory;
 import com.streamsets.pipeline.stage.util.scripting.ScriptTypedNullObject;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
 import org.python.core.PyDictionary;
 import org.python.core.PyList;
 import org.slf4j.Logger;
@@ -48,7 +49,14 @@ public class JythonProcessor extends AbstractScriptingProcessor {
 
   public JythonProcessor(ProcessingMode processingMode, String script, String initScript, String destroyScript,
                          ScriptRecordType scriptRecordType, Map<String, String> userParams) {
-    super(LOG, JYTHON_ENGINE, Groups.JYTHON.name(), processingMode, script, initScript, destroyScript, userParams);
+    this(processingMode, script, initScript, destroyScript, scriptRecordType, userParams, 1, ScriptStateScope.SHARED);
+  }
+
+  public JythonProcessor(ProcessingMode processingMode, String script, String initScript, String destroyScript,
+                         ScriptRecordType scriptRecordType, Map<String, String> userParams, int numThreads,
+                         ScriptStateScope stateScope) {
+    super(LOG, JYTHON_ENGINE, Groups.JYTHON.name(), processingMode, script, initScript, destroyScript, userParams,
+        numThreads, stateScope);
     this.scriptRecordType = scriptRecordType;
   }
 
@@ -228,6 +236,12 @@ public class JythonProcessor extends AbstractScriptingProcessor {
       return new PyDictionaryMapInfo(isListMap);
     }
 
+    @Override
+    public Object createConcurrentMap() {
+      // Every PyDictionaryMapInfo is backed by a ConcurrentLinkedHashMap, whose operations are all synchronized
+      return new PyDictionaryMapInfo(false);
+    }
+
     @Override
     public Object createArray(List elements) {
       PyList list = new PyList();
@@ -22,11 +22,15 @@ import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageBehaviorFlags;
 import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.sdk.ProcessorRunner;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.pipeline.stage.processor.scripting.ProcessingMode;
 import com.streamsets.pipeline.stage.processor.scripting.ScriptingProcessorTestUtil;
 import com.streamsets.pipeline.stage.util.scripting.config.ScriptRecordType;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -626,4 +630,124 @@ public class TestJythonProcessor {
     );
     ScriptingProcessorTestUtil.verifyNativeNullRootValue(JythonDProcessor.class, processor);
   }
+
+  @Test
+  public void testLazyNativeRecord() throws Exception {
+    String script = "for record in sdc.records:\n" +
+        "  record.value['nested']['changed'] = 5\n" +
+        "  record.value['added'] = 'added'\n" +
+        "  sdc.output.write(record)\n";
+
+    Processor processor = new JythonProcessor(
+      ProcessingMode.RECORD,
+      script,
+      "",
+      "",
+      ScriptRecordType.LAZY_NATIVE_OBJECTS,
+      Collections.emptyMap()
+    );
+    ScriptingProcessorTestUtil.verifyLazyNativeRecord(JythonDProcessor.class, processor);
+  }
+
+  @Test
+  public void testParallelPerEngineState() throws Exception {
+    String initScript = "sdc.state['count'] = 0\n";
+    String script = "for record in sdc.records:\n" +
+        "  sdc.state['count'] = sdc.state['count'] + 1\n" +
+        "  record.value['count'] = sdc.state['count']\n" +
+        "  sdc.output.write(record)\n";
+
+    Processor processor = new JythonProcessor(
+      ProcessingMode.BATCH,
+      script,
+      initScript,
+      "",
+      ScriptRecordType.NATIVE_OBJECTS,
+      Collections.emptyMap(),
+      4,
+      ScriptStateScope.PER_ENGINE
+    );
+    ScriptingProcessorTestUtil.verifyParallelPerEngineState(JythonDProcessor.class, processor);
+  }
+
+  @Test
+  public void testParallelShardFailure() throws Exception {
+    String script = "import time\n" +
+        "first = sdc.records[0]\n" +
+        "if first.value['index'] < 0:\n" +
+        "  first.value['done'] = len(sdc.state)\n" +
+        "  sdc.output.write(first)\n" +
+        "elif first.value['index'] == 0:\n" +
+        "  time.sleep(0.1)\n" +
+        "  raise Exception('first shard fails')\n" +
+        "else:\n" +
+        "  time.sleep(0.5)\n" +
+        "  sdc.state[str(first.value['index'])] = True\n";
+
+    Processor processor = new JythonProcessor(
+      ProcessingMode.BATCH,
+      script,
+      "",
+      "",
+      ScriptRecordType.NATIVE_OBJECTS,
+      Collections.emptyMap(),
+      4,
+      ScriptStateScope.SHARED
+    );
+    ScriptingProcessorTestUtil.verifyParallelShardFailure(JythonDProcessor.class, processor);
+  }
+
+  // Not a functional test, prints the throughput of a CPU bound script for an increasing number of threads
+  @Test
+  @Ignore
+  public void testParallelScaling() throws Exception {
+    String script = "for record in sdc.records:\n" +
+        "  total = 0\n" +
+        "  for i in range(2000):\n" +
+        "    total = total + i * record.value['index']\n" +
+        "  record.value['total'] = total\n" +
+        "  sdc.output.write(record)\n";
+
+    List<Record> input = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      Record record = RecordCreator.create();
+      Map<String, Field> map = new HashMap<>();
+      map.put("index", Field.create(i));
+      record.set(Field.create(map));
+      input.add(record);
+    }
+
+    for (int threads : new int[]{1, 2, 4, 8}) {
+      Processor processor = new JythonProcessor(
+          ProcessingMode.BATCH,
+          script,
+          "",
+          "",
+          ScriptRecordType.NATIVE_OBJECTS,
+          Collections.emptyMap(),
+          threads,
+          ScriptStateScope.SHARED
+      );
+      ProcessorRunner runner = new ProcessorRunner.Builder(JythonDProcessor.class, processor)
+          .addOutputLane("lane")
+          .build();
+      runner.runInit();
+      try {
+        // Warm up the engines before measuring
+        runner.runProcess(input);
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+          runner.runProcess(input);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(Utils.format(
+            "{} thread(s): {} records/sec",
+            threads,
+            5L * input.size() * 1000 / Math.max(1, elapsedMillis)
+        ));
+      } finally {
+        runner.runDestroy();
+      }
+    }
+  }
 }
@@ -85,6 +85,7 @@ public enum KafkaErrors implements ErrorCode {
   KAFKA_75("Inherited timestamps from Kafka are enabled but not supported in this Kafka version."),
   KAFKA_76("Auto Offset Reset = 'Timestamp' can only be used for Kafka version >= 0.10.1.0"),
   KAFKA_77("Invalid key serializer '{}' used for the Avro message key format"),
+  KAFKA_78("Error serializing records in parallel: {}"),
 
   KAFKA_201("Error handling message key for partition {}, offset {}: {}"),
   KAFKA_202("{} when serializing message key to bytes: {}"),
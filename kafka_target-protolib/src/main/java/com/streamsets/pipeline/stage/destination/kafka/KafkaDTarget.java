@@ -15,6 +15,7 @@
  */
 package com.streamsets.pipeline.stage.destination.kafka;
 
+import com.streamsets.pipeline.api.ConfigDef;
 import com.streamsets.pipeline.api.ConfigDefBean;
 import com.streamsets.pipeline.api.ConfigGroups;
 import com.streamsets.pipeline.api.ExecutionMode;
@@ -26,7 +27,7 @@ import com.streamsets.pipeline.kafka.api.KafkaDestinationGroups;
 import com.streamsets.pipeline.stage.destination.lib.ToOriginResponseConfig;
 
 @StageDef(
-  version = 10,
+  version = 11,
   label = "Kafka Producer",
   description = "Writes data to Kafka",
   icon = "kafka.png",
@@ -53,8 +54,23 @@ public class KafkaDTarget extends DTarget {
   @ConfigDefBean(groups = {"RESPONSE"})
   public ToOriginResponseConfig responseConf = new ToOriginResponseConfig();
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Serialization Threads",
+      description = "Number of threads serializing records when writing one message per record. Messages are still " +
+          "sent in batch order.",
+      defaultValue = "1",
+      min = 1,
+      max = 64,
+      displayPosition = 460,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "KAFKA"
+  )
+  public int serializationThreads = 1;
+
   @Override
   protected Target createTarget() {
-    return new KafkaTarget(conf, responseConf);
+    return new KafkaTarget(conf, responseConf, serializationThreads);
   }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorException;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.ResettableDataGenerator;
+import com.streamsets.pipeline.lib.generator.avro.BaseAvroDataGenerator;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serializes records to Kafka messages, one message per record.
+ * <p/>
+ * Generators that are resettable are kept, together with their output buffer, one per schema (only Avro with the
+ * schema in the record header can see more than one), other generators are created per record over a reused buffer.
+ * Not thread safe, each serialization thread uses its own instance.
+ */
+class KafkaRecordSerializer implements Closeable {
+  // Upper bound of kept generators, all are dropped when a new schema would go over it
+  static final int MAX_GENERATORS = 100;
+  private static final String NO_SCHEMA = "";
+
+  private static class Output {
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private ResettableDataGenerator generator;
+  }
+
+  private final DataGeneratorFactory factory;
+  private final boolean schemaInHeader;
+  private final ByteArrayOutputStream buffer;
+  private final Map<String, Output> outputs;
+  private boolean resettable;
+
+  KafkaRecordSerializer(DataGeneratorFactory factory, boolean schemaInHeader) {
+    this.factory = factory;
+    this.schemaInHeader = schemaInHeader;
+    this.buffer = new ByteArrayOutputStream(1024);
+    this.outputs = new HashMap<>();
+    this.resettable = true;
+  }
+
+  byte[] serialize(Record record) throws IOException, DataGeneratorException {
+    if (!resettable) {
+      return serializeWithNewGenerator(record);
+    }
+
+    String schemaKey = schemaInHeader
+        ? record.getHeader().getAttribute(BaseAvroDataGenerator.AVRO_SCHEMA_HEADER)
+        : NO_SCHEMA;
+    if (schemaKey == null) {
+      // Let a fresh generator report the missing schema
+      return serializeWithNewGenerator(record);
+    }
+
+    Output output = outputs.get(schemaKey);
+    if (output == null) {
+      output = new Output();
+      DataGenerator generator = factory.getGenerator(output.buffer);
+      if (!(generator instanceof ResettableDataGenerator)) {
+        resettable = false;
+        IOUtils.closeQuietly(generator);
+        return serializeWithNewGenerator(record);
+      }
+      if (outputs.size() >= MAX_GENERATORS) {
+        close();
+      }
+      output.generator = (ResettableDataGenerator) generator;
+      outputs.put(schemaKey, output);
+    }
+
+    boolean success = false;
+    try {
+      output.generator.write(record);
+      output.generator.flush();
+      byte[] bytes = output.buffer.toByteArray();
+      output.buffer.reset();
+      output.generator.reset();
+      success = true;
+      return bytes;
+    } finally {
+      if (!success) {
+        // State of the generator is unknown, start over with a new one
+        outputs.remove(schemaKey);
+        IOUtils.closeQuietly(output.generator);
+      }
+    }
+  }
+
+  private byte[] serializeWithNewGenerator(Record record) throws IOException, DataGeneratorException {
+    buffer.reset();
+    try (DataGenerator generator = factory.getGenerator(buffer)) {
+      generator.write(record);
+    }
+    return buffer.toByteArray();
+  }
+
+  int getGeneratorCount() {
+    return outputs.size();
+  }
+
+  @Override
+  public void close() {
+    for (Output output : outputs.values()) {
+      IOUtils.closeQuietly(output.generator);
+    }
+    outputs.clear();
+  }
+}
@@ -15,6 +15,9 @@
  */
 package com.streamsets.pipeline.stage.destination.kafka;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.StageException;
@@ -24,11 +27,14 @@ import com.streamsets.pipeline.api.lineage.EndPointType;
 import com.streamsets.pipeline.api.lineage.LineageEvent;
 import com.streamsets.pipeline.api.lineage.LineageEventType;
 import com.streamsets.pipeline.api.lineage.LineageSpecificAttribute;
+import com.streamsets.pipeline.config.DataFormat;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
 import com.streamsets.pipeline.kafka.api.PartitionStrategy;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
 import com.streamsets.pipeline.lib.generator.DataGenerator;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
 import com.streamsets.pipeline.lib.kafka.exception.KafkaConnectionException;
+import com.streamsets.pipeline.lib.util.AsyncAckConstants;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.destination.lib.ResponseType;
@@ -45,22 +51,41 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 public class KafkaTarget extends BaseTarget {
 
   private static final Logger LOG = LoggerFactory.getLogger(KafkaTarget.class);
 
+  // Serialization threads only get chunks of at least this many records
+  static final int MIN_RECORDS_PER_SERIALIZATION_THREAD = 100;
+
   private final KafkaTargetConfig conf;
   private final ToOriginResponseConfig responseConf;
+  private final int serializationThreads;
 
   private long recordCounter = 0;
   private SdcKafkaProducer kafkaProducer;
   private ErrorRecordHandler errorRecordHandler;
   private Set<String> accessedTopic;
+  private KafkaRecordSerializer[] serializers;
+  private ExecutorService serializationExecutor;
+  private Timer serializationTimer;
+  private Histogram bytesPerRecordHistogram;
 
   public KafkaTarget(KafkaTargetConfig conf, ToOriginResponseConfig responseConf) {
+    this(conf, responseConf, 1);
+  }
+
+  public KafkaTarget(KafkaTargetConfig conf, ToOriginResponseConfig responseConf, int serializationThreads) {
     this.conf = conf;
     this.responseConf = responseConf;
+    this.serializationThreads = Math.max(1, serializationThreads);
   }
 
   @Override
@@ -72,6 +97,26 @@ public class KafkaTarget extends BaseTarget {
     kafkaProducer = conf.getKafkaProducer();
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
     accessedTopic = new HashSet<>();
+    if (issues.isEmpty() && !conf.singleMessagePerBatch) {
+      boolean schemaInHeader = conf.dataFormat == DataFormat.AVRO
+          && conf.dataGeneratorFormatConfig.avroSchemaSource == DestinationAvroSchemaSource.HEADER;
+      serializers = new KafkaRecordSerializer[serializationThreads];
+      for (int i = 0; i < serializationThreads; i++) {
+        serializers[i] = new KafkaRecordSerializer(
+            conf.dataGeneratorFormatConfig.getDataGeneratorFactory(),
+            schemaInHeader
+        );
+      }
+      if (serializationThreads > 1) {
+        // The calling thread serializes a chunk as well
+        serializationExecutor = Executors.newFixedThreadPool(
+            serializationThreads - 1,
+            new ThreadFactoryBuilder().setNameFormat("Kafka Producer Serialization - %d").setDaemon(true).build()
+        );
+      }
+      serializationTimer = getContext().createTimer("Serialization Time");
+      bytesPerRecordHistogram = getContext().createHistogram("Serialized Bytes Per Record");
+    }
     return issues;
   }
 
@@ -81,7 +126,7 @@ public class KafkaTarget extends BaseTarget {
     if (conf.singleMessagePerBatch) {
       writeOneMessagePerBatch(batch, responseRecords);
     } else {
-      writeOneMessagePerRecord(batch, responseRecords);
+      writeOneMessagePerRecord(batch, responseRecords, getAsyncAcknowledger());
     }
 
     if (this.responseConf.sendResponseToOrigin) {
@@ -221,15 +266,37 @@ public class KafkaTarget extends BaseTarget {
     }
   }
 
+  /**
+   * Returns the acknowledger of the pipeline runner if the batch can be acknowledged asynchronously, null otherwise.
+   * Response records need the broker responses before the batch ends, so sending a response disables it.
+   */
   @SuppressWarnings("unchecked")
-  private void writeOneMessagePerRecord(Batch batch, List<Record> responseRecords) throws StageException {
+  private Consumer<CompletionStage<?>> getAsyncAcknowledger() {
+    if (responseConf.sendResponseToOrigin) {
+      return null;
+    }
+    Map<String, Object> runnerSharedMap = getContext().getStageRunnerSharedMap();
+    return (Consumer<CompletionStage<?>>) runnerSharedMap.get(AsyncAckConstants.ACKNOWLEDGER_KEY);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void writeOneMessagePerRecord(
+      Batch batch,
+      List<Record> responseRecords,
+      Consumer<CompletionStage<?>> asyncAcknowledger
+  ) throws StageException {
     long count = 0;
+    long bytes = 0;
     Iterator<Record> records = batch.getRecords();
     List<Record> recordList = new ArrayList<>();
-
     while (records.hasNext()) {
-      Record record = records.next();
-      recordList.add(record);
+      recordList.add(records.next());
+    }
+    Object[] messages = serializeRecords(recordList);
+
+    // Messages are enqueued in batch order from this thread, so the per partition order doesn't depend on serialization
+    for (int i = 0; i < recordList.size(); i++) {
+      Record record = recordList.get(i);
       try {
         String topic = conf.getTopic(record);
         Object messageKey = conf.getMessageKey(record);
@@ -239,8 +306,10 @@ public class KafkaTarget extends BaseTarget {
           messageKey = conf.getPartitionKey(record, topic);
         }
 
-        kafkaProducer.enqueueMessage(topic, serializeRecord(record), messageKey);
+        byte[] message = getMessage(messages[i]);
+        kafkaProducer.enqueueMessage(topic, message, messageKey);
         count++;
+        bytes += message.length;
         sendLineageEventIfNeeded(topic);
       } catch (KafkaConnectionException ex) {
         // Kafka connection exception is thrown when the client cannot connect to the list of brokers
@@ -267,6 +336,17 @@ public class KafkaTarget extends BaseTarget {
         );
       }
     }
+    if (count > 0) {
+      bytesPerRecordHistogram.update(bytes / count);
+    }
+    if (asyncAcknowledger != null) {
+      // The pipeline commits the offset once the brokers acknowledged all messages, a failed send (including messages
+      // that are too large) fails the pipeline instead of sending the records to error
+      asyncAcknowledger.accept(kafkaProducer.writeAsync(getContext()));
+      recordCounter += count;
+      LOG.debug("Sent {} records in this batch.", count);
+      return;
+    }
     try {
       responseRecords.addAll(kafkaProducer.write(getContext()));
     } catch (StageException ex) {
@@ -294,17 +374,85 @@ public class KafkaTarget extends BaseTarget {
     LOG.debug("Wrote {} records in this batch.", count);
   }
 
-  private Object serializeRecord(Record record) throws StageException, IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-    DataGenerator generator = conf.dataGeneratorFormatConfig.getDataGeneratorFactory().getGenerator(baos);
-    generator.write(record);
-    generator.close();
-    return baos.toByteArray();
+  /**
+   * Serializes the records, spreading them over the serialization threads in contiguous chunks when there are enough of
+   * them. Each returned entry is either the message or the exception that serializing the record failed with.
+   */
+  private Object[] serializeRecords(List<Record> recordList) throws StageException {
+    Object[] messages = new Object[recordList.size()];
+    int chunks = Math.min(
+        serializers.length,
+        (recordList.size() + MIN_RECORDS_PER_SERIALIZATION_THREAD - 1) / MIN_RECORDS_PER_SERIALIZATION_THREAD
+    );
+    try (Timer.Context ignored = serializationTimer.time()) {
+      if (chunks <= 1) {
+        serializeChunk(serializers[0], recordList, messages, 0, recordList.size());
+        return messages;
+      }
+
+      int chunkSize = (recordList.size() + chunks - 1) / chunks;
+      List<Future<?>> futures = new ArrayList<>(chunks - 1);
+      for (int i = 1; i < chunks; i++) {
+        KafkaRecordSerializer serializer = serializers[i];
+        int from = i * chunkSize;
+        int to = Math.min(recordList.size(), from + chunkSize);
+        futures.add(serializationExecutor.submit(() -> serializeChunk(serializer, recordList, messages, from, to)));
+      }
+      serializeChunk(serializers[0], recordList, messages, 0, chunkSize);
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new StageException(KafkaErrors.KAFKA_78, ex.toString(), ex);
+        } catch (ExecutionException ex) {
+          if (ex.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) ex.getCause();
+          }
+          throw new StageException(KafkaErrors.KAFKA_78, ex.getCause().toString(), ex.getCause());
+        }
+      }
+    }
+    return messages;
+  }
+
+  private static void serializeChunk(
+      KafkaRecordSerializer serializer,
+      List<Record> recordList,
+      Object[] messages,
+      int from,
+      int to
+  ) {
+    for (int i = from; i < to; i++) {
+      try {
+        messages[i] = serializer.serialize(recordList.get(i));
+      } catch (StageException | IOException ex) {
+        messages[i] = ex;
+      }
+    }
+  }
+
+  private static byte[] getMessage(Object message) throws StageException, IOException {
+    if (message instanceof StageException) {
+      throw (StageException) message;
+    }
+    if (message instanceof IOException) {
+      throw (IOException) message;
+    }
+    return (byte[]) message;
   }
 
   @Override
   public void destroy() {
     LOG.info("Wrote {} number of records to Kafka Broker", recordCounter);
+    if (serializationExecutor != null) {
+      serializationExecutor.shutdownNow();
+    }
+    if (serializers != null) {
+      for (KafkaRecordSerializer serializer : serializers) {
+        serializer.close();
+      }
+    }
     conf.destroy(getContext());
   }
 
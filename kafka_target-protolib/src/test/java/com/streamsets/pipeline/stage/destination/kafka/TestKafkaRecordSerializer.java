@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.destination.kafka;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.config.DestinationAvroSchemaSource;
+import com.streamsets.pipeline.lib.generator.DataGenerator;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactory;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFactoryBuilder;
+import com.streamsets.pipeline.lib.generator.DataGeneratorFormat;
+import com.streamsets.pipeline.lib.generator.avro.BaseAvroDataGenerator;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.INCLUDE_SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_KEY;
+import static com.streamsets.pipeline.lib.util.AvroSchemaHelper.SCHEMA_SOURCE_KEY;
+
+public class TestKafkaRecordSerializer {
+
+  private static final String SCHEMA = "{\"type\": \"record\", \"name\": \"r\", \"fields\": [" +
+      "{\"name\": \"name\", \"type\": \"string\"}, {\"name\": \"age\", \"type\": \"int\"}]}";
+  private static final String OTHER_SCHEMA = "{\"type\": \"record\", \"name\": \"r\", \"fields\": [" +
+      "{\"name\": \"name\", \"type\": \"string\"}]}";
+
+  private static Stage.Context createContext() {
+    return ContextInfoCreator.createTargetContext("i", false, OnRecordError.TO_ERROR);
+  }
+
+  private static Record createRecord(String name, int age) {
+    LinkedHashMap<String, Field> map = new LinkedHashMap<>();
+    map.put("name", Field.create(name));
+    map.put("age", Field.create(age));
+    Record record = RecordCreator.create();
+    record.set(Field.createListMap(map));
+    return record;
+  }
+
+  private static byte[] serializeWithNewGenerator(DataGeneratorFactory factory, Record record) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataGenerator generator = factory.getGenerator(baos)) {
+      generator.write(record);
+    }
+    return baos.toByteArray();
+  }
+
+  @Test
+  public void testAvroReusesGenerator() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(createContext(), DataGeneratorFormat.AVRO)
+        .setConfig(SCHEMA_KEY, SCHEMA)
+        .setConfig(INCLUDE_SCHEMA_KEY, false)
+        .build();
+
+    try (KafkaRecordSerializer serializer = new KafkaRecordSerializer(factory, false)) {
+      for (int i = 0; i < 10; i++) {
+        Record record = createRecord("name" + i, i);
+        Assert.assertArrayEquals(serializeWithNewGenerator(factory, record), serializer.serialize(record));
+      }
+      Assert.assertEquals(1, serializer.getGeneratorCount());
+    }
+  }
+
+  @Test
+  public void testAvroSchemaInHeader() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(createContext(), DataGeneratorFormat.AVRO)
+        .setConfig(SCHEMA_SOURCE_KEY, DestinationAvroSchemaSource.HEADER)
+        .setConfig(INCLUDE_SCHEMA_KEY, false)
+        .build();
+
+    try (KafkaRecordSerializer serializer = new KafkaRecordSerializer(factory, true)) {
+      for (int i = 0; i < 10; i++) {
+        Record record = createRecord("name" + i, i);
+        record.getHeader().setAttribute(BaseAvroDataGenerator.AVRO_SCHEMA_HEADER, (i % 2 == 0) ? SCHEMA : OTHER_SCHEMA);
+        Assert.assertArrayEquals(serializeWithNewGenerator(factory, record), serializer.serialize(record));
+      }
+      // one generator per schema
+      Assert.assertEquals(2, serializer.getGeneratorCount());
+    }
+  }
+
+  @Test
+  public void testNotResettableGenerator() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(createContext(), DataGeneratorFormat.JSON).build();
+
+    try (KafkaRecordSerializer serializer = new KafkaRecordSerializer(factory, false)) {
+      for (int i = 0; i < 10; i++) {
+        Record record = createRecord("name" + i, i);
+        Assert.assertArrayEquals(serializeWithNewGenerator(factory, record), serializer.serialize(record));
+      }
+      Assert.assertEquals(0, serializer.getGeneratorCount());
+    }
+  }
+
+  @Test
+  public void testFailedRecordDropsGenerator() throws Exception {
+    DataGeneratorFactory factory = new DataGeneratorFactoryBuilder(createContext(), DataGeneratorFormat.AVRO)
+        .setConfig(SCHEMA_KEY, SCHEMA)
+        .setConfig(INCLUDE_SCHEMA_KEY, false)
+        .build();
+
+    try (KafkaRecordSerializer serializer = new KafkaRecordSerializer(factory, false)) {
+      serializer.serialize(createRecord("a", 1));
+      Record invalid = RecordCreator.create();
+      invalid.set(Field.create("not a map"));
+      try {
+        serializer.serialize(invalid);
+        Assert.fail();
+      } catch (Exception ex) {
+        // expected
+      }
+      Assert.assertEquals(0, serializer.getGeneratorCount());
+
+      Record record = createRecord("b", 2);
+      Assert.assertArrayEquals(serializeWithNewGenerator(factory, record), serializer.serialize(record));
+    }
+  }
+}
@@ -345,4 +345,22 @@ public class TestKafkaTargetUpgrader {
     UpgraderTestUtils.assertExists(configs, kafkaMechanismPath, "PLAIN");
     UpgraderTestUtils.assertExists(configs, stageConfigPath + ".overrideConfigurations", false);
   }
+
+  @Test
+  public void testV10toV11() {
+    final URL yamlResource = ClassLoader.getSystemClassLoader().getResource("upgrader/KafkaDTarget.yaml");
+    final SelectorStageUpgrader upgrader = new SelectorStageUpgrader(
+        "stage",
+        new KafkaTargetUpgrader(),
+        yamlResource
+    );
+    List<Config> configs = new ArrayList<>();
+    StageUpgrader.Context context = Mockito.mock(StageUpgrader.Context.class);
+    Mockito.doReturn(10).when(context).getFromVersion();
+    Mockito.doReturn(11).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+
+    UpgraderTestUtils.assertExists(configs, "serializationThreads", 1);
+  }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kudulookup;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.stage.processor.kv.FieldRowsCacheCodec;
+import com.streamsets.pipeline.stage.processor.kv.PersistentCacheCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Persistent cache codec for the Kudu Lookup. Keys are the table name plus the typed values of the key columns,
+ * items are written with the field encoding of {@link FieldRowsCacheCodec}.
+ *
+ * Only keys with at least one row are persisted: default items are built from the configuration and are
+ * retried when retry on cache miss is enabled.
+ */
+public class KuduLookupCacheCodec implements PersistentCacheCodec<KuduLookupKey, List<LookupItem>> {
+  private static final int FORMAT_VERSION = 1;
+
+  @Override
+  public byte[] encodeKey(KuduLookupKey key) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeString(out, key.tableName);
+      out.writeInt(key.columns.size());
+      // key columns come in a hash map, sort them so that equal keys are always encoded the same way
+      for (Map.Entry<String, Field> column : new TreeMap<>(key.columns).entrySet()) {
+        Field field = column.getValue();
+        writeString(out, column.getKey());
+        writeString(out, field.getType().name());
+        out.writeBoolean(field.getValue() != null);
+        if (field.getValue() != null) {
+          writeString(out, formatKeyValue(field.getValue()));
+        }
+      }
+    } catch (IOException e) {
+      // can't happen writing to memory
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public boolean isPersistent(List<LookupItem> items) {
+    if (items.isEmpty()) {
+      return false;
+    }
+    for (LookupItem item : items) {
+      if (item.defaultItem) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public byte[] encodeValue(List<LookupItem> items) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT_VERSION);
+      out.writeInt(items.size());
+      for (LookupItem item : items) {
+        FieldRowsCacheCodec.writeFieldMap(out, item.values);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public List<LookupItem> decodeValue(byte[] bytes) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int version = in.readByte();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported persistent cache format version: " + version);
+      }
+      int count = in.readInt();
+      List<LookupItem> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        items.add(new LookupItem(FieldRowsCacheCodec.readFieldMap(in, new LinkedHashMap<>()), false));
+      }
+      return items;
+    }
+  }
+
+  private static String formatKeyValue(Object value) {
+    if (value instanceof byte[]) {
+      return Base64.getEncoder().encodeToString((byte[]) value);
+    } else if (value instanceof Date) {
+      // Date.toString() depends on the time zone and drops the milliseconds
+      return String.valueOf(((Date) value).getTime());
+    }
+    return value.toString();
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
@@ -28,6 +28,9 @@ import com.streamsets.pipeline.stage.common.MultipleValuesBehavior;
 import com.streamsets.pipeline.stage.common.kudu.KuduConnection;
 import com.streamsets.pipeline.stage.lib.kudu.KuduFieldMappingConfig;
 import com.streamsets.pipeline.stage.processor.kv.CacheConfig;
+import com.streamsets.pipeline.stage.processor.kv.LookupMode;
+import com.streamsets.pipeline.stage.processor.kv.LookupModeChooserValues;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTableConfig;
 
 import java.util.List;
 
@@ -170,7 +173,52 @@ public class KuduLookupConfig {
   )
   public int cacheSize = -1;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Mode",
+      description = "Whether to look up all the keys missing from the cache at once for each batch, or perform " +
+          "individual lookups per key.",
+      defaultValue = "RECORD",
+      displayPosition = 30,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "LOOKUP"
+  )
+  @ValueChooserModel(LookupModeChooserValues.class)
+  public LookupMode mode = LookupMode.RECORD;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1000",
+      min = 1,
+      label = "Maximum Keys per Scanner",
+      description = "Maximum number of keys looked up by a single scanner in batch mode",
+      dependencies = @Dependency(configName = "mode", triggeredByValues = "BATCH"),
+      displayPosition = 40,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "LOOKUP"
+  )
+  public int maxKeysPerScanner = 1000;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "4",
+      min = 1,
+      label = "Maximum Concurrent Scanners",
+      description = "Maximum number of scanners running at the same time in batch mode",
+      dependencies = @Dependency(configName = "mode", triggeredByValues = "BATCH"),
+      displayPosition = 50,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "LOOKUP"
+  )
+  public int maxConcurrentScanners = 4;
+
   @ConfigDefBean(groups = "LOOKUP")
   public CacheConfig cache = new CacheConfig();
 
+  @ConfigDefBean(groups = "LOOKUP")
+  public ReferenceTableConfig referenceTable = new ReferenceTableConfig();
+
 }
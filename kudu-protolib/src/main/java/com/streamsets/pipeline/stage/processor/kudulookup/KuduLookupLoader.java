@@ -28,6 +28,7 @@ import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
 import com.streamsets.pipeline.stage.lib.kudu.Errors;
 import com.streamsets.pipeline.stage.lib.kudu.KuduUtils;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTableIndex;
 import org.apache.kudu.ColumnSchema;
 import org.apache.kudu.Schema;
 import org.apache.kudu.Type;
@@ -42,12 +43,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class KuduLookupLoader extends CacheLoader<KuduLookupKey, Optional<List<LookupItem>>> {
   private static final Logger LOG = LoggerFactory.getLogger(KuduLookupLoader.class);
@@ -140,55 +149,12 @@ public class KuduLookupLoader extends CacheLoader<KuduLookupKey, Optional<List<L
           if (LOG.isDebugEnabled()) {
             LOG.debug("Found row: {}", result.toStringLongFormat());
           }
-          LinkedHashMap<String, Field> fields = new LinkedHashMap<>(outputColumnToField.size());
-          for (Map.Entry<String, String> column : outputColumnToField.entrySet()) {
-            Field field = null;
-            Type type = null;
-            String columnName = column.getKey();
-            if (result.isNull(columnName)){
-              // No record in necessary column. Apply default value or send to error
-              if (conf.ignoreMissing) {
-                // Apply default value only when default value is configured
-                if (!outputDefault.get(columnName).isEmpty()) {
-                  ColumnSchema columnSchema = schema.getColumn(columnName);
-                  field = Field.create(
-                      KuduUtils.convertFromKuduType(columnSchema.getType()),
-                      outputDefault.get(columnName)
-                  );
-                }
-              } else {
-                // Can't ignore missing value thus send to error
-                throw new OnRecordErrorException(Errors.KUDU_35, columnName);
-              }
-            } else {
-              type = result.getColumnType(column.getKey());
-              field = KuduUtils.createField(result, columnName, type);
-            }
-            if (field != null) {
-              fields.put(column.getValue(), field);
-            }
-          }
-          lookupItems.add(new LookupItem(fields, false));
+          lookupItems.add(toLookupItem(result, schema));
         }
       }
       // No data found. Apply default if 'pass to next stage' is set and default value is configured
-      if (lookupItems.isEmpty() && conf.missingLookupBehavior == MissingValuesBehavior.PASS_RECORD_ON) {
-        Map<String, Field> addDefaults = new HashMap<>();
-        for (Map.Entry<String, String> output: outputColumnToField.entrySet()) {
-          String columnName = output.getKey();
-          String fieldName = output.getValue();
-          ColumnSchema columnSchema = schema.getColumn(columnName);
-          String defaultValue = outputDefault.get(columnName);
-          if (!defaultValue.isEmpty()) {
-            addDefaults.put(
-              fieldName,
-              Field.create(
-                KuduUtils.convertFromKuduType(columnSchema.getType()), defaultValue
-              )
-            );
-          }
-        }
-        lookupItems.add(new LookupItem(addDefaults, true));
+      if (lookupItems.isEmpty()) {
+        lookupItems.addAll(missingValue(schema));
       }
     } catch (KuduException e) {
       // Exception executing query
@@ -207,6 +173,345 @@ public class KuduLookupLoader extends CacheLoader<KuduLookupKey, Optional<List<L
     return Optional.of(lookupItems);
   }
 
+  /**
+   * Looks up all the given keys at once. Keys are grouped by table and split in sorted chunks of contiguous key
+   * ranges, each chunk is resolved by a single scanner with IN list predicates on the key columns, so that Kudu only
+   * scans the tablets owning the keys of the chunk. Scanners run concurrently on the given executor.
+   *
+   * Keys that can't be resolved this way (e.g. invalid key values or rows with missing output values) are not in the
+   * returned map, they are left to the per record lookup that reports the error for the record.
+   */
+  public Map<KuduLookupKey, List<LookupItem>> loadBatch(
+      Collection<KuduLookupKey> keys,
+      ExecutorService executor,
+      int maxKeysPerScanner
+  ) throws StageException {
+    Map<String, List<KuduLookupKey>> keysByTable = new HashMap<>();
+    for (KuduLookupKey key : keys) {
+      keysByTable.computeIfAbsent(key.tableName, t -> new ArrayList<>()).add(key);
+    }
+
+    List<Future<Map<KuduLookupKey, List<LookupItem>>>> scans = new ArrayList<>();
+    for (Map.Entry<String, List<KuduLookupKey>> tableKeys : keysByTable.entrySet()) {
+      KuduTable kuduTable;
+      try {
+        kuduTable = tableCache.get(tableKeys.getKey());
+      } catch (ExecutionException ex) {
+        throw new StageException(Errors.KUDU_03, ex.getMessage(), ex);
+      }
+      Map<KuduLookupKey, List<Object>> keyValues = toPredicateValues(tableKeys.getValue(), kuduTable.getSchema());
+      for (List<KuduLookupKey> chunk : splitIntoScans(keyValues, maxKeysPerScanner)) {
+        scans.add(executor.submit(() -> scan(kuduTable, chunk, keyValues)));
+      }
+    }
+
+    Map<KuduLookupKey, List<LookupItem>> results = new HashMap<>();
+    try {
+      for (Future<Map<KuduLookupKey, List<LookupItem>>> scan : scans) {
+        results.putAll(scan.get());
+      }
+    } catch (InterruptedException ex) {
+      scans.forEach(scan -> scan.cancel(true));
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.KUDU_03, ex.toString(), ex);
+    } catch (ExecutionException ex) {
+      scans.forEach(scan -> scan.cancel(true));
+      if (ex.getCause() instanceof StageException) {
+        throw (StageException) ex.getCause();
+      }
+      LOG.error(Errors.KUDU_03.getMessage(), ex.getCause().toString(), ex);
+      throw new StageException(Errors.KUDU_03, ex.getCause().toString(), ex);
+    }
+    return results;
+  }
+
+  /**
+   * Converts the key values to the types expected by the predicates, skipping keys with invalid values.
+   */
+  private Map<KuduLookupKey, List<Object>> toPredicateValues(List<KuduLookupKey> keys, Schema schema) {
+    Map<KuduLookupKey, List<Object>> keyValues = new LinkedHashMap<>();
+    for (KuduLookupKey key : keys) {
+      List<Object> values = new ArrayList<>(keyColumns.size());
+      for (String keyColumn : keyColumns) {
+        Object value = null;
+        try {
+          value = toPredicateValue(key.columns.get(keyColumn), schema.getColumn(keyColumn).getType());
+        } catch (IllegalArgumentException ex) {
+          LOG.debug("Can't convert value of key column '{}' for batch lookup: {}", keyColumn, ex.toString());
+        }
+        if (value == null) {
+          break;
+        }
+        values.add(value);
+      }
+      if (values.size() == keyColumns.size()) {
+        keyValues.put(key, values);
+      }
+    }
+    return keyValues;
+  }
+
+  private static Object toPredicateValue(Field field, Type type) {
+    if (field == null || field.getValue() == null) {
+      return null;
+    }
+    switch (type) {
+      case STRING:
+        return field.getValueAsString().isEmpty() ? null : field.getValueAsString();
+      // Unlike the comparison predicates, the IN list predicates require values of the exact column type
+      case INT8:
+        return (byte) checkRange(field.getValueAsLong(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+      case INT16:
+        return (short) checkRange(field.getValueAsLong(), Short.MIN_VALUE, Short.MAX_VALUE);
+      case INT32:
+        return (int) checkRange(field.getValueAsLong(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+      case INT64:
+        return field.getValueAsLong();
+      case BOOL:
+        return field.getValueAsBoolean();
+      case BINARY:
+        return field.getValueAsByteArray();
+      case UNIXTIME_MICROS:
+        return field.getValueAsDatetime().getTime() * 1000L;
+      default:
+        if ("DECIMAL".equals(type.name())) {
+          return field.getValueAsDecimal();
+        }
+        return null;
+    }
+  }
+
+  private static long checkRange(long value, long min, long max) {
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(Utils.format("Value '{}' out of range [{}, {}]", value, min, max));
+    }
+    return value;
+  }
+
+  /**
+   * Sorts the keys on the value of the first key column and splits them in chunks, so that each chunk covers a
+   * contiguous range of keys and hence as few tablets as possible.
+   */
+  @SuppressWarnings("unchecked")
+  static List<List<KuduLookupKey>> splitIntoScans(Map<KuduLookupKey, List<Object>> keyValues, int maxKeysPerScanner) {
+    List<KuduLookupKey> sorted = new ArrayList<>(keyValues.keySet());
+    sorted.sort(Comparator.comparing(
+        key -> keyValues.get(key).get(0),
+        (a, b) -> a instanceof Comparable ? ((Comparable<Object>) a).compareTo(b) : String.valueOf(a).compareTo(String.valueOf(b))
+    ));
+    List<List<KuduLookupKey>> chunks = new ArrayList<>();
+    for (int i = 0; i < sorted.size(); i += maxKeysPerScanner) {
+      chunks.add(sorted.subList(i, Math.min(i + maxKeysPerScanner, sorted.size())));
+    }
+    return chunks;
+  }
+
+  private Map<KuduLookupKey, List<LookupItem>> scan(
+      KuduTable kuduTable,
+      List<KuduLookupKey> keys,
+      Map<KuduLookupKey, List<Object>> keyValues
+  ) throws Exception {
+    Schema schema = kuduTable.getSchema();
+    List<String> columns = new ArrayList<>(keyColumns);
+    for (String column : projectColumns) {
+      if (!columns.contains(column)) {
+        columns.add(column);
+      }
+    }
+    AsyncKuduScanner.AsyncKuduScannerBuilder scannerBuilder = kuduClient.newScannerBuilder(kuduTable)
+        .setProjectedColumnNames(columns);
+    for (int i = 0; i < keyColumns.size(); i++) {
+      Set<Object> values = new LinkedHashSet<>();
+      for (KuduLookupKey key : keys) {
+        values.add(keyValues.get(key).get(i));
+      }
+      scannerBuilder.addPredicate(KuduPredicate.newInListPredicate(
+          schema.getColumn(keyColumns.get(i)),
+          new ArrayList<>(values)
+      ));
+    }
+
+    // The IN lists of a multi column key select a superset of the keys, rows are matched to keys by value
+    Map<ReferenceTableIndex.Key, List<LookupItem>> rows = new HashMap<>();
+    Set<ReferenceTableIndex.Key> failedKeys = new HashSet<>();
+    List<Field> rowKey = new ArrayList<>(keyColumns.size());
+    AsyncKuduScanner scanner = null;
+    Timer.Context t = selectTimer.time();
+    try {
+      try {
+        scanner = scannerBuilder.build();
+      } catch (IllegalArgumentException ex) {
+        throw new StageException(Errors.KUDU_02, ex);
+      }
+      while (scanner.hasMoreRows()) {
+        RowResultIterator results = scanner.nextRows().join();
+        while (results.hasNext()) {
+          RowResult result = results.next();
+          rowKey.clear();
+          for (String keyColumn : keyColumns) {
+            rowKey.add(KuduUtils.createField(result, keyColumn, result.getColumnType(keyColumn)));
+          }
+          ReferenceTableIndex.Key key = ReferenceTableIndex.Key.of(rowKey);
+          try {
+            rows.computeIfAbsent(key, k -> new ArrayList<>(1)).add(toLookupItem(result, schema));
+          } catch (OnRecordErrorException ex) {
+            failedKeys.add(key);
+          }
+        }
+      }
+    } finally {
+      if (scanner != null) {
+        scanner.close();
+      }
+      t.stop();
+      selectMeter.mark();
+    }
+
+    Map<KuduLookupKey, List<LookupItem>> results = new HashMap<>();
+    List<Field> requestKey = new ArrayList<>(keyColumns.size());
+    for (KuduLookupKey key : keys) {
+      requestKey.clear();
+      for (String keyColumn : keyColumns) {
+        requestKey.add(key.columns.get(keyColumn));
+      }
+      ReferenceTableIndex.Key normalized = ReferenceTableIndex.Key.of(requestKey);
+      if (!failedKeys.contains(normalized)) {
+        List<LookupItem> items = rows.get(normalized);
+        results.put(key, items != null ? items : missingValue(schema));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Scans the whole table and indexes the lookup items by the values of the key columns. Rows that can't be
+   * converted because of a missing output value are left out of the index.
+   */
+  public ReferenceTableIndex<List<LookupItem>> loadReferenceTable(String tableName) throws StageException {
+    Map<ReferenceTableIndex.Key, List<LookupItem>> rows = new HashMap<>();
+    List<Field> keyValues = new ArrayList<>(keyColumns.size());
+    List<String> columns = new ArrayList<>(keyColumns);
+    for (String column : projectColumns) {
+      if (!columns.contains(column)) {
+        columns.add(column);
+      }
+    }
+
+    AsyncKuduScanner scanner = null;
+    int skipped = 0;
+    Timer.Context t = selectTimer.time();
+    try {
+      KuduTable kuduTable = tableCache.get(tableName);
+      Schema schema = kuduTable.getSchema();
+      try {
+        scanner = kuduClient.newScannerBuilder(kuduTable).setProjectedColumnNames(columns).build();
+      } catch (IllegalArgumentException ex) {
+        throw new StageException(Errors.KUDU_02, ex);
+      }
+      while (scanner.hasMoreRows()) {
+        RowResultIterator results = scanner.nextRows().join();
+        while (results.hasNext()) {
+          RowResult result = results.next();
+          keyValues.clear();
+          for (String keyColumn : keyColumns) {
+            keyValues.add(result.isNull(keyColumn) ? null : KuduUtils.createField(
+                result,
+                keyColumn,
+                result.getColumnType(keyColumn)
+            ));
+          }
+          try {
+            LookupItem item = toLookupItem(result, schema);
+            rows.computeIfAbsent(ReferenceTableIndex.Key.of(keyValues), k -> new ArrayList<>(1)).add(item);
+          } catch (OnRecordErrorException e) {
+            skipped++;
+          }
+        }
+      }
+    } catch (StageException e) {
+      throw e;
+    } catch (Exception e) {
+      LOG.error(Errors.KUDU_03.getMessage(), e.toString(), e);
+      throw new StageException(Errors.KUDU_03, e.toString(), e);
+    } finally {
+      if (scanner != null) {
+        scanner.close();
+      }
+      t.stop();
+      selectMeter.mark();
+    }
+    if (skipped > 0) {
+      LOG.warn("Skipped {} rows of reference table '{}' with missing output values", skipped, tableName);
+    }
+    return ReferenceTableIndex.copyOf(rows);
+  }
+
+  /**
+   * Returns the lookup items used for keys that are not in the reference table.
+   */
+  public List<LookupItem> missingReferenceValue(String tableName) throws StageException {
+    try {
+      return missingValue(tableCache.get(tableName).getSchema());
+    } catch (ExecutionException ex) {
+      throw new StageException(Errors.KUDU_03, ex.getMessage(), ex);
+    }
+  }
+
+  private LookupItem toLookupItem(RowResult result, Schema schema) throws StageException {
+    LinkedHashMap<String, Field> fields = new LinkedHashMap<>(outputColumnToField.size());
+    for (Map.Entry<String, String> column : outputColumnToField.entrySet()) {
+      Field field = null;
+      Type type = null;
+      String columnName = column.getKey();
+      if (result.isNull(columnName)){
+        // No record in necessary column. Apply default value or send to error
+        if (conf.ignoreMissing) {
+          // Apply default value only when default value is configured
+          if (!outputDefault.get(columnName).isEmpty()) {
+            ColumnSchema columnSchema = schema.getColumn(columnName);
+            field = Field.create(
+                KuduUtils.convertFromKuduType(columnSchema.getType()),
+                outputDefault.get(columnName)
+            );
+          }
+        } else {
+          // Can't ignore missing value thus send to error
+          throw new OnRecordErrorException(Errors.KUDU_35, columnName);
+        }
+      } else {
+        type = result.getColumnType(column.getKey());
+        field = KuduUtils.createField(result, columnName, type);
+      }
+      if (field != null) {
+        fields.put(column.getValue(), field);
+      }
+    }
+    return new LookupItem(fields, false);
+  }
+
+  private List<LookupItem> missingValue(Schema schema) {
+    // Apply default if 'pass to next stage' is set and default value is configured
+    if (conf.missingLookupBehavior != MissingValuesBehavior.PASS_RECORD_ON) {
+      return Collections.emptyList();
+    }
+    Map<String, Field> addDefaults = new HashMap<>();
+    for (Map.Entry<String, String> output: outputColumnToField.entrySet()) {
+      String columnName = output.getKey();
+      String fieldName = output.getValue();
+      ColumnSchema columnSchema = schema.getColumn(columnName);
+      String defaultValue = outputDefault.get(columnName);
+      if (!defaultValue.isEmpty()) {
+        addDefaults.put(
+          fieldName,
+          Field.create(
+            KuduUtils.convertFromKuduType(columnSchema.getType()), defaultValue
+          )
+        );
+      }
+    }
+    return Collections.singletonList(new LookupItem(addDefaults, true));
+  }
+
   private void addPredicate(Field field, AsyncKuduScanner.AsyncKuduScannerBuilder scannerBuilder, KuduTable kuduTable, String keyColumn)
       throws StageException
   {
@@ -17,6 +17,7 @@ package com.streamsets.pipeline.stage.processor.kudulookup;
 
 import com.google.common.base.Throwables;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
@@ -27,6 +28,7 @@ import com.streamsets.pipeline.api.base.SingleLaneProcessor;
 import com.streamsets.pipeline.api.base.SingleLaneRecordProcessor;
 import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.lib.cache.CacheCleaner;
 import com.streamsets.pipeline.lib.el.ELUtils;
 import com.streamsets.pipeline.lib.el.RecordEL;
@@ -36,7 +38,12 @@ import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
 import com.streamsets.pipeline.stage.lib.kudu.Errors;
 import com.streamsets.pipeline.stage.lib.kudu.KuduAccessor;
 import com.streamsets.pipeline.stage.lib.kudu.KuduFieldMappingConfig;
+import com.streamsets.pipeline.stage.processor.kv.LookupMode;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
+import com.streamsets.pipeline.stage.processor.kv.MappedFileCacheStore;
+import com.streamsets.pipeline.stage.processor.kv.OptionalCacheCodec;
+import com.streamsets.pipeline.stage.processor.kv.PersistentTierCacheLoader;
+import com.streamsets.pipeline.stage.processor.kv.ReferenceTable;
 import org.apache.kudu.client.AsyncKuduClient;
 import org.apache.kudu.client.AsyncKuduSession;
 import org.apache.kudu.client.OperationResponse;
@@ -46,16 +53,23 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class KuduLookupProcessor extends SingleLaneRecordProcessor {
   private static final String KUDU_TABLE = "kuduTableTemplate";
   private static final String KEY_MAPPING_CONFIGS = "keyColumnMapping";
   private static final String OUTPUT_MAPPING_CONFIG = "outputColumnMapping";
   private static final String EL_PREFIX = "${";
+  private static final String REFERENCE_TABLE = "kuduLookupProcessor.referenceTable";
 
   private static final Logger LOG = LoggerFactory.getLogger(KuduLookupProcessor.class);
   private KuduLookupConfig conf;
@@ -73,6 +87,15 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
 
   private LoadingCache<KuduLookupKey, Optional<List<LookupItem>>> cache;
   private CacheCleaner cacheCleaner;
+  private MappedFileCacheStore persistentStore;
+  private PersistentTierCacheLoader<KuduLookupKey, Optional<List<LookupItem>>> persistentLoader;
+  private Map<String, Object> cacheGauge;
+  private ReferenceTable<List<LookupItem>> referenceTable;
+  private List<LookupItem> referenceTableMissingValue;
+  // reused for every record, reference table lookups don't allocate
+  private final List<Field> referenceKeyValues = new ArrayList<>();
+  private ExecutorService scannerExecutor;
+  private Map<KuduLookupKey, List<LookupItem>> batchValues = Collections.emptyMap();
 
   public KuduLookupProcessor(KuduLookupConfig conf) {
     this.conf = conf;
@@ -150,6 +173,26 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
       }
     }
 
+    if (issues.isEmpty() && conf.cache.enabled && conf.cache.persistentEnabled && !conf.referenceTable.enabled) {
+      try {
+        persistentStore = LookupUtils.openSharedPersistentStore(
+            getContext(),
+            conf.cache,
+            getPersistentCacheFingerprint()
+        );
+        if (getContext().getRunnerId() == 0) {
+          cacheGauge = getContext().createGauge(LookupUtils.CACHE_GAUGE_NAME).getValue();
+        }
+      } catch (StageException e) {
+        issues.add(getContext().createConfigIssue(
+            Groups.LOOKUP.name(),
+            "conf.cache.persistentDirectory",
+            e.getErrorCode(),
+            e.getParams()
+        ));
+      }
+    }
+
     if (issues.isEmpty()) {
       store = new KuduLookupLoader(getContext(), kuduClient, keyColumns, columnToField, conf);
       // We cannot use the standard loading cache here because it doesn't support
@@ -165,16 +208,77 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
       // we will invalidate manually a value that we get from the cache if
       // 1) it's a default value and
       // 2) retryOnCacheMiss is ON
-      cache = LookupUtils.buildCache(store, conf.cache, Optional.of(Collections.emptyList()));
+      if (persistentStore != null) {
+        persistentLoader = new PersistentTierCacheLoader<>(
+            store,
+            persistentStore,
+            new OptionalCacheCodec<>(new KuduLookupCacheCodec()),
+            conf.cache
+        );
+        cache = LookupUtils.buildCache(persistentLoader, conf.cache, Optional.of(Collections.emptyList()));
+      } else {
+        cache = LookupUtils.buildCache(store, conf.cache, Optional.of(Collections.emptyList()));
+      }
       cacheCleaner = new CacheCleaner(cache, "KuduLookupProcessor", 10 * 60 * 1000);
     }
+
+    if (issues.isEmpty() && conf.referenceTable.enabled) {
+      initReferenceTable(issues);
+    } else if (issues.isEmpty() && conf.mode == LookupMode.BATCH) {
+      scannerExecutor = Executors.newFixedThreadPool(
+          conf.maxConcurrentScanners,
+          new ThreadFactoryBuilder().setNameFormat("Kudu Lookup Scanner-%d").setDaemon(true).build()
+      );
+    }
     return issues;
   }
 
 
+  @SuppressWarnings("unchecked")
+  private void initReferenceTable(List<ConfigIssue> issues) {
+    if (conf.kuduTableTemplate.contains(EL_PREFIX)) {
+      issues.add(getContext().createConfigIssue(
+          Groups.KUDU.name(),
+          KuduLookupConfig.CONF_PREFIX + KUDU_TABLE,
+          com.streamsets.pipeline.stage.processor.kv.Errors.LOOKUP_08
+      ));
+      return;
+    }
+    String tableName = conf.caseSensitive ? conf.kuduTableTemplate : conf.kuduTableTemplate.toLowerCase();
+    try {
+      referenceTableMissingValue = store.missingReferenceValue(tableName);
+      if (getContext().getRunnerId() == 0) {
+        referenceTable = new ReferenceTable<>(
+            getContext().getStageInfo().getInstanceName(),
+            () -> store.loadReferenceTable(tableName),
+            conf.referenceTable.refreshInterval,
+            getContext().createGauge(ReferenceTable.GAUGE_NAME).getValue()
+        );
+        getContext().getStageRunnerSharedMap().put(REFERENCE_TABLE, referenceTable);
+        referenceTable.start();
+      } else {
+        referenceTable = (ReferenceTable<List<LookupItem>>) getContext().getStageRunnerSharedMap().get(REFERENCE_TABLE);
+      }
+    } catch (StageException e) {
+      issues.add(getContext().createConfigIssue(
+          Groups.KUDU.name(),
+          KuduLookupConfig.CONF_PREFIX + KUDU_TABLE,
+          e.getErrorCode(),
+          e.getParams()
+      ));
+    }
+  }
+
   @Override
   public void destroy() {
     super.destroy();
+    if (scannerExecutor != null) {
+      scannerExecutor.shutdownNow();
+    }
+    if (referenceTable != null && getContext().getRunnerId() == 0) {
+      referenceTable.close();
+    }
+    LookupUtils.closeSharedPersistentStore(getContext(), persistentStore);
     if (kuduSession != null) {
       try {
         List<OperationResponse> result = kuduSession.close().join();
@@ -205,7 +309,85 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
       // No records - take the opportunity to clean up the cache so that we don't hold on to memory indefinitely
       cacheCleaner.periodicCleanUp();
     }
-    super.process(batch, batchMaker);
+    if (scannerExecutor != null) {
+      batchValues = lookupBatch(batch);
+    }
+    try {
+      super.process(batch, batchMaker);
+    } finally {
+      batchValues = Collections.emptyMap();
+    }
+
+    // Memory tier statistics are those of the first runner, the persistent tier is shared by all runners
+    if (cacheGauge != null) {
+      LookupUtils.updateCacheGauge(cacheGauge, cache, persistentStore);
+    }
+  }
+
+  /**
+   * Values depend on the cluster and on how the output columns are mapped, keys only carry the table and key values.
+   */
+  private String getPersistentCacheFingerprint() {
+    Map<String, String> outputColumns = new TreeMap<>();
+    for (KuduOutputColumnMapping mapping : conf.outputColumnMapping) {
+      outputColumns.put(mapping.columnName, mapping.field + "=" + mapping.defaultValue);
+    }
+    return Utils.format(
+        "{}|{}|{}|{}",
+        conf.connection.kuduMaster,
+        outputColumns,
+        conf.caseSensitive,
+        conf.ignoreMissing
+    );
+  }
+
+  /**
+   * Looks up at once all the keys of the batch that are not cached yet. The results are added to the cache and also
+   * kept for the current batch, so that they are used even when the cache is disabled. Keys kept in the persistent
+   * cache tier are not looked up again, and the rows looked up are written through to it.
+   */
+  private Map<KuduLookupKey, List<LookupItem>> lookupBatch(Batch batch) throws StageException {
+    Set<KuduLookupKey> missingKeys = new LinkedHashSet<>();
+    Map<KuduLookupKey, List<LookupItem>> persistedValues = new HashMap<>();
+    Iterator<Record> records = batch.getRecords();
+    while (records.hasNext()) {
+      Record record = records.next();
+      try {
+        RecordEL.setRecordInContext(tableNameVars, record);
+        String tableName = tableNameEval.eval(tableNameVars, conf.kuduTableTemplate, String.class);
+        if (!conf.caseSensitive) {
+          tableName = tableName.toLowerCase();
+        }
+        KuduLookupKey key = generateLookupKey(record, tableName);
+        if (cache.getIfPresent(key) == null) {
+          Optional<List<LookupItem>> persisted = persistentLoader == null ? null : persistentLoader.getPersisted(key);
+          if (persisted != null) {
+            persistedValues.put(key, persisted.get());
+          } else {
+            missingKeys.add(key);
+          }
+        }
+      } catch (StageException e) {
+        // The error is reported for the record by the per record lookup
+        LOG.trace("Skipping record {} in batch lookup: {}", record.getHeader().getSourceId(), e.toString());
+      }
+    }
+    for (Map.Entry<KuduLookupKey, List<LookupItem>> value : persistedValues.entrySet()) {
+      cache.put(value.getKey(), Optional.of(value.getValue()));
+    }
+    if (missingKeys.isEmpty()) {
+      return persistedValues;
+    }
+
+    Map<KuduLookupKey, List<LookupItem>> values = store.loadBatch(missingKeys, scannerExecutor, conf.maxKeysPerScanner);
+    for (Map.Entry<KuduLookupKey, List<LookupItem>> value : values.entrySet()) {
+      cache.put(value.getKey(), Optional.of(value.getValue()));
+      if (persistentLoader != null) {
+        persistentLoader.persist(value.getKey(), Optional.of(value.getValue()));
+      }
+    }
+    values.putAll(persistedValues);
+    return values;
   }
 
   /** {@inheritDoc} */
@@ -221,7 +403,14 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
     try {
       try {
         KuduLookupKey key = generateLookupKey(record, tableName);
-        List<LookupItem> values = cache.get(key).get();
+        List<LookupItem> values;
+        if (referenceTable != null) {
+          values = lookupReferenceTable(key);
+        } else if (batchValues.containsKey(key)) {
+          values = batchValues.get(key);
+        } else {
+          values = cache.get(key).get();
+        }
         for (LookupItem value : values) {
           if (value.defaultItem) {
             if (values.size() != 1) {
@@ -232,7 +421,7 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
               // This sort of errors should be caught before going to production by our tests.
               throw new IllegalStateException("There should be only one default item in the cache for a key");
             }
-            if (conf.cache.retryOnCacheMiss) {
+            if (conf.cache.retryOnCacheMiss && referenceTable == null) {
               cache.invalidate(key);
             }
           }
@@ -273,6 +462,15 @@ public class KuduLookupProcessor extends SingleLaneRecordProcessor {
     }
   }
 
+  private List<LookupItem> lookupReferenceTable(KuduLookupKey key) {
+    referenceKeyValues.clear();
+    for (String keyColumn : keyColumns) {
+      referenceKeyValues.add(key.columns.get(keyColumn));
+    }
+    List<LookupItem> values = referenceTable.get(referenceKeyValues);
+    return values == null ? referenceTableMissingValue : values;
+  }
+
   private void setFieldsInRecord(Record record, Map<String, Field> fields) {
     for (Map.Entry<String, Field> entry : fields.entrySet()) {
       String columnName = entry.getKey();
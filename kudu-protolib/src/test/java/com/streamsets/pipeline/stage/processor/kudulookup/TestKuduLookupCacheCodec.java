@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kudulookup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestKuduLookupCacheCodec {
+
+  private static KuduLookupKey key(String column, Field value) {
+    return new KuduLookupKey("table", ImmutableMap.of(column, value));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    KuduLookupCacheCodec codec = new KuduLookupCacheCodec();
+    Map<String, Field> first = new LinkedHashMap<>();
+    first.put("/name", Field.create("a"));
+    first.put("/amount", Field.create(Field.Type.LONG, null));
+    Map<String, Field> second = new LinkedHashMap<>();
+    second.put("/name", Field.create("b"));
+    second.put("/amount", Field.create(2L));
+    List<LookupItem> items = ImmutableList.of(new LookupItem(first, false), new LookupItem(second, false));
+
+    Assert.assertTrue(codec.isPersistent(items));
+    List<LookupItem> decoded = codec.decodeValue(codec.encodeValue(items));
+    Assert.assertEquals(2, decoded.size());
+    Assert.assertEquals(first, decoded.get(0).values);
+    Assert.assertEquals(second, decoded.get(1).values);
+    Assert.assertFalse(decoded.get(0).defaultItem);
+  }
+
+  @Test
+  public void testMissingValuesNotPersistent() {
+    KuduLookupCacheCodec codec = new KuduLookupCacheCodec();
+    Assert.assertFalse(codec.isPersistent(Collections.emptyList()));
+    Assert.assertFalse(codec.isPersistent(Collections.singletonList(
+        new LookupItem(ImmutableMap.of("/name", Field.create("default")), true)
+    )));
+  }
+
+  @Test
+  public void testKeys() {
+    KuduLookupCacheCodec codec = new KuduLookupCacheCodec();
+
+    Map<String, Field> columns = new LinkedHashMap<>();
+    columns.put("a", Field.create(1));
+    columns.put("b", Field.create("x"));
+    Map<String, Field> reversed = new LinkedHashMap<>();
+    reversed.put("b", Field.create("x"));
+    reversed.put("a", Field.create(1));
+    Assert.assertArrayEquals(
+        codec.encodeKey(new KuduLookupKey("table", columns)),
+        codec.encodeKey(new KuduLookupKey("table", reversed))
+    );
+    Assert.assertFalse(Arrays.equals(
+        codec.encodeKey(new KuduLookupKey("table", columns)),
+        codec.encodeKey(new KuduLookupKey("other", columns))
+    ));
+
+    Assert.assertFalse(Arrays.equals(
+        codec.encodeKey(key("a", Field.create(1))),
+        codec.encodeKey(key("a", Field.create(1L)))
+    ));
+    Assert.assertFalse(Arrays.equals(
+        codec.encodeKey(key("a", Field.create(new byte[]{1}))),
+        codec.encodeKey(key("a", Field.create(new byte[]{2})))
+    ));
+    Assert.assertFalse(Arrays.equals(
+        codec.encodeKey(key("a", Field.createDatetime(new Date(1000)))),
+        codec.encodeKey(key("a", Field.createDatetime(new Date(1001))))
+    ));
+  }
+}
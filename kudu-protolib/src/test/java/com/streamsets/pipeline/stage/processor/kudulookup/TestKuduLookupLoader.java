@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kudulookup;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.stage.common.MissingValuesBehavior;
+import com.stumbleupon.async.Deferred;
+import org.apache.kudu.ColumnSchema;
+import org.apache.kudu.Schema;
+import org.apache.kudu.Type;
+import org.apache.kudu.client.AsyncKuduClient;
+import org.apache.kudu.client.AsyncKuduScanner;
+import org.apache.kudu.client.KuduPredicate;
+import org.apache.kudu.client.KuduTable;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+    AsyncKuduClient.class,
+    AsyncKuduScanner.class,
+    KuduTable.class,
+})
+@PowerMockIgnore({
+    "javax.net.ssl.*",
+    "jdk.internal.reflect.*"
+})
+public class TestKuduLookupLoader {
+
+  @Test
+  public void testSplitIntoScans() {
+    Map<KuduLookupKey, List<Object>> keyValues = new LinkedHashMap<>();
+    for (long i : new long[]{7, 3, 9, 1, 5, 8, 2}) {
+      keyValues.put(
+          new KuduLookupKey("table", ImmutableMap.of("id", Field.create(i))),
+          ImmutableList.of(i)
+      );
+    }
+
+    List<List<KuduLookupKey>> scans = KuduLookupLoader.splitIntoScans(keyValues, 3);
+
+    // Keys are sorted so that each scan covers a contiguous range of keys
+    Assert.assertEquals(3, scans.size());
+    Assert.assertEquals(ImmutableList.of(1L, 2L, 3L), ids(scans.get(0)));
+    Assert.assertEquals(ImmutableList.of(5L, 7L, 8L), ids(scans.get(1)));
+    Assert.assertEquals(ImmutableList.of(9L), ids(scans.get(2)));
+  }
+
+  @Test
+  public void testSplitIntoScansEmpty() {
+    Assert.assertTrue(KuduLookupLoader.splitIntoScans(new LinkedHashMap<>(), 10).isEmpty());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testLoadBatchInt32Key() throws Exception {
+    Schema schema = new Schema(Arrays.asList(
+        new ColumnSchema.ColumnSchemaBuilder("id", Type.INT32).key(true).build(),
+        new ColumnSchema.ColumnSchemaBuilder("value", Type.STRING).nullable(true).build()
+    ));
+    KuduTable table = PowerMockito.mock(KuduTable.class);
+    PowerMockito.doReturn(schema).when(table).getSchema();
+
+    // no rows found, the keys get the default values
+    AsyncKuduScanner scanner = PowerMockito.mock(AsyncKuduScanner.class);
+    PowerMockito.doReturn(false).when(scanner).hasMoreRows();
+    AsyncKuduScanner.AsyncKuduScannerBuilder scannerBuilder = Mockito.mock(
+        AsyncKuduScanner.AsyncKuduScannerBuilder.class
+    );
+    Mockito.when(scannerBuilder.setProjectedColumnNames(Mockito.anyList())).thenReturn(scannerBuilder);
+    Mockito.when(scannerBuilder.addPredicate(Mockito.any(KuduPredicate.class))).thenReturn(scannerBuilder);
+    Mockito.when(scannerBuilder.build()).thenReturn(scanner);
+
+    AsyncKuduClient client = PowerMockito.mock(AsyncKuduClient.class);
+    PowerMockito.doReturn(Deferred.fromResult(table)).when(client).openTable("table");
+    PowerMockito.doReturn(scannerBuilder).when(client).newScannerBuilder(table);
+
+    Stage.Context context = Mockito.mock(Stage.Context.class);
+    Mockito.when(context.createMeter(Mockito.anyString())).thenReturn(new Meter());
+    Mockito.when(context.createTimer(Mockito.anyString())).thenReturn(new Timer());
+
+    KuduLookupConfig conf = new KuduLookupConfig();
+    conf.outputColumnMapping = ImmutableList.of(new KuduOutputColumnMapping("value", "/value", "none"));
+    conf.missingLookupBehavior = MissingValuesBehavior.PASS_RECORD_ON;
+    conf.cacheSize = 10;
+    KuduLookupLoader loader = new KuduLookupLoader(
+        context,
+        client,
+        ImmutableList.of("id"),
+        ImmutableMap.of("id", "/id"),
+        conf
+    );
+
+    List<KuduLookupKey> keys = ImmutableList.of(
+        new KuduLookupKey("table", ImmutableMap.of("id", Field.create(1))),
+        new KuduLookupKey("table", ImmutableMap.of("id", Field.create(2L))),
+        // out of the INT32 range, left to the per record lookup
+        new KuduLookupKey("table", ImmutableMap.of("id", Field.create(Long.MAX_VALUE)))
+    );
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Map<KuduLookupKey, List<LookupItem>> results;
+    try {
+      results = loader.loadBatch(keys, executor, 1000);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(2, results.size());
+    Assert.assertTrue(results.containsKey(keys.get(0)));
+    Assert.assertTrue(results.containsKey(keys.get(1)));
+    Assert.assertEquals(1, results.get(keys.get(0)).size());
+
+    ArgumentCaptor<KuduPredicate> predicate = ArgumentCaptor.forClass(KuduPredicate.class);
+    Mockito.verify(scannerBuilder).addPredicate(predicate.capture());
+    Assert.assertEquals(
+        KuduPredicate.newInListPredicate(schema.getColumn("id"), ImmutableList.of(1, 2)),
+        predicate.getValue()
+    );
+  }
+
+  private static List<Long> ids(List<KuduLookupKey> keys) {
+    ImmutableList.Builder<Long> ids = ImmutableList.builder();
+    for (KuduLookupKey key : keys) {
+      ids.add(key.columns.get("id").getValueAsLong());
+    }
+    return ids.build();
+  }
+}
@@ -105,4 +105,73 @@ public class CacheConfig {
       group = "#0"
   )
   public boolean retryOnCacheMiss = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Enable Persistent Cache",
+      defaultValue = "false",
+      description = "Keeps looked up values in a memory mapped file on local disk as a second cache tier. Values " +
+        "evicted from the memory cache and values cached before a pipeline restart are served from the file.",
+      displayPosition = 160,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "enabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public boolean persistentEnabled = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.STRING,
+      label = "Persistent Cache Directory",
+      description = "Local directory where the persistent cache file is stored",
+      displayPosition = 170,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "persistentEnabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public String persistentDirectory = "";
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Persistent Cache Size (MB)",
+      defaultValue = "256",
+      min = 1,
+      max = 2047,
+      description = "Size of the persistent cache file. When full, the oldest values are evicted",
+      displayPosition = 180,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "persistentEnabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public int persistentMaxSizeMB = 256;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Persistent Cache Expiration Time",
+      defaultValue = "1",
+      min = 1,
+      description = "Time after which values in the persistent cache expire, independent from the expiration time of " +
+        "the memory cache so that values outlive pipeline restarts. The eviction policy type applies to both tiers",
+      displayPosition = 190,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "persistentEnabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public long persistentExpirationTime = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Persistent Cache Time Unit",
+      defaultValue = "DAYS",
+      displayPosition = 200,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "persistentEnabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  @ValueChooserModel(TimeUnitChooserValues.class)
+  public TimeUnit persistentTimeUnit = TimeUnit.DAYS;
 }
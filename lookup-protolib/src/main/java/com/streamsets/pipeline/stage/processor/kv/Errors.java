@@ -22,7 +22,13 @@ import com.streamsets.pipeline.api.GenerateResourceBundle;
 public enum Errors implements ErrorCode {
   LOOKUP_01("Failed to evaluate expression: '{}'"),
   LOOKUP_02("Failed to fetch values for batch: '{}'"),
-  LOOKUP_03("Empty static store values")
+  LOOKUP_03("Empty static store values"),
+  LOOKUP_04("Can't open persistent cache '{}': {}"),
+  LOOKUP_05("Failed to load reference table: {}"),
+  LOOKUP_06("Key column '{}' not found in the reference table"),
+  LOOKUP_07("Record is missing key field '{}'"),
+  LOOKUP_08("Full table lookup requires a table without expressions"),
+  LOOKUP_09("Full table lookup requires at least one key column")
   ;
 
   private final String msg;
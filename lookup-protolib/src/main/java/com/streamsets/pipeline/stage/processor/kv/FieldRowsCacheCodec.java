@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Persistent cache codec for lookups returning rows of fields, like the JDBC and MongoDB Lookups. Keys are written as
+ * the string given by the key formatter.
+ *
+ * Fields are written with their type so that typed nulls, decimals and dates come back exactly as they were
+ * looked up. Types are written by name, so that the stored values don't depend on the declaration order of
+ * {@link Field.Type}. File references can't be persisted.
+ */
+public class FieldRowsCacheCodec<Key> implements PersistentCacheCodec<Key, List<Map<String, Field>>> {
+  private static final int FORMAT_VERSION = 2;
+
+  private final Function<Key, String> keyFormatter;
+
+  public FieldRowsCacheCodec(Function<Key, String> keyFormatter) {
+    this.keyFormatter = keyFormatter;
+  }
+
+  @Override
+  public byte[] encodeKey(Key key) {
+    return keyFormatter.apply(key).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public byte[] encodeValue(List<Map<String, Field>> rows) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT_VERSION);
+      out.writeInt(rows.size());
+      for (Map<String, Field> row : rows) {
+        writeFieldMap(out, row);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public List<Map<String, Field>> decodeValue(byte[] bytes) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int version = in.readByte();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported persistent cache format version: " + version);
+      }
+      int count = in.readInt();
+      List<Map<String, Field>> rows = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        rows.add(readFieldMap(in, new LinkedHashMap<>()));
+      }
+      return rows;
+    }
+  }
+
+  /**
+   * Writes a map of fields with the same encoding as the rows, for codecs of other lookup value types.
+   */
+  public static void writeFieldMap(DataOutputStream out, Map<String, Field> map) throws IOException {
+    out.writeInt(map.size());
+    for (Map.Entry<String, Field> entry : map.entrySet()) {
+      out.writeUTF(entry.getKey());
+      writeField(out, entry.getValue());
+    }
+  }
+
+  public static Map<String, Field> readFieldMap(DataInputStream in, Map<String, Field> map) throws IOException {
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      String key = in.readUTF();
+      map.put(key, readField(in));
+    }
+    return map;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void writeField(DataOutputStream out, Field field) throws IOException {
+    Field.Type type = field.getType();
+    if (type == Field.Type.FILE_REF) {
+      throw new IOException("File reference fields can't be persisted");
+    }
+    out.writeUTF(type.name());
+
+    Map<String, String> attributes = field.getAttributes();
+    out.writeInt(attributes == null ? 0 : attributes.size());
+    if (attributes != null) {
+      for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+        out.writeUTF(attribute.getKey());
+        out.writeUTF(attribute.getValue());
+      }
+    }
+
+    Object value = field.getValue();
+    out.writeBoolean(value != null);
+    if (value == null) {
+      return;
+    }
+    switch (type) {
+      case BOOLEAN:
+        out.writeBoolean(field.getValueAsBoolean());
+        break;
+      case CHAR:
+        out.writeChar(field.getValueAsChar());
+        break;
+      case BYTE:
+        out.writeByte(field.getValueAsByte());
+        break;
+      case SHORT:
+        out.writeShort(field.getValueAsShort());
+        break;
+      case INTEGER:
+        out.writeInt(field.getValueAsInteger());
+        break;
+      case LONG:
+        out.writeLong(field.getValueAsLong());
+        break;
+      case FLOAT:
+        out.writeFloat(field.getValueAsFloat());
+        break;
+      case DOUBLE:
+        out.writeDouble(field.getValueAsDouble());
+        break;
+      case DATE:
+      case DATETIME:
+      case TIME:
+        out.writeLong(((Date) value).getTime());
+        break;
+      case DECIMAL:
+        BigDecimal decimal = field.getValueAsDecimal();
+        writeBytes(out, decimal.unscaledValue().toByteArray());
+        out.writeInt(decimal.scale());
+        break;
+      case STRING:
+      case ZONED_DATETIME:
+        // writeUTF is limited to 64k, long strings are written as raw bytes
+        writeBytes(out, value.toString().getBytes(StandardCharsets.UTF_8));
+        break;
+      case BYTE_ARRAY:
+        writeBytes(out, field.getValueAsByteArray());
+        break;
+      case MAP:
+      case LIST_MAP:
+        writeFieldMap(out, (Map<String, Field>) value);
+        break;
+      case LIST:
+        List<Field> list = field.getValueAsList();
+        out.writeInt(list.size());
+        for (Field element : list) {
+          writeField(out, element);
+        }
+        break;
+      default:
+        throw new IOException("Unsupported field type: " + type);
+    }
+  }
+
+  private static Field readField(DataInputStream in) throws IOException {
+    String typeName = in.readUTF();
+    Field.Type type;
+    try {
+      type = Field.Type.valueOf(typeName);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid field type: " + typeName, e);
+    }
+
+    int attributeCount = in.readInt();
+    Map<String, String> attributes = new HashMap<>();
+    for (int i = 0; i < attributeCount; i++) {
+      String name = in.readUTF();
+      attributes.put(name, in.readUTF());
+    }
+
+    Field field;
+    if (!in.readBoolean()) {
+      field = Field.create(type, null);
+    } else {
+      switch (type) {
+        case BOOLEAN:
+          field = Field.create(in.readBoolean());
+          break;
+        case CHAR:
+          field = Field.create(in.readChar());
+          break;
+        case BYTE:
+          field = Field.create(in.readByte());
+          break;
+        case SHORT:
+          field = Field.create(in.readShort());
+          break;
+        case INTEGER:
+          field = Field.create(in.readInt());
+          break;
+        case LONG:
+          field = Field.create(in.readLong());
+          break;
+        case FLOAT:
+          field = Field.create(in.readFloat());
+          break;
+        case DOUBLE:
+          field = Field.create(in.readDouble());
+          break;
+        case DATE:
+        case DATETIME:
+        case TIME:
+          field = Field.create(type, new Date(in.readLong()));
+          break;
+        case DECIMAL:
+          BigInteger unscaled = new BigInteger(readBytes(in));
+          field = Field.create(new BigDecimal(unscaled, in.readInt()));
+          break;
+        case STRING:
+          field = Field.create(new String(readBytes(in), StandardCharsets.UTF_8));
+          break;
+        case ZONED_DATETIME:
+          field = Field.createZonedDateTime(ZonedDateTime.parse(new String(readBytes(in), StandardCharsets.UTF_8)));
+          break;
+        case BYTE_ARRAY:
+          field = Field.create(readBytes(in));
+          break;
+        case MAP:
+          field = Field.create(readFieldMap(in, new HashMap<>()));
+          break;
+        case LIST_MAP:
+          field = Field.createListMap(readFieldMap(in, new LinkedHashMap<>()));
+          break;
+        case LIST:
+          int size = in.readInt();
+          List<Field> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readField(in));
+          }
+          field = Field.create(list);
+          break;
+        default:
+          throw new IOException("Unsupported field type: " + type);
+      }
+    }
+
+    for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+      field.setAttribute(attribute.getKey(), attribute.getValue());
+    }
+    return field;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+}
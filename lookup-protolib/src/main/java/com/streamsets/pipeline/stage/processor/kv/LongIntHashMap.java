@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from long keys to non negative int values, backed by two primitive arrays so that an
+ * entry costs 12 bytes (at most 24 with the load factor) instead of two boxed objects and a map entry. Collisions are
+ * resolved with linear probing and removals shift the following entries back, so no tombstones are needed.
+ *
+ * Not thread safe.
+ */
+class LongIntHashMap {
+  static final int NO_VALUE = -1;
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  LongIntHashMap() {
+    allocate(MIN_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(values, NO_VALUE);
+    mask = capacity - 1;
+  }
+
+  private int slot(long key) {
+    // keys are usually hashes already, mixing still spreads sequential keys
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+
+  /**
+   * Returns the value of the key, or {@link #NO_VALUE} if there is none.
+   */
+  int get(long key) {
+    for (int i = slot(key); values[i] != NO_VALUE; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return values[i];
+      }
+    }
+    return NO_VALUE;
+  }
+
+  void put(long key, int value) {
+    Preconditions.checkArgument(value >= 0, "value must not be negative");
+    int i = slot(key);
+    for (; values[i] != NO_VALUE; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        values[i] = value;
+        return;
+      }
+    }
+    keys[i] = key;
+    values[i] = value;
+    size++;
+    // keep the load factor under 3/4
+    if (size * 4L > keys.length * 3L) {
+      grow();
+    }
+  }
+
+  /**
+   * Removes the key, returns its value or {@link #NO_VALUE} if there was none.
+   */
+  int remove(long key) {
+    int i = slot(key);
+    for (; values[i] != NO_VALUE; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        int value = values[i];
+        shiftBack(i);
+        size--;
+        return value;
+      }
+    }
+    return NO_VALUE;
+  }
+
+  /**
+   * Fills the gap left at the given slot with the following entries of the probe sequence that can't be reached
+   * anymore otherwise, that is the entries whose home slot is not between the gap and their current slot.
+   */
+  private void shiftBack(int gap) {
+    int i = gap;
+    while (true) {
+      i = (i + 1) & mask;
+      if (values[i] == NO_VALUE) {
+        break;
+      }
+      int home = slot(keys[i]);
+      if (((i - home) & mask) >= ((i - gap) & mask)) {
+        keys[gap] = keys[i];
+        values[gap] = values[i];
+        gap = i;
+      }
+    }
+    values[gap] = NO_VALUE;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != NO_VALUE) {
+        int j = slot(oldKeys[i]);
+        while (values[j] != NO_VALUE) {
+          j = (j + 1) & mask;
+        }
+        keys[j] = oldKeys[i];
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+}
@@ -15,21 +15,38 @@
  */
 package com.streamsets.pipeline.stage.processor.kv;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.streamsets.pipeline.api.Stage;
+import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.impl.Utils;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Optional;
 
 public class LookupUtils {
   private static final Logger LOG = LoggerFactory.getLogger(LookupUtils.class);
 
+  public static final String CACHE_GAUGE_NAME = "Lookup Cache";
+  private static final String MEMORY_HITS = "Memory Hits";
+  private static final String MEMORY_MISSES = "Memory Misses";
+  private static final String MEMORY_EVICTIONS = "Memory Evictions";
+  private static final String DISK_HITS = "Disk Hits";
+  private static final String DISK_MISSES = "Disk Misses";
+  private static final String DISK_EVICTIONS = "Disk Evictions";
+  private static final String DISK_ENTRIES = "Disk Entries";
+  private static final String PERSISTENT_STORE = "lookupUtils.persistentStore";
+
   private LookupUtils() {}
 
   @NotNull
@@ -39,7 +56,7 @@ public class LookupUtils {
       throw new IllegalArgumentException("This stage does not support retry on cache miss feature.");
     }
 
-    return createBuilder(conf).build(cacheLoader);
+    return createBuilder(conf, false).build(cacheLoader);
   }
 
   @NotNull
@@ -51,12 +68,141 @@ public class LookupUtils {
   ) {
     return new OptionalLoadingCache(
       !conf.retryOnCacheMiss,
-      createBuilder(conf).build(cacheLoader),
+      createBuilder(conf, false).build(cacheLoader),
       defaultValue
     );
   }
 
-  private static CacheBuilder createBuilder(CacheConfig conf) {
+  /**
+   * Builds a cache backed by the given persistent store: values missing in memory are looked up in the store before
+   * being loaded with the cache loader, and loaded values are written through to the store.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  public static<Key, Value> LoadingCache<Key, Value> buildCache(
+    CacheLoader<Key, Value> cacheLoader,
+    CacheConfig conf,
+    MappedFileCacheStore store,
+    PersistentCacheCodec<Key, Value> codec
+  ) {
+    if(conf.retryOnCacheMiss) {
+      throw new IllegalArgumentException("This stage does not support retry on cache miss feature.");
+    }
+
+    return createBuilder(conf, true).build(new PersistentTierCacheLoader<>(cacheLoader, store, codec, conf));
+  }
+
+  /**
+   * Same as above for caches of optional values, only present values are persisted.
+   */
+  @NotNull
+  public static<Key, Value> LoadingCache<Key, Optional<Value>> buildCache(
+    CacheLoader<Key, Optional<Value>> cacheLoader,
+    CacheConfig conf,
+    Optional<Value> defaultValue,
+    MappedFileCacheStore store,
+    PersistentCacheCodec<Key, Value> codec
+  ) {
+    PersistentTierCacheLoader<Key, Optional<Value>> persistentTierLoader =
+      new PersistentTierCacheLoader<>(cacheLoader, store, new OptionalCacheCodec<>(codec), conf);
+    return buildCache(persistentTierLoader, conf, defaultValue);
+  }
+
+  /**
+   * Builds a cache on top of a persistent tier loader, for stages that also need to access the persistent tier
+   * directly, for example to write through values they look up in bulk.
+   */
+  @NotNull
+  @SuppressWarnings("unchecked")
+  public static<Key, Value> LoadingCache<Key, Optional<Value>> buildCache(
+    PersistentTierCacheLoader<Key, Optional<Value>> cacheLoader,
+    CacheConfig conf,
+    Optional<Value> defaultValue
+  ) {
+    return new OptionalLoadingCache(
+      !conf.retryOnCacheMiss,
+      createBuilder(conf, true).build(cacheLoader),
+      defaultValue
+    );
+  }
+
+  /**
+   * Returns the persistent store shared by all the pipeline runners of the stage instance. The store is opened by
+   * the first runner, which must also close it, see {@link #closeSharedPersistentStore(Stage.Context,
+   * MappedFileCacheStore)}.
+   */
+  public static MappedFileCacheStore openSharedPersistentStore(
+      Stage.Context context,
+      CacheConfig conf,
+      String fingerprint
+  ) throws StageException {
+    if (context.getRunnerId() == 0) {
+      MappedFileCacheStore store = openPersistentStore(context, conf, fingerprint);
+      context.getStageRunnerSharedMap().put(PERSISTENT_STORE, store);
+      return store;
+    }
+    return (MappedFileCacheStore) context.getStageRunnerSharedMap().get(PERSISTENT_STORE);
+  }
+
+  public static void closeSharedPersistentStore(Stage.Context context, MappedFileCacheStore store) {
+    if (store != null && context.getRunnerId() == 0) {
+      try {
+        store.close();
+      } catch (IOException ex) {
+        LOG.error("Error while closing persistent cache: ", ex);
+      }
+    }
+  }
+
+  /**
+   * Opens (or creates) the persistent cache file of the given stage instance. The fingerprint must change whenever
+   * a configuration change could change the looked up values, the file is then formatted again.
+   */
+  public static MappedFileCacheStore openPersistentStore(
+      Stage.Context context,
+      CacheConfig conf,
+      String fingerprint
+  ) throws StageException {
+    File file = new File(
+        conf.persistentDirectory,
+        context.getPipelineId() + "-" + context.getStageInfo().getInstanceName() + ".cache"
+    );
+    try {
+      File directory = file.getAbsoluteFile().getParentFile();
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException(Utils.format("Can't create directory '{}'", directory));
+      }
+      return new MappedFileCacheStore(file, conf.persistentMaxSizeMB * 1024 * 1024, fingerprint);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new StageException(Errors.LOOKUP_04, file, e.toString(), e);
+    }
+  }
+
+  /**
+   * Publishes the statistics of both cache tiers in the given gauge map. Memory statistics are only available when
+   * the cache was built with a persistent store and when the Guava version on the class path can record them.
+   */
+  public static void updateCacheGauge(Map<String, Object> gaugeMap, LoadingCache<?, ?> cache, MappedFileCacheStore store) {
+    // Same as recordStats in createBuilder, go through reflection as CDH still uses guava 11.0.
+    try {
+      Method m = Cache.class.getMethod("stats");
+      CacheStats stats = (CacheStats) m.invoke(cache);
+      gaugeMap.put(MEMORY_HITS, stats.hitCount());
+      gaugeMap.put(MEMORY_MISSES, stats.missCount());
+      gaugeMap.put(MEMORY_EVICTIONS, stats.evictionCount());
+    } catch (NoSuchMethodException|IllegalAccessException|InvocationTargetException|LinkageError e) {
+      // We're intentionally ignoring any reflection errors as we might be running
+      // with old guava on class path.
+    }
+    if (store != null) {
+      gaugeMap.put(DISK_HITS, store.getHitCount());
+      gaugeMap.put(DISK_MISSES, store.getMissCount());
+      gaugeMap.put(DISK_EVICTIONS, store.getEvictionCount());
+      gaugeMap.put(DISK_ENTRIES, store.size());
+    }
+  }
+
+  private static CacheBuilder createBuilder(CacheConfig conf, boolean recordStats) {
     CacheBuilder cacheBuilder = CacheBuilder.newBuilder();
 
     if(!conf.enabled) {
@@ -68,7 +214,7 @@ public class LookupUtils {
 
     // recordStats is available only in Guava 12.0 and above, but
     // CDH still uses guava 11.0. Hence the reflection.
-    if(LOG.isDebugEnabled()) {
+    if(recordStats || LOG.isDebugEnabled()) {
       try {
         Method m = CacheBuilder.class.getMethod("recordStats");
         if (m != null) {
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Size bounded key/value store kept in a memory mapped file, used as the persistent second tier of the lookup caches.
+ *
+ * The file is split in a fixed number of segments that are filled sequentially. When the last free segment is full,
+ * the oldest segment is reused and all the entries it held are evicted. Keys and values only live in the mapped file,
+ * the heap only holds a 64 bit hash of each key and the position of its latest entry, in primitive arrays. That index
+ * is rebuilt by scanning the segments in write order when an existing file is opened, so cached values survive
+ * pipeline restarts.
+ * The file header holds a fingerprint of the configuration the values were looked up with, a file written with a
+ * different configuration is formatted again instead of serving stale values.
+ *
+ * All public methods are synchronized, a single store can be shared by all pipeline runners.
+ */
+public class MappedFileCacheStore implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(MappedFileCacheStore.class);
+
+  private static final int FILE_MAGIC = 0x53444343;
+  private static final int FILE_VERSION = 2;
+  // magic, version, segment count, segment size, configuration fingerprint
+  private static final int FILE_HEADER_SIZE = 24;
+  // sequence, end of the written data within the segment
+  private static final int SEGMENT_HEADER_SIZE = 12;
+  // key length, value length, expiration timestamp, crc of key and value
+  private static final int ENTRY_HEADER_SIZE = 24;
+  static final int SEGMENT_COUNT = 16;
+
+  private final File file;
+  private final RandomAccessFile randomAccessFile;
+  private final MappedByteBuffer buffer;
+  private final int segmentSize;
+  private final long fingerprint;
+  private final LongIntHashMap index;
+  private final long[] sequences;
+  private final int[] segmentEnds;
+  private int currentSegment;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private boolean closed;
+
+  /**
+   * @param fingerprint description of everything besides the key the cached values depend on, typically the
+   * connection and type mapping configuration of the lookup.
+   */
+  public MappedFileCacheStore(File file, int maxSizeBytes, String fingerprint) throws IOException {
+    this.file = file;
+    this.fingerprint = Hashing.murmur3_128().hashString(fingerprint, StandardCharsets.UTF_8).asLong();
+    this.segmentSize = (maxSizeBytes - FILE_HEADER_SIZE) / SEGMENT_COUNT;
+    if (segmentSize <= SEGMENT_HEADER_SIZE + ENTRY_HEADER_SIZE) {
+      throw new IllegalArgumentException("Persistent cache size is too small: " + maxSizeBytes);
+    }
+    int fileSize = FILE_HEADER_SIZE + segmentSize * SEGMENT_COUNT;
+    boolean exists = file.exists() && file.length() == fileSize;
+
+    this.randomAccessFile = new RandomAccessFile(file, "rw");
+    this.randomAccessFile.setLength(fileSize);
+    this.buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+    this.index = new LongIntHashMap();
+    this.sequences = new long[SEGMENT_COUNT];
+    this.segmentEnds = new int[SEGMENT_COUNT];
+
+    if (exists && buffer.getInt(0) == FILE_MAGIC && buffer.getInt(4) == FILE_VERSION &&
+        buffer.getInt(8) == SEGMENT_COUNT && buffer.getInt(12) == segmentSize) {
+      if (buffer.getLong(16) == this.fingerprint) {
+        recover();
+      } else {
+        LOG.info("Lookup configuration changed, discarding persistent cache '{}'", file);
+        format();
+      }
+    } else {
+      format();
+    }
+  }
+
+  private void format() {
+    buffer.putInt(0, FILE_MAGIC);
+    buffer.putInt(4, FILE_VERSION);
+    buffer.putInt(8, SEGMENT_COUNT);
+    buffer.putInt(12, segmentSize);
+    buffer.putLong(16, fingerprint);
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      writeSegmentHeader(i, 0, SEGMENT_HEADER_SIZE);
+    }
+    currentSegment = 0;
+    writeSegmentHeader(0, 1, SEGMENT_HEADER_SIZE);
+  }
+
+  /**
+   * Rebuilds the index scanning all segments from the oldest to the newest one, so that later entries for a key
+   * replace earlier ones. Scanning of a segment stops at the first entry that does not pass the crc check.
+   */
+  private void recover() {
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      int offset = segmentOffset(i);
+      sequences[i] = buffer.getLong(offset);
+      segmentEnds[i] = Math.min(Math.max(buffer.getInt(offset + 8), SEGMENT_HEADER_SIZE), segmentSize);
+      if (sequences[i] > 0) {
+        order.add(i);
+      }
+    }
+    if (order.isEmpty()) {
+      format();
+      return;
+    }
+    order.sort((a, b) -> Long.compare(sequences[a], sequences[b]));
+
+    long now = System.currentTimeMillis();
+    for (int segment : order) {
+      int position = SEGMENT_HEADER_SIZE;
+      while (position + ENTRY_HEADER_SIZE <= segmentEnds[segment]) {
+        int entryOffset = segmentOffset(segment) + position;
+        int keyLength = buffer.getInt(entryOffset);
+        int valueLength = buffer.getInt(entryOffset + 4);
+        int length = ENTRY_HEADER_SIZE + keyLength + valueLength;
+        if (keyLength <= 0 || valueLength < 0 || position + length > segmentEnds[segment] ||
+            buffer.getLong(entryOffset + 16) != crc(entryOffset, keyLength + valueLength)) {
+          LOG.warn("Ignoring corrupted data in persistent cache '{}' segment {}", file, segment);
+          segmentEnds[segment] = position;
+          writeSegmentHeader(segment, sequences[segment], position);
+          break;
+        }
+        long hash = hash(read(entryOffset + ENTRY_HEADER_SIZE, keyLength));
+        if (buffer.getLong(entryOffset + 8) > now) {
+          index.put(hash, entryOffset);
+        } else {
+          index.remove(hash);
+        }
+        position += length;
+      }
+    }
+    currentSegment = order.get(order.size() - 1);
+    LOG.debug("Recovered {} entries from persistent cache '{}'", index.size(), file);
+  }
+
+  public synchronized byte[] get(byte[] key) {
+    return get(key, 0);
+  }
+
+  /**
+   * Same as {@link #get(byte[])}, but also moves the expiration of the entry to the given timestamp when found, for
+   * access based expiration. The expiration is not covered by the crc, so it is updated in place.
+   */
+  public synchronized byte[] get(byte[] key, long renewedExpiresAt) {
+    if (closed) {
+      return null;
+    }
+    long hash = hash(key);
+    int entryOffset = index.get(hash);
+    if (entryOffset == LongIntHashMap.NO_VALUE) {
+      misses++;
+      return null;
+    }
+    int keyLength = buffer.getInt(entryOffset);
+    int valueLength = buffer.getInt(entryOffset + 4);
+    if (keyLength != key.length || !Arrays.equals(key, read(entryOffset + ENTRY_HEADER_SIZE, keyLength))) {
+      misses++;
+      return null;
+    }
+    if (buffer.getLong(entryOffset + 8) <= System.currentTimeMillis()) {
+      index.remove(hash);
+      evictions++;
+      misses++;
+      return null;
+    }
+    if (renewedExpiresAt > 0) {
+      buffer.putLong(entryOffset + 8, renewedExpiresAt);
+    }
+    hits++;
+    return read(entryOffset + ENTRY_HEADER_SIZE + keyLength, valueLength);
+  }
+
+  /**
+   * Stores the value, returns false if the entry is larger than a segment and therefore can't be stored.
+   */
+  public synchronized boolean put(byte[] key, byte[] value, long expiresAt) {
+    int length = ENTRY_HEADER_SIZE + key.length + value.length;
+    if (closed || key.length == 0 || length > segmentSize - SEGMENT_HEADER_SIZE) {
+      return false;
+    }
+    if (segmentEnds[currentSegment] + length > segmentSize) {
+      nextSegment();
+    }
+
+    int entryOffset = segmentOffset(currentSegment) + segmentEnds[currentSegment];
+    buffer.putInt(entryOffset, key.length);
+    buffer.putInt(entryOffset + 4, value.length);
+    buffer.putLong(entryOffset + 8, expiresAt);
+    write(entryOffset + ENTRY_HEADER_SIZE, key);
+    write(entryOffset + ENTRY_HEADER_SIZE + key.length, value);
+    buffer.putLong(entryOffset + 16, crc(entryOffset, key.length + value.length));
+    segmentEnds[currentSegment] += length;
+    writeSegmentHeader(currentSegment, sequences[currentSegment], segmentEnds[currentSegment]);
+
+    index.put(hash(key), entryOffset);
+    return true;
+  }
+
+  public synchronized void invalidate(byte[] key) {
+    index.remove(hash(key));
+  }
+
+  /**
+   * Moves to the next segment, evicting all the entries of the segment that gets reused.
+   */
+  private void nextSegment() {
+    long sequence = sequences[currentSegment] + 1;
+    currentSegment = (currentSegment + 1) % SEGMENT_COUNT;
+
+    int position = SEGMENT_HEADER_SIZE;
+    while (position + ENTRY_HEADER_SIZE <= segmentEnds[currentSegment]) {
+      int entryOffset = segmentOffset(currentSegment) + position;
+      int keyLength = buffer.getInt(entryOffset);
+      int valueLength = buffer.getInt(entryOffset + 4);
+      long hash = hash(read(entryOffset + ENTRY_HEADER_SIZE, keyLength));
+      if (index.get(hash) == entryOffset) {
+        index.remove(hash);
+        evictions++;
+      }
+      position += ENTRY_HEADER_SIZE + keyLength + valueLength;
+    }
+    writeSegmentHeader(currentSegment, sequence, SEGMENT_HEADER_SIZE);
+  }
+
+  private void writeSegmentHeader(int segment, long sequence, int end) {
+    sequences[segment] = sequence;
+    segmentEnds[segment] = end;
+    int offset = segmentOffset(segment);
+    buffer.putLong(offset, sequence);
+    buffer.putInt(offset + 8, end);
+  }
+
+  private int segmentOffset(int segment) {
+    return FILE_HEADER_SIZE + segment * segmentSize;
+  }
+
+  private byte[] read(int offset, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer view = buffer.duplicate();
+    // Cast to Buffer to stay compatible with Java 8 runtimes
+    ((Buffer) view).position(offset);
+    view.get(bytes);
+    return bytes;
+  }
+
+  private void write(int offset, byte[] bytes) {
+    ByteBuffer view = buffer.duplicate();
+    ((Buffer) view).position(offset);
+    view.put(bytes);
+  }
+
+  private long crc(int entryOffset, int dataLength) {
+    CRC32 crc = new CRC32();
+    crc.update(read(entryOffset + ENTRY_HEADER_SIZE, dataLength));
+    return crc.getValue();
+  }
+
+  private static long hash(byte[] key) {
+    return Hashing.murmur3_128().hashBytes(key).asLong();
+  }
+
+  public synchronized int size() {
+    return index.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictions;
+  }
+
+  /**
+   * Flushes and unmaps the file. The mapping is released right away rather than when the buffer is garbage collected,
+   * so that the file can be mapped again by the next pipeline run, or deleted, which Windows does not allow while a
+   * mapping is open. The store returns no values once closed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      buffer.force();
+    } finally {
+      randomAccessFile.close();
+      unmap(buffer);
+    }
+  }
+
+  /**
+   * There is no public API to unmap a buffer, go through Unsafe.invokeCleaner on Java 9 and later and through the
+   * buffer cleaner on Java 8. If neither is accessible the mapping is released when the buffer is garbage collected.
+   */
+  private void unmap(MappedByteBuffer buffer) {
+    try {
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+        theUnsafe.setAccessible(true);
+        invokeCleaner.invoke(theUnsafe.get(null), buffer);
+      } catch (NoSuchMethodException e) {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        cleaner.getClass().getMethod("clean").invoke(cleaner);
+      }
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("Can't unmap persistent cache '{}', it will be unmapped once garbage collected: {}", file, e, e);
+    }
+  }
+}
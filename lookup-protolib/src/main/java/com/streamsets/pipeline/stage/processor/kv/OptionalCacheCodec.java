@@ -0,0 +1,50 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Codec for caches of optional values, only present values are persisted.
+ */
+public class OptionalCacheCodec<Key, Value> implements PersistentCacheCodec<Key, Optional<Value>> {
+  private final PersistentCacheCodec<Key, Value> codec;
+
+  public OptionalCacheCodec(PersistentCacheCodec<Key, Value> codec) {
+    this.codec = codec;
+  }
+
+  @Override
+  public byte[] encodeKey(Key key) {
+    return codec.encodeKey(key);
+  }
+
+  @Override
+  public boolean isPersistent(Optional<Value> value) {
+    return value.isPresent() && codec.isPersistent(value.get());
+  }
+
+  @Override
+  public byte[] encodeValue(Optional<Value> value) throws IOException {
+    return codec.encodeValue(value.get());
+  }
+
+  @Override
+  public Optional<Value> decodeValue(byte[] bytes) throws IOException {
+    return Optional.of(codec.decodeValue(bytes));
+  }
+}
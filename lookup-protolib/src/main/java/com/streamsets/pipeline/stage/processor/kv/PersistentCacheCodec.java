@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import java.io.IOException;
+
+/**
+ * Converts cache keys and values from and to the byte representation stored in a {@link MappedFileCacheStore}.
+ */
+public interface PersistentCacheCodec<Key, Value> {
+
+  byte[] encodeKey(Key key);
+
+  /**
+   * Returns false for values that must only be kept in the memory cache, like missing values that should be looked
+   * up again after a restart.
+   */
+  default boolean isPersistent(Value value) {
+    return true;
+  }
+
+  /**
+   * Throws an IOException when the value can't be persisted, the value is then only kept in the memory cache.
+   */
+  byte[] encodeValue(Value value) throws IOException;
+
+  Value decodeValue(byte[] bytes) throws IOException;
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.cache.CacheLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache loader that sits between the memory cache and the actual lookup: values are first looked up in the
+ * persistent store and only loaded with the delegate loader when missing there, in which case they are written
+ * through to the store. Values the codec does not consider persistent, typically missing values, are never written
+ * so that they are retried after a restart.
+ *
+ * Persisted values expire after the persistent expiration time of the cache configuration rather than the memory
+ * one, which is typically too short for values to survive a restart. With the expire after access policy, the
+ * expiration of a persisted value is pushed back every time it is read from the store.
+ */
+public class PersistentTierCacheLoader<Key, Value> extends CacheLoader<Key, Value> {
+  private static final Logger LOG = LoggerFactory.getLogger(PersistentTierCacheLoader.class);
+
+  private final CacheLoader<Key, Value> delegate;
+  private final MappedFileCacheStore store;
+  private final PersistentCacheCodec<Key, Value> codec;
+  private final long expirationMillis;
+  private final boolean expireAfterAccess;
+
+  public PersistentTierCacheLoader(
+      CacheLoader<Key, Value> delegate,
+      MappedFileCacheStore store,
+      PersistentCacheCodec<Key, Value> codec,
+      CacheConfig conf
+  ) {
+    this.delegate = delegate;
+    this.store = store;
+    this.codec = codec;
+    this.expirationMillis = conf.persistentTimeUnit.toMillis(conf.persistentExpirationTime);
+    this.expireAfterAccess = conf.evictionPolicyType == EvictionPolicyType.EXPIRE_AFTER_ACCESS;
+  }
+
+  @Override
+  public Value load(Key key) throws Exception {
+    Value value = getPersisted(key);
+    if (value == null) {
+      value = delegate.load(key);
+      persist(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Keys missing in the persistent store are loaded in bulk when the delegate supports it.
+   */
+  @Override
+  public Map<Key, Value> loadAll(Iterable<? extends Key> keys) throws Exception {
+    Map<Key, Value> values = new HashMap<>();
+    List<Key> missingKeys = new ArrayList<>();
+    for (Key key : keys) {
+      Value value = getPersisted(key);
+      if (value == null) {
+        missingKeys.add(key);
+      } else {
+        values.put(key, value);
+      }
+    }
+    if (missingKeys.isEmpty()) {
+      return values;
+    }
+
+    Map<? extends Key, ? extends Value> loaded;
+    try {
+      loaded = delegate.loadAll(missingKeys);
+    } catch (UnsupportedLoadingOperationException e) {
+      Map<Key, Value> loadedOneByOne = new HashMap<>();
+      for (Key key : missingKeys) {
+        loadedOneByOne.put(key, delegate.load(key));
+      }
+      loaded = loadedOneByOne;
+    }
+    for (Map.Entry<? extends Key, ? extends Value> entry : loaded.entrySet()) {
+      persist(entry.getKey(), entry.getValue());
+      values.put(entry.getKey(), entry.getValue());
+    }
+    return values;
+  }
+
+  /**
+   * Returns the value kept in the persistent store for the key, or null if there is none.
+   */
+  public Value getPersisted(Key key) {
+    byte[] encodedKey = codec.encodeKey(key);
+    byte[] stored = expireAfterAccess ? store.get(encodedKey, expiresAt()) : store.get(encodedKey);
+    if (stored != null) {
+      try {
+        return codec.decodeValue(stored);
+      } catch (IOException e) {
+        LOG.warn("Can't decode persistent cache entry for key '{}', loading it again: {}", key, e.toString(), e);
+        store.invalidate(encodedKey);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Writes a value loaded outside of this loader through to the persistent store.
+   */
+  public void persist(Key key, Value value) {
+    if (value == null || !codec.isPersistent(value)) {
+      return;
+    }
+    try {
+      store.put(codec.encodeKey(key), codec.encodeValue(value), expiresAt());
+    } catch (IOException e) {
+      LOG.debug("Value for key '{}' can't be persisted: {}", key, e.toString(), e);
+    }
+  }
+
+  private long expiresAt() {
+    return System.currentTimeMillis() + expirationMillis;
+  }
+}
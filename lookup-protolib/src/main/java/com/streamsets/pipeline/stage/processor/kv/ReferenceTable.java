@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference table fully loaded in memory and refreshed on a schedule.
+ *
+ * Each refresh loads a complete new snapshot in the background and swaps it in at once, so lookups always see a
+ * consistent table and never wait for the database. When a refresh fails the previous snapshot is kept. A single
+ * instance is meant to be shared by all pipeline runners.
+ */
+public class ReferenceTable<V> implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(ReferenceTable.class);
+
+  public static final String GAUGE_NAME = "Reference Table";
+  private static final String ROWS = "Keys";
+  private static final String LAST_REFRESH = "Last Refresh";
+  private static final String LOAD_TIME = "Load Time (ms)";
+  private static final String FAILED_REFRESHES = "Failed Refreshes";
+
+  /**
+   * Loads a complete snapshot of the reference table.
+   */
+  public interface SnapshotLoader<V> {
+    ReferenceTableIndex<V> load() throws StageException;
+  }
+
+  private final String name;
+  private final SnapshotLoader<V> loader;
+  private final long refreshIntervalSecs;
+  private final Map<String, Object> gaugeMap;
+  private volatile ReferenceTableIndex<V> snapshot;
+  private ScheduledExecutorService refresher;
+  private long failedRefreshes;
+
+  public ReferenceTable(String name, SnapshotLoader<V> loader, long refreshIntervalSecs, Map<String, Object> gaugeMap) {
+    this.name = name;
+    this.loader = loader;
+    this.refreshIntervalSecs = refreshIntervalSecs;
+    this.gaugeMap = gaugeMap;
+  }
+
+  /**
+   * Loads the first snapshot synchronously, so that a failure is reported at pipeline start, and schedules the
+   * periodic refreshes.
+   */
+  public void start() throws StageException {
+    load();
+    if (refreshIntervalSecs > 0) {
+      refresher = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat(name + " Reference Table Refresher").setDaemon(true).build()
+      );
+      refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalSecs, refreshIntervalSecs, TimeUnit.SECONDS);
+    }
+  }
+
+  private void load() throws StageException {
+    long start = System.currentTimeMillis();
+    ReferenceTableIndex<V> loaded = loader.load();
+    snapshot = loaded;
+    long end = System.currentTimeMillis();
+    LOG.debug("Loaded {} keys in reference table '{}' in {} ms", loaded.size(), name, end - start);
+    synchronized (gaugeMap) {
+      gaugeMap.put(ROWS, loaded.size());
+      gaugeMap.put(LAST_REFRESH, end);
+      gaugeMap.put(LOAD_TIME, end - start);
+    }
+  }
+
+  private void refresh() {
+    try {
+      load();
+    } catch (StageException | RuntimeException e) {
+      LOG.error("Failed to refresh reference table '{}', keeping the previous snapshot: {}", name, e.toString(), e);
+      synchronized (gaugeMap) {
+        gaugeMap.put(FAILED_REFRESHES, ++failedRefreshes);
+      }
+    }
+  }
+
+  /**
+   * Returns the value of the given key column values in the current snapshot, null if the key is not in the table.
+   */
+  public V get(List<Field> keyFields) {
+    return snapshot.get(keyFields);
+  }
+
+  public int size() {
+    return snapshot.size();
+  }
+
+  @Override
+  public void close() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+      try {
+        if (!refresher.awaitTermination(5, TimeUnit.SECONDS)) {
+          LOG.warn("Reference table '{}' refresher did not terminate", name);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
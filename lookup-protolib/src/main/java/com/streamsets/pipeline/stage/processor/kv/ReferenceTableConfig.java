@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.Dependency;
+import com.streamsets.pipeline.api.ListBeanModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReferenceTableConfig {
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      label = "Load Full Table",
+      defaultValue = "false",
+      description = "Loads the whole reference table in memory and serves all lookups from it instead of querying " +
+        "per record. Use for small, slowly changing tables",
+      displayPosition = 200,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0"
+  )
+  public boolean enabled = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      label = "Key Columns Mapping",
+      defaultValue = "",
+      description = "Columns of the reference table matched against fields of the incoming records",
+      displayPosition = 210,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "enabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  @ListBeanModel
+  public List<ReferenceKeyMapping> keyMappings = new ArrayList<>();
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      label = "Refresh Interval (secs)",
+      defaultValue = "3600",
+      min = 0,
+      description = "Time between two reloads of the reference table. Use 0 to load the table only once",
+      displayPosition = 220,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      dependencies = @Dependency(configName = "enabled", triggeredByValues = "true"),
+      group = "#0"
+  )
+  public long refreshInterval = 3600;
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.streamsets.pipeline.api.Field;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, read optimized index of a reference table snapshot.
+ *
+ * Entries are kept in open addressing arrays: the probe compares the primitive hashes first and only looks at the key
+ * of slots with a matching hash. Lookups hash and compare the key fields of the record in place, so a lookup by
+ * null, integral, date, string or byte array values costs no allocation and touches a couple of cache lines at most.
+ */
+public final class ReferenceTableIndex<V> {
+  // Normalized form of null values, not equal to any value
+  private static final Object NULL_PART = new Object();
+  private static final int NULL_HASH = 0x9E3779B9;
+
+  private final int[] hashes;
+  private final Key[] keys;
+  private final Object[] values;
+  private final int mask;
+  private final int size;
+
+  private ReferenceTableIndex(Map<Key, V> entries) {
+    int capacity = Integer.highestOneBit(Math.max(entries.size() * 2, 2) - 1) << 1;
+    this.hashes = new int[capacity];
+    this.keys = new Key[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+    this.size = entries.size();
+
+    for (Map.Entry<Key, V> entry : entries.entrySet()) {
+      int hash = spread(entry.getKey().hash);
+      int slot = hash & mask;
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      hashes[slot] = hash;
+      keys[slot] = entry.getKey();
+      values[slot] = entry.getValue();
+    }
+  }
+
+  public static <V> ReferenceTableIndex<V> copyOf(Map<Key, V> entries) {
+    return new ReferenceTableIndex<>(entries);
+  }
+
+  /**
+   * Returns the value for the given key column values, null if the key is not in the table.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(List<Field> keyFields) {
+    int hash = spread(hashOf(keyFields));
+    int slot = hash & mask;
+    while (keys[slot] != null) {
+      if (hashes[slot] == hash && keys[slot].matches(keyFields)) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private static int spread(int h) {
+    // Spread the higher bits as the table index only uses the lower ones
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Key of a reference table row, made of the normalized values of its key columns. Values are normalized so that
+   * the same value matches whether it comes from the table or from a record field of a compatible type, e.g. an
+   * INTEGER column and a LONG or STRING field, or DECIMAL values with a different scale. Integral values (including
+   * dates and strings holding an integer in canonical form) are kept as longs, byte arrays as they are, other values
+   * as their string representation, and nulls as a marker no value can be equal to.
+   */
+  public static final class Key {
+    private final Object[] parts;
+    private final int hash;
+
+    private Key(Object[] parts) {
+      this.parts = parts;
+      int h = 1;
+      for (Object part : parts) {
+        h = 31 * h + partHash(part);
+      }
+      this.hash = h;
+    }
+
+    public static Key of(List<Field> fields) {
+      Object[] parts = new Object[fields.size()];
+      for (int i = 0; i < parts.length; i++) {
+        parts[i] = normalize(fields.get(i));
+      }
+      return new Key(parts);
+    }
+
+    private boolean matches(List<Field> fields) {
+      if (fields.size() != parts.length) {
+        return false;
+      }
+      for (int i = 0; i < parts.length; i++) {
+        if (!partMatches(parts[i], fields.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      if (hash != other.hash || parts.length != other.parts.length) {
+        return false;
+      }
+      for (int i = 0; i < parts.length; i++) {
+        if (!partEquals(parts[i], other.parts[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("Key[");
+      for (int i = 0; i < parts.length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        Object part = parts[i];
+        sb.append(part == NULL_PART ? "null" : part instanceof byte[] ? Arrays.toString((byte[]) part) : part);
+      }
+      return sb.append(']').toString();
+    }
+  }
+
+  private static Object normalize(Field field) {
+    if (field == null || field.getValue() == null) {
+      return NULL_PART;
+    }
+    Object value = field.getValue();
+    switch (field.getType()) {
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+        return ((Number) value).longValue();
+      case DATE:
+      case DATETIME:
+      case TIME:
+        return ((Date) value).getTime();
+      case DECIMAL:
+        return normalize((BigDecimal) value);
+      case BYTE_ARRAY:
+        return value;
+      default:
+        return normalize(field.getValueAsString());
+    }
+  }
+
+  private static Object normalize(BigDecimal decimal) {
+    if (decimal.signum() == 0) {
+      return 0L;
+    }
+    BigDecimal stripped = decimal.stripTrailingZeros();
+    if (stripped.scale() <= 0) {
+      try {
+        return stripped.longValueExact();
+      } catch (ArithmeticException e) {
+        // larger than a long, use its string representation like strings holding such a value
+      }
+    }
+    return stripped.toPlainString();
+  }
+
+  private static Object normalize(String value) {
+    return isCanonicalLong(value) ? (Object) Long.parseLong(value) : value;
+  }
+
+  /**
+   * Returns true if the string is exactly what Long.toString returns for some long value.
+   */
+  private static boolean isCanonicalLong(String value) {
+    int length = value.length();
+    int start = (length > 0 && value.charAt(0) == '-') ? 1 : 0;
+    if (length == start || length - start > 19) {
+      return false;
+    }
+    if (value.charAt(start) == '0') {
+      return length == 1;
+    }
+    for (int i = start; i < length; i++) {
+      char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    if (length - start < 19) {
+      return true;
+    }
+    try {
+      Long.parseLong(value);
+      return true;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private static int partHash(Object part) {
+    if (part == NULL_PART) {
+      return NULL_HASH;
+    } else if (part instanceof byte[]) {
+      return Arrays.hashCode((byte[]) part);
+    }
+    return part.hashCode();
+  }
+
+  private static boolean partEquals(Object a, Object b) {
+    if (a instanceof byte[] && b instanceof byte[]) {
+      return Arrays.equals((byte[]) a, (byte[]) b);
+    }
+    return a.equals(b);
+  }
+
+  /**
+   * Same hash as the key of the given fields, computed without normalizing the common types.
+   */
+  private static int hashOf(List<Field> fields) {
+    int h = 1;
+    for (int i = 0; i < fields.size(); i++) {
+      h = 31 * h + fieldHash(fields.get(i));
+    }
+    return h;
+  }
+
+  private static int fieldHash(Field field) {
+    if (field == null || field.getValue() == null) {
+      return NULL_HASH;
+    }
+    Object value = field.getValue();
+    switch (field.getType()) {
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+        return Long.hashCode(((Number) value).longValue());
+      case DATE:
+      case DATETIME:
+      case TIME:
+        return Long.hashCode(((Date) value).getTime());
+      case STRING:
+        String string = (String) value;
+        return isCanonicalLong(string) ? Long.hashCode(Long.parseLong(string)) : string.hashCode();
+      case BYTE_ARRAY:
+        return Arrays.hashCode((byte[]) value);
+      default:
+        return partHash(normalize(field));
+    }
+  }
+
+  private static boolean partMatches(Object part, Field field) {
+    if (field == null || field.getValue() == null) {
+      return part == NULL_PART;
+    }
+    Object value = field.getValue();
+    switch (field.getType()) {
+      case BYTE:
+      case SHORT:
+      case INTEGER:
+      case LONG:
+        return part instanceof Long && (Long) part == ((Number) value).longValue();
+      case DATE:
+      case DATETIME:
+      case TIME:
+        return part instanceof Long && (Long) part == ((Date) value).getTime();
+      case STRING:
+        String string = (String) value;
+        if (part instanceof Long) {
+          return isCanonicalLong(string) && Long.parseLong(string) == (Long) part;
+        }
+        return string.equals(part);
+      case BYTE_ARRAY:
+        return part instanceof byte[] && Arrays.equals((byte[]) part, (byte[]) value);
+      default:
+        return partEquals(part, normalize(field));
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestFieldRowsCacheCodec {
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Map<String, Field> row = new LinkedHashMap<>();
+    row.put("boolean", Field.create(true));
+    row.put("char", Field.create('c'));
+    row.put("byte", Field.create((byte) 1));
+    row.put("short", Field.create((short) 2));
+    row.put("int", Field.create(3));
+    row.put("long", Field.create(4L));
+    row.put("float", Field.create(5.5f));
+    row.put("double", Field.create(6.5d));
+    row.put("date", Field.createDate(new Date(1000)));
+    row.put("datetime", Field.createDatetime(new Date(2000)));
+    row.put("time", Field.createTime(new Date(3000)));
+    row.put("decimal", Field.create(new BigDecimal("123.456")));
+    row.put("string", Field.create("text"));
+    row.put("zoned", Field.createZonedDateTime(ZonedDateTime.now()));
+    row.put("null", Field.create(Field.Type.INTEGER, null));
+    row.put("list", Field.create(ImmutableList.of(Field.create("a"), Field.create(1))));
+    Map<String, Field> nested = new LinkedHashMap<>();
+    nested.put("x", Field.create(1));
+    row.put("listMap", Field.createListMap((LinkedHashMap<String, Field>) nested));
+    Field withAttributes = Field.create("value");
+    withAttributes.setAttribute("attr", "attrValue");
+    row.put("attributes", withAttributes);
+
+    FieldRowsCacheCodec<String> codec = new FieldRowsCacheCodec<>(key -> key);
+    List<Map<String, Field>> decoded = codec.decodeValue(codec.encodeValue(ImmutableList.of(row, row)));
+
+    Assert.assertEquals(2, decoded.size());
+    Assert.assertEquals(row, decoded.get(0));
+    Assert.assertEquals(row, decoded.get(1));
+    Assert.assertEquals("attrValue", decoded.get(0).get("attributes").getAttribute("attr"));
+    Assert.assertArrayEquals(row.keySet().toArray(), decoded.get(0).keySet().toArray());
+  }
+
+  @Test
+  public void testByteArray() throws Exception {
+    Map<String, Field> row = new LinkedHashMap<>();
+    row.put("bytes", Field.create(new byte[]{1, 2, 3}));
+
+    FieldRowsCacheCodec<String> codec = new FieldRowsCacheCodec<>(key -> key);
+    Field decoded = codec.decodeValue(codec.encodeValue(ImmutableList.of(row))).get(0).get("bytes");
+
+    Assert.assertEquals(Field.Type.BYTE_ARRAY, decoded.getType());
+    Assert.assertArrayEquals(new byte[]{1, 2, 3}, decoded.getValueAsByteArray());
+  }
+
+  @Test(expected = IOException.class)
+  public void testFileRefNotSupported() throws Exception {
+    Map<String, Field> row = new LinkedHashMap<>();
+    row.put("file", Field.create(Field.Type.FILE_REF, null));
+    new FieldRowsCacheCodec<String>(key -> key).encodeValue(ImmutableList.of(row));
+  }
+
+  @Test
+  public void testTypeStoredByName() throws Exception {
+    Map<String, Field> row = new LinkedHashMap<>();
+    row.put("int", Field.create(3));
+    byte[] encoded = new FieldRowsCacheCodec<String>(key -> key).encodeValue(ImmutableList.of(row));
+
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(expected)) {
+      out.writeByte(2);
+      out.writeInt(1);
+      out.writeInt(1);
+      out.writeUTF("int");
+      out.writeUTF("INTEGER");
+      out.writeInt(0);
+      out.writeBoolean(true);
+      out.writeInt(3);
+    }
+    Assert.assertArrayEquals(expected.toByteArray(), encoded);
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownType() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(2);
+      out.writeInt(1);
+      out.writeInt(1);
+      out.writeUTF("field");
+      out.writeUTF("NOT_A_TYPE");
+      out.writeInt(0);
+      out.writeBoolean(false);
+    }
+    new FieldRowsCacheCodec<String>(key -> key).decodeValue(bytes.toByteArray());
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestLongIntHashMap {
+
+  @Test
+  public void testPutGetRemove() {
+    LongIntHashMap map = new LongIntHashMap();
+    Assert.assertEquals(LongIntHashMap.NO_VALUE, map.get(0));
+    map.put(0, 1);
+    map.put(Long.MIN_VALUE, 2);
+    map.put(Long.MAX_VALUE, 3);
+    map.put(0, 4);
+    Assert.assertEquals(3, map.size());
+    Assert.assertEquals(4, map.get(0));
+    Assert.assertEquals(2, map.get(Long.MIN_VALUE));
+    Assert.assertEquals(3, map.get(Long.MAX_VALUE));
+
+    Assert.assertEquals(2, map.remove(Long.MIN_VALUE));
+    Assert.assertEquals(LongIntHashMap.NO_VALUE, map.remove(Long.MIN_VALUE));
+    Assert.assertEquals(LongIntHashMap.NO_VALUE, map.get(Long.MIN_VALUE));
+    Assert.assertEquals(2, map.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeValue() {
+    new LongIntHashMap().put(1, -1);
+  }
+
+  @Test
+  public void testSameAsHashMap() {
+    // a small key range forces collisions, growth and removals in the middle of probe sequences
+    Random random = new Random(42);
+    LongIntHashMap map = new LongIntHashMap();
+    Map<Long, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 200000; i++) {
+      long key = random.nextInt(5000) * 1024L;
+      if (random.nextInt(3) == 0) {
+        Integer removed = expected.remove(key);
+        Assert.assertEquals(removed == null ? LongIntHashMap.NO_VALUE : (int) removed, map.remove(key));
+      } else {
+        expected.put(key, i);
+        map.put(key, i);
+      }
+      Assert.assertEquals(expected.size(), map.size());
+    }
+    for (long key = 0; key < 5000 * 1024L; key += 1024) {
+      Integer value = expected.get(key);
+      Assert.assertEquals(value == null ? LongIntHashMap.NO_VALUE : (int) value, map.get(key));
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+public class TestMappedFileCacheStore {
+  private static final long NEVER = Long.MAX_VALUE;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testPutGet() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      Assert.assertTrue(store.put(bytes("a"), bytes("1"), NEVER));
+      Assert.assertTrue(store.put(bytes("b"), bytes("2"), NEVER));
+      Assert.assertTrue(store.put(bytes("a"), bytes("3"), NEVER));
+
+      Assert.assertArrayEquals(bytes("3"), store.get(bytes("a")));
+      Assert.assertArrayEquals(bytes("2"), store.get(bytes("b")));
+      Assert.assertNull(store.get(bytes("c")));
+
+      Assert.assertEquals(2, store.size());
+      Assert.assertEquals(2, store.getHitCount());
+      Assert.assertEquals(1, store.getMissCount());
+
+      store.invalidate(bytes("b"));
+      Assert.assertNull(store.get(bytes("b")));
+    }
+  }
+
+  @Test
+  public void testExpiration() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      store.put(bytes("a"), bytes("1"), System.currentTimeMillis() - 1);
+      Assert.assertNull(store.get(bytes("a")));
+      Assert.assertEquals(1, store.getEvictionCount());
+      Assert.assertEquals(0, store.size());
+    }
+  }
+
+  @Test
+  public void testEvictionWhenFull() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 16 * 1024, "conf")) {
+      byte[] value = new byte[100];
+      for (int i = 0; i < 1000; i++) {
+        Assert.assertTrue(store.put(bytes("key" + i), value, NEVER));
+      }
+      Assert.assertTrue(store.getEvictionCount() > 0);
+      Assert.assertEquals(1000, store.size() + store.getEvictionCount());
+      // Latest entries are always kept, the oldest ones are evicted
+      Assert.assertNotNull(store.get(bytes("key999")));
+      Assert.assertNull(store.get(bytes("key0")));
+    }
+  }
+
+  @Test
+  public void testEntryLargerThanSegment() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 16 * 1024, "conf")) {
+      Assert.assertFalse(store.put(bytes("a"), new byte[16 * 1024], NEVER));
+      Assert.assertNull(store.get(bytes("a")));
+    }
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    File file = tempFolder.newFile();
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "conf")) {
+      for (int i = 0; i < 1000; i++) {
+        store.put(bytes("key" + i), bytes("value" + i), NEVER);
+      }
+      store.put(bytes("expired"), bytes("value"), System.currentTimeMillis() - 1);
+    }
+
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "conf")) {
+      Assert.assertArrayEquals(bytes("value999"), store.get(bytes("key999")));
+      Assert.assertNull(store.get(bytes("key0")));
+      Assert.assertNull(store.get(bytes("expired")));
+      store.put(bytes("new"), bytes("value"), NEVER);
+      Assert.assertArrayEquals(bytes("value"), store.get(bytes("new")));
+    }
+
+    // A different size formats the file again
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 32 * 1024, "conf")) {
+      Assert.assertEquals(0, store.size());
+    }
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    File file = tempFolder.newFile();
+    MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "conf");
+    store.put(bytes("key"), bytes("value"), NEVER);
+    store.close();
+
+    // the file is unmapped, so it can be deleted right away and the closed store does not touch it anymore
+    Assert.assertNull(store.get(bytes("key")));
+    Assert.assertFalse(store.put(bytes("other"), bytes("value"), NEVER));
+    store.close();
+    Assert.assertTrue(file.delete());
+  }
+
+  @Test
+  public void testConfigurationChange() throws Exception {
+    File file = tempFolder.newFile();
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "jdbc:a")) {
+      store.put(bytes("key"), bytes("value"), NEVER);
+    }
+
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "jdbc:a")) {
+      Assert.assertArrayEquals(bytes("value"), store.get(bytes("key")));
+    }
+
+    // Values looked up with another configuration are discarded
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "jdbc:b")) {
+      Assert.assertEquals(0, store.size());
+      Assert.assertNull(store.get(bytes("key")));
+      store.put(bytes("key"), bytes("other"), NEVER);
+    }
+
+    try (MappedFileCacheStore store = new MappedFileCacheStore(file, 16 * 1024, "jdbc:a")) {
+      Assert.assertEquals(0, store.size());
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class TestPersistentTierCacheLoader {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  // values starting with "missing" stand for values that were not found
+  private static class StringCodec implements PersistentCacheCodec<String, String> {
+    @Override
+    public byte[] encodeKey(String key) {
+      return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isPersistent(String value) {
+      return !value.startsWith("missing");
+    }
+
+    @Override
+    public byte[] encodeValue(String value) {
+      return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decodeValue(byte[] bytes) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static class RecordingLoader extends CacheLoader<String, String> {
+    private final boolean bulk;
+    private final List<String> loaded = new ArrayList<>();
+    private int bulkLoads;
+
+    RecordingLoader(boolean bulk) {
+      this.bulk = bulk;
+    }
+
+    @Override
+    public String load(String key) {
+      loaded.add(key);
+      return key.startsWith("unknown") ? "missing" : "value-" + key;
+    }
+
+    @Override
+    public Map<String, String> loadAll(Iterable<? extends String> keys) throws Exception {
+      if (!bulk) {
+        return super.loadAll(keys);
+      }
+      bulkLoads++;
+      Map<String, String> values = new HashMap<>();
+      for (String key : keys) {
+        values.put(key, load(key));
+      }
+      return values;
+    }
+  }
+
+  private static CacheConfig createConfig() {
+    CacheConfig conf = new CacheConfig();
+    conf.expirationTime = 1;
+    conf.timeUnit = TimeUnit.HOURS;
+    return conf;
+  }
+
+  @Test
+  public void testLoad() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      RecordingLoader delegate = new RecordingLoader(false);
+      PersistentTierCacheLoader<String, String> loader =
+          new PersistentTierCacheLoader<>(delegate, store, new StringCodec(), createConfig());
+
+      Assert.assertEquals("value-a", loader.load("a"));
+      Assert.assertEquals("value-a", loader.load("a"));
+      Assert.assertEquals("missing", loader.load("unknown"));
+      Assert.assertEquals("missing", loader.load("unknown"));
+
+      // found values are served from the store, missing values are looked up again
+      Assert.assertEquals(ImmutableList.of("a", "unknown", "unknown"), delegate.loaded);
+      Assert.assertEquals(1, store.size());
+    }
+  }
+
+  @Test
+  public void testLoadAll() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      RecordingLoader delegate = new RecordingLoader(true);
+      PersistentTierCacheLoader<String, String> loader =
+          new PersistentTierCacheLoader<>(delegate, store, new StringCodec(), createConfig());
+      loader.persist("a", "stored-a");
+
+      Map<String, String> values = loader.loadAll(ImmutableList.of("a", "b", "c"));
+
+      Assert.assertEquals(3, values.size());
+      Assert.assertEquals("stored-a", values.get("a"));
+      Assert.assertEquals("value-b", values.get("b"));
+      Assert.assertEquals(1, delegate.bulkLoads);
+      Assert.assertEquals(ImmutableList.of("b", "c"), delegate.loaded);
+      Assert.assertEquals("value-c", loader.getPersisted("c"));
+    }
+  }
+
+  @Test
+  public void testLoadAllWithoutBulkSupport() throws Exception {
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      RecordingLoader delegate = new RecordingLoader(false);
+      PersistentTierCacheLoader<String, String> loader =
+          new PersistentTierCacheLoader<>(delegate, store, new StringCodec(), createConfig());
+
+      Map<String, String> values = loader.loadAll(ImmutableList.of("a", "unknown"));
+
+      Assert.assertEquals("value-a", values.get("a"));
+      Assert.assertEquals("missing", values.get("unknown"));
+      Assert.assertEquals("value-a", loader.getPersisted("a"));
+      Assert.assertNull(loader.getPersisted("unknown"));
+    }
+  }
+
+  @Test
+  public void testPersistentExpirationIndependentFromMemory() throws Exception {
+    CacheConfig conf = createConfig();
+    conf.expirationTime = 1;
+    conf.timeUnit = TimeUnit.MILLISECONDS;
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      PersistentTierCacheLoader<String, String> loader =
+          new PersistentTierCacheLoader<>(new RecordingLoader(false), store, new StringCodec(), conf);
+      loader.persist("a", "stored-a");
+      Thread.sleep(20);
+      Assert.assertEquals("stored-a", loader.getPersisted("a"));
+    }
+  }
+
+  private String readAfterPersistentExpiration(EvictionPolicyType evictionPolicyType) throws Exception {
+    CacheConfig conf = createConfig();
+    conf.evictionPolicyType = evictionPolicyType;
+    conf.persistentExpirationTime = 600;
+    conf.persistentTimeUnit = TimeUnit.MILLISECONDS;
+    try (MappedFileCacheStore store = new MappedFileCacheStore(tempFolder.newFile(), 64 * 1024, "conf")) {
+      PersistentTierCacheLoader<String, String> loader =
+          new PersistentTierCacheLoader<>(new RecordingLoader(false), store, new StringCodec(), conf);
+      loader.persist("a", "stored-a");
+      Thread.sleep(400);
+      Assert.assertEquals("stored-a", loader.getPersisted("a"));
+      Thread.sleep(400);
+      return loader.getPersisted("a");
+    }
+  }
+
+  @Test
+  public void testPersistentExpireAfterAccess() throws Exception {
+    // reading the value pushes its expiration back
+    Assert.assertEquals("stored-a", readAfterPersistentExpiration(EvictionPolicyType.EXPIRE_AFTER_ACCESS));
+  }
+
+  @Test
+  public void testPersistentExpireAfterWrite() throws Exception {
+    Assert.assertNull(readAfterPersistentExpiration(EvictionPolicyType.EXPIRE_AFTER_WRITE));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestReferenceTable {
+  private static final List<Field> KEY = ImmutableList.of(Field.create("key"));
+
+  @Test
+  public void testRefresh() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    Map<String, Object> gauge = new HashMap<>();
+    ReferenceTable<Integer> table = new ReferenceTable<>(
+        "test",
+        () -> {
+          int load = loads.incrementAndGet();
+          if (load == 2) {
+            throw new StageException(Errors.LOOKUP_05, "failure");
+          }
+          return ReferenceTableIndex.copyOf(ImmutableMap.of(ReferenceTableIndex.Key.of(KEY), load));
+        },
+        1,
+        gauge
+    );
+    try {
+      table.start();
+      Assert.assertEquals(1, (int) table.get(KEY));
+
+      // The failed refresh keeps the previous snapshot, the next one replaces it
+      long timeout = System.currentTimeMillis() + 10000;
+      while (table.get(KEY) == 1 && System.currentTimeMillis() < timeout) {
+        Thread.sleep(50);
+      }
+      Assert.assertEquals(3, (int) table.get(KEY));
+      synchronized (gauge) {
+        Assert.assertEquals(1L, gauge.get("Failed Refreshes"));
+      }
+    } finally {
+      table.close();
+    }
+  }
+
+  @Test(expected = StageException.class)
+  public void testInitialLoadFailure() throws Exception {
+    ReferenceTable<Integer> table = new ReferenceTable<>(
+        "test",
+        () -> {
+          throw new StageException(Errors.LOOKUP_05, "failure");
+        },
+        0,
+        new HashMap<>()
+    );
+    table.start();
+  }
+}
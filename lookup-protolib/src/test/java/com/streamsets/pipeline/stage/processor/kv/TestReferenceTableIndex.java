@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv;
+
+import com.google.common.collect.ImmutableList;
+import com.streamsets.pipeline.api.Field;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TestReferenceTableIndex {
+
+  private static List<Field> fields(Field... fields) {
+    return Arrays.asList(fields);
+  }
+
+  private static ReferenceTableIndex.Key key(Field... fields) {
+    return ReferenceTableIndex.Key.of(fields(fields));
+  }
+
+  @Test
+  public void testGet() {
+    Map<ReferenceTableIndex.Key, Integer> entries = new HashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      entries.put(key(Field.create("key" + i), Field.create(i)), i);
+    }
+    ReferenceTableIndex<Integer> index = ReferenceTableIndex.copyOf(entries);
+
+    Assert.assertEquals(1000, index.size());
+    for (int i = 0; i < 1000; i++) {
+      Assert.assertEquals(i, (int) index.get(fields(Field.create("key" + i), Field.create(i))));
+    }
+    Assert.assertNull(index.get(fields(Field.create("key1000"), Field.create(1000))));
+    Assert.assertNull(index.get(fields(Field.create("key1"), Field.create(2))));
+    Assert.assertNull(index.get(fields(Field.create("key1"))));
+    Assert.assertNull(index.get(Collections.emptyList()));
+  }
+
+  @Test
+  public void testEmpty() {
+    ReferenceTableIndex<Integer> index = ReferenceTableIndex.copyOf(new HashMap<>());
+    Assert.assertEquals(0, index.size());
+    Assert.assertNull(index.get(fields(Field.create("key"))));
+  }
+
+  private static void assertMatches(Field tableValue, Field recordValue) {
+    ReferenceTableIndex.Key key = key(tableValue);
+    Assert.assertEquals(key, key(recordValue));
+    Assert.assertEquals(key.hashCode(), key(recordValue).hashCode());
+    ReferenceTableIndex<String> index = ReferenceTableIndex.copyOf(Collections.singletonMap(key, "found"));
+    Assert.assertEquals("found", index.get(fields(recordValue)));
+  }
+
+  private static void assertDoesNotMatch(List<Field> tableValues, List<Field> recordValues) {
+    ReferenceTableIndex.Key key = ReferenceTableIndex.Key.of(tableValues);
+    Assert.assertNotEquals(key, ReferenceTableIndex.Key.of(recordValues));
+    ReferenceTableIndex<String> index = ReferenceTableIndex.copyOf(Collections.singletonMap(key, "found"));
+    Assert.assertNull(index.get(recordValues));
+  }
+
+  @Test
+  public void testKeyNormalization() {
+    assertMatches(Field.create(1), Field.create(1L));
+    assertMatches(Field.create((short) 1), Field.create(1));
+    assertMatches(Field.create(1), Field.create("1"));
+    assertMatches(Field.create(-42L), Field.create("-42"));
+    assertMatches(Field.create(Long.MAX_VALUE), Field.create("9223372036854775807"));
+    assertMatches(Field.create(new BigDecimal("1.50")), Field.create(new BigDecimal("1.5")));
+    assertMatches(Field.create(new BigDecimal("1.50")), Field.create("1.5"));
+    assertMatches(Field.create(new BigDecimal("100")), Field.create(100));
+    assertMatches(Field.create(new BigDecimal("0.00")), Field.create(0));
+    assertMatches(Field.create(new BigDecimal("99999999999999999999")), Field.create("99999999999999999999"));
+    assertMatches(Field.createDate(new Date(1000)), Field.createDatetime(new Date(1000)));
+    assertMatches(Field.create('7'), Field.create(7));
+    assertMatches(Field.create(new byte[]{1, 2}), Field.create(new byte[]{1, 2}));
+    assertMatches(Field.create(Field.Type.STRING, null), Field.create(Field.Type.INTEGER, null));
+    assertMatches(Field.create("abc"), Field.create("abc"));
+
+    // only the canonical form of an integer matches it
+    assertDoesNotMatch(fields(Field.create(1)), fields(Field.create("01")));
+    assertDoesNotMatch(fields(Field.create(0)), fields(Field.create("-0")));
+    assertDoesNotMatch(fields(Field.create(1)), fields(Field.create("+1")));
+    assertDoesNotMatch(fields(Field.create(new byte[]{1, 2})), fields(Field.create(new byte[]{1, 3})));
+  }
+
+  @Test
+  public void testNoCollisions() {
+    // Composite keys can't be confused by moving the boundary between values
+    assertDoesNotMatch(
+        fields(Field.create("a"), Field.create("bc")),
+        fields(Field.create("ab"), Field.create("c"))
+    );
+    assertDoesNotMatch(
+        fields(Field.create("a\u0000"), Field.create("b")),
+        fields(Field.create("a"), Field.create("\u0000b"))
+    );
+    // null is neither the empty string nor any marker a string could hold
+    assertDoesNotMatch(fields(Field.create(Field.Type.STRING, null)), fields(Field.create("")));
+    assertDoesNotMatch(fields(Field.create(Field.Type.STRING, null)), fields(Field.create("\u0001")));
+    assertDoesNotMatch(fields(Field.create(Field.Type.STRING, null)), fields(Field.create("null")));
+  }
+
+  @Test
+  public void testNullField() {
+    List<Field> nullField = Collections.singletonList(null);
+    ReferenceTableIndex<String> index = ReferenceTableIndex.copyOf(
+        Collections.singletonMap(ReferenceTableIndex.Key.of(nullField), "found")
+    );
+    Assert.assertEquals("found", index.get(fields(Field.create(Field.Type.LONG, null))));
+    Assert.assertEquals("found", index.get(ImmutableList.of(Field.create(Field.Type.STRING, null))));
+  }
+}
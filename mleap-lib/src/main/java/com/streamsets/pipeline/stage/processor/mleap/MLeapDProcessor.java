@@ -24,7 +24,7 @@ import com.streamsets.pipeline.api.StageDef;
 import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 
 @StageDef(
-    version = 1,
+    version = 2,
     label = "MLeap Evaluator",
     description = "Uses machine learning models stored in MLeap format to " +
         "generate evaluations, scoring, or classifications of data",
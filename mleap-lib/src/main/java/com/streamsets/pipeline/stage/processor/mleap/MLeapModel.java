@@ -0,0 +1,103 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.mleap;
+
+import com.streamsets.pipeline.lib.inference.MicroBatchScheduler;
+import ml.combust.mleap.core.types.StructType;
+import ml.combust.mleap.runtime.frame.DefaultLeapFrame;
+import ml.combust.mleap.runtime.frame.Row;
+import ml.combust.mleap.runtime.frame.Transformer;
+import ml.combust.mleap.runtime.javadsl.LeapFrameBuilder;
+import ml.combust.mleap.runtime.javadsl.LeapFrameSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An MLeap pipeline shared by all the stage instances that load it. Transformers are immutable, so the rows of
+ * concurrent pipeline runners are transformed together in micro-batches.
+ */
+final class MLeapModel implements AutoCloseable {
+
+  /**
+   * Transformed rows of a single request.
+   */
+  static final class Output {
+    private final StructType schema;
+    private final List<Row> rows;
+
+    private Output(StructType schema, List<Row> rows) {
+      this.schema = schema;
+      this.rows = rows;
+    }
+
+    StructType getSchema() {
+      return schema;
+    }
+
+    List<Row> getRows() {
+      return rows;
+    }
+  }
+
+  private final Transformer transformer;
+  private final ConcurrentMap<Integer, MicroBatchScheduler<List<Row>, Output>> schedulers =
+      new ConcurrentHashMap<>();
+
+  MLeapModel(Transformer transformer) {
+    this.transformer = transformer;
+  }
+
+  Transformer getTransformer() {
+    return transformer;
+  }
+
+  MicroBatchScheduler<List<Row>, Output> getScheduler(int maxMicroBatchSize) {
+    return schedulers.computeIfAbsent(maxMicroBatchSize, size -> {
+      // only used by the scheduler, which never runs two micro-batches at the same time
+      LeapFrameBuilder leapFrameBuilder = new LeapFrameBuilder();
+      LeapFrameSupport leapFrameSupport = new LeapFrameSupport();
+      return new MicroBatchScheduler<>(size, inputs -> transform(inputs, leapFrameBuilder, leapFrameSupport));
+    });
+  }
+
+  private List<Output> transform(
+      List<List<Row>> inputs,
+      LeapFrameBuilder leapFrameBuilder,
+      LeapFrameSupport leapFrameSupport
+  ) throws Exception {
+    List<Row> rows = new ArrayList<>();
+    inputs.forEach(rows::addAll);
+    DefaultLeapFrame outputFrame = transformer.transform(leapFrameBuilder.createFrame(transformer.inputSchema(), rows))
+        .get();
+    List<Row> outputRows = leapFrameSupport.collect(outputFrame);
+
+    List<Output> outputs = new ArrayList<>(inputs.size());
+    int from = 0;
+    for (List<Row> input : inputs) {
+      outputs.add(new Output(outputFrame.schema(), outputRows.subList(from, from + input.size())));
+      from += input.size();
+    }
+    return outputs;
+  }
+
+  @Override
+  public void close() {
+    transformer.close();
+  }
+}
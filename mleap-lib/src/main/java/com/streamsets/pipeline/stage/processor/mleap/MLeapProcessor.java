@@ -15,6 +15,8 @@
  */
 package com.streamsets.pipeline.stage.processor.mleap;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import com.streamsets.pipeline.api.Batch;
 import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
@@ -22,13 +24,14 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.base.SingleLaneProcessor;
 import com.streamsets.pipeline.api.impl.Utils;
+import com.streamsets.pipeline.lib.inference.MicroBatchScheduler;
+import com.streamsets.pipeline.lib.inference.SharedModelRegistry;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import ml.combust.mleap.core.types.BasicType;
 import ml.combust.mleap.core.types.StructField;
 import ml.combust.mleap.core.types.StructType;
 import ml.combust.mleap.runtime.MleapContext;
-import ml.combust.mleap.runtime.frame.DefaultLeapFrame;
 import ml.combust.mleap.runtime.frame.Row;
 import ml.combust.mleap.runtime.frame.Transformer;
 import ml.combust.mleap.runtime.javadsl.BundleBuilder;
@@ -44,17 +47,25 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class MLeapProcessor extends SingleLaneProcessor {
 
   private static final Logger LOG = LoggerFactory.getLogger(MLeapProcessor.class);
+  // Shared by all the stage instances of the stage library, across pipeline runners and pipelines
+  private static final SharedModelRegistry<String, MLeapModel> MODEL_REGISTRY = new SharedModelRegistry<>();
+
   private final MLeapProcessorConfigBean conf;
   private Map<String, String> fieldNameMap = new HashMap<>();
+  private String modelKey;
   private Transformer mLeapPipeline;
+  private MicroBatchScheduler<List<Row>, MLeapModel.Output> scheduler;
   private LeapFrameBuilder leapFrameBuilder;
   private LeapFrameSupport leapFrameSupport;
   private ErrorRecordHandler errorRecordHandler;
+  private Timer inferenceLatency;
+  private Histogram microBatchFillRatio;
 
   MLeapProcessor(MLeapProcessorConfigBean conf) {
     this.conf = conf;
@@ -70,9 +81,15 @@ public class MLeapProcessor extends SingleLaneProcessor {
         if (!mLeapModel.isAbsolute()) {
           mLeapModel = new File(getContext().getResourcesDirectory(), conf.modelPath).getAbsoluteFile();
         }
-        MleapContext mleapContext = new ContextBuilder().createMleapContext();
-        BundleBuilder bundleBuilder = new BundleBuilder();
-        mLeapPipeline = bundleBuilder.load(mLeapModel, mleapContext).root();
+        String key = mLeapModel.getAbsolutePath();
+        MLeapModel model = MODEL_REGISTRY.acquire(key, k -> {
+          MleapContext mleapContext = new ContextBuilder().createMleapContext();
+          BundleBuilder bundleBuilder = new BundleBuilder();
+          return new MLeapModel(bundleBuilder.load(new File(k), mleapContext).root());
+        });
+        modelKey = key;
+        mLeapPipeline = model.getTransformer();
+        scheduler = model.getScheduler(conf.maxMicroBatchSize);
       } catch (Exception ex) {
         configIssues.add(getContext().createConfigIssue(
             Groups.MLEAP.name(),
@@ -85,6 +102,8 @@ public class MLeapProcessor extends SingleLaneProcessor {
 
       leapFrameBuilder = new LeapFrameBuilder();
       leapFrameSupport = new LeapFrameSupport();
+      inferenceLatency = getContext().createTimer("Inference Latency");
+      microBatchFillRatio = getContext().createHistogram("Micro-batch Fill Ratio");
 
       for (InputConfig inputConfig : conf.inputConfigs) {
         fieldNameMap.put(inputConfig.pmmlFieldName, inputConfig.fieldName);
@@ -138,22 +157,28 @@ public class MLeapProcessor extends SingleLaneProcessor {
   @Override
   public void process(Batch batch, SingleLaneBatchMaker batchMaker) throws StageException {
     // MLeap supports scoring multiple point simultaneously (better performance) so processing batch instead of
-    // record by record like it is done in other ML Evaluator processors
+    // record by record like it is done in other ML Evaluator processors. Batches of the pipeline runners sharing the
+    // model are coalesced into micro-batches.
     List<Record> records = new ArrayList<>();
     batch.getRecords().forEachRemaining(records::add);
-    DefaultLeapFrame inputLeapFrame = convertRecordsToLeapFrame(records);
-    DefaultLeapFrame outputLeapFrame;
+    List<Row> inputRows = convertRecordsToRows(records);
+    if (inputRows.isEmpty()) {
+      return;
+    }
+    MicroBatchScheduler.Result<MLeapModel.Output> result;
     try {
-      outputLeapFrame = mLeapPipeline.transform(inputLeapFrame).get();
+      result = scheduler.submit(inputRows, inputRows.size());
     } catch (Exception ex) {
       LOG.error(Utils.format(Errors.MLEAP_05.getMessage(), ex.getMessage()), ex);
       errorRecordHandler.onError(records, new StageException(Errors.MLEAP_05, ex.toString()));
       return;
     }
-    processTransformOutput(records, batchMaker, outputLeapFrame);
+    inferenceLatency.update(result.getInferenceNanos(), TimeUnit.NANOSECONDS);
+    microBatchFillRatio.update(100L * result.getMicroBatchRows() / scheduler.getMaxBatchRows());
+    processTransformOutput(records, batchMaker, result.getOutput());
   }
 
-  private DefaultLeapFrame convertRecordsToLeapFrame(List<Record> records) throws StageException {
+  private List<Row> convertRecordsToRows(List<Record> records) throws StageException {
     StructType inputSchema = mLeapPipeline.inputSchema();
     List<StructField> structFieldList = leapFrameSupport.getFields(inputSchema);
     List<Row> mLeapRows = new ArrayList<>();
@@ -187,22 +212,23 @@ public class MLeapProcessor extends SingleLaneProcessor {
     // Remove all error records from records to list before it used in processTransformOutput
     records.removeAll(errorRecords);
 
-    return leapFrameBuilder.createFrame(mLeapPipeline.inputSchema(), mLeapRows);
+    return mLeapRows;
   }
 
   private void processTransformOutput(
       List<Record> records,
       SingleLaneBatchMaker batchMaker,
-      DefaultLeapFrame outputFrame
+      MLeapModel.Output output
   ) throws StageException {
-    List<Row> outputRows = leapFrameSupport.collect(outputFrame);
+    List<Row> outputRows = output.getRows();
 
-    StructType outputSchema = outputFrame.schema();
+    StructType outputSchema = output.getSchema();
     List<StructField> structFieldList = leapFrameSupport.getFields(outputSchema);
 
-    for(Record record: records) {
+    for (int r = 0; r < records.size(); r++) {
+      Record record = records.get(r);
       LinkedHashMap<String, Field> outputFieldMap = new LinkedHashMap<>();
-      Row mLeapOutputRow = outputRows.get(0);
+      Row mLeapOutputRow = outputRows.get(r);
       try {
         int i = 0;
         for (StructField structField: structFieldList) {
@@ -283,8 +309,9 @@ public class MLeapProcessor extends SingleLaneProcessor {
   @Override
   public void destroy() {
     super.destroy();
-    if (mLeapPipeline != null) {
-      mLeapPipeline.close();
+    if (modelKey != null) {
+      MODEL_REGISTRY.release(modelKey);
+      modelKey = null;
     }
   }
 }
@@ -78,4 +78,18 @@ public class MLeapProcessorConfigBean {
   @FieldSelectorModel(singleValued = true)
   public String outputField = "/output";
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1000",
+      label = "Max Micro-batch Size",
+      description = "Maximum number of records transformed at once. Records of pipeline runners using the same " +
+          "model are transformed together up to this size.",
+      displayPosition = 50,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "MLEAP",
+      min = 1
+  )
+  public int maxMicroBatchSize = 1000;
+
 }
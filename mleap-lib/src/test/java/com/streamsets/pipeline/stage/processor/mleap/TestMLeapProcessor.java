@@ -147,6 +147,90 @@ public class TestMLeapProcessor {
   }
 
 
+  @Test
+  public void testProcessMicroBatches() throws StageException {
+    Record record = createAirbnbRecord(3.0, "Entire home/apt", "NY", 1250.0);
+
+    // splitting the batch into micro-batches does not change the predictions
+    for (int maxMicroBatchSize : new int[]{1, 1000}) {
+      List<Record> output = runAirbnbModel(ImmutableList.of(record, record, record), maxMicroBatchSize);
+      Assert.assertEquals(3, output.size());
+      for (Record outputRecord : output) {
+        Assert.assertEquals(218.2767196535019, outputRecord.get("/output/price_prediction").getValueAsDouble(), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testEachRecordGetsItsOwnPrediction() throws StageException {
+    Record other = createAirbnbRecord(1.0, "Private room", "CA", 300.0);
+    double otherPrediction = runAirbnbModel(ImmutableList.of(other), 1000).get(0)
+        .get("/output/price_prediction").getValueAsDouble();
+    Assert.assertNotEquals(218.2767196535019, otherPrediction, 0.0);
+
+    for (int maxMicroBatchSize : new int[]{1, 1000}) {
+      List<Record> output = runAirbnbModel(ImmutableList.of(
+          createAirbnbRecord(3.0, "Entire home/apt", "NY", 1250.0),
+          createAirbnbRecord(1.0, "Private room", "CA", 300.0)
+      ), maxMicroBatchSize);
+      Assert.assertEquals(2, output.size());
+      Assert.assertEquals(218.2767196535019, output.get(0).get("/output/price_prediction").getValueAsDouble(), 0.0);
+      Assert.assertEquals(otherPrediction, output.get(1).get("/output/price_prediction").getValueAsDouble(), 0.0);
+    }
+  }
+
+  private List<Record> runAirbnbModel(List<Record> records, int maxMicroBatchSize) throws StageException {
+    Processor mLeapProcessor  = new TestMLeapProcessorBuilder()
+        .modelPath(airbnbRFModelZipFilePath)
+        .inputFieldConfig("security_deposit", "/security_deposit")
+        .inputFieldConfig("bedrooms", "/bedrooms")
+        .inputFieldConfig("instant_bookable", "/instant_bookable")
+        .inputFieldConfig("room_type", "/room_type")
+        .inputFieldConfig("state", "/state")
+        .inputFieldConfig("cancellation_policy", "/cancellation_policy")
+        .inputFieldConfig("square_feet", "/square_feet")
+        .inputFieldConfig("number_of_reviews", "/number_of_reviews")
+        .inputFieldConfig("extra_people", "/extra_people")
+        .inputFieldConfig("bathrooms", "/bathrooms")
+        .inputFieldConfig("host_is_superhost", "/host_is_superhost")
+        .inputFieldConfig("review_scores_rating", "/review_scores_rating")
+        .inputFieldConfig("cleaning_fee", "/cleaning_fee")
+        .outputFieldNames(ImmutableList.of("price_prediction"))
+        .outputField("/output")
+        .maxMicroBatchSize(maxMicroBatchSize)
+        .build();
+
+    ProcessorRunner runner = new ProcessorRunner.Builder(MLeapDProcessor.class, mLeapProcessor)
+        .addOutputLane("a")
+        .build();
+    runner.runInit();
+    try {
+      return runner.runProcess(records).getRecords().get("a");
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private static Record createAirbnbRecord(double bedrooms, String roomType, String state, double squareFeet) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> field = new LinkedHashMap<>();
+    field.put("security_deposit", Field.create(50.0));
+    field.put("bedrooms", Field.create(bedrooms));
+    field.put("instant_bookable", Field.create("1.0"));
+    field.put("room_type", Field.create(roomType));
+    field.put("state", Field.create(state));
+    field.put("cancellation_policy", Field.create("strict"));
+    field.put("square_feet", Field.create(squareFeet));
+    field.put("number_of_reviews", Field.create(56.0));
+    field.put("extra_people", Field.create(2.0));
+    field.put("bathrooms", Field.create(2.0));
+    field.put("host_is_superhost", Field.create("1.0"));
+    field.put("review_scores_rating", Field.create(90.0));
+    field.put("cleaning_fee", Field.create(30.0));
+    record.set(Field.createListMap(field));
+    return record;
+  }
+
   @Test
   public void testInvalidInputField() throws StageException {
     Processor mLeapProcessor  = new TestMLeapProcessorBuilder()
@@ -48,6 +48,11 @@ class TestMLeapProcessorBuilder {
     return this;
   }
 
+  TestMLeapProcessorBuilder maxMicroBatchSize(int maxMicroBatchSize){
+    conf.maxMicroBatchSize = maxMicroBatchSize;
+    return this;
+  }
+
   MLeapProcessor build() {
     return  new MLeapProcessor(conf);
   }
@@ -26,7 +26,7 @@ import com.streamsets.pipeline.api.base.configurablestage.DProcessor;
 import com.streamsets.pipeline.stage.common.mongodb.Groups;
 
 @StageDef(
-        version = 2,
+        version = 3,
         label = "MongoDB Lookup",
         description = "Performs KV lookups to enrich records",
         icon = "mongodb.png",
@@ -36,9 +36,9 @@ import com.streamsets.pipeline.stage.common.mongodb.Groups;
 )
 @ConfigGroups(Groups.class)
 @GenerateResourceBundle
-@HideConfigs(
+@HideConfigs({
         "configBean.cacheConfig.retryOnCacheMiss"
-)
+})
 public class MongoDBDProcessor extends DProcessor  {
   @ConfigDefBean(groups = {"MONGODB", "LOOKUP", "CREDENTIALS", "ADVANCED"})
   public MongoDBProcessorConfigBean configBean;
@@ -33,7 +33,10 @@ import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.mongodb.Errors;
 import com.streamsets.pipeline.stage.common.mongodb.Groups;
+import com.streamsets.pipeline.stage.processor.kv.FieldRowsCacheCodec;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
+import com.streamsets.pipeline.stage.processor.kv.MappedFileCacheStore;
+import com.streamsets.pipeline.stage.processor.kv.OptionalCacheCodec;
 
 import org.apache.commons.io.IOUtils;
 import org.bson.Document;
@@ -55,6 +58,8 @@ public class MongoDBProcessor extends SingleLaneRecordProcessor {
   private MongoCollection<Document> mongoCollection;
   private LoadingCache<Document, Optional<List<Map<String, Field>>>> cache;
   private CacheCleaner cacheCleaner;
+  private MappedFileCacheStore persistentStore;
+  private Map<String, Object> cacheGauge;
 
   protected MongoDBProcessor(MongoDBProcessorConfigBean config) {
     configBean= config;
@@ -87,8 +92,40 @@ public class MongoDBProcessor extends SingleLaneRecordProcessor {
       return issues;
     }
 
+    if (configBean.cacheConfig.enabled && configBean.cacheConfig.persistentEnabled) {
+      try {
+        // documents are keyed by the lookup filter, they also depend on the cluster and collection
+        persistentStore = LookupUtils.openSharedPersistentStore(getContext(), configBean.cacheConfig, Utils.format(
+            "{}|{}|{}",
+            configBean.mongoConfig.connectionString,
+            configBean.mongoConfig.database,
+            configBean.mongoConfig.collection
+        ));
+        if (getContext().getRunnerId() == 0) {
+          cacheGauge = getContext().createGauge(LookupUtils.CACHE_GAUGE_NAME).getValue();
+        }
+      } catch (StageException e) {
+        issues.add(getContext().createConfigIssue(
+            Groups.LOOKUP.name(),
+            "configBean.cacheConfig.persistentDirectory",
+            e.getErrorCode(),
+            e.getParams()
+        ));
+        return issues;
+      }
+    }
+
     MongoDBLookupLoader lookupLoader = new MongoDBLookupLoader(mongoCollection);
-    cache = LookupUtils.buildCache(lookupLoader, configBean.cacheConfig);
+    if (persistentStore != null) {
+      cache = LookupUtils.buildCache(
+          lookupLoader,
+          configBean.cacheConfig,
+          persistentStore,
+          new OptionalCacheCodec<>(new FieldRowsCacheCodec<Document>(Document::toJson))
+      );
+    } else {
+      cache = LookupUtils.buildCache(lookupLoader, configBean.cacheConfig);
+    }
     cacheCleaner = new CacheCleaner(cache, "MongoDBProcessor", 10 * 60 * 1000);
     return issues;
   }
@@ -101,6 +138,11 @@ public class MongoDBProcessor extends SingleLaneRecordProcessor {
     }
     // MongoDB's Java driver doesn't support bulk lookup. So perform lookup per record
     super.process(batch, batchMaker);
+
+    // Memory tier statistics are those of the first runner, the persistent tier is shared by all runners
+    if (cacheGauge != null) {
+      LookupUtils.updateCacheGauge(cacheGauge, cache, persistentStore);
+    }
   }
 
   @Override
@@ -172,6 +214,7 @@ public class MongoDBProcessor extends SingleLaneRecordProcessor {
   @Override
   public void destroy() {
     IOUtils.closeQuietly(mongoClient);
+    LookupUtils.closeSharedPersistentStore(getContext(), persistentStore);
     super.destroy();
   }
 }
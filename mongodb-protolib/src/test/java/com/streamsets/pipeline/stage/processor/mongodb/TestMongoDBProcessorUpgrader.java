@@ -56,4 +56,17 @@ public class TestMongoDBProcessorUpgrader {
         AuthenticationMechanism.DEFAULT.toString()
     );
   }
+
+  @Test
+  public void testUpgradeV2ToV3() {
+    Mockito.doReturn(2).when(context).getFromVersion();
+    Mockito.doReturn(3).when(context).getToVersion();
+
+    configs = upgrader.upgrade(configs, context);
+    UpgraderTestUtils.assertExists(configs, "configBean.cacheConfig.persistentEnabled", false);
+    UpgraderTestUtils.assertExists(configs, "configBean.cacheConfig.persistentDirectory", "");
+    UpgraderTestUtils.assertExists(configs, "configBean.cacheConfig.persistentMaxSizeMB", 256);
+    UpgraderTestUtils.assertExists(configs, "configBean.cacheConfig.persistentExpirationTime", 1);
+    UpgraderTestUtils.assertExists(configs, "configBean.cacheConfig.persistentTimeUnit", "DAYS");
+  }
 }
@@ -49,6 +49,9 @@ public class BinaryLogConsumer implements EventListener {
   private final EventBuffer eventBuffer;
   private final BinaryLogClient client;
 
+  // whether commits are passed to the buffer as transaction end markers
+  private final boolean emitTransactionEnds;
+
   // current consumed gtids
   private String currentGtidSet;
 
@@ -63,9 +66,19 @@ public class BinaryLogConsumer implements EventListener {
   private SourceOffset currentOffset;
 
   public BinaryLogConsumer(MysqlSchemaRepository schemaRepository, EventBuffer eventBuffer, BinaryLogClient client) {
+    this(schemaRepository, eventBuffer, client, false);
+  }
+
+  public BinaryLogConsumer(
+      MysqlSchemaRepository schemaRepository,
+      EventBuffer eventBuffer,
+      BinaryLogClient client,
+      boolean emitTransactionEnds
+  ) {
     this.schemaRepository = schemaRepository;
     this.eventBuffer = eventBuffer;
     this.client = client;
+    this.emitTransactionEnds = emitTransactionEnds;
   }
 
   public void setOffset(SourceOffset offset) {
@@ -100,13 +113,13 @@ public class BinaryLogConsumer implements EventListener {
         QueryEventData queryEventData = event.getData();
         String query = queryEventData.getSql();
         if (isCommit(query)) {
-          finishTx();
+          finishTx(event);
         } else if (isSchemaChangeQuery(query)) {
           schemaRepository.evictAll();
         }
         break;
       case XID:
-        finishTx();
+        finishTx(event);
         break;
       case GTID:
         GtidEventData eventData = event.getData();
@@ -121,7 +134,7 @@ public class BinaryLogConsumer implements EventListener {
     }
   }
 
-  private void finishTx() {
+  private void finishTx(Event event) {
     if (isGtidEnabled()) {
       // remove tx from offset's incomplete transactions
       String nextGtidSet = client.getGtidSet();
@@ -132,6 +145,16 @@ public class BinaryLogConsumer implements EventListener {
       }
       LOG.trace("Finished tx {}. Current offset: {}", currentTxGtid, currentOffset);
     }
+
+    if (emitTransactionEnds) {
+      SourceOffset txEndOffset = isGtidEnabled() ? currentOffset : new BinLogPositionSourceOffset(
+          currentBinLogFileName,
+          ((EventHeaderV4) event.getHeader()).getNextPosition()
+      );
+      if (txEndOffset != null) {
+        putEvent(EnrichedEvent.transactionEnd(event, txEndOffset));
+      }
+    }
   }
 
   private void handleTableMappingEvent(TableMapEventData eventData) {
@@ -173,7 +196,10 @@ public class BinaryLogConsumer implements EventListener {
       // fallback to table without columns names
       table = new TableWithoutColumnsNames(tableName.getDatabase(), tableName.getTable());
     }
-    EnrichedEvent enrichedEvent = new EnrichedEvent(event, table, currentOffset);
+    putEvent(new EnrichedEvent(event, table, currentOffset));
+  }
+
+  private void putEvent(EnrichedEvent enrichedEvent) {
     if (!eventBuffer.put(enrichedEvent)) {
       LOG.error("Error adding event to buffer. Closing event buffer, disconnecting client.");
       eventBuffer.close();
@@ -22,11 +22,25 @@ public class EnrichedEvent {
   private final Event event;
   private final Table table;
   private final SourceOffset offset;
+  private final boolean transactionEnd;
 
   public EnrichedEvent(Event event, Table table, SourceOffset offset) {
+    this(event, table, offset, false);
+  }
+
+  private EnrichedEvent(Event event, Table table, SourceOffset offset, boolean transactionEnd) {
     this.event = event;
     this.table = table;
     this.offset = offset;
+    this.transactionEnd = transactionEnd;
+  }
+
+  /**
+   * Marker for the commit of a transaction. It carries no table and no rows, only the offset
+   * right after the transaction, which is always safe to resume from.
+   */
+  public static EnrichedEvent transactionEnd(Event event, SourceOffset offset) {
+    return new EnrichedEvent(event, null, offset, true);
   }
 
   public Event getEvent() {
@@ -41,12 +55,17 @@ public class EnrichedEvent {
     return offset;
   }
 
+  public boolean isTransactionEnd() {
+    return transactionEnd;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder("EnrichedEvent{");
     sb.append("event=").append(event);
     sb.append(", table=").append(table);
     sb.append(", offset=").append(offset);
+    sb.append(", transactionEnd=").append(transactionEnd);
     sb.append('}');
     return sb.toString();
   }
@@ -62,6 +81,9 @@ public class EnrichedEvent {
 
     EnrichedEvent that = (EnrichedEvent) o;
 
+    if (transactionEnd != that.transactionEnd) {
+      return false;
+    }
     if (event != null ? !event.equals(that.event) : that.event != null) {
       return false;
     }
@@ -77,6 +99,7 @@ public class EnrichedEvent {
     int result = event != null ? event.hashCode() : 0;
     result = 31 * result + (table != null ? table.hashCode() : 0);
     result = 31 * result + (offset != null ? offset.hashCode() : 0);
+    result = 31 * result + (transactionEnd ? 1 : 0);
     return result;
   }
 }
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.origin.mysql;
 
 import com.streamsets.pipeline.api.ConfigDef;
+import com.streamsets.pipeline.api.ValueChooserModel;
 
 public class MySQLBinLogConfig {
   @ConfigDef(
@@ -143,4 +144,30 @@ public class MySQLBinLogConfig {
   )
   public String ignoreTables;
 
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of threads converting binlog events into records. Events are partitioned " +
+          "across the threads and records are still added to the batch in binlog order.",
+      min = 1,
+      max = Integer.MAX_VALUE,
+      displayPosition = 110,
+      group = "#2"
+  )
+  public int numberOfThreads;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.MODEL,
+      defaultValue = "TABLE",
+      label = "Partition Strategy",
+      description = "How events are assigned to conversion threads. 'Table' keeps all events of a table " +
+          "on one thread, 'Primary Key' spreads the events of a table by the hash of their primary key.",
+      displayPosition = 120,
+      group = "#2"
+  )
+  @ValueChooserModel(PartitionStrategyChooserValues.class)
+  public PartitionStrategy partitionStrategy;
 }
@@ -29,7 +29,7 @@ import com.streamsets.pipeline.lib.jdbc.connection.MySQLConnection;
 import static com.streamsets.pipeline.lib.jdbc.connection.MySQLConnection.TYPE;
 
 @StageDef(
-    version = 3,
+    version = 4,
     label = "MySQL Binary Log",
     description = "Reads MySQL binary log from MySQL server.",
     icon = "mysql.png",
@@ -39,7 +39,7 @@ import org.slf4j.LoggerFactory;
 
 public class MysqlSchemaRepository {
   private static final String TABLE_SCHEMA_SQL =
-      "SELECT COLUMN_NAME, COLUMN_TYPE FROM INFORMATION_SCHEMA.COLUMNS " +
+      "SELECT COLUMN_NAME, COLUMN_TYPE, COLUMN_KEY FROM INFORMATION_SCHEMA.COLUMNS " +
           "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION";
 
   private static final Logger LOG = LoggerFactory.getLogger(MysqlSchemaRepository.class);
@@ -85,10 +85,11 @@ public class MysqlSchemaRepository {
           while (rs.next()) {
             String name = rs.getString(1);
             String type = rs.getString(2);
+            boolean primaryKey = "PRI".equals(rs.getString(3));
             MysqlType mysqlType = MysqlType.of(type);
 
             LOG.info("\tColumn `{}` of type '{}' mapped to {}", name, type, mysqlType.name());
-            columns.add(new Column(name, mysqlType));
+            columns.add(new Column(name, mysqlType, primaryKey));
           }
         }
         if (columns.isEmpty()) {
@@ -37,6 +37,8 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -55,6 +57,8 @@ public abstract class MysqlSource extends BaseSource {
 
   private EventBuffer eventBuffer;
 
+  private ParallelRecordConverter parallelRecordConverter;
+
   private boolean checkBatchSize = true;
 
   private final BlockingQueue<ServerException> serverErrors = new LinkedBlockingQueue<>();
@@ -88,6 +92,10 @@ public abstract class MysqlSource extends BaseSource {
 
   @Override
   public void destroy() {
+    if (parallelRecordConverter != null) {
+      parallelRecordConverter.destroy();
+    }
+
     if (client != null) {
       try {
         client.disconnect();
@@ -112,7 +120,14 @@ public abstract class MysqlSource extends BaseSource {
       MysqlSchemaRepository schemaRepository = new MysqlSchemaRepository(dataSourceInitializer.dataSource);
       eventBuffer = new EventBuffer(getConfig().maxBatchSize);
       client = dataSourceInitializer.createBinaryLogClient();
-      consumer = new BinaryLogConsumer(schemaRepository, eventBuffer, client);
+      consumer = new BinaryLogConsumer(schemaRepository, eventBuffer, client, isParallel());
+      if (isParallel()) {
+        parallelRecordConverter = new ParallelRecordConverter(
+            recordConverter,
+            getConfig().numberOfThreads,
+            getConfig().partitionStrategy
+        );
+      }
 
       connectClient(client, lastSourceOffset);
       LOG.info("Connected client with configuration: {}", getConfig());
@@ -136,6 +151,10 @@ public abstract class MysqlSource extends BaseSource {
       checkBatchSize = false;
     }
 
+    if (isParallel()) {
+      return produceInParallel(lastSourceOffset, batchSize, batchMaker);
+    }
+
     long startTime = System.currentTimeMillis();
     while (recordCounter < batchSize && (startTime + getConfig().maxWaitTime) > System.currentTimeMillis()) {
       long timeLeft = getConfig().maxWaitTime - (System.currentTimeMillis() - startTime);
@@ -176,6 +195,90 @@ public abstract class MysqlSource extends BaseSource {
     return lastSourceOffset;
   }
 
+  /**
+   * Same polling loop as {@link #produce(String, int, BatchMaker)}, but events passing the filters are handed over
+   * to the {@link ParallelRecordConverter} and the loop keeps polling while they are being converted. Records are
+   * added to the batch in binlog order once all conversions are done.
+   * <p/>
+   * The returned offset only moves to positions that are safe to resume from: transaction ends, or any event
+   * when GTIDs are used, as GTID offsets keep track of partially processed transactions.
+   */
+  private String produceInParallel(
+      String lastSourceOffset,
+      int batchSize,
+      BatchMaker batchMaker
+  ) throws StageException {
+    List<Future<List<Record>>> conversions = new ArrayList<>();
+    int recordCounter = 0;
+
+    long startTime = System.currentTimeMillis();
+    while (recordCounter < batchSize && (startTime + getConfig().maxWaitTime) > System.currentTimeMillis()) {
+      long timeLeft = getConfig().maxWaitTime - (System.currentTimeMillis() - startTime);
+      if (timeLeft < 0) {
+        break;
+      }
+      EnrichedEvent event = eventBuffer.poll(timeLeft, TimeUnit.MILLISECONDS);
+      // check errors
+      handleErrors();
+
+      if (event == null) {
+        continue;
+      }
+
+      if (event.isTransactionEnd() || event.getOffset() instanceof GtidSourceOffset) {
+        lastSourceOffset = event.getOffset().format();
+      }
+
+      if (event.isTransactionEnd()) {
+        LOG.trace("Transaction end at offset {}", lastSourceOffset);
+      } else if (dataSourceInitializer.eventFilter.apply(event) == Filter.Result.PASS) {
+        conversions.add(parallelRecordConverter.submit(event));
+        recordCounter += ParallelRecordConverter.rowCount(event);
+      } else {
+        LOG.trace(
+            "Event for {}.{} filtered out",
+            event.getTable().getDatabase(),
+            event.getTable().getName()
+        );
+      }
+    }
+
+    recordCounter = 0;
+    for (Future<List<Record>> conversion : conversions) {
+      List<Record> records = getRecords(conversion);
+      // If we are in preview mode, make sure we don't send a huge number of messages.
+      if (getContext().isPreview() && recordCounter + records.size() > batchSize) {
+        records = records.subList(0, batchSize - recordCounter);
+      }
+      for (Record record : records) {
+        batchMaker.addRecord(record);
+      }
+      recordCounter += records.size();
+    }
+
+    LOG.trace("Client position at the end of a batch {}:{}", client.getBinlogFilename(), client.getBinlogPosition());
+    LOG.trace("Stored offset at the end of a batch: {}", lastSourceOffset);
+    return lastSourceOffset;
+  }
+
+  private List<Record> getRecords(Future<List<Record>> conversion) throws StageException {
+    try {
+      return conversion.get();
+    } catch (InterruptedException e) {
+      LOG.error(Errors.MYSQL_001.getMessage(), e.toString(), e);
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.MYSQL_001, e.toString(), e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause() != null ? e.getCause() : e;
+      LOG.error(Errors.MYSQL_012.getMessage(), cause.toString(), cause);
+      throw new StageException(Errors.MYSQL_012, cause.toString(), cause);
+    }
+  }
+
+  private boolean isParallel() {
+    return getConfig().numberOfThreads > 1;
+  }
+
   private void connectClient(BinaryLogClient client, String lastSourceOffset) throws StageException {
     try {
       if (lastSourceOffset == null) {
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.EventData;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Column;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Table;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Converts binlog events into records on a fixed number of single threaded lanes.
+ * <p/>
+ * Each event is assigned to a lane by its table, or by its table and the primary key of its first row,
+ * so events touching the same key are always converted one after another on the same lane. Callers keep
+ * the returned futures in binlog order to add the records to the batch in that same order.
+ */
+public class ParallelRecordConverter {
+  private final RecordConverter recordConverter;
+  private final PartitionStrategy partitionStrategy;
+  private final ExecutorService[] lanes;
+
+  public ParallelRecordConverter(
+      RecordConverter recordConverter,
+      int numberOfThreads,
+      PartitionStrategy partitionStrategy
+  ) {
+    this.recordConverter = recordConverter;
+    this.partitionStrategy = partitionStrategy;
+    this.lanes = new ExecutorService[numberOfThreads];
+    ThreadFactory threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat("MySQL Binary Log Converter - %d")
+        .setDaemon(true)
+        .build();
+    for (int i = 0; i < numberOfThreads; i++) {
+      lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+    }
+  }
+
+  public Future<List<Record>> submit(EnrichedEvent event) {
+    return lanes[partition(event)].submit(() -> recordConverter.toRecords(event));
+  }
+
+  public void destroy() {
+    for (ExecutorService lane : lanes) {
+      lane.shutdownNow();
+    }
+  }
+
+  int partition(EnrichedEvent event) {
+    if (lanes.length == 1) {
+      return 0;
+    }
+    Table table = event.getTable();
+    int hash = 31 * Objects.hashCode(table.getDatabase()) + Objects.hashCode(table.getName());
+    if (partitionStrategy == PartitionStrategy.PRIMARY_KEY) {
+      hash = 31 * hash + primaryKeyHash(table, event.getEvent().getData());
+    }
+    return (hash & Integer.MAX_VALUE) % lanes.length;
+  }
+
+  /**
+   * Number of records the event converts into, known without converting it.
+   */
+  static int rowCount(EnrichedEvent event) {
+    EventData data = event.getEvent().getData();
+    if (data instanceof WriteRowsEventData) {
+      return ((WriteRowsEventData) data).getRows().size();
+    } else if (data instanceof UpdateRowsEventData) {
+      return ((UpdateRowsEventData) data).getRows().size();
+    } else if (data instanceof DeleteRowsEventData) {
+      return ((DeleteRowsEventData) data).getRows().size();
+    }
+    return 0;
+  }
+
+  private static int primaryKeyHash(Table table, EventData data) {
+    BitSet columns;
+    Serializable[] row;
+    if (data instanceof WriteRowsEventData && !((WriteRowsEventData) data).getRows().isEmpty()) {
+      columns = ((WriteRowsEventData) data).getIncludedColumns();
+      row = ((WriteRowsEventData) data).getRows().get(0);
+    } else if (data instanceof UpdateRowsEventData && !((UpdateRowsEventData) data).getRows().isEmpty()) {
+      columns = ((UpdateRowsEventData) data).getIncludedColumnsBeforeUpdate();
+      row = ((UpdateRowsEventData) data).getRows().get(0).getKey();
+    } else if (data instanceof DeleteRowsEventData && !((DeleteRowsEventData) data).getRows().isEmpty()) {
+      columns = ((DeleteRowsEventData) data).getIncludedColumns();
+      row = ((DeleteRowsEventData) data).getRows().get(0);
+    } else {
+      return 0;
+    }
+
+    // tables without metadata or without primary key hash to their table lane
+    int hash = 0;
+    int n = 0;
+    for (int i = columns.nextSetBit(0); i >= 0 && n < row.length; i = columns.nextSetBit(i + 1)) {
+      Column column = table.getColumn(i);
+      if (column.isPrimaryKey()) {
+        Serializable value = row[n];
+        hash = 31 * hash + (value instanceof byte[] ? Arrays.hashCode((byte[]) value) : Objects.hashCode(value));
+      }
+      n++;
+    }
+    return hash;
+  }
+}
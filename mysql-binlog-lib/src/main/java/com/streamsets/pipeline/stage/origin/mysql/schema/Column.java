@@ -23,10 +23,16 @@ package com.streamsets.pipeline.stage.origin.mysql.schema;
 public class Column {
   private final String name;
   private final MysqlType type;
+  private final boolean primaryKey;
 
   public Column(String name, MysqlType type) {
+    this(name, type, false);
+  }
+
+  public Column(String name, MysqlType type, boolean primaryKey) {
     this.name = name;
     this.type = type;
+    this.primaryKey = primaryKey;
   }
 
   public String getName() {
@@ -37,11 +43,16 @@ public class Column {
     return type;
   }
 
+  public boolean isPrimaryKey() {
+    return primaryKey;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder("Column{");
     sb.append("name='").append(name).append('\'');
     sb.append(", type=").append(type);
+    sb.append(", primaryKey=").append(primaryKey);
     sb.append('}');
     return sb.toString();
   }
@@ -57,6 +68,9 @@ public class Column {
 
     Column column = (Column) o;
 
+    if (primaryKey != column.primaryKey) {
+      return false;
+    }
     if (name != null ? !name.equals(column.name) : column.name != null) {
       return false;
     }
@@ -68,6 +82,7 @@ public class Column {
   public int hashCode() {
     int result = name != null ? name.hashCode() : 0;
     result = 31 * result + (type != null ? type.hashCode() : 0);
+    result = 31 * result + (primaryKey ? 1 : 0);
     return result;
   }
 }
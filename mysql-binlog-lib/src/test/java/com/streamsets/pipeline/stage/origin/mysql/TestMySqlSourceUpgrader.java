@@ -248,4 +248,16 @@ public class TestMySqlSourceUpgrader {
     assertExists(configs, "connection.username", "user");
     assertExists(configs, "connection.password", "");
   }
+
+  @Test
+  public void testUpgradeFromV3toV4() {
+    doReturn(3).when(context).getFromVersion();
+    doReturn(4).when(context).getToVersion();
+
+    configs = mySQLBinLogSourceUpgrader.upgrade(configs, context);
+
+    assertEquals(2, configs.size());
+    assertExists(configs, "config.numberOfThreads", 1);
+    assertExists(configs, "config.partitionStrategy", "TABLE");
+  }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.mysql;
+
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.sdk.RecordCreator;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Column;
+import com.streamsets.pipeline.stage.origin.mysql.schema.MysqlType;
+import com.streamsets.pipeline.stage.origin.mysql.schema.Table;
+import com.streamsets.pipeline.stage.origin.mysql.schema.TableImpl;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TestParallelRecordConverter {
+  private static final Table ORDERS = new TableImpl("db", "orders", Arrays.asList(
+      new Column("id", MysqlType.INT, true),
+      new Column("amount", MysqlType.INT)
+  ));
+
+  private ParallelRecordConverter converter;
+
+  @After
+  public void tearDown() {
+    if (converter != null) {
+      converter.destroy();
+    }
+  }
+
+  @Test
+  public void shouldKeepTableOnOneLane() {
+    converter = createConverter(8, PartitionStrategy.TABLE);
+    int lane = converter.partition(insert(ORDERS, 1, 1, 10));
+    for (int id = 2; id < 100; id++) {
+      assertThat(converter.partition(insert(ORDERS, id, id, 10)), is(lane));
+    }
+  }
+
+  @Test
+  public void shouldSpreadTableByPrimaryKey() {
+    converter = createConverter(8, PartitionStrategy.PRIMARY_KEY);
+    Set<Integer> lanes = new HashSet<>();
+    for (int id = 0; id < 100; id++) {
+      int lane = converter.partition(insert(ORDERS, id, id, 10));
+      // same key, different non key column - same lane
+      assertThat(converter.partition(insert(ORDERS, id + 1000, id, 20)), is(lane));
+      lanes.add(lane);
+    }
+    assertThat(lanes.size() > 1, is(true));
+  }
+
+  @Test
+  public void shouldConvertInSubmissionOrder() throws Exception {
+    converter = createConverter(4, PartitionStrategy.PRIMARY_KEY);
+    List<Future<List<Record>>> conversions = new ArrayList<>();
+    for (int id = 0; id < 1000; id++) {
+      conversions.add(converter.submit(insert(ORDERS, id, id, id * 10)));
+    }
+
+    int id = 0;
+    for (Future<List<Record>> conversion : conversions) {
+      List<Record> records = conversion.get();
+      assertThat(records.size(), is(1));
+      assertThat(records.get(0).get("/Data/id").getValueAsInteger(), is(id));
+      assertThat(records.get(0).get("/BinLogPosition").getValueAsLong(), is((long) id));
+      id++;
+    }
+  }
+
+  @Test
+  public void shouldCountRows() {
+    EnrichedEvent event = insert(ORDERS, 1, 1, 10);
+    event.getEvent().<WriteRowsEventData>getData().getRows().add(new Serializable[]{2, 20});
+    assertThat(ParallelRecordConverter.rowCount(event), is(2));
+  }
+
+  private static ParallelRecordConverter createConverter(int threads, PartitionStrategy strategy) {
+    RecordConverter recordConverter = new RecordConverter(recordSourceId -> RecordCreator.create("s", recordSourceId));
+    return new ParallelRecordConverter(recordConverter, threads, strategy);
+  }
+
+  private static EnrichedEvent insert(Table table, long position, int id, int amount) {
+    EventHeaderV4 header = new EventHeaderV4();
+    header.setEventType(EventType.EXT_WRITE_ROWS);
+    header.setTimestamp(System.currentTimeMillis());
+    BitSet columns = new BitSet();
+    columns.set(0, 2);
+    WriteRowsEventData data = new WriteRowsEventData();
+    data.setIncludedColumns(columns);
+    List<Serializable[]> rows = new ArrayList<>();
+    rows.add(new Serializable[]{id, amount});
+    data.setRows(rows);
+    return new EnrichedEvent(new Event(header, data), table, new BinLogPositionSourceOffset("binlog.000001", position));
+  }
+}
@@ -31,6 +31,8 @@ public enum Errors implements ErrorCode {
   NETFLOW_14("Error parsing IPV4 address from bytes {}: {}"),
   NETFLOW_15("Max template cache size must be a positive number, or -1 to indicate unlimited"),
   NETFLOW_16("Template cache timeout (ms) be a positive number, or -1 to indicate unlimited"),
+  NETFLOW_17("Invalid IPFIX message length {} (packet length is {})"),
+  NETFLOW_18("IPFIX set with ID {} has invalid length {} ({} bytes left in message)"),
   ;
 
   private final String msg;
@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.lib.parser.net.netflow;
 
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.ipfix.IpfixDecoder;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Decoder;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Message;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Decoder;
@@ -41,7 +42,8 @@ import java.util.List;
  * <a href="http://www.cisco.com/en/US/technologies/tk648/tk362/technologies_white_paper09186a00800a3db9.html">v9 spec</a>,
  * and
  * <a href="http://www.cisco.com/c/en/us/td/docs/net_mgmt/netflow_collection_engine/3-6/user/guide/format.html#wp1003394">v1 and v5 spec</a>
- * <a href="http://www.cisco.com/en/US/technologies/tk648/tk362/technologies_white_paper09186a00800a3db9.html">v9</a>.
+ * <a href="http://www.cisco.com/en/US/technologies/tk648/tk362/technologies_white_paper09186a00800a3db9.html">v9</a>
+ * and <a href="https://tools.ietf.org/html/rfc7011">IPFIX (v10)</a>.
  */
 
 public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
@@ -52,9 +54,10 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
   private boolean readVersion = false;
   private NetflowV5Decoder netflowV5Decoder;
   private NetflowV9Decoder netflowV9Decoder;
+  private IpfixDecoder ipfixDecoder;
   // END ReplayingDecoder state vars
 
-  // Netflow v9 decoder parameters
+  // Netflow v9 and IPFIX decoder parameters
   private final OutputValuesMode outputValuesMode;
   private final NetflowV9TemplateCacheProvider templateCacheProvider;
 
@@ -164,6 +167,12 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
         }
         versionSpecificNetflowDecoder = netflowV9Decoder;
         break;
+      case IpfixDecoder.IPFIX_VERSION:
+        if (ipfixDecoder == null) {
+          ipfixDecoder = new IpfixDecoder(this, outputValuesMode, templateCacheProvider);
+        }
+        versionSpecificNetflowDecoder = ipfixDecoder;
+        break;
       default:
         resetStateVariables();
         throw new OnRecordErrorException(Errors.NETFLOW_00, version);
@@ -212,6 +221,9 @@ public class NetflowCommonDecoder extends ReplayingDecoder<Void> {
     if (netflowV9Decoder != null) {
       netflowV9Decoder.resetState();
     }
+    if (ipfixDecoder != null) {
+      ipfixDecoder.resetState();
+    }
   }
 
   /**
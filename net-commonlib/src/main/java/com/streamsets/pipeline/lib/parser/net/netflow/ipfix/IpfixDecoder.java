@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.ipfix;
+
+import com.google.common.cache.Cache;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.Errors;
+import com.streamsets.pipeline.lib.parser.net.netflow.NetflowCommonDecoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.VersionSpecificNetflowDecoder;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowSetTemplateCacheKey;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldTemplate;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9FieldType;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9TemplateCacheProvider;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.TemplateDecoderPlan;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoder for IPFIX (Netflow v10) messages, as defined in <a href="https://tools.ietf.org/html/rfc7011">RFC 7011</a>.
+ * <p/>
+ * Unlike v9, the IPFIX message header carries the total message length, so the message body is read in one go and
+ * then decoded from memory. Templates are compiled into a {@link TemplateDecoderPlan} when received and cached per
+ * exporter, observation domain and template ID, data sets are decoded with that plan. Enterprise specific information
+ * elements are supported and reported as {@code enterprise_<number>_type_<id>} fields.
+ */
+public class IpfixDecoder implements VersionSpecificNetflowDecoder<IpfixMessage> {
+  private static final Logger LOG = LoggerFactory.getLogger(IpfixDecoder.class);
+
+  public static final int IPFIX_VERSION = 10;
+  private static final int HEADER_SIZE = 16;
+  private static final int SET_HEADER_SIZE = 4;
+  private static final int TEMPLATE_SET_ID = 2;
+  private static final int OPTIONS_TEMPLATE_SET_ID = 3;
+  private static final int MIN_DATA_SET_ID = 256;
+  private static final int ENTERPRISE_BIT = 0x8000;
+
+  private final NetflowCommonDecoder parentDecoder;
+  private final OutputValuesMode outputValuesMode;
+  private final Cache<FlowSetTemplateCacheKey, FlowSetTemplate> templateCache;
+
+  // BEGIN state vars
+  private Integer messageLength = null;
+  // END state vars
+
+  public IpfixDecoder(
+      NetflowCommonDecoder parentDecoder,
+      OutputValuesMode outputValuesMode,
+      NetflowV9TemplateCacheProvider templateCacheProvider
+  ) {
+    this.parentDecoder = parentDecoder;
+    this.outputValuesMode = outputValuesMode;
+    this.templateCache = templateCacheProvider.getFlowSetTemplateCache();
+  }
+
+  @Override
+  public List<IpfixMessage> parse(
+      int netflowVersion,
+      int packetLength,
+      boolean packetLengthCheck,
+      ByteBuf buf,
+      InetSocketAddress sender,
+      InetSocketAddress recipient
+  ) throws OnRecordErrorException {
+    if (messageLength == null) {
+      // 2-3
+      messageLength = buf.readUnsignedShort();
+      parentDecoder.doCheckpoint();
+    }
+    if (messageLength < HEADER_SIZE || (packetLengthCheck && messageLength > packetLength)) {
+      throw new OnRecordErrorException(Errors.NETFLOW_17, messageLength, packetLength);
+    }
+
+    // version and length have already been consumed
+    final byte[] message = new byte[messageLength - 4];
+    buf.readBytes(message);
+    parentDecoder.doCheckpoint();
+
+    final ByteBuf data = Unpooled.wrappedBuffer(message);
+    final long exportTime = data.readUnsignedInt();
+    final long sequenceNumber = data.readUnsignedInt();
+    final byte[] observationDomainIdBytes = new byte[4];
+    data.readBytes(observationDomainIdBytes);
+    final long observationDomainId = ((long) (observationDomainIdBytes[0] & 0xFF) << 24)
+        | ((observationDomainIdBytes[1] & 0xFF) << 16)
+        | ((observationDomainIdBytes[2] & 0xFF) << 8)
+        | (observationDomainIdBytes[3] & 0xFF);
+
+    final List<IpfixMessage> result = new ArrayList<>();
+    while (data.readableBytes() >= SET_HEADER_SIZE) {
+      final int setId = data.readUnsignedShort();
+      final int setLength = data.readUnsignedShort();
+      if (setLength < SET_HEADER_SIZE || setLength - SET_HEADER_SIZE > data.readableBytes()) {
+        throw new OnRecordErrorException(Errors.NETFLOW_18, setId, setLength, data.readableBytes());
+      }
+      final int setStart = data.readerIndex();
+      final int setEnd = setStart + setLength - SET_HEADER_SIZE;
+
+      if (setId == TEMPLATE_SET_ID || setId == OPTIONS_TEMPLATE_SET_ID) {
+        readTemplates(
+            data.slice(setStart, setEnd - setStart),
+            setId == OPTIONS_TEMPLATE_SET_ID,
+            observationDomainIdBytes,
+            sender
+        );
+      } else if (setId >= MIN_DATA_SET_ID) {
+        final FlowSetTemplate template = getTemplate(observationDomainIdBytes, sender, setId);
+        if (template == null) {
+          throw new OnRecordErrorException(Errors.NETFLOW_11, setId);
+        }
+        final TemplateDecoderPlan plan = template.getDecoderPlan();
+        final FlowKind flowKind = template.getTemplateKind();
+        int offset = setStart;
+        while (offset < setEnd) {
+          final List<NetflowV9Field> fields = new ArrayList<>(plan.getFieldCount());
+          offset = plan.decode(message, offset, setEnd, outputValuesMode, fields);
+          if (offset < 0) {
+            // remaining bytes are padding
+            break;
+          }
+          IpfixMessage msg = new IpfixMessage();
+          msg.setSender(sender);
+          msg.setRecipient(recipient);
+          msg.setOutputValuesMode(outputValuesMode);
+          msg.setFlowKind(flowKind);
+          msg.setLength(messageLength);
+          msg.setExportTime(exportTime);
+          msg.setSequenceNumber(sequenceNumber);
+          msg.setObservationDomainId(observationDomainId);
+          msg.setFlowTemplateId(setId);
+          msg.setFields(fields);
+          result.add(msg);
+        }
+      } else if (LOG.isDebugEnabled()) {
+        LOG.debug("Skipping IPFIX set with reserved ID {}", setId);
+      }
+      data.readerIndex(setEnd);
+    }
+
+    resetState();
+    return result;
+  }
+
+  private FlowSetTemplate getTemplate(byte[] observationDomainId, InetSocketAddress sender, int templateId) {
+    FlowSetTemplate template = templateCache.getIfPresent(
+        new FlowSetTemplateCacheKey(FlowKind.FLOWSET, observationDomainId, sender, templateId)
+    );
+    if (template == null) {
+      template = templateCache.getIfPresent(
+          new FlowSetTemplateCacheKey(FlowKind.OPTIONS, observationDomainId, sender, templateId)
+      );
+    }
+    return template;
+  }
+
+  private void readTemplates(
+      ByteBuf set,
+      boolean options,
+      byte[] observationDomainId,
+      InetSocketAddress sender
+  ) throws OnRecordErrorException {
+    final FlowKind flowKind = options ? FlowKind.OPTIONS : FlowKind.FLOWSET;
+    try {
+      // anything shorter than a template record header is padding
+      while (set.readableBytes() >= 4) {
+        final int templateId = set.readUnsignedShort();
+        final int fieldCount = set.readUnsignedShort();
+        final FlowSetTemplateCacheKey cacheKey = new FlowSetTemplateCacheKey(
+            flowKind,
+            observationDomainId,
+            sender,
+            templateId
+        );
+        if (fieldCount == 0) {
+          // template withdrawal; withdrawing all templates of a set (template ID equal to the set ID) is not
+          // supported, those will be replaced when they are sent again
+          templateCache.invalidate(cacheKey);
+          continue;
+        }
+        if (options) {
+          // scope field count, in IPFIX scope fields are regular information elements
+          set.readUnsignedShort();
+        }
+        final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+          int informationElementId = set.readUnsignedShort();
+          final int length = set.readUnsignedShort();
+          long enterpriseNumber = 0;
+          if ((informationElementId & ENTERPRISE_BIT) != 0) {
+            informationElementId &= ~ENTERPRISE_BIT;
+            enterpriseNumber = set.readUnsignedInt();
+          }
+          fieldTemplates.add(new NetflowV9FieldTemplate(
+              enterpriseNumber == 0 ? NetflowV9FieldType.getTypeForId(informationElementId) : null,
+              informationElementId,
+              length,
+              enterpriseNumber
+          ));
+        }
+        templateCache.put(cacheKey, new FlowSetTemplate(flowKind, templateId, fieldTemplates));
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("Cached new IPFIX template {} with {} fields", cacheKey, fieldCount);
+        }
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new OnRecordErrorException(Errors.NETFLOW_01, "IPFIX template set is truncated", e);
+    }
+  }
+
+  @Override
+  public void resetState() {
+    messageLength = null;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.ipfix;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.lib.parser.net.netflow.BaseNetflowMessage;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
+import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A single IPFIX data record. The record layout follows the Netflow v9 one, with the IPFIX message header fields in
+ * the packet header.
+ */
+public class IpfixMessage extends BaseNetflowMessage {
+
+  public static final String FIELD_LENGTH = "length";
+  public static final String FIELD_EXPORT_TIME = "exportTime";
+  public static final String FIELD_OBSERVATION_DOMAIN_ID = "observationDomainId";
+
+  private OutputValuesMode outputValuesMode;
+  private int length;
+  private long exportTime;
+  private long sequenceNumber;
+  private long observationDomainId;
+  private FlowKind flowKind;
+  private int flowTemplateId;
+  private InetSocketAddress sender;
+  private InetSocketAddress recipient;
+
+  private final List<NetflowV9Field> fields = new ArrayList<>();
+
+  public OutputValuesMode getOutputValuesMode() {
+    return outputValuesMode;
+  }
+
+  public void setOutputValuesMode(OutputValuesMode outputValuesMode) {
+    this.outputValuesMode = outputValuesMode;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public void setLength(int length) {
+    this.length = length;
+  }
+
+  public long getExportTime() {
+    return exportTime;
+  }
+
+  public void setExportTime(long exportTime) {
+    this.exportTime = exportTime;
+  }
+
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
+
+  public void setSequenceNumber(long sequenceNumber) {
+    this.sequenceNumber = sequenceNumber;
+  }
+
+  public long getObservationDomainId() {
+    return observationDomainId;
+  }
+
+  public void setObservationDomainId(long observationDomainId) {
+    this.observationDomainId = observationDomainId;
+  }
+
+  public FlowKind getFlowKind() {
+    return flowKind;
+  }
+
+  public void setFlowKind(FlowKind flowKind) {
+    this.flowKind = flowKind;
+  }
+
+  public int getFlowTemplateId() {
+    return flowTemplateId;
+  }
+
+  public void setFlowTemplateId(int flowTemplateId) {
+    this.flowTemplateId = flowTemplateId;
+  }
+
+  public InetSocketAddress getSender() {
+    return sender;
+  }
+
+  public void setSender(InetSocketAddress sender) {
+    this.sender = sender;
+  }
+
+  public InetSocketAddress getRecipient() {
+    return recipient;
+  }
+
+  public void setRecipient(InetSocketAddress recipient) {
+    this.recipient = recipient;
+  }
+
+  public List<NetflowV9Field> getFields() {
+    return fields;
+  }
+
+  public void setFields(List<NetflowV9Field> fields) {
+    if (fields != null) {
+      this.fields.addAll(fields);
+    }
+  }
+
+  @Override
+  public void populateRecord(Record record) {
+    LinkedHashMap<String, Field> rootMap = new LinkedHashMap<>();
+    rootMap.put(NetflowV9Message.FIELD_FLOW_KIND, Field.create(getFlowKind().name()));
+
+    if (getSender() != null) {
+      rootMap.put(NetflowV9Message.FIELD_SENDER, Field.create(getSender().toString()));
+    }
+    if (getRecipient() != null) {
+      rootMap.put(NetflowV9Message.FIELD_RECIPIENT, Field.create(getRecipient().toString()));
+    }
+
+    LinkedHashMap<String, Field> headerFields = new LinkedHashMap<>();
+    headerFields.put(NetflowV9Message.FIELD_VERSION, Field.create(getNetflowVersion()));
+    headerFields.put(FIELD_LENGTH, Field.create(getLength()));
+    headerFields.put(FIELD_EXPORT_TIME, Field.create(getExportTime()));
+    headerFields.put(NetflowV9Message.FIELD_SEQUENCE_NUMBER, Field.create(getSequenceNumber()));
+    headerFields.put(FIELD_OBSERVATION_DOMAIN_ID, Field.create(getObservationDomainId()));
+    rootMap.put(NetflowV9Message.FIELD_PACKET_HEADER, Field.createListMap(headerFields));
+    rootMap.put(NetflowV9Message.FIELD_FLOW_TEMPLATE_ID, Field.create(getFlowTemplateId()));
+
+    switch (outputValuesMode) {
+      case RAW_AND_INTERPRETED:
+        rootMap.put(NetflowV9Message.FIELD_RAW_VALUES, Field.createListMap(createFieldsMap(true)));
+        rootMap.put(NetflowV9Message.FIELD_INTERPRETED_VALUES, Field.createListMap(createFieldsMap(false)));
+        break;
+      case RAW_ONLY:
+        rootMap.put(NetflowV9Message.FIELD_RAW_VALUES, Field.createListMap(createFieldsMap(true)));
+        break;
+      case INTERPRETED_ONLY:
+        rootMap.put(NetflowV9Message.FIELD_INTERPRETED_VALUES, Field.createListMap(createFieldsMap(false)));
+        break;
+    }
+
+    record.set(Field.createListMap(rootMap));
+  }
+
+  private LinkedHashMap<String, Field> createFieldsMap(boolean rawValues) {
+    LinkedHashMap<String, Field> fieldsMap = new LinkedHashMap<>();
+    fields.forEach(field -> fieldsMap.put(
+        field.getSdcFieldName(),
+        rawValues ? Field.create(field.getRawValue()) : field.getInterpretedValueField()
+    ));
+    return fieldsMap;
+  }
+
+  @Override
+  public int getNetflowVersion() {
+    return IpfixDecoder.IPFIX_VERSION;
+  }
+}
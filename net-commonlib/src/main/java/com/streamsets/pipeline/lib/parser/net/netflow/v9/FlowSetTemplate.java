@@ -25,6 +25,7 @@ public class FlowSetTemplate {
   private final int templateId;
   private final List<NetflowV9FieldTemplate> fieldTemplates = new ArrayList<>();
   private final int totalFieldsLength;
+  private final TemplateDecoderPlan decoderPlan;
 
   public FlowSetTemplate(FlowKind templateKind, int templateId, List<NetflowV9FieldTemplate> fieldTemplates) {
     this.templateKind = templateKind;
@@ -37,6 +38,11 @@ public class FlowSetTemplate {
       }
     }
     totalFieldsLength = totalLength;
+    decoderPlan = TemplateDecoderPlan.compile(this.fieldTemplates);
+  }
+
+  public FlowKind getTemplateKind() {
+    return templateKind;
   }
 
   public int getTemplateId() {
@@ -50,4 +56,8 @@ public class FlowSetTemplate {
   public int getTotalFieldsLength() {
     return totalFieldsLength;
   }
+
+  public TemplateDecoderPlan getDecoderPlan() {
+    return decoderPlan;
+  }
 }
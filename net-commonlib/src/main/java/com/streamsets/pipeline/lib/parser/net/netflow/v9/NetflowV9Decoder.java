@@ -38,6 +38,7 @@ import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
@@ -97,9 +98,6 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
   // vars for reading a data flowset
 
   private Integer currentDataFlowLength = null;
-  private Integer currentDataFlowBytesToRead = null;
-  private int currentDataFlowFieldInd = -1;
-  private List<NetflowV9Field> currentDataFlowFields = null;
 
   // vars for reading an options template flowset
   private List<NetflowV9FieldTemplate> currentOptionsTemplateFields = null;
@@ -360,32 +358,19 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
 
         if (currentDataFlowLength == null) {
           currentDataFlowLength = readUnsignedShortAndCheckpoint(buf);
-          currentDataFlowBytesToRead = currentDataFlowLength - 4;
         }
-        while (currentDataFlowBytesToRead > 0) {
-          if (currentDataFlowFieldInd < 0 && currentDataFlowBytesToRead < template.getTotalFieldsLength()) {
-            // we aren't in the middle of parsing a field (currentDataFlowFieldInd < 0)
-            // AND there isn't enough data left for a complete record (2nd clause)
-            // so this must be padding; just skip it
-            readBytesAndCheckpoint(buf, currentDataFlowBytesToRead);
+        // the whole flowset is read at once, its records are then decoded straight from the array using the plan
+        // compiled when the template was received
+        final byte[] flowsetBytes = readFullyAndCheckpoint(buf, Math.max(0, currentDataFlowLength - 4));
+        final TemplateDecoderPlan plan = template.getDecoderPlan();
+        int offset = 0;
+        while (offset < flowsetBytes.length) {
+          final List<NetflowV9Field> fields = new ArrayList<>(plan.getFieldCount());
+          offset = plan.decode(flowsetBytes, offset, flowsetBytes.length, outputValuesMode, fields);
+          if (offset < 0) {
+            // there isn't enough data left for a complete record, so this must be padding
             break;
           }
-          if (currentDataFlowFields == null) {
-            currentDataFlowFields = new LinkedList<>();
-            currentDataFlowFieldInd = 0;
-          }
-
-          final List<NetflowV9FieldTemplate> fieldTemplates = template.getFieldTemplates();
-          final int numDataFlowFields = fieldTemplates.size();
-          while (currentDataFlowFieldInd < numDataFlowFields) {
-            NetflowV9FieldTemplate fieldTemplate = fieldTemplates.get(currentDataFlowFieldInd);
-            NetflowV9Field field = decodeField(buf, fieldTemplate, outputValuesMode);
-            currentDataFlowFields.add(field);
-            currentDataFlowBytesToRead -= fieldTemplate.getLength();
-            // done reading a single field
-            currentDataFlowFieldInd++;
-          }
-          // done reading a flow record
 
           NetflowV9Message msg = new NetflowV9Message();
           msg.setSender(sender);
@@ -402,14 +387,11 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
           msg.setSourceIdBytes(sourceIdBytes);
 
           // data fields
-          msg.setFields(currentDataFlowFields);
+          msg.setFields(fields);
           msg.setFlowTemplateId(templateId);
 
           result.add(msg);
           readIndex++;
-          currentDataFlowFields = null;
-          currentDataFlowFieldInd = -1;
-
         }
         // done reading all flow records
         currentDataFlowLength = null;
@@ -438,6 +420,17 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
     return val;
   }
 
+  /**
+   * Reads all the given bytes in one go. If they are not all available yet, the
+   * {@link io.netty.handler.codec.ReplayingDecoder} replays from the previous checkpoint once more data has arrived.
+   */
+  private byte[] readFullyAndCheckpoint(ByteBuf buf, int size) {
+    final byte[] bytes = new byte[size];
+    buf.readBytes(bytes);
+    parentDecoder.doCheckpoint();
+    return bytes;
+  }
+
   private byte[] readBytesAndCheckpoint(ByteBuf buf, int size) {
     if (currentRawBytesIndex == null) {
       currentRawBytesIndex = 0;
@@ -457,217 +450,175 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
       NetflowV9FieldTemplate fieldTemplate,
       OutputValuesMode outputValuesMode) throws OnRecordErrorException {
 
-    NetflowV9FieldType type = fieldTemplate.getType();
-    int length = fieldTemplate.getLength();
-
-    byte[] rawBytes = readBytesAndCheckpoint(byteBuf, length);
+    byte[] rawBytes = readBytesAndCheckpoint(byteBuf, fieldTemplate.getLength());
 
     Field interpretedValueField = null;
-
     if (outputValuesMode != OutputValuesMode.RAW_ONLY) {
-      if (type == null) {
-        // just use raw bytes if unable to recognize a known type
-        interpretedValueField = getRawBytes(rawBytes);
-      } else {
-        switch (type) {
-          case IN_BYTES:
-          case IN_PKTS:
-          case FLOWS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case PROTOCOL:
-          case SRC_TOS:
-          case TCP_FLAGS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case L4_SRC_PORT:
-          case L4_DST_PORT:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case SRC_MASK:
-          case DST_MASK:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case INPUT_SNMP:
-          case OUTPUT_SNMP:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case IPV4_SRC_ADDR:
-          case IPV4_DST_ADDR:
-          case IPV4_NEXT_HOP:
-          case BGP_IPV4_NEXT_HOP:
-            interpretedValueField = Field.create(NetflowCommonDecoder.getIpV4Address(rawBytes));
-            break;
-          case SRC_AS:
-          case DST_AS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case MUL_DST_PKTS:
-          case MUL_DST_BYTES:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case LAST_SWITCHED:
-          case FIRST_SWITCHED:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case OUT_BYTES:
-          case OUT_PKTS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case MIN_PKT_LNGTH:
-          case MAX_PKT_LNGTH:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case IPV6_SRC_ADDR:
-          case IPV6_DST_ADDR:
-          case IPV6_NEXT_HOP:
-          case BGP_IPV6_NEXT_HOP:
-            interpretedValueField = getIPV6AddressAsString(rawBytes);
-            break;
-          case IPV6_SRC_MASK:
-          case IPV6_DST_MASK:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IPV6_FLOW_LABEL:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case ICMP_TYPE:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case MUL_IGMP_TYPE:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case SAMPLING_INTERVAL:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case SAMPLING_ALGORITHM:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case FLOW_ACTIVE_TIMEOUT:
-          case FLOW_INACTIVE_TIMEOUT:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case ENGINE_TYPE:
-          case ENGINE_ID:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case TOTAL_BYTES_EXP:
-          case TOTAL_PKTS_EXP:
-          case TOTAL_FLOWS_EXP:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case IPV4_SRC_PREFIX:
-          case IPV4_DST_PREFIX:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case MPLS_TOP_LABEL_TYPE:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case MPLS_TOP_LABEL_IP_ADDR:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case FLOW_SAMPLER_ID:
-          case FLOW_SAMPLER_MODE:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case FLOW_SAMPLER_RANDOM_INTERVAL:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case MIN_TTL:
-          case MAX_TTL:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IPV4_IDENT:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case DST_TOS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IN_SRC_MAC:
-          case OUT_DST_MAC:
-          case IN_DST_MAC:
-          case OUT_SRC_MAC:
-            interpretedValueField = getMacAddress(rawBytes);
-            break;
-          case SRC_VLAN:
-          case DST_VLAN:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case IP_PROTOCOL_VERSION:
-          case DIRECTION:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case IPV6_OPTION_HEADERS:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case MPLS_LABEL_1:
-          case MPLS_LABEL_2:
-          case MPLS_LABEL_3:
-          case MPLS_LABEL_4:
-          case MPLS_LABEL_5:
-          case MPLS_LABEL_6:
-          case MPLS_LABEL_7:
-          case MPLS_LABEL_8:
-          case MPLS_LABEL_9:
-          case MPLS_LABEL_10:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case IF_NAME:
-          case IF_DESC:
-          case SAMPLER_NAME:
-            interpretedValueField = getString(rawBytes);
-            break;
-          case IN_PERMANENT_BYTES:
-          case IN_PERMANENT_PKTS:
-            interpretedValueField = getArbitraryLengthPositiveIntegralFromBytes(rawBytes);
-            break;
-          case FRAGMENT_OFFSET:
-            interpretedValueField = getUnsignedShortField(rawBytes);
-            break;
-          case FORWARDING_STATUS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case MPLS_PAL_RD:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case MPLS_PREFIX_LEN:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case SRC_TRAFFIC_INDEX:
-          case DST_TRAFFIC_INDEX:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case APPLICATION_DESCRIPTION:
-            interpretedValueField = getString(rawBytes);
-            break;
-          case APPLICATION_TAG:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          case APPLICATION_NAME:
-            interpretedValueField = getString(rawBytes);
-            break;
-          case POSTIP_DIFF_SERV_CODE_POINTS:
-            interpretedValueField = getUnsignedByteField(fieldTemplate.getTypeId(), rawBytes);
-            break;
-          case REPLICATION_FACTOR:
-            interpretedValueField = getUnsignedIntField(rawBytes);
-            break;
-          case LAYER2_PACKET_SECTION_OFFSET:
-          case LAYER2_PACKET_SECTION_SIZE:
-          case LAYER2_PACKET_SECTION_DATA:
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-          default:
-            LOG.error("Type {} missing from switch in NetflowV9Decoder decodeField method", type.name());
-            interpretedValueField = getRawBytes(rawBytes);
-            break;
-        }
-      }
+      interpretedValueField = getInterpreter(fieldTemplate).interpret(rawBytes);
     }
 
     return new NetflowV9Field(fieldTemplate, rawBytes, interpretedValueField);
   }
 
+  /**
+   * Resolves how the raw bytes of a field are turned into an interpreted value. This is done once per field when a
+   * template is compiled into a {@link TemplateDecoderPlan}, so that decoding data flows does not dispatch on the
+   * field type for every field of every record.
+   */
+  public static FieldInterpreter getInterpreter(NetflowV9FieldTemplate fieldTemplate) {
+    NetflowV9FieldType type = fieldTemplate.getType();
+    if (type == null) {
+      // just use raw bytes if unable to recognize a known type
+      return NetflowV9Decoder::getRawBytes;
+    }
+    final int typeId = fieldTemplate.getTypeId();
+    switch (type) {
+      case IN_BYTES:
+      case IN_PKTS:
+      case FLOWS:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case PROTOCOL:
+      case SRC_TOS:
+      case TCP_FLAGS:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case L4_SRC_PORT:
+      case L4_DST_PORT:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case SRC_MASK:
+      case DST_MASK:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case INPUT_SNMP:
+      case OUTPUT_SNMP:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case IPV4_SRC_ADDR:
+      case IPV4_DST_ADDR:
+      case IPV4_NEXT_HOP:
+      case BGP_IPV4_NEXT_HOP:
+        return rawBytes -> Field.create(NetflowCommonDecoder.getIpV4Address(rawBytes));
+      case SRC_AS:
+      case DST_AS:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case MUL_DST_PKTS:
+      case MUL_DST_BYTES:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case LAST_SWITCHED:
+      case FIRST_SWITCHED:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case OUT_BYTES:
+      case OUT_PKTS:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case MIN_PKT_LNGTH:
+      case MAX_PKT_LNGTH:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case IPV6_SRC_ADDR:
+      case IPV6_DST_ADDR:
+      case IPV6_NEXT_HOP:
+      case BGP_IPV6_NEXT_HOP:
+        return NetflowV9Decoder::getIPV6AddressAsString;
+      case IPV6_SRC_MASK:
+      case IPV6_DST_MASK:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case IPV6_FLOW_LABEL:
+        return NetflowV9Decoder::getRawBytes;
+      case ICMP_TYPE:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case MUL_IGMP_TYPE:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case SAMPLING_INTERVAL:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case SAMPLING_ALGORITHM:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case FLOW_ACTIVE_TIMEOUT:
+      case FLOW_INACTIVE_TIMEOUT:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case ENGINE_TYPE:
+      case ENGINE_ID:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case TOTAL_BYTES_EXP:
+      case TOTAL_PKTS_EXP:
+      case TOTAL_FLOWS_EXP:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case IPV4_SRC_PREFIX:
+      case IPV4_DST_PREFIX:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case MPLS_TOP_LABEL_TYPE:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case MPLS_TOP_LABEL_IP_ADDR:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case FLOW_SAMPLER_ID:
+      case FLOW_SAMPLER_MODE:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case FLOW_SAMPLER_RANDOM_INTERVAL:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case MIN_TTL:
+      case MAX_TTL:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case IPV4_IDENT:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case DST_TOS:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case IN_SRC_MAC:
+      case OUT_DST_MAC:
+      case IN_DST_MAC:
+      case OUT_SRC_MAC:
+        return NetflowV9Decoder::getMacAddress;
+      case SRC_VLAN:
+      case DST_VLAN:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case IP_PROTOCOL_VERSION:
+      case DIRECTION:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case IPV6_OPTION_HEADERS:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case MPLS_LABEL_1:
+      case MPLS_LABEL_2:
+      case MPLS_LABEL_3:
+      case MPLS_LABEL_4:
+      case MPLS_LABEL_5:
+      case MPLS_LABEL_6:
+      case MPLS_LABEL_7:
+      case MPLS_LABEL_8:
+      case MPLS_LABEL_9:
+      case MPLS_LABEL_10:
+        return NetflowV9Decoder::getRawBytes;
+      case IF_NAME:
+      case IF_DESC:
+      case SAMPLER_NAME:
+        return NetflowV9Decoder::getString;
+      case IN_PERMANENT_BYTES:
+      case IN_PERMANENT_PKTS:
+        return NetflowV9Decoder::getArbitraryLengthPositiveIntegralFromBytes;
+      case FRAGMENT_OFFSET:
+        return NetflowV9Decoder::getUnsignedShortField;
+      case FORWARDING_STATUS:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case MPLS_PAL_RD:
+        return NetflowV9Decoder::getRawBytes;
+      case MPLS_PREFIX_LEN:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case SRC_TRAFFIC_INDEX:
+      case DST_TRAFFIC_INDEX:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case APPLICATION_DESCRIPTION:
+        return NetflowV9Decoder::getString;
+      case APPLICATION_TAG:
+        return NetflowV9Decoder::getRawBytes;
+      case APPLICATION_NAME:
+        return NetflowV9Decoder::getString;
+      case POSTIP_DIFF_SERV_CODE_POINTS:
+        return rawBytes -> getUnsignedByteField(typeId, rawBytes);
+      case REPLICATION_FACTOR:
+        return NetflowV9Decoder::getUnsignedIntField;
+      case LAYER2_PACKET_SECTION_OFFSET:
+      case LAYER2_PACKET_SECTION_SIZE:
+      case LAYER2_PACKET_SECTION_DATA:
+        return NetflowV9Decoder::getRawBytes;
+      default:
+        LOG.error("Type {} missing from switch in NetflowV9Decoder getInterpreter method", type.name());
+        return NetflowV9Decoder::getRawBytes;
+    }
+  }
+
   public static Field getArbitraryLengthPositiveIntegralFromBytes(byte[] bytes) {
     final BigInteger bigInt = new BigInteger(1, bytes);
     return Field.create(new BigDecimal(bigInt));
@@ -777,9 +728,6 @@ public class NetflowV9Decoder implements VersionSpecificNetflowDecoder<NetflowV9
     currentFieldType = null;
     currentFieldLength = null;
     currentDataFlowLength = null;
-    currentDataFlowBytesToRead = null;
-    currentDataFlowFieldInd = -1;
-    currentDataFlowFields = null;
 
     currentOptionsTemplateFields = null;
     optionsTemplateScopeLength = null;
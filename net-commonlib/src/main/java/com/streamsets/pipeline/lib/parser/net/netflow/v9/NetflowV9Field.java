@@ -47,7 +47,9 @@ public class NetflowV9Field {
   }
 
   public String getSdcFieldName() {
-    if (fieldTemplate.getType() != null) {
+    if (fieldTemplate.getEnterpriseNumber() != 0) {
+      return String.format("enterprise_%d_type_%d", fieldTemplate.getEnterpriseNumber(), fieldTemplate.getTypeId());
+    } else if (fieldTemplate.getType() != null) {
       return fieldTemplate.getType().name();
     } else {
       return String.format("type_%d", fieldTemplate.getTypeId());
@@ -22,6 +22,7 @@ public class NetflowV9FieldTemplate {
 
   private final int typeId;
   private final int length;
+  private final long enterpriseNumber;
 
   public NetflowV9FieldTemplate(int typeId, int length) {
     this(NetflowV9FieldType.getTypeForId(typeId), typeId, length);
@@ -32,9 +33,18 @@ public class NetflowV9FieldTemplate {
   }
 
   public NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length) {
+    this(type, typeId, length, 0);
+  }
+
+  /**
+   * Field template with an enterprise number, as found in IPFIX templates. An enterprise number of 0 denotes an
+   * IANA (i.e. non enterprise specific) field.
+   */
+  public NetflowV9FieldTemplate(NetflowV9FieldType type, int typeId, int length, long enterpriseNumber) {
     this.type = type;
     this.typeId = typeId;
     this.length = length;
+    this.enterpriseNumber = enterpriseNumber;
   }
 
   public NetflowV9FieldType getType() {
@@ -48,4 +58,8 @@ public class NetflowV9FieldTemplate {
   public int getLength() {
     return length;
   }
+
+  public long getEnterpriseNumber() {
+    return enterpriseNumber;
+  }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.parser.net.netflow.v9;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.base.OnRecordErrorException;
+import com.streamsets.pipeline.lib.parser.net.netflow.OutputValuesMode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A flow template compiled into a flat decoding plan: the offset, width and interpreter of every field are resolved
+ * once, when the template is received, instead of for each field of each data record.
+ * <p/>
+ * Fields with a length of {@link #VARIABLE_LENGTH} (IPFIX only) carry their length inline, in which case the offsets
+ * of the fields following them can only be known while decoding.
+ */
+public class TemplateDecoderPlan {
+
+  public static final int VARIABLE_LENGTH = 65535;
+
+  private final NetflowV9FieldTemplate[] fields;
+  private final FieldInterpreter[] interpreters;
+  private final int[] offsets;
+  private final boolean fixedLength;
+  private final int minRecordLength;
+
+  private TemplateDecoderPlan(
+      NetflowV9FieldTemplate[] fields,
+      FieldInterpreter[] interpreters,
+      int[] offsets,
+      boolean fixedLength,
+      int minRecordLength
+  ) {
+    this.fields = fields;
+    this.interpreters = interpreters;
+    this.offsets = offsets;
+    this.fixedLength = fixedLength;
+    this.minRecordLength = minRecordLength;
+  }
+
+  public static TemplateDecoderPlan compile(List<NetflowV9FieldTemplate> fieldTemplates) {
+    final int size = fieldTemplates.size();
+    NetflowV9FieldTemplate[] fields = fieldTemplates.toArray(new NetflowV9FieldTemplate[size]);
+    FieldInterpreter[] interpreters = new FieldInterpreter[size];
+    int[] offsets = new int[size];
+    boolean fixedLength = true;
+    int offset = 0;
+    for (int i = 0; i < size; i++) {
+      interpreters[i] = NetflowV9Decoder.getInterpreter(fields[i]);
+      offsets[i] = offset;
+      if (fields[i].getLength() == VARIABLE_LENGTH) {
+        fixedLength = false;
+        // at least the one byte length prefix
+        offset += 1;
+      } else {
+        offset += fields[i].getLength();
+      }
+    }
+    return new TemplateDecoderPlan(fields, interpreters, offsets, fixedLength, offset);
+  }
+
+  public int getFieldCount() {
+    return fields.length;
+  }
+
+  /**
+   * @return the length of a record when the template has no variable length fields, otherwise a lower bound of it
+   */
+  public int getMinRecordLength() {
+    return minRecordLength;
+  }
+
+  public boolean isFixedLength() {
+    return fixedLength;
+  }
+
+  /**
+   * Decodes a single record starting at {@code offset}.
+   *
+   * @param data the bytes of the data flowset (or IPFIX data set)
+   * @param offset the offset of the record within data
+   * @param limit the end (exclusive) of the flowset within data
+   * @param outputValuesMode whether values need to be interpreted
+   * @param result list the decoded fields are added to
+   * @return the offset following the record, or -1 if the remaining bytes do not hold a complete record (i.e. padding)
+   */
+  public int decode(
+      byte[] data,
+      int offset,
+      int limit,
+      OutputValuesMode outputValuesMode,
+      List<NetflowV9Field> result
+  ) throws OnRecordErrorException {
+    if (minRecordLength == 0 || limit - offset < minRecordLength) {
+      return -1;
+    }
+    final boolean interpret = outputValuesMode != OutputValuesMode.RAW_ONLY;
+    if (fixedLength) {
+      for (int i = 0; i < fields.length; i++) {
+        int start = offset + offsets[i];
+        byte[] rawBytes = Arrays.copyOfRange(data, start, start + fields[i].getLength());
+        result.add(new NetflowV9Field(fields[i], rawBytes, interpret ? interpreters[i].interpret(rawBytes) : null));
+      }
+      return offset + minRecordLength;
+    }
+
+    int position = offset;
+    for (int i = 0; i < fields.length; i++) {
+      int length = fields[i].getLength();
+      if (length == VARIABLE_LENGTH) {
+        if (position >= limit) {
+          return -1;
+        }
+        length = data[position++] & 0xFF;
+        if (length == 255) {
+          if (position + 2 > limit) {
+            return -1;
+          }
+          length = ((data[position] & 0xFF) << 8) | (data[position + 1] & 0xFF);
+          position += 2;
+        }
+      }
+      if (position + length > limit) {
+        return -1;
+      }
+      byte[] rawBytes = Arrays.copyOfRange(data, position, position + length);
+      result.add(new NetflowV9Field(fields[i], rawBytes, interpret ? interpreters[i].interpret(rawBytes) : null));
+      position += length;
+    }
+    return position;
+  }
+
+}
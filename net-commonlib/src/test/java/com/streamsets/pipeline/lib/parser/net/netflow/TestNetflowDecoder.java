@@ -21,6 +21,7 @@ import com.streamsets.pipeline.api.Field;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.lib.parser.net.NetTestUtils;
+import com.streamsets.pipeline.lib.parser.net.netflow.ipfix.IpfixMessage;
 import com.streamsets.pipeline.lib.parser.net.netflow.v5.NetflowV5Message;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.FlowKind;
 import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Field;
@@ -29,6 +30,7 @@ import com.streamsets.pipeline.lib.parser.net.netflow.v9.NetflowV9Message;
 import com.streamsets.pipeline.sdk.RecordCreator;
 import com.streamsets.testing.RandomTestUtils;
 import com.streamsets.testing.ValueAccessor;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import org.apache.commons.lang3.RandomUtils;
@@ -540,4 +542,113 @@ public class TestNetflowDecoder {
     assertThat(record.get("/" + NetflowV9Message.FIELD_RECIPIENT), fieldWithValue(recipientAddr.toString()));
   }
 
+  private byte[] getIpfixMessageBytes() {
+    ByteBuf sets = Unpooled.buffer();
+
+    // template set with a single template
+    sets.writeShort(2);
+    sets.writeShort(4 + 4 + 4 * 4 + 4);
+    sets.writeShort(256);
+    sets.writeShort(4);
+    // IPV4_SRC_ADDR
+    sets.writeShort(8);
+    sets.writeShort(4);
+    // L4_SRC_PORT
+    sets.writeShort(7);
+    sets.writeShort(2);
+    // enterprise specific element 1 of enterprise 9
+    sets.writeShort(0x8000 | 1);
+    sets.writeShort(4);
+    sets.writeInt(9);
+    // IF_NAME, variable length
+    sets.writeShort(82);
+    sets.writeShort(65535);
+
+    // data set with two records and one byte of padding
+    ByteBuf records = Unpooled.buffer();
+    records.writeBytes(new byte[]{10, 0, 0, 1});
+    records.writeShort(443);
+    records.writeInt(42);
+    records.writeByte(4);
+    records.writeBytes("eth0".getBytes());
+    records.writeBytes(new byte[]{10, 0, 0, 2});
+    records.writeShort(8080);
+    records.writeInt(43);
+    records.writeByte(0);
+    records.writeByte(0);
+    sets.writeShort(256);
+    sets.writeShort(4 + records.readableBytes());
+    sets.writeBytes(records);
+
+    ByteBuf message = Unpooled.buffer();
+    message.writeShort(10);
+    message.writeShort(16 + sets.readableBytes());
+    message.writeInt(1500000000);
+    message.writeInt(7);
+    message.writeInt(3);
+    message.writeBytes(sets);
+    byte[] bytes = new byte[message.readableBytes()];
+    message.readBytes(bytes);
+    return bytes;
+  }
+
+  @Test
+  public void ipfixTemplateAndData() throws Exception {
+    EmbeddedChannel ch = new EmbeddedChannel(makeNetflowDecoder());
+
+    final boolean randomlySlice = RandomTestUtils.getRandom().nextBoolean();
+    writeBytesToChannel(ch, getIpfixMessageBytes(), randomlySlice);
+
+    List<IpfixMessage> messages = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      Object object = ch.readInbound();
+      assertThat(object, is(instanceOf(IpfixMessage.class)));
+      messages.add((IpfixMessage) object);
+    }
+    assertNull(ch.readInbound());
+    ch.finish();
+
+    IpfixMessage first = messages.get(0);
+    assertThat(first.getNetflowVersion(), equalTo(10));
+    assertThat(first.getExportTime(), equalTo(1500000000L));
+    assertThat(first.getSequenceNumber(), equalTo(7L));
+    assertThat(first.getObservationDomainId(), equalTo(3L));
+    assertThat(first.getFlowTemplateId(), equalTo(256));
+    assertThat(first.getFlowKind(), equalTo(FlowKind.FLOWSET));
+
+    Record record = RecordCreator.create();
+    first.populateRecord(record);
+    final String values = "/" + NetflowV9Message.FIELD_INTERPRETED_VALUES + "/";
+    assertThat(record.get(values + NetflowV9FieldType.IPV4_SRC_ADDR.name()), fieldWithValue("10.0.0.1"));
+    assertThat(record.get(values + NetflowV9FieldType.L4_SRC_PORT.name()), fieldWithValue(443));
+    assertThat(record.get(values + NetflowV9FieldType.IF_NAME.name()), fieldWithValue("eth0"));
+    assertNotNull(record.get(values + "enterprise_9_type_1"));
+
+    Record second = RecordCreator.create();
+    messages.get(1).populateRecord(second);
+    assertThat(second.get(values + NetflowV9FieldType.IPV4_SRC_ADDR.name()), fieldWithValue("10.0.0.2"));
+    assertThat(second.get(values + NetflowV9FieldType.L4_SRC_PORT.name()), fieldWithValue(8080));
+    assertThat(second.get(values + NetflowV9FieldType.IF_NAME.name()), fieldWithValue(""));
+  }
+
+  @Test
+  public void ipfixDataWithoutTemplate() throws Exception {
+    final NetflowCommonDecoder decoder = makeNetflowDecoder();
+    final byte[] bytes = getIpfixMessageBytes();
+    // drop the template set, keeping only the data set
+    final int templateSetLength = 4 + 4 + 4 * 4 + 4;
+    ByteBuf message = Unpooled.buffer();
+    message.writeShort(10);
+    message.writeShort(bytes.length - templateSetLength);
+    message.writeBytes(bytes, 4, 12);
+    message.writeBytes(bytes, 16 + templateSetLength, bytes.length - 16 - templateSetLength);
+
+    try {
+      decoder.decodeStandaloneBuffer(message, new LinkedList<>(), null, null);
+      fail("Expected data set without template to fail");
+    } catch (OnRecordErrorException e) {
+      assertThat(e.getErrorCode(), equalTo(Errors.NETFLOW_11));
+    }
+  }
+
 }
@@ -41,6 +41,8 @@ public enum PulsarErrors implements ErrorCode {
   PULSAR_16("Client key file not found at specified location. Relative path is '{}' and full path is '{}'"),
   PULSAR_17("Specified authentication is not supported: {}"),
   PULSAR_18("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
+  PULSAR_19("Subscription type '{}' does not allow more than one consumer, use Shared or Key Shared"),
+  PULSAR_20("Pulsar consumer worker failed: {}"),
   ;
 
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.pulsar;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.DeliveryGuarantee;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.pulsar.config.PulsarErrors;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Messages;
+import org.apache.pulsar.client.api.PulsarClientException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Drives a single Pulsar consumer. Messages are fetched with batch receive, so filling a pipeline batch takes a single
+ * call into the consumer's receiver queue, and are acknowledged once the batch has been processed. Messages received
+ * beyond the pipeline batch size are kept for the next batch.
+ */
+public class PulsarConsumerWorker implements Callable<Exception> {
+
+  private final PushSource.Context context;
+  private final Consumer<?> consumer;
+  private final PulsarMessageConverter pulsarMessageConverter;
+  private final int batchSize;
+  private final Deque<Message<?>> pendingMessages = new ArrayDeque<>();
+
+  PulsarConsumerWorker(
+      PushSource.Context context,
+      Consumer<?> consumer,
+      PulsarMessageConverter pulsarMessageConverter,
+      int batchSize
+  ) {
+    this.context = context;
+    this.consumer = consumer;
+    this.pulsarMessageConverter = pulsarMessageConverter;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public Exception call() {
+    try {
+      while (!context.isStopped()) {
+        BatchContext batchContext = context.startBatch();
+        List<MessageId> messageIds = take(batchContext.getBatchMaker());
+
+        boolean preview = context.isPreview();
+        boolean atMostOnce = context.getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE;
+        if (!preview && atMostOnce) {
+          acknowledge(messageIds);
+        }
+
+        boolean batchSuccessful = context.processBatch(batchContext);
+
+        // Preview batches are not acknowledged, they are redelivered once the consumer is closed.
+        if (!preview && !atMostOnce) {
+          if (batchSuccessful) {
+            acknowledge(messageIds);
+          } else {
+            messageIds.forEach(consumer::negativeAcknowledge);
+          }
+        }
+      }
+    } catch (StageException ex) {
+      return ex;
+    }
+    return null;
+  }
+
+  private List<MessageId> take(BatchMaker batchMaker) throws StageException {
+    if (pendingMessages.isEmpty()) {
+      try {
+        // Returns once the batch receive policy is satisfied: batch size reached or batch wait time elapsed.
+        Messages<?> messages = consumer.batchReceive();
+        for (Message<?> message : messages) {
+          pendingMessages.add(message);
+        }
+      } catch (PulsarClientException e) {
+        throw new StageException(PulsarErrors.PULSAR_08, e.toString(), e);
+      }
+    }
+
+    List<MessageId> messageIds = new ArrayList<>(Math.min(pendingMessages.size(), batchSize));
+    while (!pendingMessages.isEmpty() && messageIds.size() < batchSize) {
+      Message<?> message = pendingMessages.poll();
+      String messageId = Base64.getEncoder().encodeToString(message.getMessageId().toByteArray());
+      pulsarMessageConverter.convert(batchMaker, context, messageId, message);
+      messageIds.add(message.getMessageId());
+    }
+    return messageIds;
+  }
+
+  private void acknowledge(List<MessageId> messageIds) throws StageException {
+    // Acknowledgments are grouped by the client and sent to the broker as a single command.
+    for (MessageId messageId : messageIds) {
+      try {
+        consumer.acknowledge(messageId);
+      } catch (PulsarClientException e) {
+        throw new StageException(PulsarErrors.PULSAR_07,
+            Base64.getEncoder().encodeToString(messageId.toByteArray()),
+            e.toString(),
+            e
+        );
+      }
+    }
+  }
+}
@@ -82,82 +82,9 @@ public class PulsarMessageConsumerImpl implements PulsarMessageConsumer {
     if (issues.isEmpty()) {
       // pulsar client
       pulsarClient = pulsarConfig.getClient();
-      ConsumerBuilder consumerBuilder = pulsarClient.newConsumer()
-                                                    .subscriptionName(pulsarConfig.subscriptionName)
-                                                    .consumerName(pulsarConfig.consumerName)
-                                                    .receiverQueueSize(pulsarConfig.receiverQueueSize)
-                                                    .subscriptionType(pulsarConfig
-                                                        .subscriptionType
-                                                        .getSubscriptionType())
-                                                    .subscriptionInitialPosition(pulsarConfig
-                                                        .subscriptionInitialPosition
-                                                        .getSubscriptionInitialPosition())
-                                                    .priorityLevel(pulsarConfig.priorityLevel);
-
-      if(pulsarConfig.properties != null && !pulsarConfig.properties.isEmpty()) {
-        consumerBuilder.properties(pulsarConfig.properties);
-      }
-      if (!pulsarConfig.subscriptionType.equals(PulsarSubscriptionType.SHARED)) {
-        consumerBuilder = consumerBuilder.readCompacted(pulsarConfig.readCompacted);
-      }
-
-      // pulsar message consumer
-      if (pulsarConfig.pulsarTopicsSelector.equals(PulsarTopicsSelector.TOPICS_PATTERN)) {
-          try {
-            messageConsumer = consumerBuilder.topicsPattern(Pattern.compile(pulsarConfig.topicsPattern))
-                                             .patternAutoDiscoveryPeriod(pulsarConfig.patternAutoDiscoveryPeriod)
-                                             .subscribe();
-          } catch (PulsarClientException e) {
-            issues.add(context.createConfigIssue(
-                PulsarGroups.PULSAR.name(),
-                PULSAR_SOURCE_CONFIG_TOPICS_PATTERN,
-                PulsarErrors.PULSAR_05,
-                pulsarConfig.topicsPattern,
-                pulsarConfig.subscriptionName,
-                String.valueOf(e)
-            ));
-            LOG.info(Utils.format(PulsarErrors.PULSAR_05.getMessage(), pulsarConfig.topicsPattern,
-                pulsarConfig.subscriptionName, String.valueOf(e)), e);
-          }
-        }
-      else if (pulsarConfig.pulsarTopicsSelector.equals(PulsarTopicsSelector.TOPICS_LIST)) {
-        try {
-          messageConsumer = consumerBuilder.topics(pulsarConfig.topicsList)
-                                           .subscribe();
-        } catch (PulsarClientException e) {
-          issues.add(context.createConfigIssue(PulsarGroups.PULSAR.name(),
-              PULSAR_SOURCE_CONFIG_TOPICS_LIST,
-              PulsarErrors.PULSAR_06,
-              pulsarConfig.subscriptionName,
-              String.valueOf(e)
-          ));
-          LOG.info(Utils.format(PulsarErrors.PULSAR_06.getMessage(),
-              pulsarConfig.subscriptionName,
-              String.valueOf(e)
-          ), e);
-        }
-      } else {
-        try {
-          messageConsumer = consumerBuilder.topic(pulsarConfig.originTopic)
-                                           .subscribe();
-        } catch (PulsarClientException e) {
-          issues.add(context.createConfigIssue(PulsarGroups.PULSAR.name(),
-              PULSAR_SOURCE_CONFIG_DESTINATION_TOPIC,
-              PulsarErrors.PULSAR_10,
-              pulsarConfig.originTopic,
-              pulsarConfig.subscriptionName,
-              String.valueOf(e)
-          ));
-          LOG.info(Utils.format(PulsarErrors.PULSAR_10.getMessage(),
-              pulsarConfig.originTopic,
-              pulsarConfig.subscriptionName,
-              String.valueOf(e)
-          ), e);
-        }
-      }
+      messageConsumer = subscribe(context, newConsumerBuilder(pulsarClient, pulsarConfig), pulsarConfig, issues);
     }
 
-
     // initialize sentButNotACKMessages
     sentButNotACKMessages = new ArrayList<>();
 
@@ -167,6 +94,99 @@ public class PulsarMessageConsumerImpl implements PulsarMessageConsumer {
     return issues;
   }
 
+  /**
+   * Creates a consumer builder with the subscription and consumer settings of the given configuration.
+   */
+  static ConsumerBuilder newConsumerBuilder(PulsarClient pulsarClient, PulsarSourceConfig pulsarConfig) {
+    ConsumerBuilder consumerBuilder = pulsarClient.newConsumer()
+                                                  .subscriptionName(pulsarConfig.subscriptionName)
+                                                  .consumerName(pulsarConfig.consumerName)
+                                                  .receiverQueueSize(pulsarConfig.receiverQueueSize)
+                                                  .subscriptionType(pulsarConfig
+                                                      .subscriptionType
+                                                      .getSubscriptionType())
+                                                  .subscriptionInitialPosition(pulsarConfig
+                                                      .subscriptionInitialPosition
+                                                      .getSubscriptionInitialPosition())
+                                                  .priorityLevel(pulsarConfig.priorityLevel);
+
+    if(pulsarConfig.properties != null && !pulsarConfig.properties.isEmpty()) {
+      consumerBuilder.properties(pulsarConfig.properties);
+    }
+    // compacted reads are only supported by exclusive and failover subscriptions
+    if (pulsarConfig.subscriptionType.equals(PulsarSubscriptionType.EXCLUSIVE) ||
+        pulsarConfig.subscriptionType.equals(PulsarSubscriptionType.FAILOVER)) {
+      consumerBuilder = consumerBuilder.readCompacted(pulsarConfig.readCompacted);
+    }
+    return consumerBuilder;
+  }
+
+  /**
+   * Subscribes to the topics selected in the given configuration.
+   * @return The subscribed consumer, or null if the subscription failed and an issue was added to {@code issues}
+   */
+  static Consumer subscribe(
+      Stage.Context context,
+      ConsumerBuilder consumerBuilder,
+      PulsarSourceConfig pulsarConfig,
+      List<Stage.ConfigIssue> issues
+  ) {
+    Consumer messageConsumer = null;
+    if (pulsarConfig.pulsarTopicsSelector.equals(PulsarTopicsSelector.TOPICS_PATTERN)) {
+      try {
+        messageConsumer = consumerBuilder.topicsPattern(Pattern.compile(pulsarConfig.topicsPattern))
+                                         .patternAutoDiscoveryPeriod(pulsarConfig.patternAutoDiscoveryPeriod)
+                                         .subscribe();
+      } catch (PulsarClientException e) {
+        issues.add(context.createConfigIssue(
+            PulsarGroups.PULSAR.name(),
+            PULSAR_SOURCE_CONFIG_TOPICS_PATTERN,
+            PulsarErrors.PULSAR_05,
+            pulsarConfig.topicsPattern,
+            pulsarConfig.subscriptionName,
+            String.valueOf(e)
+        ));
+        LOG.info(Utils.format(PulsarErrors.PULSAR_05.getMessage(), pulsarConfig.topicsPattern,
+            pulsarConfig.subscriptionName, String.valueOf(e)), e);
+      }
+    } else if (pulsarConfig.pulsarTopicsSelector.equals(PulsarTopicsSelector.TOPICS_LIST)) {
+      try {
+        messageConsumer = consumerBuilder.topics(pulsarConfig.topicsList)
+                                         .subscribe();
+      } catch (PulsarClientException e) {
+        issues.add(context.createConfigIssue(PulsarGroups.PULSAR.name(),
+            PULSAR_SOURCE_CONFIG_TOPICS_LIST,
+            PulsarErrors.PULSAR_06,
+            pulsarConfig.subscriptionName,
+            String.valueOf(e)
+        ));
+        LOG.info(Utils.format(PulsarErrors.PULSAR_06.getMessage(),
+            pulsarConfig.subscriptionName,
+            String.valueOf(e)
+        ), e);
+      }
+    } else {
+      try {
+        messageConsumer = consumerBuilder.topic(pulsarConfig.originTopic)
+                                         .subscribe();
+      } catch (PulsarClientException e) {
+        issues.add(context.createConfigIssue(PulsarGroups.PULSAR.name(),
+            PULSAR_SOURCE_CONFIG_DESTINATION_TOPIC,
+            PulsarErrors.PULSAR_10,
+            pulsarConfig.originTopic,
+            pulsarConfig.subscriptionName,
+            String.valueOf(e)
+        ));
+        LOG.info(Utils.format(PulsarErrors.PULSAR_10.getMessage(),
+            pulsarConfig.originTopic,
+            pulsarConfig.subscriptionName,
+            String.valueOf(e)
+        ), e);
+      }
+    }
+    return messageConsumer;
+  }
+
   @Override
   public int take(BatchMaker batchMaker, Source.Context context, int batchSize) throws StageException {
     long start = System.currentTimeMillis();
@@ -17,7 +17,7 @@
 package com.streamsets.pipeline.stage.origin.pulsar;
 
 import com.streamsets.pipeline.api.BatchMaker;
-import com.streamsets.pipeline.api.Source;
+import com.streamsets.pipeline.api.ProtoSource;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import org.apache.pulsar.client.api.Message;
@@ -34,7 +34,7 @@ public interface PulsarMessageConverter {
    * @param context Invoking Stage's context
    * @return List of issues encountered during setup. If empty, operation was successful
    */
-  List<Stage.ConfigIssue> init(Source.Context context);
+  List<Stage.ConfigIssue> init(ProtoSource.Context context);
 
   /**
    * Converts a Pulsar message to a datacollector Records and adds it to the batch that will be sent to next stage
@@ -44,6 +44,7 @@ public interface PulsarMessageConverter {
    * @param message The Pulsar message to be converted
    * @return The number of records added to the batchMaker
    */
-  int convert(BatchMaker batchMaker, Source.Context context, String messageId, Message message) throws StageException;
+  int convert(BatchMaker batchMaker, ProtoSource.Context context, String messageId, Message message)
+      throws StageException;
 
 }
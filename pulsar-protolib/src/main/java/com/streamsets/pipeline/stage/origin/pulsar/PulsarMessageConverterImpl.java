@@ -18,10 +18,11 @@ package com.streamsets.pipeline.stage.origin.pulsar;
 
 import com.streamsets.pipeline.api.BatchMaker;
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.ProtoSource;
 import com.streamsets.pipeline.api.Record;
-import com.streamsets.pipeline.api.Source;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.ToErrorContext;
 import com.streamsets.pipeline.api.impl.Utils;
 import com.streamsets.pipeline.api.service.dataformats.DataFormatParserService;
 import com.streamsets.pipeline.lib.pulsar.config.PulsarErrors;
@@ -46,19 +47,24 @@ public class PulsarMessageConverterImpl implements PulsarMessageConverter {
   }
 
   @Override
-  public List<Stage.ConfigIssue> init(Source.Context context) {
+  public List<Stage.ConfigIssue> init(ProtoSource.Context context) {
     return Collections.emptyList();
   }
 
   @Override
-  public int convert(BatchMaker batchMaker, Source.Context context, String messageId, Message message)
+  public int convert(BatchMaker batchMaker, ProtoSource.Context context, String messageId, Message message)
       throws StageException {
     byte[] payload = message.getData();
     int count = 0;
     if (payload.length > 0) {
       try {
-        for (Record record : ServicesUtil.parseAll(context, context, messageConfig.produceSingleRecordPerMessage,
-            messageId, payload)) {
+        for (Record record : ServicesUtil.parseAll(
+            context,
+            (ToErrorContext) context,
+            messageConfig.produceSingleRecordPerMessage,
+            messageId,
+            payload
+        )) {
           Map<String, String> messageProperties = message.getProperties();
           messageProperties.forEach((key, value) -> record.getHeader().setAttribute(key, value == null ? "" : value));
           batchMaker.addRecord(record);
@@ -71,7 +77,7 @@ public class PulsarMessageConverterImpl implements PulsarMessageConverter {
     return count;
   }
 
-  private void handleException(Source.Context context, String messageId, Exception e)
+  private void handleException(ProtoSource.Context context, String messageId, Exception e)
       throws StageException {
     switch (context.getOnErrorRecord()) {
       case DISCARD:
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.pulsar;
+
+import com.google.common.base.Throwables;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.pulsar.config.PulsarErrors;
+import com.streamsets.pipeline.lib.pulsar.config.PulsarGroups;
+import com.streamsets.pipeline.stage.origin.lib.BasicConfig;
+import org.apache.pulsar.client.api.BatchReceivePolicy;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.ConsumerBuilder;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PulsarPushSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(PulsarPushSource.class);
+  private static final String PULSAR_THREAD_PREFIX = "Pulsar Consumer Worker - ";
+  private static final long STATUS_CHECK_INTERVAL_MS = 1000;
+
+  private final BasicConfig basicConfig;
+  private final PulsarPushSourceConfig pulsarConfig;
+  private final PulsarMessageConverter pulsarMessageConverter;
+  private final List<Consumer<?>> consumers = new ArrayList<>();
+  private ExecutorService executorService;
+  private boolean checkBatchSize = true;
+
+  public PulsarPushSource(
+      BasicConfig basicConfig,
+      PulsarPushSourceConfig pulsarConfig,
+      PulsarMessageConverter pulsarMessageConverter
+  ) {
+    this.basicConfig = basicConfig;
+    this.pulsarConfig = pulsarConfig;
+    this.pulsarMessageConverter = pulsarMessageConverter;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = new ArrayList<>();
+
+    if (pulsarConfig.numThreads > 1 && !isSharedSubscription()) {
+      issues.add(getContext().createConfigIssue(PulsarGroups.ADVANCED.name(), "pulsarConfig.subscriptionType",
+          PulsarErrors.PULSAR_19, pulsarConfig.subscriptionType.getLabel()));
+    }
+
+    if (issues.isEmpty()) {
+      issues.addAll(pulsarConfig.init(getContext()));
+    }
+
+    // The batch receive policy is fixed at subscription time, batches capped by the pipeline batch size in produce
+    // leave the remaining messages to the next batch of the same worker.
+    BatchReceivePolicy batchReceivePolicy = BatchReceivePolicy.builder()
+        .maxNumMessages(basicConfig.maxBatchSize)
+        .timeout(basicConfig.maxWaitTime, TimeUnit.MILLISECONDS)
+        .build();
+    for (int i = 0; issues.isEmpty() && i < pulsarConfig.numThreads; i++) {
+      ConsumerBuilder consumerBuilder = PulsarMessageConsumerImpl
+          .newConsumerBuilder(pulsarConfig.getClient(), pulsarConfig)
+          .batchReceivePolicy(batchReceivePolicy)
+          .enableBatchIndexAcknowledgment(pulsarConfig.batchIndexAcknowledgment);
+      if (pulsarConfig.numThreads > 1) {
+        consumerBuilder.consumerName(pulsarConfig.consumerName + "-" + i);
+      }
+      Consumer<?> consumer = PulsarMessageConsumerImpl.subscribe(getContext(), consumerBuilder, pulsarConfig, issues);
+      if (consumer != null) {
+        consumers.add(consumer);
+      }
+    }
+
+    issues.addAll(pulsarMessageConverter.init(getContext()));
+    return issues;
+  }
+
+  private boolean isSharedSubscription() {
+    return pulsarConfig.subscriptionType == PulsarSubscriptionType.SHARED ||
+        pulsarConfig.subscriptionType == PulsarSubscriptionType.KEY_SHARED;
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return pulsarConfig.numThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    int batchSize = Math.min(basicConfig.maxBatchSize, maxBatchSize);
+    if (!getContext().isPreview() && checkBatchSize && basicConfig.maxBatchSize > maxBatchSize) {
+      getContext().reportError(PulsarErrors.PULSAR_18, maxBatchSize);
+      checkBatchSize = false;
+    }
+
+    executorService = new SafeScheduledExecutorService(consumers.size(), PULSAR_THREAD_PREFIX);
+    ExecutorCompletionService<Exception> completionService = new ExecutorCompletionService<>(executorService);
+    try {
+      for (Consumer<?> consumer : consumers) {
+        completionService.submit(new PulsarConsumerWorker(getContext(), consumer, pulsarMessageConverter, batchSize));
+      }
+      while (!getContext().isStopped()) {
+        checkWorkerStatus(completionService);
+      }
+    } finally {
+      shutdownExecutor();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    shutdownExecutor();
+    for (Consumer<?> consumer : consumers) {
+      try {
+        consumer.close();
+      } catch (PulsarClientException e) {
+        LOG.warn("Could not close consumer subscription {} for topic {}: {}",
+            consumer.getSubscription(),
+            consumer.getTopic(),
+            e
+        );
+      }
+    }
+    consumers.clear();
+    pulsarConfig.destroy();
+    super.destroy();
+  }
+
+  private void checkWorkerStatus(ExecutorCompletionService<Exception> completionService) throws StageException {
+    try {
+      Future<Exception> future = completionService.poll(STATUS_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      if (future != null) {
+        Exception terminatingException = future.get();
+        if (terminatingException instanceof StageException) {
+          throw (StageException) terminatingException;
+        } else if (terminatingException != null) {
+          throw new StageException(PulsarErrors.PULSAR_20, terminatingException.toString(), terminatingException);
+        }
+      }
+    } catch (InterruptedException ex) {
+      LOG.error("Thread interrupted", ex);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      Throwable cause = Throwables.getRootCause(ex);
+      if (cause instanceof StageException) {
+        throw (StageException) cause;
+      }
+      throw new StageException(PulsarErrors.PULSAR_20, cause.toString(), cause);
+    }
+  }
+
+  private void shutdownExecutor() {
+    if (executorService != null && !executorService.isShutdown()) {
+      LOG.info("Shutting down executor service");
+      executorService.shutdown();
+      try {
+        // Workers finish their current batch within the batch wait time once the pipeline is stopped.
+        long timeout = basicConfig.maxWaitTime + STATUS_CHECK_INTERVAL_MS;
+        if (!executorService.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+          executorService.shutdownNow();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
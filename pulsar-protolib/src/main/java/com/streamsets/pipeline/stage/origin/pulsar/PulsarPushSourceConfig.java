@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.pulsar;
+
+import com.streamsets.pipeline.api.ConfigDef;
+
+public class PulsarPushSourceConfig extends PulsarSourceConfig {
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of consumers to subscribe. Each consumer feeds its own pipeline runner. More than one " +
+          "consumer requires a Shared or Key Shared subscription.",
+      displayPosition = 80,
+      displayMode = ConfigDef.DisplayMode.BASIC,
+      group = "PULSAR",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int numThreads = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Batch Index Acknowledgment",
+      description = "Acknowledge single messages of producer batches, so that only the unacknowledged messages of a " +
+          "batch are redelivered. Requires acknowledgmentAtBatchIndexLevelEnabled on the broker.",
+      displayPosition = 70,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "ADVANCED"
+  )
+  public boolean batchIndexAcknowledgment = false;
+}
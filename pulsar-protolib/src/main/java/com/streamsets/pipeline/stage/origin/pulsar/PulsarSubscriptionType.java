@@ -22,7 +22,8 @@ import org.apache.pulsar.client.api.SubscriptionType;
 public enum PulsarSubscriptionType implements Label {
   EXCLUSIVE("Exclusive", SubscriptionType.Exclusive),
   FAILOVER("Failover", SubscriptionType.Failover),
-  SHARED("Shared", SubscriptionType.Shared);
+  SHARED("Shared", SubscriptionType.Shared),
+  KEY_SHARED("Key Shared", SubscriptionType.Key_Shared);
 
   private final String label;
   private final SubscriptionType subscriptionType;
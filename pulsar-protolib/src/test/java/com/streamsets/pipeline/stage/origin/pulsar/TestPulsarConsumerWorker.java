@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.pulsar;
+
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.DeliveryGuarantee;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.pulsar.config.PulsarErrors;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.MessageId;
+import org.apache.pulsar.client.api.Messages;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestPulsarConsumerWorker {
+
+  private PushSource.Context context;
+  private BatchMaker batchMaker;
+  private Consumer consumer;
+  private PulsarMessageConverter converter;
+  private List<Message> messages;
+
+  @Before
+  public void setUp() throws Exception {
+    context = Mockito.mock(PushSource.Context.class);
+    batchMaker = Mockito.mock(BatchMaker.class);
+    BatchContext batchContext = Mockito.mock(BatchContext.class);
+    Mockito.when(batchContext.getBatchMaker()).thenReturn(batchMaker);
+    Mockito.when(context.startBatch()).thenReturn(batchContext);
+    Mockito.when(context.getDeliveryGuarantee()).thenReturn(DeliveryGuarantee.AT_LEAST_ONCE);
+
+    messages = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MessageId messageId = Mockito.mock(MessageId.class);
+      Mockito.when(messageId.toByteArray()).thenReturn(new byte[]{(byte) i});
+      Message message = Mockito.mock(Message.class);
+      Mockito.when(message.getMessageId()).thenReturn(messageId);
+      messages.add(message);
+    }
+    Messages received = Mockito.mock(Messages.class);
+    Mockito.when(received.iterator()).thenAnswer(invocation -> messages.iterator());
+    consumer = Mockito.mock(Consumer.class);
+    Mockito.when(consumer.batchReceive()).thenReturn(received);
+
+    converter = Mockito.mock(PulsarMessageConverter.class);
+  }
+
+  @Test
+  public void testBatchReceiveAndAcknowledgeAfterProcessing() throws Exception {
+    Mockito.when(context.isStopped()).thenReturn(false, true);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(true);
+
+    PulsarConsumerWorker worker = new PulsarConsumerWorker(context, consumer, converter, 10);
+    Assert.assertNull(worker.call());
+
+    Mockito.verify(consumer, Mockito.times(1)).batchReceive();
+    Mockito.verify(converter, Mockito.times(3))
+        .convert(Mockito.eq(batchMaker), Mockito.eq(context), Mockito.anyString(), Mockito.any(Message.class));
+    for (Message message : messages) {
+      Mockito.verify(consumer).acknowledge(message.getMessageId());
+    }
+    Mockito.verify(consumer, Mockito.never()).negativeAcknowledge(Mockito.any(MessageId.class));
+  }
+
+  @Test
+  public void testMessagesBeyondBatchSizeKeptForNextBatch() throws Exception {
+    Mockito.when(context.isStopped()).thenReturn(false, false, true);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(true);
+
+    PulsarConsumerWorker worker = new PulsarConsumerWorker(context, consumer, converter, 2);
+    Assert.assertNull(worker.call());
+
+    // the third message is served from the previous batch receive
+    Mockito.verify(consumer, Mockito.times(1)).batchReceive();
+    Mockito.verify(context, Mockito.times(2)).processBatch(Mockito.any(BatchContext.class));
+    for (Message message : messages) {
+      Mockito.verify(consumer).acknowledge(message.getMessageId());
+    }
+  }
+
+  @Test
+  public void testFailedBatchIsNegativelyAcknowledged() throws Exception {
+    Mockito.when(context.isStopped()).thenReturn(false, true);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(false);
+
+    PulsarConsumerWorker worker = new PulsarConsumerWorker(context, consumer, converter, 10);
+    Assert.assertNull(worker.call());
+
+    Mockito.verify(consumer, Mockito.never()).acknowledge(Mockito.any(MessageId.class));
+    for (Message message : messages) {
+      Mockito.verify(consumer).negativeAcknowledge(message.getMessageId());
+    }
+  }
+
+  @Test
+  public void testAtMostOnceAcknowledgesBeforeProcessing() throws Exception {
+    Mockito.when(context.isStopped()).thenReturn(false, true);
+    Mockito.when(context.getDeliveryGuarantee()).thenReturn(DeliveryGuarantee.AT_MOST_ONCE);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(false);
+
+    PulsarConsumerWorker worker = new PulsarConsumerWorker(context, consumer, converter, 10);
+    Assert.assertNull(worker.call());
+
+    for (Message message : messages) {
+      Mockito.verify(consumer).acknowledge(message.getMessageId());
+    }
+    Mockito.verify(consumer, Mockito.never()).negativeAcknowledge(Mockito.any(MessageId.class));
+  }
+
+  @Test
+  public void testPreviewDoesNotAcknowledge() throws Exception {
+    Mockito.when(context.isStopped()).thenReturn(false, true);
+    Mockito.when(context.isPreview()).thenReturn(true);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(true);
+
+    PulsarConsumerWorker worker = new PulsarConsumerWorker(context, consumer, converter, 10);
+    Assert.assertNull(worker.call());
+
+    Mockito.verify(consumer, Mockito.never()).acknowledge(Mockito.any(MessageId.class));
+    Mockito.verify(consumer, Mockito.never()).negativeAcknowledge(Mockito.any(MessageId.class));
+  }
+
+  @Test
+  public void testReceiveErrorStopsWorker() throws Exception {
+    Mockito.when(context.isStopped()).thenReturn(false);
+    Mockito.when(consumer.batchReceive()).thenThrow(new PulsarClientException("broker gone"));
+
+    PulsarConsumerWorker worker = new PulsarConsumerWorker(context, consumer, converter, 10);
+    Exception ex = worker.call();
+
+    Assert.assertTrue(ex instanceof StageException);
+    Assert.assertEquals(PulsarErrors.PULSAR_08, ((StageException) ex).getErrorCode());
+  }
+}
@@ -22,6 +22,8 @@ import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.lib.rabbitmq.config.BaseRabbitConfigBean;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -31,6 +33,7 @@ import java.util.concurrent.TimeoutException;
 public class RabbitCxnManager {
   private Connection connection = null;
   private Channel channel = null;
+  private final List<Channel> consumerChannels = new ArrayList<>();
 
   public void init(BaseRabbitConfigBean conf) throws IOException, StageException, TimeoutException {
     ConnectionFactory connectionFactory = RabbitUtil.createConnectionFactory(conf);
@@ -42,11 +45,27 @@ public class RabbitCxnManager {
     return channel;
   }
 
+  /**
+   * Opens an additional channel on the managed connection. Channels created this way are closed together with
+   * the connection, so they must not be closed by the caller.
+   */
+  public synchronized Channel createChannel() throws IOException {
+    Channel consumerChannel = this.connection.createChannel();
+    consumerChannels.add(consumerChannel);
+    return consumerChannel;
+  }
+
   public boolean checkConnected() {
     return channel.isOpen() && connection.isOpen();
   }
 
-  public void close() throws IOException, TimeoutException {
+  public synchronized void close() throws IOException, TimeoutException {
+    for (Channel consumerChannel : consumerChannels) {
+      if (consumerChannel.isOpen()) {
+        consumerChannel.close();
+      }
+    }
+    consumerChannels.clear();
     if (this.channel != null) {
       channel.close();
     }
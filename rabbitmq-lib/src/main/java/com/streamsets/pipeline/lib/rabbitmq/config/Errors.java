@@ -32,6 +32,7 @@ public enum Errors implements ErrorCode {
   RABBITMQ_09("Invalid Configuration Value - {} for {}"),
   RABBITMQ_10("Queue name can not be empty. The RabbitMQ Consumer needs a specific queue to read from."),
   RABBITMQ_11("Batch size greater than maximal batch size allowed in sdc.properties, maxBatchSize: {}"),
+  RABBITMQ_12("RabbitMQ consumer worker failed: {}"),
   ;
   private final String msg;
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.rabbitmq;
+
+import com.codahale.metrics.Meter;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.DeliveryGuarantee;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.rabbitmq.config.Errors;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TransferQueue;
+
+/**
+ * Consumes the messages delivered to a single channel and pushes them as batches to its own pipeline runner.
+ * Delivery tags are scoped to the channel, so all messages of a batch are acknowledged with a single multiple ack
+ * once the batch has been processed.
+ */
+public class RabbitConsumerWorker implements Callable<Exception> {
+  private static final Logger LOG = LoggerFactory.getLogger(RabbitConsumerWorker.class);
+  private static final long NO_DELIVERY_TAG = -1;
+
+  private final PushSource.Context context;
+  private final Channel channel;
+  private final TransferQueue<RabbitMessage> messages;
+  private final DataParserFactory parserFactory;
+  private final ErrorRecordHandler errorRecordHandler;
+  private final boolean produceSingleRecordPerMessage;
+  private final boolean automaticRecoveryEnabled;
+  private final int maxBatchSize;
+  private final long maxWaitTime;
+  private final Meter redeliveredMeter;
+
+  RabbitConsumerWorker(
+      PushSource.Context context,
+      Channel channel,
+      TransferQueue<RabbitMessage> messages,
+      DataParserFactory parserFactory,
+      ErrorRecordHandler errorRecordHandler,
+      boolean produceSingleRecordPerMessage,
+      boolean automaticRecoveryEnabled,
+      int maxBatchSize,
+      long maxWaitTime,
+      Meter redeliveredMeter
+  ) {
+    this.context = context;
+    this.channel = channel;
+    this.messages = messages;
+    this.parserFactory = parserFactory;
+    this.errorRecordHandler = errorRecordHandler;
+    this.produceSingleRecordPerMessage = produceSingleRecordPerMessage;
+    this.automaticRecoveryEnabled = automaticRecoveryEnabled;
+    this.maxBatchSize = maxBatchSize;
+    this.maxWaitTime = maxWaitTime;
+    this.redeliveredMeter = redeliveredMeter;
+  }
+
+  @Override
+  public Exception call() {
+    try {
+      while (!context.isStopped()) {
+        if (!channel.isOpen() && !automaticRecoveryEnabled) {
+          // Without automatic recovery the channel will never come back and its unacked messages are requeued.
+          return new StageException(Errors.RABBITMQ_05);
+        }
+        runBatch();
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Pipeline is shutting down.");
+      Thread.currentThread().interrupt();
+    } catch (StageException e) {
+      return e;
+    }
+    return null;
+  }
+
+  private void runBatch() throws InterruptedException, StageException {
+    BatchContext batchContext = context.startBatch();
+    long maxTime = System.currentTimeMillis() + maxWaitTime;
+    long lastDeliveryTag = NO_DELIVERY_TAG;
+    int numRecords = 0;
+
+    long remaining = maxWaitTime;
+    while (remaining > 0 && numRecords < maxBatchSize) {
+      RabbitMessage message = messages.poll(remaining, TimeUnit.MILLISECONDS);
+      remaining = maxTime - System.currentTimeMillis();
+      if (message == null) {
+        continue;
+      }
+      Envelope envelope = message.getEnvelope();
+      if (envelope.isRedeliver()) {
+        redeliveredMeter.mark();
+      }
+      List<Record> records = RabbitSource.parseRabbitMessage(
+          parserFactory,
+          errorRecordHandler,
+          produceSingleRecordPerMessage,
+          envelope.toString(),
+          message.getBody()
+      );
+      for (Record record : records) {
+        RabbitSource.setHeaders(record.getHeader(), message);
+        batchContext.getBatchMaker().addRecord(record);
+        numRecords++;
+      }
+      lastDeliveryTag = envelope.getDeliveryTag();
+    }
+
+    boolean commit = !context.isPreview() && lastDeliveryTag != NO_DELIVERY_TAG;
+    if (commit && context.getDeliveryGuarantee() == DeliveryGuarantee.AT_MOST_ONCE) {
+      ack(lastDeliveryTag);
+    }
+
+    boolean batchSuccessful = context.processBatch(batchContext);
+
+    if (commit && context.getDeliveryGuarantee() == DeliveryGuarantee.AT_LEAST_ONCE) {
+      if (batchSuccessful) {
+        ack(lastDeliveryTag);
+      } else {
+        requeue(lastDeliveryTag);
+      }
+    }
+  }
+
+  private void ack(long deliveryTag) throws StageException {
+    try {
+      channel.basicAck(deliveryTag, true);
+    } catch (IOException e) {
+      LOG.error("Failed to acknowledge delivery tag: {}", deliveryTag, e);
+      throw new StageException(Errors.RABBITMQ_02, deliveryTag, e.toString());
+    }
+  }
+
+  private void requeue(long deliveryTag) {
+    // Hand the messages of a failed batch back to the broker rather than holding them, and the prefetch window,
+    // until the channel is closed.
+    try {
+      channel.basicNack(deliveryTag, true, true);
+    } catch (IOException e) {
+      LOG.warn("Failed to requeue messages up to delivery tag {}: {}", deliveryTag, e.toString(), e);
+    }
+  }
+}
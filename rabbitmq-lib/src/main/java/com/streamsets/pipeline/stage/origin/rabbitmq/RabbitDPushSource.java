@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.rabbitmq;
+
+import com.streamsets.pipeline.api.ConfigDefBean;
+import com.streamsets.pipeline.api.ConfigGroups;
+import com.streamsets.pipeline.api.ExecutionMode;
+import com.streamsets.pipeline.api.GenerateResourceBundle;
+import com.streamsets.pipeline.api.HideConfigs;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.StageDef;
+import com.streamsets.pipeline.api.base.configurablestage.DPushSource;
+import com.streamsets.pipeline.lib.rabbitmq.config.Groups;
+
+@StageDef(
+    version = 1,
+    label = "RabbitMQ Multithreaded Consumer",
+    description = "Reads data from a RabbitMQ queue using multiple channels.",
+    icon = "rabbitmq.png",
+    execution = ExecutionMode.STANDALONE,
+    recordsByRef = true,
+    onlineHelpRefUrl ="index.html?contextID=task_hrz_mq1_h5"
+)
+@ConfigGroups(value = Groups.class)
+@HideConfigs(value = {"conf.dataFormatConfig.compression"})
+@GenerateResourceBundle
+public class RabbitDPushSource extends DPushSource {
+
+  @ConfigDefBean(groups = {"RABBITMQ", "QUEUE", "EXCHANGE", "TLS", "ADVANCED"})
+  public RabbitPushSourceConfigBean conf;
+
+  @Override
+  protected PushSource createPushSource() {
+    return new RabbitPushSource(conf);
+  }
+}
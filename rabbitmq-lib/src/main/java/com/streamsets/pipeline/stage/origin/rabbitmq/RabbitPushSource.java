@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.rabbitmq;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Throwables;
+import com.rabbitmq.client.Channel;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.api.ToErrorContext;
+import com.streamsets.pipeline.api.base.BasePushSource;
+import com.streamsets.pipeline.lib.executor.SafeScheduledExecutorService;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.rabbitmq.common.RabbitCxnManager;
+import com.streamsets.pipeline.lib.rabbitmq.common.RabbitUtil;
+import com.streamsets.pipeline.lib.rabbitmq.config.Errors;
+import com.streamsets.pipeline.lib.rabbitmq.config.Groups;
+import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TransferQueue;
+
+public class RabbitPushSource extends BasePushSource {
+  private static final Logger LOG = LoggerFactory.getLogger(RabbitPushSource.class);
+  private static final String RABBIT_THREAD_PREFIX = "RabbitMQ Consumer Worker - ";
+  private static final String CONSUMER_GAUGE_NAME = "RabbitMQ Consumer";
+  private static final String QUEUE_DEPTH = "Queue Depth";
+  private static final String REDELIVERED_METER_NAME = "Redelivered Messages";
+  private static final long STATUS_CHECK_INTERVAL_MS = 1000;
+
+  private final RabbitPushSourceConfigBean conf;
+  private final RabbitCxnManager rabbitCxnManager = new RabbitCxnManager();
+
+  private DataParserFactory parserFactory;
+  private ExecutorService executorService;
+  private Map<String, Object> gaugeMap;
+  private Meter redeliveredMeter;
+  private boolean checkBatchSize = true;
+
+  public RabbitPushSource(RabbitPushSourceConfigBean conf) {
+    this.conf = conf;
+  }
+
+  @Override
+  protected List<ConfigIssue> init() {
+    List<ConfigIssue> issues = super.init();
+
+    if (conf.queue.name == null || conf.queue.name.equals("")) {
+      issues.add(getContext().createConfigIssue(
+          Groups.QUEUE.name(),
+          "conf.queue.name",
+          Errors.RABBITMQ_10
+      ));
+    }
+
+    RabbitUtil.initRabbitStage(
+        getContext(),
+        conf,
+        conf.dataFormat,
+        conf.dataFormatConfig,
+        rabbitCxnManager,
+        issues
+    );
+
+    if (issues.isEmpty()) {
+      parserFactory = conf.dataFormatConfig.getParserFactory();
+      gaugeMap = getContext().createGauge(CONSUMER_GAUGE_NAME).getValue();
+      redeliveredMeter = getContext().createMeter(REDELIVERED_METER_NAME);
+    }
+
+    return issues;
+  }
+
+  @Override
+  public int getNumberOfThreads() {
+    return conf.numThreads;
+  }
+
+  @Override
+  public void produce(Map<String, String> lastOffsets, int maxBatchSize) throws StageException {
+    int batchSize = Math.min(conf.basicConfig.maxBatchSize, maxBatchSize);
+    if (!getContext().isPreview() && checkBatchSize && conf.basicConfig.maxBatchSize > maxBatchSize) {
+      getContext().reportError(Errors.RABBITMQ_11, maxBatchSize);
+      checkBatchSize = false;
+    }
+
+    int numThreads = getNumberOfThreads();
+    executorService = new SafeScheduledExecutorService(numThreads, RABBIT_THREAD_PREFIX);
+    ExecutorCompletionService<Exception> completionService = new ExecutorCompletionService<>(executorService);
+
+    try {
+      for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+        TransferQueue<RabbitMessage> messages = new LinkedTransferQueue<>();
+        completionService.submit(new RabbitConsumerWorker(
+            getContext(),
+            startConsuming(threadNumber, messages),
+            messages,
+            parserFactory,
+            new DefaultErrorRecordHandler(getContext(), (ToErrorContext) getContext()),
+            conf.produceSingleRecordPerMessage,
+            conf.advanced.automaticRecoveryEnabled,
+            batchSize,
+            conf.basicConfig.maxWaitTime,
+            redeliveredMeter
+        ));
+      }
+
+      while (!getContext().isStopped()) {
+        checkWorkerStatus(completionService);
+        updateQueueDepth();
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to start consuming from queue '{}'", conf.queue.name, e);
+      throw new StageException(Errors.RABBITMQ_01, e.toString(), e);
+    } finally {
+      shutdownExecutor();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    shutdownExecutor();
+    try {
+      rabbitCxnManager.close();
+    } catch (IOException | TimeoutException e) {
+      LOG.warn("Error while closing channel/connection: {}", e.toString(), e);
+    }
+    super.destroy();
+  }
+
+  private Channel startConsuming(int threadNumber, TransferQueue<RabbitMessage> messages) throws IOException {
+    Channel channel = rabbitCxnManager.createChannel();
+    // Prefetch is applied per consumer so that a slow runner does not starve the others of messages.
+    channel.basicQos(conf.prefetchCount, false);
+    StreamSetsMessageConsumer consumer = new StreamSetsMessageConsumer(channel, messages);
+    if (conf.consumerTag == null || conf.consumerTag.isEmpty()) {
+      channel.basicConsume(conf.queue.name, false, consumer);
+    } else {
+      // Consumer tags must be unique per channel and connection.
+      channel.basicConsume(conf.queue.name, false, conf.consumerTag + "-" + threadNumber, consumer);
+    }
+    return channel;
+  }
+
+  private void updateQueueDepth() {
+    // Number of messages ready in the queue that have not been delivered to any consumer yet, i.e. the consumer lag.
+    try {
+      gaugeMap.put(QUEUE_DEPTH, rabbitCxnManager.getChannel().messageCount(conf.queue.name));
+    } catch (IOException e) {
+      LOG.debug("Failed to get message count for queue '{}': {}", conf.queue.name, e.toString(), e);
+    }
+  }
+
+  private void checkWorkerStatus(ExecutorCompletionService<Exception> completionService) throws StageException {
+    try {
+      Future<Exception> future = completionService.poll(STATUS_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      if (future != null) {
+        Exception terminatingException = future.get();
+        if (terminatingException instanceof StageException) {
+          throw (StageException) terminatingException;
+        } else if (terminatingException != null) {
+          throw new StageException(Errors.RABBITMQ_12, terminatingException.toString(), terminatingException);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOG.error("Thread interrupted", e);
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      Throwable cause = Throwables.getRootCause(e);
+      if (cause instanceof StageException) {
+        throw (StageException) cause;
+      }
+      throw new StageException(Errors.RABBITMQ_12, cause.toString(), cause);
+    }
+  }
+
+  private void shutdownExecutor() {
+    if (executorService != null && !executorService.isShutdown()) {
+      LOG.info("Shutting down executor service");
+      executorService.shutdown();
+      try {
+        // Workers finish their current batch within the batch wait time once the pipeline is stopped.
+        long timeout = conf.basicConfig.maxWaitTime + STATUS_CHECK_INTERVAL_MS;
+        if (!executorService.awaitTermination(timeout, TimeUnit.MILLISECONDS)) {
+          executorService.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
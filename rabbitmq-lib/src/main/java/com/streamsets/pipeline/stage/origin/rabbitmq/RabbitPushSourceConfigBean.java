@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.rabbitmq;
+
+import com.streamsets.pipeline.api.ConfigDef;
+
+public class RabbitPushSourceConfigBean extends RabbitSourceConfigBean {
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1",
+      label = "Number of Threads",
+      description = "Number of channels to consume from the queue. Each channel feeds its own pipeline runner.",
+      displayPosition = 40,
+      displayMode = ConfigDef.DisplayMode.BASIC,
+      group = "#0",
+      min = 1,
+      max = Integer.MAX_VALUE
+  )
+  public int numThreads = 1;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1000",
+      label = "Prefetch Count",
+      description = "Maximum number of unacknowledged messages delivered to each channel. Messages are acknowledged " +
+          "once per batch, so set it to at least the batch size.",
+      displayPosition = 50,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "#0",
+      min = 1,
+      max = 65535
+  )
+  public int prefetchCount = 1000;
+
+}
@@ -135,35 +135,7 @@ public class RabbitSource extends BaseSource implements OffsetCommitter {
         List<Record> records = parseRabbitMessage(recordId, message.getBody());
         Envelope envelope = message.getEnvelope();
         for (Record record : records){
-          BasicProperties properties = message.getProperties();
-          Record.Header outHeader = record.getHeader();
-          if (envelope != null) {
-            setHeaderIfNotNull(outHeader, "deliveryTag", envelope.getDeliveryTag());
-            setHeaderIfNotNull(outHeader, "exchange", envelope.getExchange());
-            setHeaderIfNotNull(outHeader, "routingKey", envelope.getRoutingKey());
-            setHeaderIfNotNull(outHeader, "redelivered", envelope.isRedeliver());
-          }
-          setHeaderIfNotNull(outHeader, "contentType", properties.getContentType());
-          setHeaderIfNotNull(outHeader, "contentEncoding", properties.getContentEncoding());
-          setHeaderIfNotNull(outHeader, "deliveryMode", properties.getDeliveryMode());
-          setHeaderIfNotNull(outHeader, "priority", properties.getPriority());
-          setHeaderIfNotNull(outHeader, "correlationId", properties.getCorrelationId());
-          setHeaderIfNotNull(outHeader, "replyTo", properties.getReplyTo());
-          setHeaderIfNotNull(outHeader, "expiration", properties.getExpiration());
-          setHeaderIfNotNull(outHeader, "messageId", properties.getMessageId());
-          setHeaderIfNotNull(outHeader, "timestamp", properties.getTimestamp());
-          setHeaderIfNotNull(outHeader, "messageType", properties.getType());
-          setHeaderIfNotNull(outHeader, "userId", properties.getUserId());
-          setHeaderIfNotNull(outHeader, "appId", properties.getAppId());
-          Map<String, Object> inHeaders = properties.getHeaders();
-          if (inHeaders != null) {
-            for (Map.Entry<String, Object> pair : inHeaders.entrySet()) {
-              // I am concerned about overlapping with the above headers but it seems somewhat unlikely
-              // in addition the behavior of copying these attributes in with no custom prefix is
-              // how the jms origin behaves
-              setHeaderIfNotNull(outHeader, pair.getKey(), pair.getValue());
-            }
-          }
+          setHeaders(record.getHeader(), message);
           batchMaker.addRecord(record);
           numRecords++;
         }
@@ -180,7 +152,39 @@ public class RabbitSource extends BaseSource implements OffsetCommitter {
     return nextSourceOffset;
   }
 
-  private void setHeaderIfNotNull(Record.Header header, String key, Object val) {
+  static void setHeaders(Record.Header outHeader, RabbitMessage message) {
+    Envelope envelope = message.getEnvelope();
+    BasicProperties properties = message.getProperties();
+    if (envelope != null) {
+      setHeaderIfNotNull(outHeader, "deliveryTag", envelope.getDeliveryTag());
+      setHeaderIfNotNull(outHeader, "exchange", envelope.getExchange());
+      setHeaderIfNotNull(outHeader, "routingKey", envelope.getRoutingKey());
+      setHeaderIfNotNull(outHeader, "redelivered", envelope.isRedeliver());
+    }
+    setHeaderIfNotNull(outHeader, "contentType", properties.getContentType());
+    setHeaderIfNotNull(outHeader, "contentEncoding", properties.getContentEncoding());
+    setHeaderIfNotNull(outHeader, "deliveryMode", properties.getDeliveryMode());
+    setHeaderIfNotNull(outHeader, "priority", properties.getPriority());
+    setHeaderIfNotNull(outHeader, "correlationId", properties.getCorrelationId());
+    setHeaderIfNotNull(outHeader, "replyTo", properties.getReplyTo());
+    setHeaderIfNotNull(outHeader, "expiration", properties.getExpiration());
+    setHeaderIfNotNull(outHeader, "messageId", properties.getMessageId());
+    setHeaderIfNotNull(outHeader, "timestamp", properties.getTimestamp());
+    setHeaderIfNotNull(outHeader, "messageType", properties.getType());
+    setHeaderIfNotNull(outHeader, "userId", properties.getUserId());
+    setHeaderIfNotNull(outHeader, "appId", properties.getAppId());
+    Map<String, Object> inHeaders = properties.getHeaders();
+    if (inHeaders != null) {
+      for (Map.Entry<String, Object> pair : inHeaders.entrySet()) {
+        // I am concerned about overlapping with the above headers but it seems somewhat unlikely
+        // in addition the behavior of copying these attributes in with no custom prefix is
+        // how the jms origin behaves
+        setHeaderIfNotNull(outHeader, pair.getKey(), pair.getValue());
+      }
+    }
+  }
+
+  private static void setHeaderIfNotNull(Record.Header header, String key, Object val) {
     if (val != null) {
       header.setAttribute(key, convToString(val));
     }
@@ -229,6 +233,16 @@ public class RabbitSource extends BaseSource implements OffsetCommitter {
   }
 
   private List<Record> parseRabbitMessage(String id, byte[] data) throws StageException {
+    return parseRabbitMessage(parserFactory, errorRecordHandler, conf.produceSingleRecordPerMessage, id, data);
+  }
+
+  static List<Record> parseRabbitMessage(
+      DataParserFactory parserFactory,
+      ErrorRecordHandler errorRecordHandler,
+      boolean produceSingleRecordPerMessage,
+      String id,
+      byte[] data
+  ) throws StageException {
     List<Record> records = new ArrayList<>();
     try (DataParser parser = parserFactory.getParser(id, data)) {
       Record record = parser.parse();
@@ -240,7 +254,7 @@ public class RabbitSource extends BaseSource implements OffsetCommitter {
       LOG.error("Failed to parse record from received message: '{}'", e.toString(), e);
       errorRecordHandler.onError(Errors.RABBITMQ_04, new String(data, parserFactory.getSettings().getCharset()), e);
     }
-    if (conf.produceSingleRecordPerMessage) {
+    if (produceSingleRecordPerMessage) {
       List<Field> list = new ArrayList<>();
       records.forEach(record -> list.add(record.get()));
       if (!list.isEmpty()) {
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.origin.rabbitmq;
+
+import com.codahale.metrics.Meter;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.streamsets.pipeline.api.BatchContext;
+import com.streamsets.pipeline.api.BatchMaker;
+import com.streamsets.pipeline.api.DeliveryGuarantee;
+import com.streamsets.pipeline.api.OnRecordError;
+import com.streamsets.pipeline.api.PushSource;
+import com.streamsets.pipeline.api.Record;
+import com.streamsets.pipeline.config.JsonMode;
+import com.streamsets.pipeline.lib.parser.DataParserFactory;
+import com.streamsets.pipeline.lib.parser.DataParserFactoryBuilder;
+import com.streamsets.pipeline.lib.parser.DataParserFormat;
+import com.streamsets.pipeline.sdk.ContextInfoCreator;
+import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TransferQueue;
+
+public class TestRabbitConsumerWorker {
+  private static final String QUEUE_NAME = "hello";
+
+  private PushSource.Context context;
+  private BatchMaker batchMaker;
+  private Channel channel;
+  private TransferQueue<RabbitMessage> messages;
+  private DataParserFactory parserFactory;
+  private Meter redeliveredMeter;
+
+  @Before
+  public void setUp() {
+    context = Mockito.mock(PushSource.Context.class);
+    batchMaker = Mockito.mock(BatchMaker.class);
+    BatchContext batchContext = Mockito.mock(BatchContext.class);
+    Mockito.when(batchContext.getBatchMaker()).thenReturn(batchMaker);
+    Mockito.when(context.startBatch()).thenReturn(batchContext);
+    Mockito.when(context.isPreview()).thenReturn(false);
+    Mockito.when(context.getDeliveryGuarantee()).thenReturn(DeliveryGuarantee.AT_LEAST_ONCE);
+    // run a single batch
+    Mockito.when(context.isStopped()).thenReturn(false, true);
+
+    channel = Mockito.mock(Channel.class);
+    Mockito.when(channel.isOpen()).thenReturn(true);
+    messages = new LinkedTransferQueue<>();
+    parserFactory = new DataParserFactoryBuilder(
+        ContextInfoCreator.createSourceContext("i", false, OnRecordError.TO_ERROR, Collections.singletonList("a")),
+        DataParserFormat.JSON
+    ).setCharset(StandardCharsets.UTF_8).setMode(JsonMode.MULTIPLE_OBJECTS).setMaxDataLen(-1).build();
+    redeliveredMeter = new Meter();
+  }
+
+  private RabbitConsumerWorker createWorker(int maxBatchSize) {
+    return new RabbitConsumerWorker(
+        context,
+        channel,
+        messages,
+        parserFactory,
+        Mockito.mock(ErrorRecordHandler.class),
+        false,
+        true,
+        maxBatchSize,
+        1000,
+        redeliveredMeter
+    );
+  }
+
+  private void addMessage(long deliveryTag, boolean redelivered) {
+    Envelope envelope = new Envelope(deliveryTag, redelivered, "", QUEUE_NAME);
+    AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder().build();
+    byte[] body = ("{\"tag\": " + deliveryTag + "}").getBytes(StandardCharsets.UTF_8);
+    messages.add(new RabbitMessage("c1", envelope, properties, body));
+  }
+
+  @Test
+  public void testBatchIsAcknowledgedOnce() throws Exception {
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(true);
+    addMessage(1, false);
+    addMessage(2, true);
+    addMessage(3, false);
+
+    Assert.assertNull(createWorker(3).call());
+
+    ArgumentCaptor<Record> records = ArgumentCaptor.forClass(Record.class);
+    Mockito.verify(batchMaker, Mockito.times(3)).addRecord(records.capture());
+    Assert.assertEquals("3", records.getAllValues().get(2).getHeader().getAttribute("deliveryTag"));
+    Mockito.verify(channel, Mockito.times(1)).basicAck(3, true);
+    Mockito.verify(channel, Mockito.never()).basicNack(Mockito.anyLong(), Mockito.anyBoolean(), Mockito.anyBoolean());
+    Assert.assertEquals(1, redeliveredMeter.getCount());
+  }
+
+  @Test
+  public void testFailedBatchIsRequeued() throws Exception {
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(false);
+    addMessage(1, false);
+    addMessage(2, false);
+
+    Assert.assertNull(createWorker(2).call());
+
+    Mockito.verify(channel, Mockito.never()).basicAck(Mockito.anyLong(), Mockito.anyBoolean());
+    Mockito.verify(channel, Mockito.times(1)).basicNack(2, true, true);
+  }
+
+  @Test
+  public void testAtMostOnceAcknowledgesBeforeProcessing() throws Exception {
+    Mockito.when(context.getDeliveryGuarantee()).thenReturn(DeliveryGuarantee.AT_MOST_ONCE);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenAnswer(invocation -> {
+      Mockito.verify(channel).basicAck(1, true);
+      return false;
+    });
+    addMessage(1, false);
+
+    Assert.assertNull(createWorker(1).call());
+
+    Mockito.verify(channel, Mockito.never()).basicNack(Mockito.anyLong(), Mockito.anyBoolean(), Mockito.anyBoolean());
+  }
+
+  @Test
+  public void testNothingAcknowledgedInPreview() throws Exception {
+    Mockito.when(context.isPreview()).thenReturn(true);
+    Mockito.when(context.processBatch(Mockito.any(BatchContext.class))).thenReturn(true);
+    addMessage(1, false);
+
+    Assert.assertNull(createWorker(1).call());
+
+    Mockito.verify(channel, Mockito.never()).basicAck(Mockito.anyLong(), Mockito.anyBoolean());
+  }
+}
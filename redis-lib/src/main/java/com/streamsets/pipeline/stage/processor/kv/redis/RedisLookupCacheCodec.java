@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.redis;
+
+import com.streamsets.pipeline.lib.redis.DataType;
+import com.streamsets.pipeline.stage.processor.kv.PersistentCacheCodec;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent cache codec for the Redis Lookup. Values are restored with the same collection types Jedis returns,
+ * missing keys (null strings and empty collections) are not persisted.
+ */
+public class RedisLookupCacheCodec implements PersistentCacheCodec<Pair<String, DataType>, LookupValue> {
+  private static final int FORMAT_VERSION = 1;
+
+  @Override
+  public byte[] encodeKey(Pair<String, DataType> key) {
+    return (key.getRight().name() + ":" + key.getLeft()).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean isPersistent(LookupValue value) {
+    Object data = value.getValue();
+    if (data instanceof Collection) {
+      return !((Collection) data).isEmpty();
+    } else if (data instanceof Map) {
+      return !((Map) data).isEmpty();
+    }
+    return data != null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public byte[] encodeValue(LookupValue value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(FORMAT_VERSION);
+      out.writeUTF(value.getType().name());
+      switch (value.getType()) {
+        case STRING:
+          writeString(out, (String) value.getValue());
+          break;
+        case LIST:
+        case SET:
+          Collection<String> elements = (Collection<String>) value.getValue();
+          out.writeInt(elements.size());
+          for (String element : elements) {
+            writeString(out, element);
+          }
+          break;
+        case HASH:
+          Map<String, String> map = (Map<String, String>) value.getValue();
+          out.writeInt(map.size());
+          for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+          }
+          break;
+        default:
+          throw new IOException("Unsupported data type: " + value.getType());
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public LookupValue decodeValue(byte[] bytes) throws IOException {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int version = in.readByte();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Unsupported persistent cache format version: " + version);
+      }
+      DataType type;
+      try {
+        type = DataType.valueOf(in.readUTF());
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Invalid data type", e);
+      }
+      int size;
+      switch (type) {
+        case STRING:
+          return new LookupValue(readString(in), type);
+        case LIST:
+          size = in.readInt();
+          List<String> list = new ArrayList<>(size);
+          for (int i = 0; i < size; i++) {
+            list.add(readString(in));
+          }
+          return new LookupValue(list, type);
+        case SET:
+          size = in.readInt();
+          Set<String> set = new HashSet<>();
+          for (int i = 0; i < size; i++) {
+            set.add(readString(in));
+          }
+          return new LookupValue(set, type);
+        case HASH:
+          size = in.readInt();
+          HashMap<String, String> map = new HashMap<>();
+          for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            map.put(key, readString(in));
+          }
+          return new LookupValue(map, type);
+        default:
+          throw new IOException("Unsupported data type: " + type);
+      }
+    }
+  }
+
+  // writeUTF is limited to 64k, values are written as raw bytes
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -35,6 +35,7 @@ import com.streamsets.pipeline.lib.redis.DataType;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
 import com.streamsets.pipeline.stage.processor.kv.LookupUtils;
+import com.streamsets.pipeline.stage.processor.kv.MappedFileCacheStore;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +68,8 @@ public class RedisLookupProcessor extends BaseProcessor {
 
   private RedisStore store;
   private CacheCleaner cacheCleaner;
+  private MappedFileCacheStore persistentStore;
+  private Map<String, Object> cacheGauge;
 
   public RedisLookupProcessor(RedisLookupConfig conf) {
     this.conf = conf;
@@ -98,11 +101,32 @@ public class RedisLookupProcessor extends BaseProcessor {
       }
     }
 
+    if (issues.isEmpty() && conf.cache.enabled && conf.cache.persistentEnabled) {
+      try {
+        // values are keyed by the Redis key and data type, they also depend on the server and database
+        persistentStore = LookupUtils.openSharedPersistentStore(getContext(), conf.cache, conf.uri);
+        if (getContext().getRunnerId() == 0) {
+          cacheGauge = getContext().createGauge(LookupUtils.CACHE_GAUGE_NAME).getValue();
+        }
+      } catch (StageException e) {
+        issues.add(getContext().createConfigIssue(
+            "LOOKUP",
+            "conf.cache.persistentDirectory",
+            e.getErrorCode(),
+            e.getParams()
+        ));
+      }
+    }
+
     if (issues.isEmpty()) {
       error = new DefaultErrorRecordHandler(getContext());
       keyExprEval = getContext().createELEval("keyExpr");
       store = new RedisStore(conf);
-      cache = LookupUtils.buildCache(store, conf.cache);
+      if (persistentStore != null) {
+        cache = LookupUtils.buildCache(store, conf.cache, persistentStore, new RedisLookupCacheCodec());
+      } else {
+        cache = LookupUtils.buildCache(store, conf.cache);
+      }
 
       cacheCleaner = new CacheCleaner(cache, "RedisLookupProcessor", 10 * 60 * 1000);
     }
@@ -124,6 +148,11 @@ public class RedisLookupProcessor extends BaseProcessor {
     } else {
       throw new IllegalArgumentException(Utils.format("Unrecognized lookup mode: '{}'", conf.mode));
     }
+
+    // Memory tier statistics are those of the first runner, the persistent tier is shared by all runners
+    if (cacheGauge != null) {
+      LookupUtils.updateCacheGauge(cacheGauge, cache, persistentStore);
+    }
   }
 
   private void doRecordLookup(Batch batch, BatchMaker batchMaker) throws StageException {
@@ -307,5 +336,6 @@ public class RedisLookupProcessor extends BaseProcessor {
         LOG.error(e.toString(), e);
       }
     }
+    LookupUtils.closeSharedPersistentStore(getContext(), persistentStore);
   }
 }
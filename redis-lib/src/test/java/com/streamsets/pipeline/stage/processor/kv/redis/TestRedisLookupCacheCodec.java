@@ -0,0 +1,75 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.kv.redis;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.streamsets.pipeline.lib.redis.DataType;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+
+public class TestRedisLookupCacheCodec {
+
+  private static LookupValue roundTrip(LookupValue value) throws Exception {
+    RedisLookupCacheCodec codec = new RedisLookupCacheCodec();
+    Assert.assertTrue(codec.isPersistent(value));
+    return codec.decodeValue(codec.encodeValue(value));
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    LookupValue string = new LookupValue("value", DataType.STRING);
+    Assert.assertEquals(string, roundTrip(string));
+
+    LookupValue list = new LookupValue(new ArrayList<>(ImmutableList.of("a", "b", "a")), DataType.LIST);
+    Assert.assertEquals(list, roundTrip(list));
+
+    LookupValue set = new LookupValue(new HashSet<>(ImmutableSet.of("a", "b")), DataType.SET);
+    Assert.assertEquals(set, roundTrip(set));
+
+    LookupValue hash = new LookupValue(new HashMap<>(ImmutableMap.of("k1", "v1", "k2", "v2")), DataType.HASH);
+    LookupValue decoded = roundTrip(hash);
+    Assert.assertEquals(hash, decoded);
+    // the processor expects a HashMap
+    Assert.assertTrue(decoded.getValue() instanceof HashMap);
+  }
+
+  @Test
+  public void testMissingValuesNotPersistent() {
+    RedisLookupCacheCodec codec = new RedisLookupCacheCodec();
+    Assert.assertFalse(codec.isPersistent(new LookupValue(null, DataType.STRING)));
+    Assert.assertFalse(codec.isPersistent(new LookupValue(Collections.emptyList(), DataType.LIST)));
+    Assert.assertFalse(codec.isPersistent(new LookupValue(Collections.emptySet(), DataType.SET)));
+    Assert.assertFalse(codec.isPersistent(new LookupValue(new HashMap<>(), DataType.HASH)));
+  }
+
+  @Test
+  public void testKeysIncludeDataType() {
+    RedisLookupCacheCodec codec = new RedisLookupCacheCodec();
+    Assert.assertFalse(Arrays.equals(
+        codec.encodeKey(Pair.of("key", DataType.STRING)),
+        codec.encodeKey(Pair.of("key", DataType.LIST))
+    ));
+  }
+}
@@ -39,6 +39,11 @@ import com.streamsets.pipeline.lib.salesforce.ForceLookupConfigBean;
   "forceConfig.useCompression",
   "forceConfig.showTrace",
   "forceConfig.cacheConfig.retryOnCacheMiss",
+  "forceConfig.cacheConfig.persistentEnabled",
+  "forceConfig.cacheConfig.persistentDirectory",
+  "forceConfig.cacheConfig.persistentMaxSizeMB",
+  "forceConfig.cacheConfig.persistentExpirationTime",
+  "forceConfig.cacheConfig.persistentTimeUnit",
   "forceConfig.queryExistingData"
 })
 public class ForceLookupDProcessor extends DProcessor {
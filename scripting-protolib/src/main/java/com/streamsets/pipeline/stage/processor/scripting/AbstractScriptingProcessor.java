@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.processor.scripting;
 
 import com.streamsets.pipeline.api.Batch;
+import com.streamsets.pipeline.api.ErrorCode;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
@@ -29,6 +30,7 @@ import com.streamsets.pipeline.stage.util.scripting.Errors;
 import com.streamsets.pipeline.stage.util.scripting.ScriptObjectFactory;
 import com.streamsets.pipeline.stage.util.scripting.ScriptRecord;
 import com.streamsets.pipeline.stage.util.scripting.ScriptStageUtil;
+import com.streamsets.pipeline.stage.util.scripting.config.ScriptStateScope;
 import org.slf4j.Logger;
 
 import javax.script.Compilable;
@@ -45,7 +47,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.streamsets.pipeline.stage.util.scripting.DeprecatedBindings.allDeprecatedMappings;
 
@@ -58,13 +67,21 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
   private final String script;
   private final String initScript;
   private final String destroyScript;
+  private final int numThreads;
+  private final ScriptStateScope stateScope;
   // State obj for use by end-user scripts.
   private Object state;
 
   private CompiledScript compiledScript;
+  // Engine pool used when the processor runs with more than one thread, the first entry is always engine
+  private final List<ScriptEngine> engines;
+  private final List<CompiledScript> compiledScripts;
+  private final List<Object> states;
+  private ExecutorService executorService;
   private ScriptObjectFactory scriptObjectFactory;
   private ErrorRecordHandler errorRecordHandler;
-  private List<ScriptRecord> records;
+  // Records handed to the script, one list per engine so each shard has its own
+  private final List<List<ScriptRecord>> shardRecords;
 
   protected ScriptEngine engine;
   public final Map<String, String> userParams;
@@ -81,6 +98,32 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
       String initScript,
       String destroyScript,
       Map<String, String> userParams
+  ) {
+    this(
+        log,
+        scriptingEngineName,
+        scriptConfigGroup,
+        processingMode,
+        script,
+        initScript,
+        destroyScript,
+        userParams,
+        1,
+        ScriptStateScope.SHARED
+    );
+  }
+
+  public AbstractScriptingProcessor(
+      Logger log,
+      String scriptingEngineName,
+      String scriptConfigGroup,
+      ProcessingMode processingMode,
+      String script,
+      String initScript,
+      String destroyScript,
+      Map<String, String> userParams,
+      int numThreads,
+      ScriptStateScope stateScope
   ) {
     this.log = log;
     this.scriptingEngineName = scriptingEngineName;
@@ -90,7 +133,15 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
     this.initScript = initScript;
     this.destroyScript = destroyScript;
     this.userParams = userParams;
-    this.records = new ArrayList<>();
+    this.numThreads = numThreads;
+    this.stateScope = stateScope;
+    this.shardRecords = new ArrayList<>();
+    for (int i = 0; i < Math.max(1, numThreads); i++) {
+      this.shardRecords.add(new ArrayList<>());
+    }
+    this.engines = new ArrayList<>();
+    this.compiledScripts = new ArrayList<>();
+    this.states = new ArrayList<>();
   }
 
   private ScriptObjectFactory getScriptObjectFactory() {
@@ -108,7 +159,11 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
 
     // We need Stage.Context for createScriptObjectFactory()
-    state = getScriptObjectFactory().createMap(false);
+    if (numThreads > 1 && stateScope == ScriptStateScope.SHARED) {
+      state = getScriptObjectFactory().createConcurrentMap();
+    } else {
+      state = getScriptObjectFactory().createMap(false);
+    }
 
     // We want to throw a warning for using deprecated script bindings only once per binding.
     // When pipeline is restarted, we can forget which warnings we've already thrown and throw them all again.
@@ -140,19 +195,92 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
     }
 
     try {
-      engine.eval(initScript, createInitDestroyBindings());
+      engine.eval(initScript, createInitDestroyBindings(state));
     } catch (ScriptException e) {
       issues.add(getContext().createConfigIssue(scriptConfigGroup, "initScript", Errors.SCRIPTING_08, e.toString(), e));
     }
 
+    engines.clear();
+    compiledScripts.clear();
+    states.clear();
+    engines.add(engine);
+    compiledScripts.add(compiledScript);
+    states.add(state);
+    if (issues.isEmpty() && numThreads > 1) {
+      initEnginePool(issues);
+    }
+
     return issues;
   }
 
+  /**
+   * Creates the additional engines, each one with its own compiled script and, depending on the state scope, its
+   * own state object initialized by the init script.
+   */
+  private void initEnginePool(List<ConfigIssue> issues) {
+    // Error records can now be reported from several threads at the same time
+    errorRecordHandler = new SynchronizedErrorRecordHandler(errorRecordHandler);
+
+    for (int i = 1; i < numThreads; i++) {
+      ScriptEngine poolEngine = new ScriptEngineManager(getClass().getClassLoader()).getEngineByName(scriptingEngineName);
+      engines.add(poolEngine);
+      try {
+        compiledScripts.add(((Compilable) poolEngine).compile(script));
+      } catch (ScriptException e) {
+        issues.add(getContext().createConfigIssue(scriptConfigGroup, "script", Errors.SCRIPTING_03, e.toString()));
+        log.error(Errors.SCRIPTING_03.getMessage(), e.toString(), e);
+        return;
+      }
+
+      if (stateScope == ScriptStateScope.PER_ENGINE) {
+        Object engineState = getScriptObjectFactory().createMap(false);
+        states.add(engineState);
+        try {
+          poolEngine.eval(initScript, createInitDestroyBindings(engineState));
+        } catch (ScriptException e) {
+          issues.add(
+              getContext().createConfigIssue(scriptConfigGroup, "initScript", Errors.SCRIPTING_08, e.toString(), e)
+          );
+          return;
+        }
+      } else {
+        states.add(state);
+      }
+    }
+
+    final AtomicInteger threadCount = new AtomicInteger();
+    final String threadName = getInfo().getInstanceName() + "-script-engine-";
+    executorService = Executors.newFixedThreadPool(
+        numThreads - 1,
+        r -> new Thread(r, threadName + threadCount.incrementAndGet())
+    );
+  }
+
   @Override
   public void destroy() {
+    if (executorService != null) {
+      executorService.shutdownNow();
+      executorService = null;
+    }
+    // Pooled engines only run the destroy script when they own their state
+    for (int i = 1; i < engines.size(); i++) {
+      ScriptEngine poolEngine = engines.get(i);
+      if (stateScope == ScriptStateScope.PER_ENGINE && i < states.size()) {
+        try {
+          poolEngine.eval(destroyScript, createInitDestroyBindings(states.get(i)));
+        } catch (ScriptException e) {
+          log.error(Errors.SCRIPTING_09.getMessage(), e.toString(), e);
+        }
+      }
+      ScriptStageUtil.closeEngine(poolEngine, getInfo(), log);
+    }
+    engines.clear();
+    compiledScripts.clear();
+    states.clear();
+
     try {
       if(engine != null) {
-        engine.eval(destroyScript, createInitDestroyBindings());
+        engine.eval(destroyScript, createInitDestroyBindings(state));
       }
     } catch (ScriptException e) {
       log.error(Errors.SCRIPTING_09.getMessage(), e.toString(), e);
@@ -164,44 +292,162 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
 
   @Override
   public void process(Batch batch, final SingleLaneBatchMaker singleLaneBatchMaker) throws StageException {
+    if (executorService != null) {
+      processInParallel(batch, singleLaneBatchMaker);
+      return;
+    }
+
     ScriptingProcessorOutput out =
         scriptRecord -> singleLaneBatchMaker.addRecord(getScriptObjectFactory().getRecord(scriptRecord));
+    List<ScriptRecord> records = shardRecords.get(0);
     records.clear();
+    run(batch.getRecords(), out, 0, records);
+  }
+
+  /**
+   * Splits the batch in contiguous shards, one per engine, and runs them concurrently. The output of each shard is
+   * buffered and added to the batch maker in shard order so the record order is the same as with a single engine.
+   */
+  private void processInParallel(Batch batch, SingleLaneBatchMaker singleLaneBatchMaker) throws StageException {
+    List<Record> batchRecords = new ArrayList<>();
+    batch.getRecords().forEachRemaining(batchRecords::add);
+    if (batchRecords.isEmpty()) {
+      return;
+    }
 
+    for (List<ScriptRecord> records : shardRecords) {
+      records.clear();
+    }
+
+    int shardSize = (batchRecords.size() + numThreads - 1) / numThreads;
+    List<Future<List<Record>>> futures = new ArrayList<>(numThreads - 1);
+    // Once a shard fails, the shards that did not start yet are skipped
+    AtomicBoolean failed = new AtomicBoolean();
+    boolean completed = false;
+    try {
+      for (int i = 1; i < numThreads && i * shardSize < batchRecords.size(); i++) {
+        final int engineIndex = i;
+        final List<Record> shard = batchRecords.subList(
+            i * shardSize,
+            Math.min((i + 1) * shardSize, batchRecords.size())
+        );
+        futures.add(executorService.submit(
+            () -> failed.get() ? Collections.<Record>emptyList() : runShard(shard, engineIndex)
+        ));
+      }
+
+      // The first shard is processed by the pipeline runner thread itself
+      List<Record> firstShardOutput = runShard(batchRecords.subList(0, Math.min(shardSize, batchRecords.size())), 0);
+      for (Record record : firstShardOutput) {
+        singleLaneBatchMaker.addRecord(record);
+      }
+      for (Future<List<Record>> future : futures) {
+        for (Record record : waitForShard(future)) {
+          singleLaneBatchMaker.addRecord(record);
+        }
+      }
+      completed = true;
+    } finally {
+      if (!completed) {
+        failed.set(true);
+        awaitShards(futures);
+      }
+    }
+  }
+
+  private List<Record> runShard(List<Record> shard, int engineIndex) throws StageException {
+    List<Record> output = new ArrayList<>();
+    ScriptingProcessorOutput out = scriptRecord -> output.add(getScriptObjectFactory().getRecord(scriptRecord));
+    run(shard.iterator(), out, engineIndex, shardRecords.get(engineIndex));
+    return output;
+  }
+
+  /**
+   * Waits for the shards still running after another one failed, so that no engine is busy with the failed batch
+   * when the next batch or destroy() uses it. Their own failures are only logged as the first one is reported.
+   */
+  private void awaitShards(List<Future<List<Record>>> futures) {
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        futures.get(i).get();
+      } catch (ExecutionException | CancellationException ex) {
+        log.debug("Script shard failed after a previous failure in the same batch: {}", ex.toString(), ex);
+      } catch (InterruptedException ex) {
+        for (Future<List<Record>> future : futures.subList(i, futures.size())) {
+          future.cancel(true);
+        }
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private List<Record> waitForShard(Future<List<Record>> future) throws StageException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new StageException(Errors.SCRIPTING_06, ex.toString(), ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof StageException) {
+        throw (StageException) ex.getCause();
+      }
+      throw new StageException(Errors.SCRIPTING_06, ex.getCause().toString(), ex.getCause());
+    }
+  }
+
+  private void run(
+      Iterator<Record> it,
+      ScriptingProcessorOutput out,
+      int engineIndex,
+      List<ScriptRecord> scriptRecords
+  ) throws StageException {
     switch (processingMode) {
       case RECORD:
-        runRecord(batch, out);
+        runRecord(it, out, engineIndex, scriptRecords);
         break;
       case BATCH:
-        runBatch(batch, out);
+        runBatch(it, out, engineIndex, scriptRecords);
         break;
       default:
         throw new IllegalStateException(Utils.format("Unknown Processing Mode: '{}'", processingMode));
     }
   }
 
-  private void runRecord(Batch batch, ScriptingProcessorOutput out) throws StageException {
-    records.add(null);
-    Iterator<Record> it = batch.getRecords();
+  private void runRecord(
+      Iterator<Record> it,
+      ScriptingProcessorOutput out,
+      int engineIndex,
+      List<ScriptRecord> scriptRecords
+  ) throws StageException {
+    scriptRecords.add(null);
     while (it.hasNext()) {
       Record record = it.next();
-      records.set(0, getScriptObjectFactory().createScriptRecord(record));
-      runScript(records, out);
+      scriptRecords.set(0, getScriptObjectFactory().createScriptRecord(record));
+      runScript(scriptRecords, out, engineIndex);
     }
   }
 
-  private void runBatch(Batch batch, ScriptingProcessorOutput out) throws StageException {
-    Iterator<Record> it = batch.getRecords();
+  private void runBatch(
+      Iterator<Record> it,
+      ScriptingProcessorOutput out,
+      int engineIndex,
+      List<ScriptRecord> scriptRecords
+  ) throws StageException {
     while (it.hasNext()) {
       Record record = it.next();
-      records.add(getScriptObjectFactory().createScriptRecord(record));
+      scriptRecords.add(getScriptObjectFactory().createScriptRecord(record));
     }
-    runScript(records, out);
+    runScript(scriptRecords, out, engineIndex);
   }
 
-  private void runScript(List<ScriptRecord> records, ScriptingProcessorOutput out) throws StageException {
+  private void runScript(
+      List<ScriptRecord> records,
+      ScriptingProcessorOutput out,
+      int engineIndex
+  ) throws StageException {
     try {
-      runScript(createProcessBindings(records, out));
+      compiledScripts.get(engineIndex).eval(createProcessBindings(records, out, states.get(engineIndex)));
     } catch (ScriptException ex) {
       switch (processingMode) {
         case RECORD:
@@ -304,7 +550,7 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
     bindings.put("output", spb.output);
   }
 
-  private SimpleBindings createInitDestroyBindings() {
+  private SimpleBindings createInitDestroyBindings(Object state) {
     DeprecatedBindings bindings = new DeprecatedBindings(log, unwarnedDeprecatedMappings);
 
     // Add new bindings
@@ -325,7 +571,11 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
     return bindings;
   }
 
-  private SimpleBindings createProcessBindings(List<ScriptRecord> records, ScriptingProcessorOutput out) {
+  private SimpleBindings createProcessBindings(
+      List<ScriptRecord> records,
+      ScriptingProcessorOutput out,
+      Object state
+  ) {
     DeprecatedBindings bindings = new DeprecatedBindings(log, unwarnedDeprecatedMappings);
 
     // Add new bindings
@@ -340,11 +590,43 @@ public abstract class AbstractScriptingProcessor extends SingleLaneProcessor {
     return bindings;
   }
 
-  private void runScript(SimpleBindings bindings) throws ScriptException {
-    compiledScript.eval(bindings);
-  }
-
+  /**
+   * Returns the records handed to the script for the last batch, in batch order when it was split in shards.
+   */
   public List<ScriptRecord> getScriptRecords() {
+    if (shardRecords.size() == 1) {
+      return shardRecords.get(0);
+    }
+    List<ScriptRecord> records = new ArrayList<>();
+    for (List<ScriptRecord> shard : shardRecords) {
+      records.addAll(shard);
+    }
     return records;
   }
+
+  /**
+   * Serializes error record handling when the batch is processed by several engines concurrently.
+   */
+  private static class SynchronizedErrorRecordHandler implements ErrorRecordHandler {
+    private final ErrorRecordHandler delegate;
+
+    SynchronizedErrorRecordHandler(ErrorRecordHandler delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public synchronized void onError(ErrorCode errorCode, Object... params) throws StageException {
+      delegate.onError(errorCode, params);
+    }
+
+    @Override
+    public synchronized void onError(OnRecordErrorException error) throws StageException {
+      delegate.onError(error);
+    }
+
+    @Override
+    public synchronized void onError(List<Record> batch, StageException error) throws StageException {
+      delegate.onError(batch, error);
+    }
+  }
 }
@@ -77,6 +77,9 @@ public class ScriptingProcessorInitDestroyBindings extends ScriptingStageBinding
       throw new StageException(Errors.SCRIPTING_07, record.getHeader().getSourceId());
     }
 
-    context.toEvent((EventRecord) scriptObjectFactory.getRecord(scriptRecord));
+    // The context is shared by all engines when the processor runs with several threads
+    synchronized (context) {
+      context.toEvent((EventRecord) scriptObjectFactory.getRecord(scriptRecord));
+    }
   }
 }
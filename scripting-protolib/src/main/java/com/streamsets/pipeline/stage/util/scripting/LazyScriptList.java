@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.util.scripting;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lazy script view of a LIST field. Elements are converted on first access and only elements written by the script
+ * are converted back.
+ */
+public class LazyScriptList extends AbstractList<Object> implements LazyScriptValue {
+  private static final Object NOT_CONVERTED = new Object();
+
+  private static class Slot {
+    private final Field original;
+    private Object value;
+    private boolean written;
+
+    Slot(Field original, Object value, boolean written) {
+      this.original = original;
+      this.value = value;
+      this.written = written;
+    }
+  }
+
+  private final ScriptObjectFactory factory;
+  private final Field field;
+  private final List<Field> fields;
+  private List<Slot> slots;
+  private boolean structureModified;
+
+  LazyScriptList(ScriptObjectFactory factory, Field field) {
+    this.factory = factory;
+    this.field = field;
+    this.fields = field.getValueAsList();
+  }
+
+  private List<Slot> slots() {
+    if (slots == null) {
+      slots = new ArrayList<>(fields.size());
+      for (Field element : fields) {
+        slots.add(new Slot(element, NOT_CONVERTED, false));
+      }
+    }
+    return slots;
+  }
+
+  @Override
+  public int size() {
+    return slots == null ? fields.size() : slots.size();
+  }
+
+  @Override
+  public Object get(int index) {
+    Slot slot = slots().get(index);
+    if (slot.value == NOT_CONVERTED) {
+      slot.value = factory.lazyFieldToScript(slot.original);
+    }
+    return slot.value;
+  }
+
+  @Override
+  public Object set(int index, Object element) {
+    Object old = get(index);
+    Slot slot = slots().get(index);
+    slot.value = element;
+    slot.written = true;
+    return old;
+  }
+
+  @Override
+  public void add(int index, Object element) {
+    slots().add(index, new Slot(null, element, true));
+    structureModified = true;
+    modCount++;
+  }
+
+  @Override
+  public Object remove(int index) {
+    Object old = get(index);
+    slots().remove(index);
+    structureModified = true;
+    modCount++;
+    return old;
+  }
+
+  @Override
+  public boolean isModified() {
+    if (structureModified) {
+      return true;
+    }
+    if (slots != null) {
+      for (Slot slot : slots) {
+        if (slot.written || (slot.value instanceof LazyScriptValue && ((LazyScriptValue) slot.value).isModified())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Field toField(Record record, String path) {
+    if (!isModified()) {
+      return field;
+    }
+    List<Field> fieldList = new ArrayList<>(slots.size());
+    for (int i = 0; i < slots.size(); i++) {
+      Slot slot = slots.get(i);
+      String childPath = factory.composeArrayPath(path, i);
+      Field child;
+      if (slot.written) {
+        if (slot.value == null && slot.original != null) {
+          child = Field.create(slot.original.getType(), null);
+        } else {
+          child = factory.scriptToField(slot.value, record, childPath);
+        }
+      } else if (slot.value instanceof LazyScriptValue) {
+        child = ((LazyScriptValue) slot.value).toField(record, childPath);
+      } else {
+        child = slot.original;
+      }
+      fieldList.add(child);
+    }
+    Field result = Field.create(fieldList);
+    LazyScriptMap.copyAttributes(field, result);
+    return result;
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.util.scripting;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lazy script view of a MAP or LIST_MAP field.
+ *
+ * The key set is shared with the underlying field until the script adds or removes a key, values are converted on
+ * first access and every key that the script writes is remembered so that only those entries are converted back.
+ */
+public class LazyScriptMap extends AbstractMap<String, Object> implements LazyScriptValue, ScriptObjectFactory.MapInfo {
+  private final ScriptObjectFactory factory;
+  private final Field field;
+  private final Map<String, Field> fields;
+  private final Map<String, Object> converted;
+  private final Set<String> written;
+  private Set<String> keys;
+  private boolean structureModified;
+
+  LazyScriptMap(ScriptObjectFactory factory, Field field) {
+    this.factory = factory;
+    this.field = field;
+    this.fields = field.getValueAsMap();
+    this.converted = new HashMap<>();
+    this.written = new HashSet<>();
+  }
+
+  @Override
+  public boolean isListMap() {
+    return field.getType() == Field.Type.LIST_MAP;
+  }
+
+  private Set<String> keys() {
+    return keys == null ? fields.keySet() : keys;
+  }
+
+  private void copyKeysOnWrite() {
+    if (keys == null) {
+      keys = new LinkedHashSet<>(fields.keySet());
+    }
+    structureModified = true;
+  }
+
+  @Override
+  public int size() {
+    return keys().size();
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return keys().contains(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    if (!keys().contains(key)) {
+      return null;
+    }
+    Object value = converted.get(key);
+    if (value == null && !converted.containsKey(key)) {
+      value = factory.lazyFieldToScript(fields.get(key));
+      converted.put((String) key, value);
+    }
+    return value;
+  }
+
+  @Override
+  public Object put(String key, Object value) {
+    Object old = get(key);
+    if (!keys().contains(key)) {
+      copyKeysOnWrite();
+      keys.add(key);
+    }
+    converted.put(key, value);
+    written.add(key);
+    return old;
+  }
+
+  @Override
+  public Object remove(Object key) {
+    if (!keys().contains(key)) {
+      return null;
+    }
+    Object old = get(key);
+    copyKeysOnWrite();
+    keys.remove(key);
+    converted.remove(key);
+    written.remove(key);
+    return old;
+  }
+
+  @Override
+  public void clear() {
+    copyKeysOnWrite();
+    keys.clear();
+    converted.clear();
+    written.clear();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<Entry<String, Object>>() {
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        final boolean sharedKeys = keys == null;
+        final Iterator<String> it = keys().iterator();
+        return new Iterator<Entry<String, Object>>() {
+          private String current;
+
+          @Override
+          public boolean hasNext() {
+            return it.hasNext();
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+            current = it.next();
+            return new LazyEntry(current);
+          }
+
+          @Override
+          public void remove() {
+            if (current == null) {
+              throw new IllegalStateException();
+            }
+            if (sharedKeys) {
+              // The key set still belongs to the underlying field, so remove from our own copy instead
+              copyKeysOnWrite();
+              keys.remove(current);
+            } else {
+              it.remove();
+              structureModified = true;
+            }
+            converted.remove(current);
+            written.remove(current);
+            current = null;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return LazyScriptMap.this.size();
+      }
+    };
+  }
+
+  private class LazyEntry implements Entry<String, Object> {
+    private final String key;
+
+    LazyEntry(String key) {
+      this.key = key;
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    public Object getValue() {
+      return get(key);
+    }
+
+    @Override
+    public Object setValue(Object value) {
+      return put(key, value);
+    }
+  }
+
+  @Override
+  public boolean isModified() {
+    if (structureModified || !written.isEmpty()) {
+      return true;
+    }
+    for (Object value : converted.values()) {
+      if (value instanceof LazyScriptValue && ((LazyScriptValue) value).isModified()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Field toField(Record record, String path) {
+    if (!isModified()) {
+      return field;
+    }
+    LinkedHashMap<String, Field> fieldMap = new LinkedHashMap<>();
+    for (String key : keys()) {
+      String childPath = factory.composeMapPath(path, key);
+      Field original = fields.get(key);
+      Field child;
+      if (written.contains(key)) {
+        Object value = converted.get(key);
+        if (value == null && original != null) {
+          child = Field.create(original.getType(), null);
+        } else {
+          child = factory.scriptToField(value, record, childPath);
+        }
+      } else {
+        Object value = converted.get(key);
+        if (value instanceof LazyScriptValue) {
+          child = ((LazyScriptValue) value).toField(record, childPath);
+        } else {
+          child = original;
+        }
+      }
+      fieldMap.put(key, child);
+    }
+    Field result = isListMap() ? Field.createListMap(fieldMap) : Field.create(fieldMap);
+    copyAttributes(field, result);
+    return result;
+  }
+
+  static void copyAttributes(Field from, Field to) {
+    Map<String, String> attributes = from.getAttributes();
+    if (attributes != null) {
+      for (Map.Entry<String, String> entry : attributes.entrySet()) {
+        to.setAttribute(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+}
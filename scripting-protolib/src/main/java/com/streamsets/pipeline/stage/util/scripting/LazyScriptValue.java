@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.util.scripting;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.Record;
+
+/**
+ * Script value that is a lazy view over an existing {@link Field}. Children are only converted to script objects
+ * when the script accesses them, and only the parts of the tree the script modified are converted back.
+ */
+interface LazyScriptValue {
+
+  /**
+   * Returns true if the script modified this value or any of its already materialized children.
+   */
+  boolean isModified();
+
+  /**
+   * Returns the field backing this view when it was not modified, or a new field in which only modified paths were
+   * converted back from their script representation.
+   */
+  Field toField(Record record, String path);
+
+}
@@ -40,6 +40,8 @@ public class NativeScriptRecord extends ScriptRecord {
   public final long errorTimestamp;
   public final String errorStackTrace;
   public final String errorJobId;
+  // Value handed to the script, used to detect whether the script replaced the whole record value
+  final Object initialValue;
 
   NativeScriptRecord(Record record, Object scriptObject) {
     this.sdcRecord = record;
@@ -64,5 +66,6 @@ public class NativeScriptRecord extends ScriptRecord {
     this.errorJobId = record.getHeader().getErrorJobId();
 
     this.value = scriptObject;
+    this.initialValue = scriptObject;
   }
 }
@@ -26,12 +26,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,7 +62,11 @@ public class ScriptObjectFactory {
 
     Object scriptValue = null;
     if (record.get() != null) {
-      scriptValue = fieldToScript(record.get());
+      if (scriptRecordType == ScriptRecordType.LAZY_NATIVE_OBJECTS) {
+        scriptValue = lazyFieldToScript(record.get());
+      } else {
+        scriptValue = fieldToScript(record.get());
+      }
     }
     return new NativeScriptRecord(record, scriptValue);
   }
@@ -71,8 +79,17 @@ public class ScriptObjectFactory {
 
     NativeScriptRecord nativeScriptRecord = (NativeScriptRecord) scriptRecord;
     Record record = nativeScriptRecord.sdcRecord;
-    Field field = scriptToField(nativeScriptRecord.value, record, "");
-    record.set(field);
+    Object value = nativeScriptRecord.value;
+    if (value instanceof LazyScriptValue && value == nativeScriptRecord.initialValue) {
+      // Root is still the lazy view created for this record, write back only the modified paths (if any)
+      Field field = ((LazyScriptValue) value).toField(record, "");
+      if (field != record.get()) {
+        record.set(field);
+      }
+    } else {
+      Field field = scriptToField(value, record, "");
+      record.set(field);
+    }
     // Update Record Header Attributes
     updateRecordHeader(nativeScriptRecord.attributes, record);
     return record;
@@ -122,10 +139,161 @@ public class ScriptObjectFactory {
     }
   }
 
+  // Fully synchronized variant, it still implements MapInfo so scriptToField() keeps the map type.
+  private static class SynchronizedLinkedHashMapWithMapInfo extends LinkedHashMapWithMapInfo {
+
+    public SynchronizedLinkedHashMapWithMapInfo(boolean isListMap) {
+      super(isListMap);
+    }
+
+    @Override
+    public synchronized int size() {
+      return super.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+      return super.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+      return super.containsKey(key);
+    }
+
+    @Override
+    public synchronized boolean containsValue(Object value) {
+      return super.containsValue(value);
+    }
+
+    @Override
+    public synchronized Object get(Object key) {
+      return super.get(key);
+    }
+
+    @Override
+    public synchronized Object getOrDefault(Object key, Object defaultValue) {
+      return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public synchronized Object put(Object key, Object value) {
+      return super.put(key, value);
+    }
+
+    @Override
+    public synchronized void putAll(Map m) {
+      super.putAll(m);
+    }
+
+    @Override
+    public synchronized Object putIfAbsent(Object key, Object value) {
+      return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+      return super.remove(key);
+    }
+
+    @Override
+    public synchronized boolean remove(Object key, Object value) {
+      return super.remove(key, value);
+    }
+
+    @Override
+    public synchronized Object replace(Object key, Object value) {
+      return super.replace(key, value);
+    }
+
+    @Override
+    public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+      return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public synchronized Object computeIfAbsent(Object key, Function mappingFunction) {
+      return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public synchronized Object computeIfPresent(Object key, BiFunction remappingFunction) {
+      return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object compute(Object key, BiFunction remappingFunction) {
+      return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public synchronized Object merge(Object key, Object value, BiFunction remappingFunction) {
+      return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public synchronized void forEach(BiConsumer action) {
+      super.forEach(action);
+    }
+
+    @Override
+    public synchronized void replaceAll(BiFunction function) {
+      super.replaceAll(function);
+    }
+
+    @Override
+    public synchronized void clear() {
+      super.clear();
+    }
+
+    @Override
+    public synchronized Set keySet() {
+      return super.keySet();
+    }
+
+    @Override
+    public synchronized Collection values() {
+      return super.values();
+    }
+
+    @Override
+    public synchronized Set entrySet() {
+      return super.entrySet();
+    }
+
+    @Override
+    public synchronized Object clone() {
+      return super.clone();
+    }
+
+    @Override
+    public synchronized boolean equals(Object o) {
+      return super.equals(o);
+    }
+
+    @Override
+    public synchronized int hashCode() {
+      return super.hashCode();
+    }
+
+    @Override
+    public synchronized String toString() {
+      return super.toString();
+    }
+  }
+
   public Object createMap(boolean isListMap) {
     return new LinkedHashMapWithMapInfo(isListMap);
   }
 
+  /**
+   * Creates a map that can be safely shared by several script engines running concurrently. As with
+   * Collections.synchronizedMap() single operations are atomic while iterating the map is not.
+   */
+  public Object createConcurrentMap() {
+    return new SynchronizedLinkedHashMapWithMapInfo(false);
+  }
+
   public Object createArray(List elements) {
     return elements;
   }
@@ -166,6 +334,25 @@ public class ScriptObjectFactory {
     return scriptObject;
   }
 
+  /**
+   * Same as {@link #fieldToScript(Field)} but MAP, LIST_MAP and LIST fields are returned as lazy views that convert
+   * their children only when the script accesses them.
+   */
+  protected Object lazyFieldToScript(Field field) {
+    if (field != null && field.getValue() != null) {
+      switch (field.getType()) {
+        case MAP:
+        case LIST_MAP:
+          return new LazyScriptMap(this, field);
+        case LIST:
+          return new LazyScriptList(this, field);
+        default:
+          break;
+      }
+    }
+    return fieldToScript(field);
+  }
+
   public static final Pattern PATTERN = Pattern.compile("\\W", Pattern.CASE_INSENSITIVE);
 
   protected static String singleQuoteEscape(String path) {
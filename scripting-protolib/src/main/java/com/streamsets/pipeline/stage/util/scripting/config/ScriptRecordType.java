@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Label;
 public enum ScriptRecordType implements Label {
   SDC_RECORDS("Data Collector Records"),
   NATIVE_OBJECTS("Native Objects"),
+  LAZY_NATIVE_OBJECTS("Lazy Native Objects"),
   ;
 
   private final String label;
@@ -1203,4 +1203,135 @@ public class ScriptingProcessorTestUtil {
     Field expectedField = Field.create(Field.Type.STRING, null);
     assertEquals(expectedField, output.getRecords().get("lane").get(0).get());
   }
+
+  /**
+   * Expects a script that sets /nested/changed to 5 and adds a new /added String field with value "added".
+   */
+  public static <C extends Processor> void verifyLazyNativeRecord(
+      Class<C> clazz,
+      Processor processor
+  ) throws StageException {
+    ProcessorRunner runner = new ProcessorRunner.Builder(clazz, processor)
+        .addOutputLane("lane")
+        .build();
+
+    Record record = RecordCreator.create();
+    Map<String, Field> nested = new LinkedHashMap<>();
+    nested.put("changed", Field.create(1));
+    nested.put("untouched", Field.create(Field.Type.DATE, new Date(0)));
+    Field nestedField = Field.createListMap(new LinkedHashMap<>(nested));
+    nestedField.setAttribute("attr", "attr-value");
+    Map<String, Field> map = new LinkedHashMap<>();
+    map.put("date", Field.create(Field.Type.DATE, new Date(0)));
+    map.put("list", Field.create(Arrays.asList(Field.create("a"), Field.create("b"))));
+    map.put("nested", nestedField);
+    record.set(Field.create(map));
+
+    runner.runInit();
+    StageRunner.Output output;
+    try {
+      output = runner.runProcess(Collections.singletonList(record));
+    } finally {
+      runner.runDestroy();
+    }
+    List<Record> records = output.getRecords().get("lane");
+    assertEquals(1, records.size());
+
+    Record outputRecord = records.get(0);
+    assertEquals(5, outputRecord.get("/nested/changed").getValueAsInteger());
+    assertEquals("added", outputRecord.get("/added").getValueAsString());
+    // Fields the script did not modify keep their exact type and attributes
+    assertEquals(Field.Type.DATE, outputRecord.get("/date").getType());
+    assertEquals(Field.Type.DATE, outputRecord.get("/nested/untouched").getType());
+    assertEquals(Field.Type.LIST_MAP, outputRecord.get("/nested").getType());
+    assertEquals("attr-value", outputRecord.get("/nested").getAttribute("attr"));
+    assertEquals(2, outputRecord.get("/list").getValueAsList().size());
+    assertEquals("b", outputRecord.get("/list[1]").getValueAsString());
+  }
+
+  /**
+   * Expects a processor running with 4 threads and per thread state, whose script increments a counter kept in the
+   * state object and stores it in /count.
+   */
+  public static <C extends Processor> void verifyParallelPerEngineState(
+      Class<C> clazz,
+      Processor processor
+  ) throws StageException {
+    ProcessorRunner runner = new ProcessorRunner.Builder(clazz, processor)
+        .addOutputLane("lane")
+        .build();
+
+    List<Record> input = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Record record = RecordCreator.create();
+      Map<String, Field> map = new HashMap<>();
+      map.put("index", Field.create(i));
+      record.set(Field.create(map));
+      input.add(record);
+    }
+
+    runner.runInit();
+    StageRunner.Output output;
+    try {
+      output = runner.runProcess(input);
+    } finally {
+      runner.runDestroy();
+    }
+    List<Record> records = output.getRecords().get("lane");
+    assertEquals(100, records.size());
+    for (int i = 0; i < 100; i++) {
+      // Output keeps the input order and every shard of 25 records has its own counter
+      assertEquals(i, records.get(i).get("/index").getValueAsInteger());
+      assertEquals(i % 25 + 1, records.get(i).get("/count").getValueAsInteger());
+    }
+  }
+
+  /**
+   * Expects a batch processor running with 4 threads and shared state whose script fails on the shard starting with
+   * index 0, adds the first index of any other shard to the state after a delay and, for a batch starting with a
+   * negative index, writes the number of entries in the state to /done.
+   */
+  public static <C extends Processor> void verifyParallelShardFailure(
+      Class<C> clazz,
+      Processor processor
+  ) throws Exception {
+    ProcessorRunner runner = new ProcessorRunner.Builder(clazz, processor)
+        .addOutputLane("lane")
+        .build();
+
+    List<Record> input = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Record record = RecordCreator.create();
+      Map<String, Field> map = new HashMap<>();
+      map.put("index", Field.create(i));
+      record.set(Field.create(map));
+      input.add(record);
+    }
+
+    runner.runInit();
+    try {
+      try {
+        runner.runProcess(input);
+        Assert.fail("Expected exception");
+      } catch (StageException e) {
+        // Expected, the first shard failed
+      }
+      // The failed batch only returns once the other shards are done, so what they left in the state is final
+      int done = countParallelShardsDone(runner);
+      Thread.sleep(1000);
+      assertEquals(done, countParallelShardsDone(runner));
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private static int countParallelShardsDone(ProcessorRunner runner) throws StageException {
+    Record record = RecordCreator.create();
+    Map<String, Field> map = new HashMap<>();
+    map.put("index", Field.create(-1));
+    record.set(Field.create(map));
+    List<Record> records = runner.runProcess(Collections.singletonList(record)).getRecords().get("lane");
+    assertEquals(1, records.size());
+    return records.get(0).get("/done").getValueAsInteger();
+  }
 }
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface SdcKafkaProducer {
 
@@ -33,6 +34,23 @@ public interface SdcKafkaProducer {
 
   public List<Record> write(Stage.Context context) throws StageException;
 
+  /**
+   * Sends all enqueued messages without waiting for the brokers.
+   *
+   * The returned future completes once all messages were acknowledged, or exceptionally with the first failure. Response
+   * records are not available in this mode. Producers that can't send asynchronously write synchronously.
+   */
+  public default CompletableFuture<Void> writeAsync(Stage.Context context) {
+    CompletableFuture<Void> future = new CompletableFuture<>();
+    try {
+      write(context);
+      future.complete(null);
+    } catch (StageException | RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
   public void clearMessages();
 
   public String getVersion();
@@ -22,6 +22,7 @@ import com.streamsets.pipeline.api.Stage;
 import com.streamsets.pipeline.api.StageException;
 import com.streamsets.pipeline.kafka.api.SdcKafkaProducer;
 import com.streamsets.pipeline.lib.kafka.KafkaErrors;
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -30,6 +31,7 @@ import org.apache.kafka.common.errors.RecordTooLargeException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -38,10 +40,47 @@ public abstract class BaseKafkaProducer09 implements SdcKafkaProducer {
   private Producer producer;
   private final List<Future<RecordMetadata>> futureList;
   private final boolean sendWriteResponse;
+  private Acknowledgement acknowledgement;
+
+  /**
+   * Tracks the messages enqueued since the last write and completes once the brokers acknowledged all of them.
+   */
+  private static class Acknowledgement implements Callback {
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private int outstanding;
+    private boolean sealed;
+
+    private synchronized void sent() {
+      outstanding++;
+    }
+
+    @Override
+    public synchronized void onCompletion(RecordMetadata metadata, Exception exception) {
+      if (exception != null) {
+        // The first failure wins, later completions are no-ops
+        future.completeExceptionally(exception);
+      }
+      outstanding--;
+      completeIfDone();
+    }
+
+    private synchronized CompletableFuture<Void> seal() {
+      sealed = true;
+      completeIfDone();
+      return future;
+    }
+
+    private void completeIfDone() {
+      if (sealed && outstanding == 0) {
+        future.complete(null);
+      }
+    }
+  }
 
   public BaseKafkaProducer09(boolean sendWriteResponse) {
     this.futureList = new ArrayList<>();
     this.sendWriteResponse = sendWriteResponse;
+    this.acknowledgement = new Acknowledgement();
   }
 
   @Override
@@ -61,7 +100,13 @@ public abstract class BaseKafkaProducer09 implements SdcKafkaProducer {
   public void enqueueMessage(String topic, Object message, Object messageKey) {
     ProducerRecord e = new ProducerRecord<>(topic, messageKey, message);
     // send will place this record in the buffer to be batched later
-    futureList.add(producer.send(e));
+    acknowledgement.sent();
+    try {
+      futureList.add(producer.send(e, acknowledgement));
+    } catch (RuntimeException ex) {
+      acknowledgement.onCompletion(null, ex);
+      throw ex;
+    }
   }
 
   @Override
@@ -96,15 +141,29 @@ public abstract class BaseKafkaProducer09 implements SdcKafkaProducer {
       }
     }
     futureList.clear();
+    acknowledgement = new Acknowledgement();
     if (!failedRecordIndices.isEmpty()) {
       throw new StageException(KafkaErrors.KAFKA_69, failedRecordIndices, failedRecordExceptions);
     }
     return responseRecords;
   }
 
+  /**
+   * Unlike {@link #write(Stage.Context)} this doesn't flush the producer, messages go out as the producer batches them
+   * (batch.size and linger.ms) and the returned future completes once all of them were acknowledged.
+   */
+  @Override
+  public CompletableFuture<Void> writeAsync(Stage.Context context) {
+    CompletableFuture<Void> future = acknowledgement.seal();
+    acknowledgement = new Acknowledgement();
+    futureList.clear();
+    return future;
+  }
+
   @Override
   public void clearMessages() {
     futureList.clear();
+    acknowledgement = new Acknowledgement();
   }
 
   @Override
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.kafka.impl;
+
+import com.streamsets.pipeline.kafka.api.PartitionStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class TestKafkaProducer09Async {
+
+  private static class MockKafkaProducer09 extends KafkaProducer09 {
+    private final MockProducer<Object, byte[]> mockProducer;
+
+    @SuppressWarnings("unchecked")
+    MockKafkaProducer09() {
+      super("localhost:9092", new HashMap<>(), PartitionStrategy.DEFAULT, false, false);
+      mockProducer = new MockProducer(false, null, null);
+    }
+
+    @Override
+    protected Producer<Object, byte[]> createKafkaProducer() {
+      return mockProducer;
+    }
+  }
+
+  @Test
+  public void testWriteAsync() throws Exception {
+    MockKafkaProducer09 producer = new MockKafkaProducer09();
+    producer.init();
+
+    producer.enqueueMessage("topic", new byte[]{1}, "key");
+    producer.enqueueMessage("topic", new byte[]{2}, "key");
+    CompletableFuture<Void> first = producer.writeAsync(null);
+
+    producer.enqueueMessage("topic", new byte[]{3}, "key");
+    CompletableFuture<Void> second = producer.writeAsync(null);
+
+    // nothing was acknowledged yet
+    Assert.assertFalse(first.isDone());
+    Assert.assertFalse(second.isDone());
+
+    producer.mockProducer.completeNext();
+    Assert.assertFalse(first.isDone());
+    producer.mockProducer.completeNext();
+    Assert.assertTrue(first.isDone());
+    Assert.assertFalse(second.isDone());
+
+    producer.mockProducer.completeNext();
+    second.get();
+
+    // nothing enqueued completes right away
+    Assert.assertTrue(producer.writeAsync(null).isDone());
+    producer.destroy();
+  }
+
+  @Test
+  public void testWriteAsyncFailure() throws Exception {
+    MockKafkaProducer09 producer = new MockKafkaProducer09();
+    producer.init();
+
+    producer.enqueueMessage("topic", new byte[]{1}, "key");
+    producer.enqueueMessage("topic", new byte[]{2}, "key");
+    CompletableFuture<Void> future = producer.writeAsync(null);
+
+    producer.mockProducer.errorNext(new RuntimeException("broker down"));
+    Assert.assertTrue(future.isCompletedExceptionally());
+    producer.mockProducer.completeNext();
+
+    try {
+      future.get();
+      Assert.fail();
+    } catch (ExecutionException ex) {
+      Assert.assertEquals("broker down", ex.getCause().getMessage());
+    }
+    producer.destroy();
+  }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.inference;
+
+import com.streamsets.pipeline.api.impl.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces inference requests of concurrent callers, typically the pipeline runners sharing a model, into
+ * micro-batches of up to a maximum number of rows.
+ *
+ * There is no dedicated thread and no artificial delay: the first caller that finds the model idle runs the queued
+ * requests while the others wait for their results, so requests arriving during an inference are batched together
+ * in the next one. A single request larger than the maximum is run on its own.
+ *
+ * @param <I> Input of a single request, holding one or more rows
+ * @param <O> Output of a single request
+ */
+public final class MicroBatchScheduler<I, O> {
+
+  @FunctionalInterface
+  public interface BatchFunction<I, O> {
+    /**
+     * Runs a single inference on the given requests.
+     * @return One output per request, in the same order
+     */
+    List<O> apply(List<I> inputs) throws Exception;
+  }
+
+  public static final class Result<O> {
+    private final O output;
+    private final int microBatchRows;
+    private final long inferenceNanos;
+
+    private Result(O output, int microBatchRows, long inferenceNanos) {
+      this.output = output;
+      this.microBatchRows = microBatchRows;
+      this.inferenceNanos = inferenceNanos;
+    }
+
+    public O getOutput() {
+      return output;
+    }
+
+    /**
+     * Number of rows of the micro-batch that served the request.
+     */
+    public int getMicroBatchRows() {
+      return microBatchRows;
+    }
+
+    /**
+     * Duration of the inference that served the request, without the time spent waiting for it.
+     */
+    public long getInferenceNanos() {
+      return inferenceNanos;
+    }
+  }
+
+  private static final class Request<I, O> {
+    private final I input;
+    private final int rows;
+    private final CompletableFuture<Result<O>> result = new CompletableFuture<>();
+
+    private Request(I input, int rows) {
+      this.input = input;
+      this.rows = rows;
+    }
+  }
+
+  private final int maxBatchRows;
+  private final BatchFunction<I, O> batchFunction;
+  private final Queue<Request<I, O>> queue = new ConcurrentLinkedQueue<>();
+  private final Lock inferenceLock = new ReentrantLock();
+
+  public MicroBatchScheduler(int maxBatchRows, BatchFunction<I, O> batchFunction) {
+    Utils.checkArgument(maxBatchRows > 0, "maxBatchRows must be greater than zero");
+    this.maxBatchRows = maxBatchRows;
+    this.batchFunction = Utils.checkNotNull(batchFunction, "batchFunction");
+  }
+
+  public int getMaxBatchRows() {
+    return maxBatchRows;
+  }
+
+  /**
+   * Runs the input as part of the next micro-batch and waits for its output.
+   * @param input Input of the request
+   * @param rows Number of rows in the input
+   * @throws Exception The exception thrown by the batch function for the micro-batch containing the request
+   */
+  public Result<O> submit(I input, int rows) throws Exception {
+    Request<I, O> request = new Request<>(input, rows);
+    queue.add(request);
+    // Requests queued while another caller held the lock are picked up by that caller once it releases the lock and
+    // sees them in the queue, so no request is left behind.
+    while (!queue.isEmpty() && inferenceLock.tryLock()) {
+      try {
+        while (!queue.isEmpty()) {
+          runMicroBatch();
+        }
+      } finally {
+        inferenceLock.unlock();
+      }
+    }
+    try {
+      return request.result.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw ex;
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ex;
+    }
+  }
+
+  int getQueuedRequests() {
+    return queue.size();
+  }
+
+  private void runMicroBatch() {
+    List<Request<I, O>> requests = new ArrayList<>();
+    List<I> inputs = new ArrayList<>();
+    int rows = 0;
+    Request<I, O> next = queue.peek();
+    while (next != null && (requests.isEmpty() || rows + next.rows <= maxBatchRows)) {
+      queue.poll();
+      requests.add(next);
+      inputs.add(next.input);
+      rows += next.rows;
+      next = queue.peek();
+    }
+
+    long start = System.nanoTime();
+    try {
+      List<O> outputs = batchFunction.apply(inputs);
+      Utils.checkState(outputs.size() == requests.size(), Utils.format(
+          "Expected {} outputs, got {}", requests.size(), outputs.size()));
+      long inferenceNanos = System.nanoTime() - start;
+      for (int i = 0; i < requests.size(); i++) {
+        requests.get(i).result.complete(new Result<>(outputs.get(i), rows, inferenceNanos));
+      }
+    } catch (Throwable ex) {
+      // Errors too (e.g. from native model code), otherwise the other callers of the micro-batch would wait forever
+      requests.forEach(request -> request.result.completeExceptionally(ex));
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.inference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference counted registry of loaded models. Stage instances that point to the same model, whether they belong to
+ * different pipeline runners or different pipelines, share a single loaded copy. The model is closed once the last
+ * stage instance releases it.
+ *
+ * Registries are meant to be held in a static field of the stage library, so sharing is scoped to the stage library
+ * class loader.
+ */
+public final class SharedModelRegistry<K, M extends AutoCloseable> {
+  private static final Logger LOG = LoggerFactory.getLogger(SharedModelRegistry.class);
+
+  @FunctionalInterface
+  public interface Loader<K, M> {
+    M load(K key) throws Exception;
+  }
+
+  private static final class Entry<M> {
+    private final M model;
+    private int references;
+
+    private Entry(M model) {
+      this.model = model;
+    }
+  }
+
+  private final Map<K, Entry<M>> models = new HashMap<>();
+
+  /**
+   * Returns the model registered for the key, loading it with the given loader if it is not loaded yet. Every call
+   * must be paired with a call to {@link #release(Object)}.
+   */
+  public synchronized M acquire(K key, Loader<K, M> loader) throws Exception {
+    Entry<M> entry = models.get(key);
+    if (entry == null) {
+      entry = new Entry<>(loader.load(key));
+      models.put(key, entry);
+      LOG.debug("Loaded model '{}'", key);
+    }
+    entry.references++;
+    return entry.model;
+  }
+
+  /**
+   * Releases a reference acquired with {@link #acquire(Object, Loader)}, closing the model if it was the last one.
+   */
+  public synchronized void release(K key) {
+    Entry<M> entry = models.get(key);
+    if (entry != null && --entry.references == 0) {
+      models.remove(key);
+      try {
+        entry.model.close();
+        LOG.debug("Closed model '{}'", key);
+      } catch (Exception ex) {
+        LOG.warn("Error closing model '{}': {}", key, ex.toString(), ex);
+      }
+    }
+  }
+
+  synchronized int getReferenceCount(K key) {
+    Entry<M> entry = models.get(key);
+    return entry == null ? 0 : entry.references;
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.inference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class TestMicroBatchScheduler {
+
+  @Test
+  public void testSingleRequest() throws Exception {
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    MicroBatchScheduler<Integer, Integer> scheduler = new MicroBatchScheduler<>(10, inputs -> {
+      batchSizes.add(inputs.size());
+      return inputs.stream().map(i -> i * 2).collect(Collectors.toList());
+    });
+
+    MicroBatchScheduler.Result<Integer> result = scheduler.submit(21, 3);
+    Assert.assertEquals(42, (int) result.getOutput());
+    Assert.assertEquals(3, result.getMicroBatchRows());
+    Assert.assertEquals(Collections.singletonList(1), batchSizes);
+  }
+
+  @Test
+  public void testConcurrentRequestsAreCoalesced() throws Exception {
+    CountDownLatch firstInferenceStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstInference = new CountDownLatch(1);
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    MicroBatchScheduler<Integer, Integer> scheduler = new MicroBatchScheduler<>(100, inputs -> {
+      if (batchSizes.isEmpty()) {
+        firstInferenceStarted.countDown();
+        releaseFirstInference.await();
+      }
+      batchSizes.add(inputs.size());
+      return inputs.stream().map(i -> i * 2).collect(Collectors.toList());
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+    try {
+      Future<MicroBatchScheduler.Result<Integer>> first = executor.submit(() -> scheduler.submit(0, 1));
+      Assert.assertTrue(firstInferenceStarted.await(10, TimeUnit.SECONDS));
+
+      // these arrive while the model is busy and are served by a single inference
+      List<Future<MicroBatchScheduler.Result<Integer>>> waiting = new ArrayList<>();
+      for (int i = 1; i <= 4; i++) {
+        int input = i;
+        waiting.add(executor.submit(() -> scheduler.submit(input, 1)));
+      }
+      long deadline = System.currentTimeMillis() + 10000;
+      while (scheduler.getQueuedRequests() < 4 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      releaseFirstInference.countDown();
+
+      Assert.assertEquals(0, (int) first.get(10, TimeUnit.SECONDS).getOutput());
+      for (int i = 0; i < waiting.size(); i++) {
+        MicroBatchScheduler.Result<Integer> result = waiting.get(i).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals((i + 1) * 2, (int) result.getOutput());
+      }
+      Assert.assertEquals(2, batchSizes.size());
+      Assert.assertEquals(4, (int) batchSizes.get(1));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testMicroBatchesAreCappedByRows() throws Exception {
+    List<Integer> batchRows = new ArrayList<>();
+    MicroBatchScheduler<Integer, Integer> scheduler = new MicroBatchScheduler<>(5, inputs -> {
+      batchRows.add(inputs.stream().mapToInt(Integer::intValue).sum());
+      return inputs;
+    });
+
+    // a request above the maximum still runs, on its own
+    MicroBatchScheduler.Result<Integer> result = scheduler.submit(8, 8);
+    Assert.assertEquals(8, result.getMicroBatchRows());
+    Assert.assertEquals(Collections.singletonList(8), batchRows);
+  }
+
+  @Test
+  public void testFailureIsReportedToCaller() throws Exception {
+    MicroBatchScheduler<Integer, Integer> scheduler = new MicroBatchScheduler<>(10, inputs -> {
+      if (inputs.contains(-1)) {
+        throw new IllegalArgumentException("bad input");
+      }
+      return inputs;
+    });
+
+    try {
+      scheduler.submit(-1, 1);
+      Assert.fail();
+    } catch (IllegalArgumentException ex) {
+      Assert.assertEquals("bad input", ex.getMessage());
+    }
+
+    // the scheduler is still usable
+    Assert.assertEquals(1, (int) scheduler.submit(1, 1).getOutput());
+  }
+
+  @Test
+  public void testErrorIsReportedToAllCallers() throws Exception {
+    CountDownLatch firstInferenceStarted = new CountDownLatch(1);
+    CountDownLatch releaseFirstInference = new CountDownLatch(1);
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    MicroBatchScheduler<Integer, Integer> scheduler = new MicroBatchScheduler<>(100, inputs -> {
+      if (batchSizes.isEmpty()) {
+        batchSizes.add(inputs.size());
+        firstInferenceStarted.countDown();
+        releaseFirstInference.await();
+        return inputs;
+      }
+      batchSizes.add(inputs.size());
+      throw new UnsatisfiedLinkError("native failure");
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<MicroBatchScheduler.Result<Integer>> first = executor.submit(() -> scheduler.submit(0, 1));
+      Assert.assertTrue(firstInferenceStarted.await(10, TimeUnit.SECONDS));
+      List<Future<MicroBatchScheduler.Result<Integer>>> waiting = new ArrayList<>();
+      for (int i = 1; i <= 3; i++) {
+        int input = i;
+        waiting.add(executor.submit(() -> scheduler.submit(input, 1)));
+      }
+      long deadline = System.currentTimeMillis() + 10000;
+      while (scheduler.getQueuedRequests() < 3 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      releaseFirstInference.countDown();
+
+      Assert.assertEquals(0, (int) first.get(10, TimeUnit.SECONDS).getOutput());
+      // all the requests of the failed micro-batch complete, none is left waiting
+      for (Future<MicroBatchScheduler.Result<Integer>> future : waiting) {
+        try {
+          future.get(10, TimeUnit.SECONDS);
+          Assert.fail();
+        } catch (ExecutionException ex) {
+          Assert.assertTrue(ex.getCause() instanceof UnsatisfiedLinkError);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.lib.inference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestSharedModelRegistry {
+
+  private static class Model implements AutoCloseable {
+    private boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Test
+  public void testModelSharedUntilLastRelease() throws Exception {
+    SharedModelRegistry<String, Model> registry = new SharedModelRegistry<>();
+    AtomicInteger loads = new AtomicInteger();
+    SharedModelRegistry.Loader<String, Model> loader = key -> {
+      loads.incrementAndGet();
+      return new Model();
+    };
+
+    Model first = registry.acquire("model", loader);
+    Model second = registry.acquire("model", loader);
+    Assert.assertSame(first, second);
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(2, registry.getReferenceCount("model"));
+
+    registry.release("model");
+    Assert.assertFalse(first.closed);
+    registry.release("model");
+    Assert.assertTrue(first.closed);
+    Assert.assertEquals(0, registry.getReferenceCount("model"));
+
+    // released models are loaded again
+    Assert.assertNotSame(first, registry.acquire("model", loader));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testModelsAreKeyed() throws Exception {
+    SharedModelRegistry<String, Model> registry = new SharedModelRegistry<>();
+    Model a = registry.acquire("a", key -> new Model());
+    Model b = registry.acquire("b", key -> new Model());
+    Assert.assertNotSame(a, b);
+
+    registry.release("a");
+    Assert.assertTrue(a.closed);
+    Assert.assertFalse(b.closed);
+  }
+
+  @Test
+  public void testFailedLoadIsNotRegistered() throws Exception {
+    SharedModelRegistry<String, Model> registry = new SharedModelRegistry<>();
+    try {
+      registry.acquire("model", key -> {
+        throw new IllegalStateException("corrupt");
+      });
+      Assert.fail();
+    } catch (IllegalStateException ex) {
+      Assert.assertEquals("corrupt", ex.getMessage());
+    }
+    Assert.assertEquals(0, registry.getReferenceCount("model"));
+  }
+}
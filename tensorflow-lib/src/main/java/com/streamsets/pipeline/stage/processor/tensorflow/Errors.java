@@ -21,6 +21,10 @@ public enum Errors implements ErrorCode {
   TENSOR_FLOW_01("Model Path cannot be empty : {}"),
   TENSOR_FLOW_02("Error loading saved model : {}"),
   TENSOR_FLOW_03("The record '{}' does not include the field '{}'."),
+  TENSOR_FLOW_04("Error evaluating micro-batch : {}"),
+  TENSOR_FLOW_05("The record '{}' could not be converted to input tensors : {}"),
+  TENSOR_FLOW_06("Output '{}' has {} rows for {} input records. Micro-batch inference requires a model that " +
+      "evaluates each input row independently."),
   ;
 
   private final String message;
@@ -102,4 +102,35 @@ public class TensorFlowConfigBean {
   )
   @FieldSelectorModel(singleValued = true)
   public String outputField;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.BOOLEAN,
+      defaultValue = "false",
+      label = "Micro-batch Inference",
+      description = "Evaluates records in micro-batches with one model run per micro-batch instead of one per " +
+          "record. Pipeline runners using the same model share micro-batches. Select only when the model " +
+          "evaluates each input row independently.",
+      displayPosition = 70,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "TENSOR_FLOW",
+      dependsOn = "useEntireBatch",
+      triggeredByValue = "false"
+  )
+  public boolean microBatching = false;
+
+  @ConfigDef(
+      required = true,
+      type = ConfigDef.Type.NUMBER,
+      defaultValue = "1000",
+      label = "Max Micro-batch Size",
+      description = "Maximum number of records evaluated in a single model run",
+      displayPosition = 80,
+      displayMode = ConfigDef.DisplayMode.ADVANCED,
+      group = "TENSOR_FLOW",
+      min = 1,
+      dependsOn = "microBatching",
+      triggeredByValue = "true"
+  )
+  public int maxMicroBatchSize = 1000;
 }
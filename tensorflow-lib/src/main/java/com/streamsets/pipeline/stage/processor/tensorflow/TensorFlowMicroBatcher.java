@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.tensorflow;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.StageException;
+import com.streamsets.pipeline.stage.processor.tensorflow.typesupport.TensorDataTypeSupport;
+import com.streamsets.pipeline.stage.processor.tensorflow.typesupport.TensorTypeSupporter;
+import org.tensorflow.Session;
+import org.tensorflow.Tensor;
+
+import java.nio.Buffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs micro-batches of records from one or more pipeline runners through a single session run. Input tensors of
+ * every request are concatenated into reusable direct buffers, and outputs are split back per record along the first
+ * dimension. Only used by the micro-batch scheduler, which never calls {@link #run(List)} concurrently.
+ */
+final class TensorFlowMicroBatcher {
+
+  /**
+   * Input tensors of the records of one request, one flipped buffer per input config of shape [rows, width].
+   */
+  static final class Input {
+    private final List<Integer> widths;
+    private final List<Buffer> buffers;
+    private final int rows;
+
+    Input(List<Integer> widths, List<Buffer> buffers, int rows) {
+      this.widths = widths;
+      this.buffers = buffers;
+      this.rows = rows;
+    }
+
+    int getRows() {
+      return rows;
+    }
+  }
+
+  private final Session session;
+  private final List<TensorInputConfig> inputConfigs;
+  private final List<TensorConfig> outputConfigs;
+  private final List<Buffer> directBuffers = new ArrayList<>();
+
+  TensorFlowMicroBatcher(Session session, List<TensorInputConfig> inputConfigs, List<TensorConfig> outputConfigs) {
+    this.session = session;
+    this.inputConfigs = inputConfigs;
+    this.outputConfigs = outputConfigs;
+    inputConfigs.forEach(inputConfig -> directBuffers.add(null));
+  }
+
+  /**
+   * @return For every input, the output fields of each of its records
+   */
+  List<List<LinkedHashMap<String, Field>>> run(List<Input> inputs) {
+    List<List<LinkedHashMap<String, Field>>> outputs = new ArrayList<>(inputs.size());
+    inputs.forEach(input -> outputs.add(null));
+
+    // Records whose field expressions resolve to a different number of fields cannot share tensors.
+    Map<List<Integer>, List<Integer>> inputsByWidths = new LinkedHashMap<>();
+    for (int i = 0; i < inputs.size(); i++) {
+      inputsByWidths.computeIfAbsent(inputs.get(i).widths, k -> new ArrayList<>()).add(i);
+    }
+    for (Map.Entry<List<Integer>, List<Integer>> entry : inputsByWidths.entrySet()) {
+      List<Input> group = new ArrayList<>();
+      entry.getValue().forEach(i -> group.add(inputs.get(i)));
+      List<List<LinkedHashMap<String, Field>>> groupOutputs = run(entry.getKey(), group);
+      for (int i = 0; i < group.size(); i++) {
+        outputs.set(entry.getValue().get(i), groupOutputs.get(i));
+      }
+    }
+    return outputs;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<List<LinkedHashMap<String, Field>>> run(List<Integer> widths, List<Input> inputs) {
+    int rows = inputs.stream().mapToInt(Input::getRows).sum();
+    Session.Runner runner = session.runner();
+    List<Tensor> tensors = new ArrayList<>();
+    try {
+      for (int i = 0; i < inputConfigs.size(); i++) {
+        TensorInputConfig inputConfig = inputConfigs.get(i);
+        TensorDataTypeSupport dtSupport =
+            TensorTypeSupporter.INSTANCE.getTensorDataTypeSupport(inputConfig.tensorDataType);
+        int width = widths.get(i);
+        Buffer buffer = getDirectBuffer(i, dtSupport, rows * width);
+        for (Input input : inputs) {
+          dtSupport.putBuffer(buffer, input.buffers.get(i));
+        }
+        buffer.flip();
+        Tensor tensor = dtSupport.createTensor(new long[]{rows, width}, buffer);
+        tensors.add(tensor);
+        runner.feed(inputConfig.operation, inputConfig.index, tensor);
+      }
+      for (TensorConfig outputConfig : outputConfigs) {
+        runner.fetch(outputConfig.operation, outputConfig.index);
+      }
+
+      List<Tensor<?>> tensorOutput = runner.run();
+      List<List<Field>> rowFieldsPerOutput = new ArrayList<>(outputConfigs.size());
+      for (int i = 0; i < tensorOutput.size(); i++) {
+        try (Tensor t = tensorOutput.get(i)) {
+          TensorDataTypeSupport dtSupport = TensorTypeSupporter.INSTANCE.getTensorDataTypeSupport(t.dataType());
+          List<Field> rowFields = dtSupport.createRowFieldsFromTensor(t);
+          if (rowFields.size() != rows) {
+            throw new StageException(Errors.TENSOR_FLOW_06, outputKey(outputConfigs.get(i)), rowFields.size(), rows);
+          }
+          rowFieldsPerOutput.add(rowFields);
+        }
+      }
+
+      List<List<LinkedHashMap<String, Field>>> outputs = new ArrayList<>(inputs.size());
+      int row = 0;
+      for (Input input : inputs) {
+        List<LinkedHashMap<String, Field>> recordOutputs = new ArrayList<>(input.rows);
+        for (int r = 0; r < input.rows; r++, row++) {
+          LinkedHashMap<String, Field> outputTensorFieldMap = new LinkedHashMap<>();
+          for (int i = 0; i < outputConfigs.size(); i++) {
+            outputTensorFieldMap.put(outputKey(outputConfigs.get(i)), rowFieldsPerOutput.get(i).get(row));
+          }
+          recordOutputs.add(outputTensorFieldMap);
+        }
+        outputs.add(recordOutputs);
+      }
+      return outputs;
+    } finally {
+      tensors.forEach(Tensor::close);
+    }
+  }
+
+  private Buffer getDirectBuffer(int index, TensorDataTypeSupport dtSupport, int capacity) {
+    Buffer buffer = directBuffers.get(index);
+    if (buffer == null || buffer.capacity() < capacity) {
+      buffer = dtSupport.allocateDirectBuffer(capacity);
+      directBuffers.set(index, buffer);
+    }
+    buffer.clear();
+    buffer.limit(capacity);
+    return buffer;
+  }
+
+  static String outputKey(TensorConfig outputConfig) {
+    return outputConfig.operation + "_" + outputConfig.index;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2020 StreamSets Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.streamsets.pipeline.stage.processor.tensorflow;
+
+import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.lib.inference.MicroBatchScheduler;
+import org.tensorflow.SavedModelBundle;
+import org.tensorflow.Session;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A saved model shared by all the stage instances that load it. Sessions support concurrent runs, micro-batches are
+ * coalesced per set of input and output tensors.
+ */
+final class TensorFlowModel implements AutoCloseable {
+
+  private final SavedModelBundle savedModel;
+  private final ConcurrentMap<String, MicroBatchScheduler<TensorFlowMicroBatcher.Input,
+      List<LinkedHashMap<String, Field>>>> schedulers = new ConcurrentHashMap<>();
+
+  TensorFlowModel(SavedModelBundle savedModel) {
+    this.savedModel = savedModel;
+  }
+
+  Session getSession() {
+    return savedModel.session();
+  }
+
+  MicroBatchScheduler<TensorFlowMicroBatcher.Input, List<LinkedHashMap<String, Field>>> getScheduler(
+      List<TensorInputConfig> inputConfigs,
+      List<TensorConfig> outputConfigs,
+      int maxMicroBatchSize
+  ) {
+    StringBuilder signature = new StringBuilder();
+    inputConfigs.forEach(inputConfig -> signature.append(inputConfig.operation).append(':')
+        .append(inputConfig.index).append(':').append(inputConfig.tensorDataType).append(','));
+    signature.append("->");
+    outputConfigs.forEach(outputConfig -> signature.append(TensorFlowMicroBatcher.outputKey(outputConfig)).append(','));
+    signature.append('/').append(maxMicroBatchSize);
+
+    return schedulers.computeIfAbsent(signature.toString(), key -> {
+      TensorFlowMicroBatcher microBatcher = new TensorFlowMicroBatcher(getSession(), inputConfigs, outputConfigs);
+      return new MicroBatchScheduler<>(maxMicroBatchSize, microBatcher::run);
+    });
+  }
+
+  @Override
+  public void close() {
+    savedModel.close();
+  }
+}
@@ -15,6 +15,8 @@
  */
 package com.streamsets.pipeline.stage.processor.tensorflow;
 
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
 import com.google.common.base.Strings;
 import com.google.common.collect.Iterators;
 import com.streamsets.pipeline.api.Batch;
@@ -26,6 +28,8 @@ import com.streamsets.pipeline.api.base.OnRecordErrorException;
 import com.streamsets.pipeline.api.base.SingleLaneProcessor;
 import com.streamsets.pipeline.api.el.ELEval;
 import com.streamsets.pipeline.api.el.ELVars;
+import com.streamsets.pipeline.lib.inference.MicroBatchScheduler;
+import com.streamsets.pipeline.lib.inference.SharedModelRegistry;
 import com.streamsets.pipeline.lib.util.FieldPathExpressionUtil;
 import com.streamsets.pipeline.stage.common.DefaultErrorRecordHandler;
 import com.streamsets.pipeline.stage.common.ErrorRecordHandler;
@@ -35,7 +39,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.tensorflow.SavedModelBundle;
 import org.tensorflow.Session;
 import org.tensorflow.Tensor;
-import org.tensorflow.TensorFlowException;
 
 import java.io.File;
 import java.nio.Buffer;
@@ -45,13 +48,20 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public final class TensorFlowProcessor extends SingleLaneProcessor {
 
+  // Shared by all the stage instances of the stage library, across pipeline runners and pipelines
+  private static final SharedModelRegistry<String, TensorFlowModel> MODEL_REGISTRY = new SharedModelRegistry<>();
+
   private final TensorFlowConfigBean conf;
-  private SavedModelBundle savedModel;
+  private String modelKey;
   private Session session;
+  private MicroBatchScheduler<TensorFlowMicroBatcher.Input, List<LinkedHashMap<String, Field>>> scheduler;
+  private Timer inferenceLatency;
+  private Histogram microBatchFillRatio;
   private Map<Pair<String, Integer>, TensorInputConfig> inputConfigMap = new LinkedHashMap<>();
   private ErrorRecordHandler errorRecordHandler;
   private ELEval fieldPathEval;
@@ -64,8 +74,7 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
   @Override
   protected List<ConfigIssue> init() {
     List<ConfigIssue> issues = super.init();
-    String[] modelTags = new String[conf.modelTags.size()];
-    modelTags = conf.modelTags.toArray(modelTags);
+    String[] modelTags = conf.modelTags.toArray(new String[0]);
 
     if (Strings.isNullOrEmpty(conf.modelPath)) {
       issues.add(getContext().createConfigIssue(
@@ -76,13 +85,17 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
       return issues;
     }
 
+    File exportedModelDir = new File(conf.modelPath);
+    if (!exportedModelDir.isAbsolute()) {
+      exportedModelDir = new File(getContext().getResourcesDirectory(), conf.modelPath).getAbsoluteFile();
+    }
+    String exportDir = exportedModelDir.getAbsolutePath();
+    String key = exportDir + ":" + String.join(",", conf.modelTags);
+    TensorFlowModel model;
     try {
-      File exportedModelDir = new File(conf.modelPath);
-      if (!exportedModelDir.isAbsolute()) {
-        exportedModelDir = new File(getContext().getResourcesDirectory(), conf.modelPath).getAbsoluteFile();
-      }
-      this.savedModel = SavedModelBundle.load(exportedModelDir.getAbsolutePath(), modelTags);
-    } catch (TensorFlowException ex) {
+      model = MODEL_REGISTRY.acquire(key, k -> new TensorFlowModel(SavedModelBundle.load(exportDir, modelTags)));
+      modelKey = key;
+    } catch (Exception ex) {
       issues.add(getContext().createConfigIssue(
           Groups.TENSOR_FLOW.name(),
           TensorFlowConfigBean.MODEL_PATH_CONFIG,
@@ -92,7 +105,7 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
       return issues;
     }
 
-    this.session = this.savedModel.session();
+    this.session = model.getSession();
     this.conf.inputConfigs.forEach(inputConfig -> {
           Pair<String, Integer> key = Pair.of(inputConfig.operation, inputConfig.index);
           inputConfigMap.put(key, inputConfig);
@@ -104,6 +117,12 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
 
     errorRecordHandler = new DefaultErrorRecordHandler(getContext());
 
+    inferenceLatency = getContext().createTimer("Inference Latency");
+    if (!conf.useEntireBatch && conf.microBatching) {
+      microBatchFillRatio = getContext().createHistogram("Micro-batch Fill Ratio");
+      scheduler = model.getScheduler(conf.inputConfigs, conf.outputConfigs, conf.maxMicroBatchSize);
+    }
+
     return issues;
   }
 
@@ -111,6 +130,8 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
   public void process(Batch batch, SingleLaneBatchMaker singleLaneBatchMaker) throws StageException {
     if (conf.useEntireBatch) {
       processUseEntireBatch(batch, singleLaneBatchMaker);
+    } else if (conf.microBatching) {
+      processUseMicroBatches(batch, singleLaneBatchMaker);
     } else {
       processUseRecordByRecord(batch, singleLaneBatchMaker);
     }
@@ -133,7 +154,9 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
           runner.fetch(outputConfig.operation, outputConfig.index);
         }
 
+        Timer.Context inferenceTimer = inferenceLatency.time();
         List<Tensor<?>> tensorOutput = runner.run();
+        inferenceTimer.stop();
         LinkedHashMap<String, Field> outputTensorFieldMap = createOutputFieldValue(tensorOutput);
         EventRecord eventRecord = TensorFlowEvents.TENSOR_FLOW_OUTPUT_CREATOR.create(getContext()).create();
         eventRecord.set(Field.createListMap(outputTensorFieldMap));
@@ -176,7 +199,9 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
           runner.fetch(outputConfig.operation, outputConfig.index);
         }
 
+        Timer.Context inferenceTimer = inferenceLatency.time();
         List<Tensor<?>> tensorOutput = runner.run();
+        inferenceTimer.stop();
         LinkedHashMap<String, Field> outputTensorFieldMap = createOutputFieldValue(tensorOutput);
         record.set(conf.outputField, Field.create(outputTensorFieldMap));
         singleLaneBatchMaker.addRecord(record);
@@ -187,6 +212,88 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
     }
   }
 
+  private void processUseMicroBatches(Batch batch, SingleLaneBatchMaker singleLaneBatchMaker) throws StageException {
+    // Records can only share input tensors if their field expressions resolve to the same number of fields
+    Map<List<Integer>, List<Pair<Record, List<List<String>>>>> recordsByWidths = new LinkedHashMap<>();
+    Iterator<Record> it = batch.getRecords();
+    while (it.hasNext()) {
+      Record record = it.next();
+      setInputConfigFields(record);
+      List<Integer> widths = new ArrayList<>(conf.inputConfigs.size());
+      List<List<String>> fields = new ArrayList<>(conf.inputConfigs.size());
+      for (TensorInputConfig inputConfig : conf.inputConfigs) {
+        widths.add(inputConfig.getFields().size());
+        fields.add(inputConfig.getFields());
+      }
+      recordsByWidths.computeIfAbsent(widths, k -> new ArrayList<>()).add(Pair.of(record, fields));
+    }
+
+    for (Map.Entry<List<Integer>, List<Pair<Record, List<List<String>>>>> entry : recordsByWidths.entrySet()) {
+      evaluateMicroBatch(entry.getKey(), entry.getValue(), singleLaneBatchMaker);
+    }
+  }
+
+  private void evaluateMicroBatch(
+      List<Integer> widths,
+      List<Pair<Record, List<List<String>>>> recordFields,
+      SingleLaneBatchMaker singleLaneBatchMaker
+  ) throws StageException {
+    List<TensorDataTypeSupport> dtSupports = new ArrayList<>(widths.size());
+    List<Buffer> buffers = new ArrayList<>(widths.size());
+    for (int i = 0; i < widths.size(); i++) {
+      TensorDataTypeSupport dtSupport =
+          TensorTypeSupporter.INSTANCE.getTensorDataTypeSupport(conf.inputConfigs.get(i).tensorDataType);
+      dtSupports.add(dtSupport);
+      buffers.add(dtSupport.allocateBuffer(new long[]{recordFields.size(), widths.get(i)}));
+    }
+
+    List<Record> records = new ArrayList<>(recordFields.size());
+    int[] positions = new int[buffers.size()];
+    for (Pair<Record, List<List<String>>> recordField : recordFields) {
+      Record record = recordField.getLeft();
+      for (int i = 0; i < buffers.size(); i++) {
+        positions[i] = buffers.get(i).position();
+      }
+      try {
+        for (int i = 0; i < buffers.size(); i++) {
+          writeRecord(record, recordField.getRight().get(i), buffers.get(i), dtSupports.get(i));
+        }
+        records.add(record);
+      } catch (OnRecordErrorException | IllegalStateException ex) {
+        // drop the values written for the record so far
+        for (int i = 0; i < buffers.size(); i++) {
+          buffers.get(i).position(positions[i]);
+        }
+        errorRecordHandler.onError(ex instanceof OnRecordErrorException ? (OnRecordErrorException) ex :
+            new OnRecordErrorException(record, Errors.TENSOR_FLOW_05, record.getHeader().getSourceId(), ex.toString()));
+      }
+    }
+    if (records.isEmpty()) {
+      return;
+    }
+    buffers.forEach(Buffer::flip);
+
+    MicroBatchScheduler.Result<List<LinkedHashMap<String, Field>>> result;
+    try {
+      result = scheduler.submit(new TensorFlowMicroBatcher.Input(widths, buffers, records.size()), records.size());
+    } catch (StageException ex) {
+      errorRecordHandler.onError(records, ex);
+      return;
+    } catch (Exception ex) {
+      errorRecordHandler.onError(records, new StageException(Errors.TENSOR_FLOW_04, ex.toString(), ex));
+      return;
+    }
+    inferenceLatency.update(result.getInferenceNanos(), TimeUnit.NANOSECONDS);
+    microBatchFillRatio.update(100L * result.getMicroBatchRows() / scheduler.getMaxBatchRows());
+
+    List<LinkedHashMap<String, Field>> outputs = result.getOutput();
+    for (int i = 0; i < records.size(); i++) {
+      Record record = records.get(i);
+      record.set(conf.outputField, Field.create(outputs.get(i)));
+      singleLaneBatchMaker.addRecord(record);
+    }
+  }
+
   private void setInputConfigFields(Record record) {
     Set<String> fieldPaths = record.getEscapedFieldPaths();
     for (TensorInputConfig inputConfig : conf.inputConfigs) {
@@ -319,8 +426,9 @@ public final class TensorFlowProcessor extends SingleLaneProcessor {
 
   @Override
   public void destroy() {
-    if (this.savedModel != null) {
-      this.savedModel.close();
+    if (modelKey != null) {
+      MODEL_REGISTRY.release(modelKey);
+      modelKey = null;
     }
   }
 }
@@ -20,6 +20,7 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.tensorflow.Tensor;
 
 import java.nio.Buffer;
+import java.util.ArrayList;
 import java.util.List;
 
 abstract class AbstractTensorDataTypeSupport<BC extends Buffer, JC> implements TensorDataTypeSupport<BC, JC> {
@@ -43,7 +44,39 @@ abstract class AbstractTensorDataTypeSupport<BC extends Buffer, JC> implements T
     return createPrimitiveField(tensor);
   }
 
-  abstract List<Field> createListField(Tensor<JC> tensor, BC buffer);
+  @Override
+  public List<Field> createRowFieldsFromTensor(Tensor<JC> tensor) {
+    long[] shape = tensor.shape();
+    Utils.checkState(shape.length > 0, "Not a batched tensor");
+    int rows = (int) shape[0];
+    List<Field> rowFields = new ArrayList<>(rows);
+    if (rows > 0) {
+      BC buffer = allocateBuffer(shape);
+      writeTo(tensor, buffer);
+      int rowSize = buffer.capacity() / rows;
+      for (int row = 0; row < rows; row++) {
+        List<Field> fields = new ArrayList<>(rowSize);
+        for (int i = row * rowSize; i < (row + 1) * rowSize; i++) {
+          fields.add(createElementField(buffer, i));
+        }
+        rowFields.add(Field.create(Field.Type.LIST, fields));
+      }
+    }
+    return rowFields;
+  }
+
+  List<Field> createListField(Tensor<JC> tensor, BC buffer) {
+    writeTo(tensor, buffer);
+    List<Field> fields = new ArrayList<>(buffer.capacity());
+    for (int i = 0; i < buffer.capacity(); i++) {
+      fields.add(createElementField(buffer, i));
+    }
+    return fields;
+  }
+
+  abstract void writeTo(Tensor<JC> tensor, BC buffer);
+
+  abstract Field createElementField(BC buffer, int index);
 
   abstract Field createPrimitiveField(Tensor<JC> tensor);
 
@@ -20,9 +20,9 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.tensorflow.DataType;
 import org.tensorflow.Tensor;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.DoubleBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 final class DoubleTensorTypeSupport extends AbstractTensorDataTypeSupport<DoubleBuffer, Double> {
 
@@ -31,6 +31,16 @@ final class DoubleTensorTypeSupport extends AbstractTensorDataTypeSupport<Double
     return DoubleBuffer.allocate(calculateCapacityForShape(shape));
   }
 
+  @Override
+  public DoubleBuffer allocateDirectBuffer(int capacity) {
+    return ByteBuffer.allocateDirect(capacity * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+  }
+
+  @Override
+  public void putBuffer(DoubleBuffer target, DoubleBuffer source) {
+    target.put(source);
+  }
+
   @Override
   public Tensor<Double> createTensor(long[] shape, DoubleBuffer buffer) {
     return Tensor.create(shape, buffer);
@@ -46,14 +56,13 @@ final class DoubleTensorTypeSupport extends AbstractTensorDataTypeSupport<Double
   }
 
   @Override
-  public List<Field> createListField(Tensor<Double> tensor, DoubleBuffer doubleBuffer) {
-    List<Field> fields = new ArrayList<>();
-    tensor.writeTo(doubleBuffer);
-    double[] doubles = doubleBuffer.array();
-    for (double aDouble : doubles) {
-      fields.add(Field.create(aDouble));
-    }
-    return fields;
+  void writeTo(Tensor<Double> tensor, DoubleBuffer buffer) {
+    tensor.writeTo(buffer);
+  }
+
+  @Override
+  Field createElementField(DoubleBuffer buffer, int index) {
+    return Field.create(buffer.get(index));
   }
 
   @Override
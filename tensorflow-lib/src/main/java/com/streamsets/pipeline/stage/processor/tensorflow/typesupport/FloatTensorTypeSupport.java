@@ -20,9 +20,9 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.tensorflow.DataType;
 import org.tensorflow.Tensor;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 final class FloatTensorTypeSupport extends AbstractTensorDataTypeSupport<FloatBuffer, Float> {
   @Override
@@ -30,6 +30,16 @@ final class FloatTensorTypeSupport extends AbstractTensorDataTypeSupport<FloatBu
     return FloatBuffer.allocate(calculateCapacityForShape(shape));
   }
 
+  @Override
+  public FloatBuffer allocateDirectBuffer(int capacity) {
+    return ByteBuffer.allocateDirect(capacity * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+  }
+
+  @Override
+  public void putBuffer(FloatBuffer target, FloatBuffer source) {
+    target.put(source);
+  }
+
   @Override
   public Tensor<Float> createTensor(long[] shape, FloatBuffer buffer) {
     return Tensor.create(shape, buffer);
@@ -45,14 +55,13 @@ final class FloatTensorTypeSupport extends AbstractTensorDataTypeSupport<FloatBu
   }
 
   @Override
-  public List<Field> createListField(Tensor<Float> tensor, FloatBuffer floatBuffer) {
-    List<Field> fields = new ArrayList<>();
-    tensor.writeTo(floatBuffer);
-    float[] floats = floatBuffer.array();
-    for (float aFloat : floats) {
-      fields.add(Field.create(aFloat));
-    }
-    return fields;
+  void writeTo(Tensor<Float> tensor, FloatBuffer buffer) {
+    tensor.writeTo(buffer);
+  }
+
+  @Override
+  Field createElementField(FloatBuffer buffer, int index) {
+    return Field.create(buffer.get(index));
   }
 
   @Override
@@ -20,9 +20,9 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.tensorflow.DataType;
 import org.tensorflow.Tensor;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 class IntTensorTypeSupport extends AbstractTensorDataTypeSupport<IntBuffer, Integer>{
   @Override
@@ -30,6 +30,16 @@ class IntTensorTypeSupport extends AbstractTensorDataTypeSupport<IntBuffer, Inte
     return IntBuffer.allocate(calculateCapacityForShape(shape));
   }
 
+  @Override
+  public IntBuffer allocateDirectBuffer(int capacity) {
+    return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+  }
+
+  @Override
+  public void putBuffer(IntBuffer target, IntBuffer source) {
+    target.put(source);
+  }
+
   @Override
   public Tensor<Integer> createTensor(long[] shape, IntBuffer buffer) {
     return Tensor.create(shape, buffer);
@@ -45,14 +55,13 @@ class IntTensorTypeSupport extends AbstractTensorDataTypeSupport<IntBuffer, Inte
   }
 
   @Override
-  public List<Field> createListField(Tensor<Integer> tensor, IntBuffer intBuffer) {
-    List<Field> fields = new ArrayList<>();
-    tensor.writeTo(intBuffer);
-    int[] ints = intBuffer.array();
-    for (int aInt : ints) {
-      fields.add(Field.create(aInt));
-    }
-    return fields;
+  void writeTo(Tensor<Integer> tensor, IntBuffer buffer) {
+    tensor.writeTo(buffer);
+  }
+
+  @Override
+  Field createElementField(IntBuffer buffer, int index) {
+    return Field.create(buffer.get(index));
   }
 
   @Override
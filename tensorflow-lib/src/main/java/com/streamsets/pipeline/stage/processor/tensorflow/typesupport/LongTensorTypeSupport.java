@@ -20,9 +20,9 @@ import com.streamsets.pipeline.api.impl.Utils;
 import org.tensorflow.DataType;
 import org.tensorflow.Tensor;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.LongBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 final class LongTensorTypeSupport extends AbstractTensorDataTypeSupport<LongBuffer, Long> {
   @Override
@@ -30,6 +30,16 @@ final class LongTensorTypeSupport extends AbstractTensorDataTypeSupport<LongBuff
     return LongBuffer.allocate(calculateCapacityForShape(shape));
   }
 
+  @Override
+  public LongBuffer allocateDirectBuffer(int capacity) {
+    return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+  }
+
+  @Override
+  public void putBuffer(LongBuffer target, LongBuffer source) {
+    target.put(source);
+  }
+
   @Override
   public Tensor<Long> createTensor(long[] shape, LongBuffer buffer) {
     return Tensor.create(shape, buffer);
@@ -45,14 +55,13 @@ final class LongTensorTypeSupport extends AbstractTensorDataTypeSupport<LongBuff
   }
 
   @Override
-  public List<Field> createListField(Tensor<Long> tensor, LongBuffer longBuffer) {
-    List<Field> fields = new ArrayList<>();
-    tensor.writeTo(longBuffer);
-    long[] longs = longBuffer.array();
-    for (long aLong : longs) {
-      fields.add(Field.create(aLong));
-    }
-    return fields;
+  void writeTo(Tensor<Long> tensor, LongBuffer buffer) {
+    tensor.writeTo(buffer);
+  }
+
+  @Override
+  Field createElementField(LongBuffer buffer, int index) {
+    return Field.create(buffer.get(index));
   }
 
   @Override
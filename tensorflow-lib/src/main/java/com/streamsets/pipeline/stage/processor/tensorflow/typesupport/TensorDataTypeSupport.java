@@ -20,15 +20,31 @@ import org.tensorflow.DataType;
 import org.tensorflow.Tensor;
 
 import java.nio.Buffer;
+import java.util.List;
 
 public interface TensorDataTypeSupport<BC extends Buffer, JC> {
   BC allocateBuffer(long[] shape);
 
+  /**
+   * Allocates a direct buffer in native byte order, which tensors are created from with a bulk copy.
+   */
+  BC allocateDirectBuffer(int capacity);
+
+  /**
+   * Copies the remaining elements of the source buffer into the target buffer.
+   */
+  void putBuffer(BC target, BC source);
+
   Tensor<JC> createTensor(long[] shape, BC buffer);
 
   void writeField(BC buffer, Field field);
 
   Field createFieldFromTensor(Tensor<JC> tensor);
 
+  /**
+   * Splits the tensor along its first dimension, creating a list field for every row.
+   */
+  List<Field> createRowFieldsFromTensor(Tensor<JC> tensor);
+
   DataType getDataType();
 }
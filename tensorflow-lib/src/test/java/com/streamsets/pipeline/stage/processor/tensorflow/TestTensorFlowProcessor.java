@@ -16,6 +16,7 @@
 package com.streamsets.pipeline.stage.processor.tensorflow;
 
 import com.streamsets.pipeline.api.Field;
+import com.streamsets.pipeline.api.OnRecordError;
 import com.streamsets.pipeline.api.Processor;
 import com.streamsets.pipeline.api.Record;
 import com.streamsets.pipeline.api.Stage;
@@ -28,6 +29,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.tensorflow.DataType;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -155,4 +157,92 @@ public class TestTensorFlowProcessor {
     Assert.assertEquals(2, expandDimsField.getValueAsLong());
   }
 
+  @Test
+  public void testProcessMicroBatches() throws StageException {
+    List<Record> recordByRecord = runIrisModel(createIrisProcessorBuilder().build(), createIrisRecords());
+    // batches larger than the micro-batch size are evaluated in a single model run of their own
+    List<Record> microBatched = runIrisModel(
+        createIrisProcessorBuilder().microBatching(true, 2).build(),
+        createIrisRecords()
+    );
+
+    Assert.assertEquals(3, microBatched.size());
+    for (int i = 0; i < microBatched.size(); i++) {
+      Assert.assertEquals(recordByRecord.get(i).get("/output"), microBatched.get(i).get("/output"));
+    }
+  }
+
+  @Test
+  public void testProcessMicroBatchesMissingField() throws StageException {
+    Record incomplete = createIrisRecord(6.4f, 2.8f, 5.6f, 2.2f);
+    incomplete.delete("/sepalWidth");
+    List<Record> records = Arrays.asList(createIrisRecord(6.4f, 2.8f, 5.6f, 2.2f), incomplete);
+
+    ProcessorRunner runner = new ProcessorRunner.Builder(
+        TensorFlowDProcessor.class,
+        createIrisProcessorBuilder().microBatching(true, 1000).build()
+    )
+        .addOutputLane("a")
+        .setOnRecordError(OnRecordError.TO_ERROR)
+        .build();
+    runner.runInit();
+    try {
+      StageRunner.Output output = runner.runProcess(records);
+      Assert.assertEquals(1, output.getRecords().get("a").size());
+      Assert.assertEquals(1, runner.getErrorRecords().size());
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private static TestTensorFlowProcessorBuilder createIrisProcessorBuilder() {
+    TestTensorFlowProcessorBuilder builder = new TestTensorFlowProcessorBuilder()
+        .modelPath(irisModelPath)
+        .modelTags(Collections.singletonList("serve"))
+        .useEntireBatch(false);
+    for (String input : Arrays.asList("PetalLength", "PetalWidth", "SepalLength", "SepalWidth")) {
+      builder.addInputConfigs(
+          input,
+          0,
+          Collections.singletonList("/" + Character.toLowerCase(input.charAt(0)) + input.substring(1)),
+          Collections.singletonList(1),
+          DataType.FLOAT
+      );
+    }
+    return builder
+        .addOutputConfigs("dnn/head/predictions/ExpandDims",0, DataType.FLOAT)
+        .addOutputConfigs("dnn/head/predictions/probabilities",0, DataType.FLOAT)
+        .outputField("/output");
+  }
+
+  private static List<Record> runIrisModel(Processor processor, List<Record> records) throws StageException {
+    ProcessorRunner runner = new ProcessorRunner.Builder(TensorFlowDProcessor.class, processor)
+        .addOutputLane("a")
+        .build();
+    runner.runInit();
+    try {
+      return runner.runProcess(records).getRecords().get("a");
+    } finally {
+      runner.runDestroy();
+    }
+  }
+
+  private static Record createIrisRecord(float petalLength, float petalWidth, float sepalLength, float sepalWidth) {
+    Record record = RecordCreator.create();
+    LinkedHashMap<String, Field> field = new LinkedHashMap<>();
+    field.put("petalLength", Field.create(petalLength));
+    field.put("petalWidth", Field.create(petalWidth));
+    field.put("sepalLength", Field.create(sepalLength));
+    field.put("sepalWidth", Field.create(sepalWidth));
+    record.set(Field.createListMap(field));
+    return record;
+  }
+
+  private static List<Record> createIrisRecords() {
+    return Arrays.asList(
+        createIrisRecord(6.4f, 2.8f, 5.6f, 2.2f),
+        createIrisRecord(5.0f, 2.3f, 3.3f, 1.0f),
+        createIrisRecord(4.9f, 3.1f, 1.5f, 0.1f)
+    );
+  }
 }
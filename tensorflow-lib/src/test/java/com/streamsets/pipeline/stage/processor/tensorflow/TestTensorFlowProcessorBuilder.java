@@ -45,6 +45,12 @@ class TestTensorFlowProcessorBuilder {
     return this;
   }
 
+  TestTensorFlowProcessorBuilder microBatching(boolean microBatching, int maxMicroBatchSize){
+    conf.microBatching = microBatching;
+    conf.maxMicroBatchSize = maxMicroBatchSize;
+    return this;
+  }
+
   TestTensorFlowProcessorBuilder outputField(String outputField){
     conf.outputField = outputField;
     return this;